@@ -0,0 +1,94 @@
+package cz.paulrz.montecarlo.bench;
+
+import cern.colt.matrix.DoubleFactory1D;
+import cern.colt.matrix.DoubleFactory2D;
+import cz.paulrz.montecarlo.multi.*;
+import cz.paulrz.montecarlo.single.AntitheticBridgedPathGenerator1D;
+import cz.paulrz.montecarlo.single.GeometricBrownianMotionProcess;
+import org.apache.commons.math.MathException;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares antithetic bridged generation of one-factor geometric Brownian
+ * paths by {@link AntitheticBridgedPathGenerator1D}, by the matrix
+ * {@link AntitheticPathGenerator} and by {@link FlatPathGenerator} with
+ * antithetic pairs and the multi-factor bridge, stepping the process
+ * natively and through {@link FlatProcessAdapter}.
+ *
+ * Build and run with
+ * <pre>
+ * mvn -Pvector test-compile
+ * mvn -Pvector exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath cz.paulrz.montecarlo.bench.AntitheticBenchmark"
+ * </pre>
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AntitheticBenchmark {
+    @Param({"252"})
+    public int timeSteps;
+
+    private AntitheticBridgedPathGenerator1D single;
+    private cz.paulrz.montecarlo.single.Path singlePath;
+    private AntitheticPathGenerator matrix;
+    private FlatPathGenerator flat;
+    private FlatPathGenerator adapted;
+    private FlatPath flatPath;
+
+    @Setup
+    public void setUp() {
+        final GeometricBrownianMotion process = new GeometricBrownianMotion(
+                DoubleFactory1D.dense.make(1, 1.0), DoubleFactory1D.dense.make(1, 0.05),
+                DoubleFactory2D.dense.make(1, 1, 0.2));
+
+        single = new AntitheticBridgedPathGenerator1D(new GeometricBrownianMotionProcess(1.0, 0.05, 0.2),
+                timeSteps, 1.0, new TableGenerator());
+        singlePath = new cz.paulrz.montecarlo.single.Path(timeSteps, 1.0 / timeSteps);
+        matrix = new AntitheticPathGenerator(process, timeSteps, 1.0, new TableGenerator());
+        flat = new FlatPathGenerator(process, timeSteps, 1.0, new TableGenerator(), true, true);
+        adapted = new FlatPathGenerator(new FlatProcessAdapter(process), timeSteps, 1.0, new TableGenerator(),
+                true, true);
+        flatPath = new FlatPath(1, timeSteps, 1.0 / timeSteps);
+    }
+
+    @Benchmark
+    public cz.paulrz.montecarlo.single.Path singlePath() throws MathException {
+        single.nextInto(singlePath);
+        return singlePath;
+    }
+
+    @Benchmark
+    public Path matrixPath() throws MathException {
+        return matrix.next();
+    }
+
+    @Benchmark
+    public FlatPath flatPath() {
+        flat.nextInto(flatPath);
+        return flatPath;
+    }
+
+    @Benchmark
+    public FlatPath adaptedPath() {
+        adapted.nextInto(flatPath);
+        return flatPath;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(AntitheticBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,111 @@
+package cz.paulrz.montecarlo.bench;
+
+import cz.paulrz.montecarlo.random.FastGaussianRandomGenerator;
+import cz.paulrz.montecarlo.single.*;
+import org.apache.commons.math.FunctionEvaluationException;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares one time step of a block of paths done by the scalar per-path
+ * {@link GenericProcess1D#evolve} loop, the scalar batch kernels and the
+ * vector batch kernels.
+ *
+ * Build and run with
+ * <pre>
+ * mvn -Pvector test-compile
+ * mvn -Pvector exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="--add-modules jdk.incubator.vector -cp %classpath cz.paulrz.montecarlo.bench.BatchKernelBenchmark"
+ * </pre>
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@State(Scope.Thread)
+public class BatchKernelBenchmark {
+    private static final double dt = 1.0 / 252;
+
+    @Param({"gbm", "ou", "logou", "expou"})
+    public String processName;
+
+    @Param({"1024"})
+    public int count;
+
+    private StochasticProcess1D process;
+    private BatchProcess1D batchProcess;
+    private double[] x;
+    private double[] dw;
+    private double[] out;
+
+    @Setup
+    public void setUp() {
+        if ("gbm".equals(processName))
+            process = new GeometricBrownianMotionProcess(1.0, 0.05, 0.2);
+        else if ("ou".equals(processName))
+            process = new OrnsteinUhlenbeckProcess(1.0, 2.0, 1.0, 0.2);
+        else if ("logou".equals(processName))
+            process = new LogOrnsteinUhlenbeckProcess(1.0, 2.0, 1.0, 0.2);
+        else
+            process = new ExpOrnsteinUhlenbeckProcess(1.0, 2.0, 0.0, 0.2);
+        batchProcess = (BatchProcess1D) process;
+
+        final FastGaussianRandomGenerator random = new FastGaussianRandomGenerator();
+        x = new double[count];
+        dw = new double[count];
+        out = new double[count];
+        for (int p = 0; p < count; ++p) {
+            x[p] = 1.0 + 0.1 * random.nextNormalizedDouble();
+            dw[p] = random.nextNormalizedDouble();
+        }
+    }
+
+    @Benchmark
+    public double[] scalarEvolve() throws FunctionEvaluationException {
+        for (int p = 0; p < count; ++p)
+            out[p] = process.evolve(0.0, x[p], dt, dw[p]);
+        return out;
+    }
+
+    /**
+     * Kernels of the batch benchmark, selected once per trial. The
+     * selection is global, so it is shared by all benchmark threads.
+     */
+    @State(Scope.Benchmark)
+    public static class Kernels {
+        @Param({"scalar", "vector"})
+        public String kernels;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            final boolean vector = "vector".equals(kernels);
+            if (BatchKernels.setVectorEnabled(vector) != vector)
+                throw new IllegalStateException("vector kernels are not available");
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            BatchKernels.setVectorEnabled(Boolean.getBoolean(BatchKernels.vectorProperty));
+        }
+    }
+
+    @Benchmark
+    public double[] batch(Kernels kernels) throws FunctionEvaluationException {
+        batchProcess.evolveBatch(0.0, x, dt, dw, out, count);
+        return out;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(BatchKernelBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,85 @@
+package cz.paulrz.montecarlo.bench;
+
+import cern.colt.matrix.DoubleFactory1D;
+import cern.colt.matrix.DoubleFactory2D;
+import cern.colt.matrix.DoubleMatrix1D;
+import cern.colt.matrix.DoubleMatrix2D;
+import cern.colt.matrix.linalg.Blas;
+import cern.colt.matrix.linalg.SeqBlas;
+import cern.colt.matrix.linalg.SmpBlas;
+import cz.paulrz.montecarlo.multi.SizeAwareBlas;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares y = A*x + y of {@link SizeAwareBlas} with Colt's
+ * {@link DoubleMatrix2D#zMult} (which {@link SeqBlas} delegates to) and
+ * with {@link SmpBlas} over square sizes from a few factors, where the
+ * unrolled kernels apply, up to the sizes around the parallel threshold.
+ *
+ * The parallel crossover depends on the number of cores, run it on the
+ * target machine and pass the size where smp overtakes zMult as
+ * cz.paulrz.montecarlo.parallelBlasThreshold.
+ *
+ * Build and run with
+ * <pre>
+ * mvn -Pvector test-compile
+ * mvn -Pvector exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath cz.paulrz.montecarlo.bench.BlasBenchmark"
+ * </pre>
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BlasBenchmark {
+    @Param({"2", "4", "8", "16", "64", "256", "512"})
+    public int n;
+
+    private final Blas sizeAware = new SizeAwareBlas(Runtime.getRuntime().availableProcessors());
+    private Blas smp;
+    private DoubleMatrix2D a;
+    private DoubleMatrix1D x;
+    private DoubleMatrix1D y;
+
+    @Setup
+    public void setUp() {
+        SmpBlas.allocateBlas(Math.max(2, Runtime.getRuntime().availableProcessors()), SeqBlas.seqBlas);
+        smp = SmpBlas.smpBlas;
+        a = DoubleFactory2D.dense.random(n, n);
+        x = DoubleFactory1D.dense.random(n);
+        y = DoubleFactory1D.dense.make(n);
+    }
+
+    @Benchmark
+    public DoubleMatrix1D sizeAware() {
+        sizeAware.dgemv(false, 1.0, a, x, 1.0, y);
+        return y;
+    }
+
+    @Benchmark
+    public DoubleMatrix1D zMult() {
+        return a.zMult(x, y, 1.0, 1.0, false);
+    }
+
+    @Benchmark
+    public DoubleMatrix1D smp() {
+        smp.dgemv(false, 1.0, a, x, 1.0, y);
+        return y;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(BlasBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,103 @@
+package cz.paulrz.montecarlo.bench;
+
+import cern.colt.matrix.DoubleFactory1D;
+import cern.colt.matrix.DoubleFactory2D;
+import cern.colt.matrix.DoubleMatrix2D;
+import cern.colt.matrix.linalg.CholeskyDecomposition;
+import cz.paulrz.montecarlo.multi.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares one path of a large basket with the same covariance
+ * B*B' + diag(s^2) simulated by the dense {@link GeometricBrownianMotion}
+ * (full Cholesky factor as sigma), by {@link GeometricBrownianBasket}
+ * (packed triangular factor) and by {@link FactorGeometricBasket}
+ * (loadings and idiosyncratic volatilities). All run on the flat engine.
+ *
+ * Build and run with
+ * <pre>
+ * mvn -Pvector test-compile
+ * mvn -Pvector exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath cz.paulrz.montecarlo.bench.FactorModelBenchmark"
+ * </pre>
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FactorModelBenchmark {
+    private static final int factors = 5;
+
+    @Param({"500"})
+    public int assets;
+
+    @Param({"52"})
+    public int timeSteps;
+
+    private FlatPathGenerator dense;
+    private FlatPathGenerator triangular;
+    private FlatPathGenerator factorModel;
+    private FlatPath path;
+
+    @Setup
+    public void setUp() {
+        final DoubleMatrix2D loadings = DoubleFactory2D.dense.make(assets, factors);
+        for (int i = 0; i < assets; ++i)
+            for (int j = 0; j < factors; ++j)
+                loadings.setQuick(i, j, 0.05 + 0.02 * ((i + j) % 3));
+
+        final DoubleMatrix2D cov = loadings.zMult(loadings, null, 1.0, 0.0, false, true);
+        for (int i = 0; i < assets; ++i) {
+            cov.setQuick(i, i, cov.getQuick(i, i) + 0.04);
+            for (int j = 0; j < i; ++j)
+                cov.setQuick(j, i, cov.getQuick(i, j));
+        }
+        final DoubleMatrix2D cholesky = new CholeskyDecomposition(cov).getL();
+
+        final GenericProcess gbm = new GeometricBrownianMotion(DoubleFactory1D.dense.make(assets, 1.0),
+                DoubleFactory1D.dense.make(assets, 0.05), cholesky);
+        final GenericProcess basket = new GeometricBrownianBasket(DoubleFactory1D.dense.make(assets, 1.0),
+                DoubleFactory1D.dense.make(assets, 0.05), cholesky);
+        final GenericProcess factor = new FactorGeometricBasket(DoubleFactory1D.dense.make(assets, 1.0),
+                DoubleFactory1D.dense.make(assets, 0.05), loadings, DoubleFactory1D.dense.make(assets, 0.2));
+
+        dense = new FlatPathGenerator(gbm, timeSteps, 1.0, new TableGenerator());
+        triangular = new FlatPathGenerator(basket, timeSteps, 1.0, new TableGenerator());
+        factorModel = new FlatPathGenerator(factor, timeSteps, 1.0, new TableGenerator());
+        path = new FlatPath(assets, timeSteps, 1.0 / timeSteps);
+    }
+
+    @Benchmark
+    public FlatPath denseGbm() {
+        dense.nextInto(path);
+        return path;
+    }
+
+    @Benchmark
+    public FlatPath triangularBasket() {
+        triangular.nextInto(path);
+        return path;
+    }
+
+    @Benchmark
+    public FlatPath factorBasket() {
+        factorModel.nextInto(path);
+        return path;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(FactorModelBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
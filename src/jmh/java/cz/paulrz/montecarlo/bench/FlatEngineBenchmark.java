@@ -0,0 +1,110 @@
+package cz.paulrz.montecarlo.bench;
+
+import cern.colt.matrix.DoubleFactory1D;
+import cern.colt.matrix.DoubleFactory2D;
+import cern.colt.matrix.DoubleMatrix1D;
+import cern.colt.matrix.DoubleMatrix2D;
+import cz.paulrz.montecarlo.multi.*;
+import org.apache.commons.math.MathException;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares generation of one multi-factor path by the Colt matrix engine
+ * ({@link SimplePathGenerator}) and by the flat engine
+ * ({@link FlatPathGenerator}). Both are driven by a table of pre-drawn
+ * variates, the time of normal generation is the same for both engines.
+ * The 50-asset cases compare the dense {@link GeometricBrownianMotion}
+ * with the log-exact {@link GeometricBrownianBasket}.
+ *
+ * Build and run with
+ * <pre>
+ * mvn -Pvector test-compile
+ * mvn -Pvector exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath cz.paulrz.montecarlo.bench.FlatEngineBenchmark"
+ * </pre>
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FlatEngineBenchmark {
+    private static final int basketSize = 50;
+
+    @Param({"heston", "gbm", "gbm50", "basket50"})
+    public String processName;
+
+    @Param({"252"})
+    public int timeSteps;
+
+    private SimplePathGenerator matrix;
+    private FlatPathGenerator flat;
+    private FlatPath path;
+
+    @Setup
+    public void setUp() {
+        final GenericProcess process;
+        if ("heston".equals(processName))
+            process = new HestonProcess(0.02, 1.0, 0.04, 1.5, 0.04, 0.3, -0.7);
+        else if ("gbm50".equals(processName))
+            process = new GeometricBrownianMotion(constant(basketSize, 1.0), constant(basketSize, 0.05),
+                    basketFactor());
+        else if ("basket50".equals(processName))
+            process = new GeometricBrownianBasket(constant(basketSize, 1.0), constant(basketSize, 0.05),
+                    basketFactor());
+        else
+            process = new GeometricBrownianMotion(
+                    DoubleFactory1D.dense.make(new double[] {1.0, 1.0, 1.0}),
+                    DoubleFactory1D.dense.make(new double[] {0.05, 0.05, 0.05}),
+                    DoubleFactory2D.dense.make(new double[][] {
+                            {0.2, 0.0, 0.0}, {0.1, 0.2, 0.0}, {0.1, 0.1, 0.2} }));
+
+        matrix = new SimplePathGenerator(process, timeSteps, 1.0, new TableGenerator());
+        flat = new FlatPathGenerator(process, timeSteps, 1.0, new TableGenerator());
+        path = new FlatPath(process.getDimension(), timeSteps, 1.0 / timeSteps);
+    }
+
+    private static DoubleMatrix1D constant(int n, double value) {
+        return DoubleFactory1D.dense.make(n, value);
+    }
+
+    /**
+     * One common factor with 0.5 correlation and 20% volatility
+     */
+    private static DoubleMatrix2D basketFactor() {
+        final DoubleMatrix2D sigma = DoubleFactory2D.dense.make(basketSize, basketSize);
+        for (int i = 0; i < basketSize; ++i) {
+            sigma.setQuick(i, 0, 0.2 * Math.sqrt(0.5));
+            if (i > 0)
+                sigma.setQuick(i, i, 0.2 * Math.sqrt(0.5));
+        }
+        sigma.setQuick(0, 0, 0.2);
+        return sigma;
+    }
+
+    @Benchmark
+    public Path matrixPath() throws MathException {
+        return matrix.next();
+    }
+
+    @Benchmark
+    public FlatPath flatPath() {
+        flat.nextInto(path);
+        return path;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(FlatEngineBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,24 @@
+package cz.paulrz.montecarlo.bench;
+
+import cz.paulrz.montecarlo.random.FastGaussianRandomGenerator;
+import org.apache.commons.math.random.NormalizedRandomGenerator;
+
+/**
+ * Replays pre-drawn variates, so the generator cost does not hide the
+ * engine overhead in benchmarks
+ */
+final class TableGenerator implements NormalizedRandomGenerator {
+    private final double[] table = new double[4096];
+    private int next = 0;
+
+    TableGenerator() {
+        final FastGaussianRandomGenerator random = new FastGaussianRandomGenerator();
+        for (int i = 0; i < table.length; ++i)
+            table[i] = random.nextNormalizedDouble();
+    }
+
+    public double nextNormalizedDouble() {
+        next = (next + 1) & (table.length - 1);
+        return table[next];
+    }
+}
@@ -0,0 +1,23 @@
+package cz.paulrz.montecarlo.mlmc;
+
+import org.apache.commons.math.MathException;
+import org.apache.commons.math.random.NormalizedRandomGenerator;
+
+/**
+ * Sampler of the level corrections of multilevel Monte Carlo. Level l
+ * simulates a fine path with baseSteps * 2^l steps and, for l > 0, the
+ * coarse path with half the steps driven by the same Brownian motion.
+ *
+ * Samplers are shared by the worker threads and must not keep mutable state.
+ *
+ */
+public interface LevelSampler {
+    /**
+     * Samples one level correction
+     *
+     * @param level Level index
+     * @param random Random generator owned by the calling thread
+     * @return P_l - P_(l-1) for the coupled paths, P_0 at level 0
+     */
+    double sample(int level, NormalizedRandomGenerator random) throws MathException;
+}
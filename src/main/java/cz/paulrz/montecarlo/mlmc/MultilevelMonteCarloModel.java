@@ -0,0 +1,243 @@
+package cz.paulrz.montecarlo.mlmc;
+
+import cz.paulrz.montecarlo.accumulator.SimpleAccumulator;
+import cz.paulrz.montecarlo.parallel.CpuPool;
+import cz.paulrz.montecarlo.random.RandomGeneratorFactory;
+import org.apache.commons.math.MathException;
+import org.apache.commons.math.random.NormalizedRandomGenerator;
+import org.apache.commons.math.util.FastMath;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Multilevel Monte Carlo engine (Giles). The estimate is the sum of the
+ * means of the level corrections P_l - P_(l-1), whose variance decays
+ * with the step, so most samples are taken on the cheap coarse levels.
+ *
+ * Variance and cost per sample of each level are estimated online, the
+ * cost is measured time. {@link #estimate(double, int)} adds levels until
+ * the bias estimate is below the tolerance and allocates samples
+ * optimally, N_l proportional to sqrt(V_l / C_l). Samples of all levels
+ * of an allocation round run in parallel on {@link CpuPool}.
+ */
+public final class MultilevelMonteCarloModel {
+    private static final int minChunk = 64;
+
+    private final LevelSampler sampler;
+    private final RandomGeneratorFactory randomFactory;
+    private final int maxLevel;
+    private final double alpha;
+    private final SimpleAccumulator[] levelStats;
+    private final long[] levelNanos;
+    private int levels = 0;
+
+    /**
+     * Constructor of the engine with weak order 1 (Euler)
+     *
+     * @param sampler Level sampler
+     * @param randomFactory Factory of per-task random generators
+     * @param maxLevel Finest allowed level
+     */
+    public MultilevelMonteCarloModel(LevelSampler sampler, RandomGeneratorFactory randomFactory,
+                                     int maxLevel) {
+        this(sampler, randomFactory, maxLevel, 1.0);
+    }
+
+    /**
+     * Constructor of the engine
+     *
+     * @param sampler Level sampler
+     * @param randomFactory Factory of per-task random generators
+     * @param maxLevel Finest allowed level
+     * @param alpha Weak order of the discretization, used by the bias estimate
+     */
+    public MultilevelMonteCarloModel(LevelSampler sampler, RandomGeneratorFactory randomFactory,
+                                     int maxLevel, double alpha) {
+        this.sampler = sampler;
+        this.randomFactory = randomFactory;
+        this.maxLevel = maxLevel;
+        this.alpha = alpha;
+        levelStats = new SimpleAccumulator[maxLevel + 1];
+        levelNanos = new long[maxLevel + 1];
+        for (int l = 0; l <= maxLevel; ++l)
+            levelStats[l] = new SimpleAccumulator();
+    }
+
+    /**
+     * Runs the adaptive algorithm until the root mean square error
+     * estimate is below eps, or the finest level is reached
+     *
+     * @param eps Target root mean square error
+     * @param initialSamples Samples of a newly added level
+     * @return Estimate
+     */
+    public double estimate(final double eps, final int initialSamples) throws MathException {
+        if (levels == 0)
+            levels = Math.min(3, maxLevel + 1);
+
+        final int[] extra = new int[maxLevel + 1];
+        for (int l = 0; l < levels; ++l)
+            extra[l] = Math.max(0, initialSamples - getSamples(l));
+
+        while (true) {
+            addSamples(extra);
+
+            // optimal allocation for the variance eps^2 / 2
+            double sum = 0.0;
+            for (int l = 0; l < levels; ++l)
+                sum += FastMath.sqrt(getVariance(l) * getCost(l));
+            boolean done = true;
+            for (int l = 0; l < levels; ++l) {
+                final double n = 2.0 / (eps * eps) * FastMath.sqrt(getVariance(l) / getCost(l)) * sum;
+                extra[l] = Math.max(0, (int) FastMath.ceil(n) - getSamples(l));
+                if (extra[l] > 0.01 * getSamples(l))
+                    done = false;
+            }
+            if (!done)
+                continue;
+
+            // bias eps / sqrt(2) from the decay of the finest corrections
+            final double scale = FastMath.pow(2.0, alpha);
+            final double last = FastMath.abs(getMean(levels - 1));
+            final double prev = levels > 1 ? FastMath.abs(getMean(levels - 2)) / scale : 0.0;
+            if (Math.max(last, prev) / (scale - 1.0) <= eps / FastMath.sqrt(2.0) || levels > maxLevel)
+                return getEstimate();
+
+            extra[levels] = initialSamples;
+            levels++;
+        }
+    }
+
+    /**
+     * Adds samples to one level
+     *
+     * @param level Level index
+     * @param samples Number of samples
+     */
+    public void addSamples(final int level, final int samples) throws MathException {
+        final int[] counts = new int[maxLevel + 1];
+        counts[level] = samples;
+        levels = Math.max(levels, level + 1);
+        addSamples(counts);
+    }
+
+    private void addSamples(final int[] counts) throws MathException {
+        final List<Future<Chunk>> executionList = new ArrayList<Future<Chunk>>();
+        for (int l = 0; l < counts.length; ++l) {
+            final int chunks = Math.max(1, Math.min(CpuPool.numOfCpu, counts[l] / minChunk));
+            for (int c = 0; c < chunks && counts[l] > 0; ++c) {
+                final int size = counts[l] / chunks + (c < counts[l] % chunks ? 1 : 0);
+                executionList.add(CpuPool.executorService.submit(new LevelWorker(l, size)));
+            }
+        }
+
+        for (Future<Chunk> future : executionList) {
+            try {
+                final Chunk chunk = future.get();
+                final SimpleAccumulator stats = levelStats[chunk.level];
+                for (double value : chunk.values)
+                    stats.addValue(value);
+                levelNanos[chunk.level] += chunk.nanos;
+            } catch (InterruptedException e) {
+                throw new MathException(e);
+            } catch (ExecutionException e) {
+                throw new MathException(e);
+            }
+        }
+    }
+
+    /**
+     * Gets the multilevel estimate, i.e. sum of the level means
+     *
+     * @return Estimate
+     */
+    public double getEstimate() {
+        double result = 0.0;
+        for (int l = 0; l < levels; ++l)
+            result += getMean(l);
+        return result;
+    }
+
+    /**
+     * Gets the standard error of the estimate
+     *
+     * @return sqrt(sum of V_l / N_l)
+     */
+    public double getStandardError() {
+        double result = 0.0;
+        for (int l = 0; l < levels; ++l)
+            result += getVariance(l) / getSamples(l);
+        return FastMath.sqrt(result);
+    }
+
+    public int getLevels() {
+        return levels;
+    }
+
+    /**
+     * Gets statistics of the corrections of a level
+     *
+     * @param level Level index
+     * @return Statistics summary
+     */
+    public SimpleAccumulator getLevelStats(int level) {
+        return levelStats[level];
+    }
+
+    public int getSamples(int level) {
+        return (int) levelStats[level].stats.getN();
+    }
+
+    public double getMean(int level) {
+        return levelStats[level].stats.getMean();
+    }
+
+    public double getVariance(int level) {
+        return levelStats[level].stats.getVariance();
+    }
+
+    /**
+     * Gets measured cost per sample of a level
+     *
+     * @param level Level index
+     * @return Nanoseconds per sample
+     */
+    public double getCost(int level) {
+        return Math.max(1.0, levelNanos[level] / (double) Math.max(1, getSamples(level)));
+    }
+
+    private static final class Chunk {
+        private final int level;
+        private final double[] values;
+        private final long nanos;
+
+        Chunk(int level, double[] values, long nanos) {
+            this.level = level;
+            this.values = values;
+            this.nanos = nanos;
+        }
+    }
+
+    private final class LevelWorker implements Callable<Chunk> {
+        private final int level;
+        private final int samples;
+
+        LevelWorker(int level, int samples) {
+            this.level = level;
+            this.samples = samples;
+        }
+
+        public Chunk call() throws Exception {
+            final NormalizedRandomGenerator random = randomFactory.newGenerator();
+            final double[] values = new double[samples];
+            final long start = System.nanoTime();
+            for (int i = 0; i < samples; ++i)
+                values[i] = sampler.sample(level, random);
+            return new Chunk(level, values, System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package cz.paulrz.montecarlo.multi;
+
+import cern.colt.matrix.DoubleFactory1D;
+import cern.colt.matrix.DoubleMatrix1D;
+import cern.colt.matrix.DoubleMatrix2D;
+import cern.jet.math.Functions;
+import cz.paulrz.montecarlo.schedule.ObservationSchedule;
+import org.apache.commons.math.random.NormalizedRandomGenerator;
+import org.apache.commons.math.util.FastMath;
+
+/**
+ * Path generator with adaptive time stepping, see
+ * {@link cz.paulrz.montecarlo.single.AdaptivePathGenerator1D}. The error
+ * indicator is the largest variation of a drift or diffusion element over
+ * the step, probed at x + a(x)*h +- b(x)*1*sqrt(h), i.e. along the sum of
+ * the factor columns. Brownian increments of all factors are refined by
+ * the bridge.
+ *
+ * Steps are coarsened as well as refined. Paths of {@link #next()} and
+ * {@link #stream(PathObserver)} need every grid point, so each grid
+ * interval starts with one step. {@link #nextObserved(ObservedPath)}
+ * needs the scheduled points only and starts with one step from one
+ * observation to the next, halved where the indicator requires. Steps are
+ * never shorter than the grid step divided by 2^maxDepth.
+ *
+ * Like the other generators it keeps scratch state and is used by one
+ * thread, parallel models create a generator per worker.
+ */
+public final class AdaptivePathGenerator implements PathGenerator {
+    public static final int defaultMaxDepth = 8;
+
+    private final StochasticProcess process;
+    private final int timeSteps;
+    private final double dt;
+    private final NormalizedRandomGenerator generator;
+    private final int processDimension;
+    private final int noiseDimension;
+    private final double tolerance;
+    private final double minStep;
+    private long stepCount = 0;
+
+    // increments of the interval and of the halves at each depth of the bisection
+    private final double[] increment;
+    private final double[][] left;
+    private final double[][] right;
+    private final DoubleMatrix1D dw;
+    private final DoubleMatrix1D a;
+    private final DoubleMatrix1D up;
+    private final DoubleMatrix1D down;
+
+    public AdaptivePathGenerator(StochasticProcess process, int timeSteps, double duration,
+                                 NormalizedRandomGenerator generator, double tolerance) {
+        this(process, timeSteps, duration, generator, tolerance, defaultMaxDepth);
+    }
+
+    /**
+     * Constructor of AdaptivePathGenerator
+     *
+     * @param process Stochastic Process
+     * @param timeSteps Number of time steps of the emitted paths
+     * @param duration Total duration of the process
+     * @param generator Random generator of normalized real values
+     * @param tolerance Local error tolerance relative to max(1, |x|)
+     * @param maxDepth Maximal number of halvings of a grid interval
+     */
+    public AdaptivePathGenerator(StochasticProcess process, int timeSteps, double duration,
+                                 NormalizedRandomGenerator generator, double tolerance, int maxDepth) {
+        this.process = process;
+        processDimension = process.getDimension();
+        noiseDimension = process.getNoiseDimension();
+        this.timeSteps = timeSteps;
+        this.generator = generator;
+        this.dt = duration / timeSteps;
+        this.tolerance = tolerance;
+        this.minStep = dt / (1L << maxDepth);
+
+        // an interval of the whole path is halved at most log2(timeSteps) times more
+        final int depth = maxDepth + 32 - Integer.numberOfLeadingZeros(timeSteps);
+        increment = new double[noiseDimension];
+        left = new double[depth][noiseDimension];
+        right = new double[depth][noiseDimension];
+        dw = DoubleFactory1D.dense.make(noiseDimension);
+        a = DoubleFactory1D.dense.make(processDimension);
+        up = DoubleFactory1D.dense.make(processDimension);
+        down = DoubleFactory1D.dense.make(processDimension);
+    }
+
+    /**
+     * Gets number of accepted steps of all paths generated by this generator
+     *
+     * @return Number of steps
+     */
+    public long getStepCount() {
+        return stepCount;
+    }
+
+    public Path next() {
+        final Path path = new Path(processDimension, timeSteps, dt);
+        path.addValue(process.getInitialVector());
+
+        double t = 0.0;
+        for (int i = 1; i < timeSteps; ++i) {
+            path.addValue(step(t, path.getValues(i - 1), dt, increment(dt), 0));
+            t += dt;
+        }
+
+        return path;
+    }
+
+    public void nextObserved(final ObservedPath path) {
+        final ObservationSchedule schedule = path.getSchedule();
+        schedule.checkLength(timeSteps);
+
+        DoubleMatrix1D x = process.getInitialVector();
+        int next = 0;
+        if (schedule.getStep(0) == 0)
+            path.setValue(next++, x);
+
+        int previous = 0;
+        for (; next < schedule.size(); ++next) {
+            final int current = schedule.getStep(next);
+            final double h = (current - previous) * dt;
+            x = step(previous * dt, x, h, increment(h), 0);
+            path.setValue(next, x);
+            previous = current;
+        }
+    }
+
+    public void stream(final PathObserver<?> observer) {
+        DoubleMatrix1D x = process.getInitialVector();
+        observer.start(x);
+        if (StoppablePathObserver.isDone(observer))
+            return;
+
+        double t = 0.0;
+        for (int i = 1; i < timeSteps; ++i) {
+            x = step(t, x, dt, increment(dt), 0);
+            observer.observe(x);
+            if (StoppablePathObserver.isDone(observer))
+                return;
+            t += dt;
+        }
+    }
+
+    /**
+     * Integrates interval [t, t+h] with Brownian increment w
+     */
+    private DoubleMatrix1D step(final double t, final DoubleMatrix1D x, final double h,
+                                final double[] w, final int depth) {
+        if (h <= minStep || indicator(t, x, h) <= tolerance * Math.max(1.0, x.aggregate(Functions.max, Functions.abs))) {
+            stepCount++;
+            final double norm = 1.0 / FastMath.sqrt(h);
+            for (int f = 0; f < noiseDimension; ++f)
+                dw.setQuick(f, w[f] * norm);
+            return process.evolveMatrix(t, x, h, dw);
+        }
+
+        // bridge midpoints of the increments
+        final double half = 0.5 * h;
+        final double sh = 0.5 * FastMath.sqrt(h);
+        final double[] w1 = left[depth];
+        final double[] w2 = right[depth];
+        for (int f = 0; f < noiseDimension; ++f) {
+            w1[f] = 0.5 * w[f] + sh * generator.nextNormalizedDouble();
+            w2[f] = w[f] - w1[f];
+        }
+
+        final DoubleMatrix1D x1 = step(t, x, half, w1, depth + 1);
+        return step(t + half, x1, half, w2, depth + 1);
+    }
+
+    private double indicator(final double t, final DoubleMatrix1D x, final double h) {
+        final int n = x.size();
+        final double sh = FastMath.sqrt(h);
+        a.assign(process.drift(t, x));
+        final DoubleMatrix2D b = process.diffusion(t, x);
+        final int columns = b.columns();
+        for (int i = 0; i < n; ++i) {
+            double bs = 0.0;
+            for (int j = 0; j < columns; ++j)
+                bs += b.getQuick(i, j);
+            bs *= sh;
+            final double xi = x.getQuick(i) + a.getQuick(i) * h;
+            up.setQuick(i, xi + bs);
+            down.setQuick(i, xi - bs);
+        }
+
+        final DoubleMatrix1D aup = process.drift(t, up);
+        final DoubleMatrix1D adown = process.drift(t, down);
+        final DoubleMatrix2D bup = process.diffusion(t, up);
+        final DoubleMatrix2D bdown = process.diffusion(t, down);
+        double result = 0.0;
+        for (int i = 0; i < n; ++i) {
+            double db = 0.0;
+            for (int j = 0; j < columns; ++j)
+                db = Math.max(db, FastMath.abs(bup.getQuick(i, j) - bdown.getQuick(i, j)));
+            final double da = FastMath.abs(aup.getQuick(i) - a.getQuick(i))
+                    + FastMath.abs(adown.getQuick(i) - a.getQuick(i));
+            result = Math.max(result, 0.5 * h * da + 0.5 * sh * db);
+        }
+        return result;
+    }
+
+    /**
+     * Draws Brownian increment of an interval into the scratch array
+     *
+     * @param h Length of the interval
+     * @return Scratch array
+     */
+    private double[] increment(final double h) {
+        final double sh = FastMath.sqrt(h);
+        for (int f = 0; f < noiseDimension; ++f)
+            increment[f] = sh * generator.nextNormalizedDouble();
+        return increment;
+    }
+}
@@ -2,6 +2,7 @@ package cz.paulrz.montecarlo.multi;
 
 import cern.colt.matrix.DoubleFactory1D;
 import cern.colt.matrix.DoubleMatrix1D;
+import cz.paulrz.montecarlo.schedule.ObservationSchedule;
 import org.apache.commons.math.FunctionEvaluationException;
 import org.apache.commons.math.random.NormalizedRandomGenerator;
 
@@ -13,10 +14,13 @@ import org.apache.commons.math.random.NormalizedRandomGenerator;
 public final class AntitheticPathGenerator implements PathGenerator {
     private final GenericProcess process;
     private final int dim;
+    private final int noise;
     private final int timeSteps;
     private final double dt;
     private final NormalizedRandomGenerator generator;
-    private Path nextPath = null;
+    private final double[] increments;
+    private boolean pending = false;
+    private final DoubleMatrix1D dw;
 
     /**
      * Constructor of SimplePathGenerator1D
@@ -30,45 +34,98 @@ public final class AntitheticPathGenerator implements PathGenerator {
                                      double duration, NormalizedRandomGenerator generator) {
         this.process = process;
         dim = process.getDimension();
+        noise = process.getNoiseDimension();
         this.timeSteps = timeSteps;
         this.generator = generator;
         this.dt = duration / timeSteps;
+        dw = DoubleFactory1D.dense.make(noise);
+        increments = new double[timeSteps * noise];
     }
 
     public Path next() throws FunctionEvaluationException {
-        if (nextPath!=null)
-        {
-            final Path retPath = nextPath;
-            nextPath = null;
-            return retPath;
-        }
-
+        final double sign = nextSign();
         final Path path = new Path(dim, timeSteps, dt);
-        nextPath = new Path(dim, timeSteps, dt);
-        path.addValue(process.getInitialVector());
-        nextPath.addValue(process.getInitialVector());
+        DoubleMatrix1D x = process.getInitialVector();
+        path.addValue(x);
 
         double t = 0.0;
         for (int i = 1; i < timeSteps; ++i) {
-            final DoubleMatrix1D[] dw = generate();
-            path.addValue(process.evolveMatrix(t, path.getValues(i - 1), dt, dw[0]));
-            nextPath.addValue(process.evolveMatrix(t, path.getValues(i - 1), dt, dw[1]));
+            x = process.evolveMatrix(t, x, dt, increment(i, sign));
+            path.addValue(x);
             t += dt;
         }
 
         return path;
     }
 
-    private DoubleMatrix1D[] generate()
-    {
-        final double[] result = new double[dim];
-        final double[] antiresult = new double[dim];
-        for(int i=0; i< dim; ++i)
-        {
-            result[i] = generator.nextNormalizedDouble();
-            antiresult[i] = - result[i];
+    public void nextObserved(final ObservedPath path) throws FunctionEvaluationException {
+        final ObservationSchedule schedule = path.getSchedule();
+        schedule.checkLength(timeSteps);
+        final double sign = nextSign();
+
+        DoubleMatrix1D x = process.getInitialVector();
+        int next = 0;
+        if (schedule.getStep(0) == 0)
+            path.setValue(next++, x);
+
+        final int last = schedule.getLastStep();
+        double t = 0.0;
+        for (int i = 1; i <= last; ++i) {
+            x = process.evolveMatrix(t, x, dt, increment(i, sign));
+            if (schedule.getStep(next) == i)
+                path.setValue(next++, x);
+            t += dt;
+        }
+    }
+
+    public void stream(final PathObserver<?> observer) throws FunctionEvaluationException {
+        final double sign = nextSign();
+        DoubleMatrix1D x = process.getInitialVector();
+        observer.start(x);
+        if (StoppablePathObserver.isDone(observer))
+            return;
+
+        double t = 0.0;
+        for (int i = 1; i < timeSteps; ++i) {
+            x = process.evolveMatrix(t, x, dt, increment(i, sign));
+            observer.observe(x);
+            if (StoppablePathObserver.isDone(observer))
+                return;
+            t += dt;
         }
-        return new DoubleMatrix1D[] {
-                DoubleFactory1D.dense.make(result), DoubleFactory1D.dense.make(antiresult) };
+    }
+
+    /**
+     * Advances the pair state shared by all kinds of paths. Increments of
+     * the whole path are drawn for the first path of a pair, so the
+     * antithetic path gets them negated even if the first one ended early
+     * or was observed on a shorter schedule.
+     *
+     * @return 1 for the first path of a pair, -1 for the antithetic one
+     */
+    private double nextSign() {
+        if (pending) {
+            pending = false;
+            return -1.0;
+        }
+
+        for (int i = noise; i < increments.length; ++i)
+            increments[i] = generator.nextNormalizedDouble();
+        pending = true;
+        return 1.0;
+    }
+
+    /**
+     * Copies increments of one step into the scratch vector
+     *
+     * @param i Step index
+     * @param sign Sign of the path
+     * @return Scratch vector
+     */
+    private DoubleMatrix1D increment(final int i, final double sign) {
+        final int row = i * noise;
+        for (int f = 0; f < noise; ++f)
+            dw.setQuick(f, sign * increments[row + f]);
+        return dw;
     }
 }
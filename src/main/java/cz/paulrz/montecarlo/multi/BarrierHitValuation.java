@@ -0,0 +1,64 @@
+package cz.paulrz.montecarlo.multi;
+
+import cern.colt.matrix.DoubleMatrix1D;
+
+/**
+ * Indicator of one factor of the path touching a barrier, e.g. knock-out
+ * event or the SABR forward absorbed at zero. The path value is 1 if any
+ * point of the factor is at or beyond the level and 0 otherwise.
+ *
+ * In streaming mode the observer is done at the first hit, so the
+ * generator stops stepping the path.
+ */
+public final class BarrierHitValuation implements PathValuation<Double>, StreamingPathValuation<Double> {
+    private final int index;
+    private final double level;
+    private final boolean up;
+
+    /**
+     * Constructs the valuation
+     *
+     * @param index Index of the observed factor
+     * @param level Barrier level
+     * @param up True for the barrier above the path, false for below
+     */
+    public BarrierHitValuation(int index, double level, boolean up) {
+        this.index = index;
+        this.level = level;
+        this.up = up;
+    }
+
+    public Double value(final Path path) {
+        final int len = path.getLength();
+        for (int i = 0; i < len; ++i)
+            if (isHit(path.getValue(i, index)))
+                return 1.0;
+        return 0.0;
+    }
+
+    public PathObserver<Double> newObserver() {
+        return new StoppablePathObserver<Double>() {
+            private boolean hit;
+
+            public void start(final DoubleMatrix1D x0) {
+                hit = isHit(x0.getQuick(index));
+            }
+
+            public void observe(final DoubleMatrix1D x) {
+                hit = hit || isHit(x.getQuick(index));
+            }
+
+            public boolean isDone() {
+                return hit;
+            }
+
+            public Double value() {
+                return hit ? 1.0 : 0.0;
+            }
+        };
+    }
+
+    private boolean isHit(final double x) {
+        return up ? x >= level : x <= level;
+    }
+}
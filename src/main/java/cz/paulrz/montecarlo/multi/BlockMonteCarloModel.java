@@ -0,0 +1,79 @@
+package cz.paulrz.montecarlo.multi;
+
+import cz.paulrz.montecarlo.accumulator.Accumulator;
+import cz.paulrz.montecarlo.single.IMonteCarloModel;
+import org.apache.commons.math.MathException;
+import org.apache.commons.math.random.NormalizedRandomGenerator;
+
+/**
+ * Monte Carlo model storing scenarios in a {@link PathBlock}. Samples are
+ * generated block by block into the same storage and valued from it, so
+ * memory use is bounded by the block whatever the number of samples. The
+ * paths of the last block stay available to further valuations by
+ * {@link #revalue(PathBlockValuation, Accumulator)}.
+ */
+public final class BlockMonteCarloModel<TValue> implements IMonteCarloModel<TValue> {
+    private final Accumulator<TValue> summary;
+    private final FlatPathGenerator pathGenerator;
+    private final PathBlockValuation<TValue> pathValuation;
+    private final PathBlock block;
+    private int filled = 0;
+
+    /**
+     * Constructor of Monte Carlo model
+     *
+     * @param random Underlying random number generator
+     * @param process Underlying stochastic process, see {@link FlatProcessAdapter#of}
+     * @param duration Duration of paths in time units
+     * @param timeSteps Path discretization time step
+     * @param block Storage of paths, see {@link PathBlocks#allocate}
+     * @param valuation Path valuation function
+     * @param statistics Statistics summary
+     * @param useAntithetic Generate antithetic pairs of paths
+     */
+    public BlockMonteCarloModel(NormalizedRandomGenerator random,
+                                GenericProcess process, double duration, int timeSteps,
+                                PathBlock block, PathBlockValuation<TValue> valuation,
+                                Accumulator<TValue> statistics, boolean useAntithetic) {
+        if (block.getDimension() != process.getDimension() || block.getLength() != timeSteps)
+            throw new IllegalArgumentException("block does not fit the paths");
+        this.summary = statistics;
+        this.pathGenerator = new FlatPathGenerator(FlatProcessAdapter.of(process), timeSteps,
+                duration, random, useAntithetic);
+        this.pathValuation = valuation;
+        this.block = block;
+    }
+
+    public int addSamples(int samples) throws MathException {
+        final int allSamples = pathGenerator.isAntithetic() ? samples*2 : samples;
+
+        int done = 0;
+        while (done < allSamples) {
+            filled = Math.min(block.getPathCount(), allSamples - done);
+            for (int p = 0; p < filled; ++p)
+                pathGenerator.nextInto(block, p);
+            revalue(pathValuation, summary);
+            done += filled;
+        }
+        return samples;
+    }
+
+    /**
+     * Values paths of the last generated block
+     *
+     * @param valuation Path valuation function
+     * @param statistics Statistics summary
+     */
+    public <T> void revalue(PathBlockValuation<T> valuation, Accumulator<T> statistics) {
+        for (int p = 0; p < filled; ++p)
+            statistics.addValue(valuation.value(block, p));
+    }
+
+    public PathBlock getBlock() {
+        return block;
+    }
+
+    public Accumulator<TValue> getStats() {
+        return summary;
+    }
+}
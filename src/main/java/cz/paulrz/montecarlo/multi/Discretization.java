@@ -2,6 +2,7 @@ package cz.paulrz.montecarlo.multi;
 
 import cern.colt.matrix.DoubleMatrix1D;
 import cern.colt.matrix.DoubleMatrix2D;
+import cern.jet.math.Functions;
 
 /**
  * User: paul
@@ -30,4 +31,25 @@ public interface Discretization {
      * @return Diffusion value step
      */
     DoubleMatrix2D diffusion(StochasticProcess process, double t, DoubleMatrix1D x, double dt);
+
+    /**
+     * Single step of the process, by default x + drift + diffusion*dw.
+     * Schemes that are not linear in dw override it.
+     *
+     * @param process Stochastic process
+     * @param t Time
+     * @param x Position
+     * @param dt Time step
+     * @param dw Standard Brownian step
+     * @return Position after time step
+     */
+    default DoubleMatrix1D evolve(StochasticProcess process, double t, DoubleMatrix1D x, double dt, DoubleMatrix1D dw) {
+        final DoubleMatrix1D mu = drift(process, t, x, dt).assign(x, Functions.plus); // x+mu
+        final DoubleMatrix2D sigma = diffusion(process, t, x, dt);
+
+        // (x + mu) + sigma*dw
+        MatrixHelper.blas.dgemv(false, 1.0, sigma, dw, 1.0, mu);
+
+        return mu;
+    }
 }
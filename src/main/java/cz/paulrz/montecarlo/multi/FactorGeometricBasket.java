@@ -0,0 +1,140 @@
+package cz.paulrz.montecarlo.multi;
+
+import cern.colt.matrix.DoubleFactory1D;
+import cern.colt.matrix.DoubleFactory2D;
+import cern.colt.matrix.DoubleMatrix1D;
+import cern.colt.matrix.DoubleMatrix2D;
+import org.apache.commons.math.util.FastMath;
+
+/**
+ * Basket of geometric Brownian motions driven by a factor model,
+ * dX_i = mu_i X_i dt + X_i (sum_j B_ij dW_j + s_i dZ_i), with d x k
+ * loadings B on common factors W and idiosyncratic volatilities s.
+ * The covariance B*B' + diag(s^2) is never formed.
+ *
+ * The noise has k + d dimensions, dw[0..k) drives the common factors and
+ * dw[k + i] the idiosyncratic part of asset i. Steps are exact in the
+ * log-prices and cost O(dk) instead of O(d^2) of a dense diffusion.
+ */
+public final class FactorGeometricBasket extends StochasticProcess implements FlatProcess {
+    private final int dim;
+    private final int factors;
+    private final DoubleMatrix1D mu;
+    // loadings row-major, asset i starts at i*factors
+    private final double[] loadings;
+    private final double[] idiosyncratic;
+    private final double[] logDrift;
+
+    /**
+     * Constructs the basket
+     *
+     * @param x0 Initial prices
+     * @param mu Drifts
+     * @param loadings Factor loadings, rows are assets, columns are common factors
+     * @param idiosyncratic Idiosyncratic volatilities
+     */
+    public FactorGeometricBasket(DoubleMatrix1D x0, DoubleMatrix1D mu, DoubleMatrix2D loadings,
+                                 DoubleMatrix1D idiosyncratic) {
+        super(x0, new EulerDiscretization());
+        dim = x0.size();
+        factors = loadings.columns();
+        if (mu.size() != dim)
+            throw new IllegalArgumentException("mu");
+        if (loadings.rows() != dim)
+            throw new IllegalArgumentException("loadings");
+        if (idiosyncratic.size() != dim)
+            throw new IllegalArgumentException("idiosyncratic");
+
+        this.mu = mu;
+        this.loadings = new double[dim * factors];
+        this.idiosyncratic = idiosyncratic.toArray();
+        logDrift = new double[dim];
+        for (int i = 0; i < dim; ++i) {
+            final double s = this.idiosyncratic[i];
+            double variance = s * s;
+            for (int j = 0; j < factors; ++j) {
+                final double b = loadings.getQuick(i, j);
+                this.loadings[i * factors + j] = b;
+                variance += b * b;
+            }
+            logDrift[i] = mu.getQuick(i) - 0.5 * variance;
+        }
+    }
+
+    public int getDimension() {
+        return dim;
+    }
+
+    /**
+     * Gets number of Brownian motions, common factors and one per asset
+     *
+     * @return k + d
+     */
+    @Override
+    public int getNoiseDimension() {
+        return factors + dim;
+    }
+
+    public int getFactorCount() {
+        return factors;
+    }
+
+    public DoubleMatrix1D getMu() {
+        return mu;
+    }
+
+    @Override
+    public DoubleMatrix1D drift(double t, DoubleMatrix1D x) {
+        final DoubleMatrix1D result = DoubleFactory1D.dense.make(dim);
+        for (int i = 0; i < dim; ++i)
+            result.setQuick(i, mu.getQuick(i) * x.getQuick(i));
+        return result;
+    }
+
+    /**
+     * Diffusion [diag(x)*B | diag(x*s)] of d rows and k + d columns
+     */
+    @Override
+    public DoubleMatrix2D diffusion(double t, DoubleMatrix1D x) {
+        final DoubleMatrix2D result = DoubleFactory2D.dense.make(dim, factors + dim);
+        for (int i = 0; i < dim; ++i) {
+            final double xi = x.getQuick(i);
+            for (int j = 0; j < factors; ++j)
+                result.setQuick(i, j, xi * loadings[i * factors + j]);
+            result.setQuick(i, factors + i, xi * idiosyncratic[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Diffusion is linear in x, the derivative along v is its value at v
+     */
+    @Override
+    public DoubleMatrix2D diffusionDerivative(double t, DoubleMatrix1D x, DoubleMatrix1D direction) {
+        return diffusion(t, direction);
+    }
+
+    @Override
+    public DoubleMatrix1D evolveMatrix(final double t, final DoubleMatrix1D x, final double dt,
+                                      final DoubleMatrix1D dw) {
+        final double[] result = new double[dim];
+        evolveInto(t, x.toArray(), dt, dw.toArray(), result);
+        return DoubleFactory1D.dense.make(result);
+    }
+
+    public void initialInto(double[] x0) {
+        this.x0.toArray(x0);
+    }
+
+    public void evolveInto(final double t, final double[] x, final double dt, final double[] dw,
+                           final double[] out) {
+        final double sdt = FastMath.sqrt(dt);
+        int k = 0;
+        for (int i = 0; i < dim; ++i) {
+            double s = idiosyncratic[i] * dw[factors + i];
+            for (int j = 0; j < factors; ++j)
+                s += loadings[k++] * dw[j];
+            out[i] = x[i] * FastMath.exp(logDrift[i] * dt + s * sdt);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package cz.paulrz.montecarlo.multi;
+
+import cz.paulrz.montecarlo.accumulator.Accumulator;
+import cz.paulrz.montecarlo.single.IMonteCarloModel;
+import org.apache.commons.math.MathException;
+import org.apache.commons.math.random.NormalizedRandomGenerator;
+
+/**
+ * Monte Carlo model on the flat engine. Paths are generated into one
+ * reused {@link FlatPath}, so with a native {@link FlatProcess} nothing is
+ * allocated per path apart from what the valuation returns.
+ */
+public final class FlatMonteCarloModel<TValue> implements IMonteCarloModel<TValue> {
+    private final Accumulator<TValue> summary;
+    private final FlatPathGenerator pathGenerator;
+    private final FlatPathValuation<TValue> pathValuation;
+    private final FlatPath path;
+
+    /**
+     * Constructor of Monte Carlo model
+     *
+     * @param random Underlying random number generator
+     * @param process Underlying stochastic process, see {@link FlatProcessAdapter#of}
+     * @param duration Duration of paths in time units
+     * @param timeSteps Path discretization time step
+     * @param valuation Path valuation function
+     * @param statistics Statistics summary
+     * @param useAntithetic Generate antithetic pairs of paths
+     */
+    public FlatMonteCarloModel(NormalizedRandomGenerator random,
+                               GenericProcess process, double duration, int timeSteps,
+                               FlatPathValuation<TValue> valuation, Accumulator<TValue> statistics,
+                               boolean useAntithetic) {
+        this.summary = statistics;
+        this.pathGenerator = new FlatPathGenerator(FlatProcessAdapter.of(process), timeSteps,
+                duration, random, useAntithetic);
+        this.pathValuation = valuation;
+        this.path = new FlatPath(process.getDimension(), timeSteps, duration / timeSteps);
+    }
+
+    public int addSamples(int samples) throws MathException {
+        final int allSamples = pathGenerator.isAntithetic() ? samples*2 : samples;
+
+        for (int i = 0; i < allSamples; ++i) {
+            pathGenerator.nextInto(path);
+            summary.addValue(pathValuation.value(path));
+        }
+        return samples;
+    }
+
+    public Accumulator<TValue> getStats() {
+        return summary;
+    }
+}
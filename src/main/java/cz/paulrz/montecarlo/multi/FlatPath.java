@@ -0,0 +1,64 @@
+package cz.paulrz.montecarlo.multi;
+
+/**
+ * Multi-dimensional path stored in one primitive array, element
+ * i*dim + f is factor f at point i. Buffers are reused for all paths
+ * of one generator.
+ */
+public final class FlatPath implements PathView {
+    private final double[] values;
+    private final double dt;
+    private final int dim;
+    private final int length;
+
+    /**
+     * Constructor of flat path
+     *
+     * @param dim Dimension of the process
+     * @param length Number of points
+     * @param dt Time step
+     */
+    public FlatPath(int dim, int length, double dt) {
+        this.dim = dim;
+        this.length = length;
+        this.dt = dt;
+        values = new double[dim * length];
+    }
+
+    public double getTimeStep() {
+        return dt;
+    }
+
+    public int getDimension() {
+        return dim;
+    }
+
+    /**
+     * Gets length of the path
+     *
+     * @return Number of points in the path
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Gets factor f at point i
+     *
+     * @param i Point index
+     * @param f Factor index
+     * @return Value
+     */
+    public double getValue(int i, int f) {
+        return values[i * dim + f];
+    }
+
+    /**
+     * Gets all values
+     *
+     * @return Values, element i*dim + f is factor f at point i
+     */
+    public double[] getValues() {
+        return values;
+    }
+}
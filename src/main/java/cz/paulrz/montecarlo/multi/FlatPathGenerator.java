@@ -0,0 +1,247 @@
+package cz.paulrz.montecarlo.multi;
+
+import cern.colt.matrix.DoubleFactory1D;
+import cern.colt.matrix.DoubleMatrix1D;
+import cz.paulrz.montecarlo.random.BrownianBridge;
+import cz.paulrz.montecarlo.schedule.ObservationSchedule;
+import org.apache.commons.math.random.NormalizedRandomGenerator;
+
+/**
+ * Path generator on primitive state and scratch buffers. Increments of the
+ * whole path are drawn into one array and the process is stepped by
+ * {@link FlatProcess#evolveInto}, so {@link #nextInto(FlatPath)},
+ * {@link #nextObserved(ObservedPath)} and {@link #stream(PathObserver)}
+ * allocate nothing per path with a native {@link FlatProcess}. Processes
+ * wrapped by {@link FlatProcessAdapter} allocate one vector per step.
+ *
+ * {@link #next()} copies the path into a new {@link Path} in the default
+ * row-major layout of the other generators, for valuations written against
+ * the matrix interface. Observers get one point vector updated in place.
+ *
+ * With antithetic sampling paths are generated in pairs, the second path
+ * of the pair uses the negated increments of the first one. With the
+ * bridge the variates are turned into increments by the multi-factor
+ * Brownian bridge, the first variates of each factor drive the terminal
+ * point. Negating the variates negates the bridged increments, so the
+ * pairs stay antithetic.
+ */
+public final class FlatPathGenerator implements PathGenerator {
+    private final FlatProcess process;
+    private final int dim;
+    private final int noise;
+    private final int timeSteps;
+    private final double dt;
+    private final NormalizedRandomGenerator generator;
+    private final boolean antithetic;
+    private final BrownianBridge bridge;
+    private final double[] variates;
+    private final double[] increments;
+    private final double[] dw;
+    private double[] x;
+    private double[] out;
+    private final DoubleMatrix1D point;
+    private boolean antitheticPending = false;
+
+    public FlatPathGenerator(GenericProcess process, int timeSteps, double duration,
+                             NormalizedRandomGenerator generator) {
+        this(FlatProcessAdapter.of(process), timeSteps, duration, generator, false);
+    }
+
+    /**
+     * Constructor of FlatPathGenerator
+     *
+     * @param process Stochastic Process
+     * @param timeSteps Number of time steps
+     * @param duration Total duration of the process
+     * @param generator Random generator of normalized real values
+     * @param antithetic Generate antithetic pairs of paths
+     */
+    public FlatPathGenerator(FlatProcess process, int timeSteps, double duration,
+                             NormalizedRandomGenerator generator, boolean antithetic) {
+        this(process, timeSteps, duration, generator, antithetic, false);
+    }
+
+    /**
+     * Constructor of FlatPathGenerator
+     *
+     * @param process Stochastic Process
+     * @param timeSteps Number of time steps
+     * @param duration Total duration of the process
+     * @param generator Random generator of normalized real values
+     * @param antithetic Generate antithetic pairs of paths
+     * @param useBridge Construct paths with multi-factor Brownian bridge
+     */
+    public FlatPathGenerator(FlatProcess process, int timeSteps, double duration,
+                             NormalizedRandomGenerator generator, boolean antithetic,
+                             boolean useBridge) {
+        this.process = process;
+        dim = process.getDimension();
+        noise = process.getNoiseDimension();
+        this.timeSteps = timeSteps;
+        this.dt = duration / timeSteps;
+        this.generator = generator;
+        this.antithetic = antithetic;
+        increments = new double[timeSteps * noise];
+        bridge = useBridge ? BrownianBridge.getInstance(timeSteps, dt) : null;
+        variates = useBridge ? new double[timeSteps * noise] : increments;
+        dw = new double[noise];
+        x = new double[dim];
+        out = new double[dim];
+        point = DoubleFactory1D.dense.make(dim);
+    }
+
+    public boolean isAntithetic() {
+        return antithetic;
+    }
+
+    public boolean isBridged() {
+        return bridge != null;
+    }
+
+    /**
+     * Generates a new path into the given buffer
+     *
+     * @param path Path buffer of the generator's dimension and length
+     */
+    public void nextInto(final FlatPath path) {
+        final double sign = nextSign();
+        final double[] values = path.getValues();
+        process.initialInto(x);
+        copyPoint(values, 0);
+
+        double t = 0.0;
+        for (int i = 1; i < timeSteps; ++i) {
+            step(t, i, sign);
+            copyPoint(values, i * dim);
+            t += dt;
+        }
+    }
+
+    /**
+     * Generates a new path into a block
+     *
+     * @param block Block of the generator's dimension and length
+     * @param p Index of the path in the block
+     */
+    public void nextInto(final PathBlock block, final int p) {
+        final double sign = nextSign();
+        process.initialInto(x);
+        block.setPoint(p, 0, x);
+
+        double t = 0.0;
+        for (int i = 1; i < timeSteps; ++i) {
+            step(t, i, sign);
+            block.setPoint(p, i, x);
+            t += dt;
+        }
+    }
+
+    /**
+     * Generates a new path in the default row-major layout
+     *
+     * @return Path for the stochastic process
+     */
+    public Path next() {
+        final Path path = new Path(dim, timeSteps, dt);
+        final double sign = nextSign();
+        process.initialInto(x);
+        path.addValue(x);
+
+        double t = 0.0;
+        for (int i = 1; i < timeSteps; ++i) {
+            step(t, i, sign);
+            path.addValue(x);
+            t += dt;
+        }
+        return path;
+    }
+
+    public void nextObserved(final ObservedPath path) {
+        final ObservationSchedule schedule = path.getSchedule();
+        schedule.checkLength(timeSteps);
+
+        final double sign = nextSign();
+        process.initialInto(x);
+        int next = 0;
+        if (schedule.getStep(0) == 0)
+            path.setValue(next++, x);
+
+        final int last = schedule.getLastStep();
+        double t = 0.0;
+        for (int i = 1; i <= last; ++i) {
+            step(t, i, sign);
+            if (schedule.getStep(next) == i)
+                path.setValue(next++, x);
+            t += dt;
+        }
+    }
+
+    public void stream(final PathObserver<?> observer) {
+        final double sign = nextSign();
+        process.initialInto(x);
+        observer.start(point(x));
+        if (StoppablePathObserver.isDone(observer))
+            return;
+
+        double t = 0.0;
+        for (int i = 1; i < timeSteps; ++i) {
+            step(t, i, sign);
+            observer.observe(point(x));
+            if (StoppablePathObserver.isDone(observer))
+                return;
+            t += dt;
+        }
+    }
+
+    /**
+     * Copies the state to values from offset, a plain loop is faster than
+     * System.arraycopy for a few factors
+     */
+    private void copyPoint(final double[] values, final int offset) {
+        final double[] state = x;
+        for (int f = 0; f < dim; ++f)
+            values[offset + f] = state[f];
+    }
+
+    /**
+     * Steps the state with increments of step i, the new state is in x
+     */
+    private void step(final double t, final int i, final double sign) {
+        final int row = i * noise;
+        for (int f = 0; f < noise; ++f)
+            dw[f] = sign * increments[row + f];
+        process.evolveInto(t, x, dt, dw, out);
+
+        final double[] swap = x;
+        x = out;
+        out = swap;
+    }
+
+    /**
+     * Draws increments for a new path or switches to the antithetic path
+     * of the current pair
+     *
+     * @return Sign of the increments
+     */
+    private double nextSign() {
+        if (antitheticPending) {
+            antitheticPending = false;
+            return -1.0;
+        }
+
+        for (int i = noise; i < variates.length; ++i)
+            variates[i] = generator.nextNormalizedDouble();
+        if (bridge != null && noise == 1)
+            bridge.transform(variates, increments);
+        else if (bridge != null)
+            bridge.transform(variates, increments, noise);
+        antitheticPending = antithetic;
+        return 1.0;
+    }
+
+    private DoubleMatrix1D point(final double[] values) {
+        for (int f = 0; f < dim; ++f)
+            point.setQuick(f, values[f]);
+        return point;
+    }
+}
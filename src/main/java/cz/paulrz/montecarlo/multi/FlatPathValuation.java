@@ -0,0 +1,14 @@
+package cz.paulrz.montecarlo.multi;
+
+/**
+ * Valuation of paths generated into a {@link FlatPath}
+ */
+public interface FlatPathValuation<T> {
+    /**
+     * Calculates path's value
+     *
+     * @param path Path given by Monte Carlo engine, reused for the next path
+     * @return Valuation of the path
+     */
+    T value(final FlatPath path);
+}
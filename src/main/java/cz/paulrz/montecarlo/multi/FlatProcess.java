@@ -0,0 +1,48 @@
+package cz.paulrz.montecarlo.multi;
+
+/**
+ * Multi-dimensional process stepped on primitive arrays. Native
+ * implementations allocate nothing per step, the caller owns all buffers.
+ * Like other processes, implementations are shared between threads and
+ * keep no mutable scratch.
+ *
+ * Processes without a native implementation are wrapped by
+ * {@link FlatProcessAdapter#of(GenericProcess)}, which still allocates the
+ * result of every matrix step.
+ */
+public interface FlatProcess {
+    /**
+     * Dimension of stochastic process
+     *
+     * @return Number of factors
+     */
+    int getDimension();
+
+    /**
+     * Number of independent Brownian motions, by default the dimension
+     *
+     * @return Size of dw in {@link #evolveInto}
+     */
+    default int getNoiseDimension() {
+        return getDimension();
+    }
+
+    /**
+     * Copies initial vector at t=0
+     *
+     * @param x0 Buffer of getDimension() elements
+     */
+    void initialInto(double[] x0);
+
+    /**
+     * Single step of the process from x in time interval dt, same as
+     * {@link GenericProcess#evolveMatrix}
+     *
+     * @param t Time
+     * @param x Position
+     * @param dt Time interval
+     * @param dw Standard Brownian step normalized to unit time
+     * @param out Position at t+dt, must not be x
+     */
+    void evolveInto(double t, double[] x, double dt, double[] dw, double[] out);
+}
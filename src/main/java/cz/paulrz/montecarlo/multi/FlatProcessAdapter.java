@@ -0,0 +1,65 @@
+package cz.paulrz.montecarlo.multi;
+
+import cern.colt.matrix.DoubleFactory1D;
+import cern.colt.matrix.DoubleMatrix1D;
+
+/**
+ * Runs a {@link GenericProcess} in the flat engine. Each step still goes
+ * through {@link GenericProcess#evolveMatrix}, so the adapter is as fast as
+ * the process; it only makes any process usable with
+ * {@link FlatPathGenerator}. The state and increments are passed in
+ * vectors reused by the thread, but the vector returned by the process is
+ * allocated on every step, so adapted paths are not allocation-free.
+ */
+public final class FlatProcessAdapter implements FlatProcess {
+    // state and increment vectors of the thread, processes are shared
+    private static final ThreadLocal<DoubleMatrix1D[]> scratch = new ThreadLocal<DoubleMatrix1D[]>();
+
+    private final GenericProcess process;
+
+    public FlatProcessAdapter(GenericProcess process) {
+        this.process = process;
+    }
+
+    /**
+     * Gets flat view of the process
+     *
+     * @param process Stochastic process
+     * @return The process if it implements {@link FlatProcess}, adapter otherwise
+     */
+    public static FlatProcess of(GenericProcess process) {
+        if (process instanceof FlatProcess)
+            return (FlatProcess) process;
+        return new FlatProcessAdapter(process);
+    }
+
+    public int getDimension() {
+        return process.getDimension();
+    }
+
+    public int getNoiseDimension() {
+        return process.getNoiseDimension();
+    }
+
+    public void initialInto(double[] x0) {
+        process.getInitialVector().toArray(x0);
+    }
+
+    public void evolveInto(double t, double[] x, double dt, double[] dw, double[] out) {
+        evolve(process, t, x, dt, dw, out);
+    }
+
+    /**
+     * Steps the process through its matrix interface
+     */
+    static void evolve(GenericProcess process, double t, double[] x, double dt,
+                       double[] dw, double[] out) {
+        DoubleMatrix1D[] vectors = scratch.get();
+        if (vectors == null || vectors[0].size() != x.length || vectors[1].size() != dw.length) {
+            vectors = new DoubleMatrix1D[] {
+                    DoubleFactory1D.dense.make(x.length), DoubleFactory1D.dense.make(dw.length) };
+            scratch.set(vectors);
+        }
+        process.evolveMatrix(t, vectors[0].assign(x), dt, vectors[1].assign(dw)).toArray(out);
+    }
+}
@@ -23,6 +23,16 @@ public interface GenericProcess {
      */
     int getDimension();
 
+    /**
+     * Number of independent Brownian motions driving the process, i.e.
+     * size of dw in {@link #evolveMatrix}, by default the dimension
+     *
+     * @return Dimension of the noise
+     */
+    default int getNoiseDimension() {
+        return getDimension();
+    }
+
 
     /**
      * Single step of the process from x in time interval dt with given
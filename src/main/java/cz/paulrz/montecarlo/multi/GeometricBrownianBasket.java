@@ -0,0 +1,171 @@
+package cz.paulrz.montecarlo.multi;
+
+import cern.colt.matrix.DoubleFactory1D;
+import cern.colt.matrix.DoubleFactory2D;
+import cern.colt.matrix.DoubleMatrix1D;
+import cern.colt.matrix.DoubleMatrix2D;
+import cern.colt.matrix.linalg.CholeskyDecomposition;
+import org.apache.commons.math.util.FastMath;
+
+/**
+ * Basket of correlated geometric Brownian motions with constant
+ * volatilities and correlation, dX_i = mu_i X_i dt + X_i dB_i where
+ * d&lt;B_i, B_j&gt; = cov_ij dt.
+ *
+ * The lower triangular Cholesky factor L of the covariance is computed
+ * once, B = L*W. Steps are exact in the log-prices,
+ * log X_i(t+dt) = log X_i(t) + (mu_i - cov_ii/2) dt + sqrt(dt) (L dw)_i,
+ * so a path needs one packed triangular mat-vec per step and no matrix
+ * objects. Use {@link #getFactor()} as the volatility factor of the
+ * principal component construction in {@link SobolPathGenerator}.
+ */
+public final class GeometricBrownianBasket extends StochasticProcess implements FlatProcess {
+    private final int dim;
+    private final DoubleMatrix1D mu;
+    private final DoubleMatrix2D factor;
+    // lower triangle of L packed by rows, row i starts at i*(i+1)/2
+    private final double[] lower;
+    private final double[] logDrift;
+
+    /**
+     * Constructs basket from volatilities and correlation
+     *
+     * @param x0 Initial prices
+     * @param mu Drifts
+     * @param vol Volatilities
+     * @param correlation Correlation matrix, symmetric positive definite
+     */
+    public GeometricBrownianBasket(DoubleMatrix1D x0, DoubleMatrix1D mu, DoubleMatrix1D vol,
+                                   DoubleMatrix2D correlation) {
+        this(x0, mu, covarianceFactor(vol, correlation));
+    }
+
+    /**
+     * Constructs basket with the law of {@link GeometricBrownianMotion}
+     * with the same volatility factor. The factor is only used to get the
+     * covariance sigma*sigma', paths are driven by its Cholesky factor.
+     *
+     * @param x0 Initial prices
+     * @param mu Drifts
+     * @param sigma Volatility factor (rows are assets, columns are Brownian factors)
+     */
+    public GeometricBrownianBasket(DoubleMatrix1D x0, DoubleMatrix1D mu, DoubleMatrix2D sigma) {
+        super(x0, new EulerDiscretization());
+        dim = x0.size();
+        if (mu.size() != dim)
+            throw new IllegalArgumentException("mu");
+        if (sigma.rows() != dim)
+            throw new IllegalArgumentException("sigma");
+
+        final DoubleMatrix2D cov = sigma.zMult(sigma, null, 1.0, 0.0, false, true);
+        for (int i = 0; i < dim; ++i)
+            for (int j = 0; j < i; ++j)
+                cov.setQuick(j, i, cov.getQuick(i, j));
+        final CholeskyDecomposition cholesky = new CholeskyDecomposition(cov);
+        if (!cholesky.isSymmetricPositiveDefinite())
+            throw new IllegalArgumentException("covariance is not positive definite");
+
+        this.mu = mu;
+        factor = cholesky.getL();
+        lower = new double[dim * (dim + 1) / 2];
+        logDrift = new double[dim];
+        for (int i = 0; i < dim; ++i) {
+            final int row = i * (i + 1) / 2;
+            for (int j = 0; j <= i; ++j)
+                lower[row + j] = factor.getQuick(i, j);
+            logDrift[i] = mu.getQuick(i) - 0.5 * cov.getQuick(i, i);
+        }
+    }
+
+    /**
+     * Gets a factor of diag(vol)*C*diag(vol)
+     */
+    private static DoubleMatrix2D covarianceFactor(DoubleMatrix1D vol, DoubleMatrix2D correlation) {
+        final int n = vol.size();
+        if (correlation.rows() != n || correlation.columns() != n)
+            throw new IllegalArgumentException("correlation");
+
+        final DoubleMatrix2D cov = DoubleFactory2D.dense.make(n, n);
+        // Cholesky decomposition checks exact symmetry
+        for (int i = 0; i < n; ++i)
+            for (int j = 0; j <= i; ++j) {
+                final double c = vol.getQuick(i) * correlation.getQuick(i, j) * vol.getQuick(j);
+                cov.setQuick(i, j, c);
+                cov.setQuick(j, i, c);
+            }
+
+        final CholeskyDecomposition cholesky = new CholeskyDecomposition(cov);
+        if (!cholesky.isSymmetricPositiveDefinite())
+            throw new IllegalArgumentException("correlation is not positive definite");
+        return cholesky.getL();
+    }
+
+    /**
+     * Gets the Cholesky factor of the covariance
+     *
+     * @return Lower triangular factor
+     */
+    public DoubleMatrix2D getFactor() {
+        return factor;
+    }
+
+    public DoubleMatrix1D getMu() {
+        return mu;
+    }
+
+    public int getDimension() {
+        return dim;
+    }
+
+    @Override
+    public DoubleMatrix1D drift(double t, DoubleMatrix1D x) {
+        final DoubleMatrix1D result = DoubleFactory1D.dense.make(dim);
+        for (int i = 0; i < dim; ++i)
+            result.setQuick(i, mu.getQuick(i) * x.getQuick(i));
+        return result;
+    }
+
+    @Override
+    public DoubleMatrix2D diffusion(double t, DoubleMatrix1D x) {
+        final DoubleMatrix2D result = DoubleFactory2D.dense.make(dim, dim);
+        for (int i = 0; i < dim; ++i) {
+            final int row = i * (i + 1) / 2;
+            final double xi = x.getQuick(i);
+            for (int j = 0; j <= i; ++j)
+                result.setQuick(i, j, xi * lower[row + j]);
+        }
+        return result;
+    }
+
+    /**
+     * Diffusion is linear in x, the derivative along v is diag(v)*L
+     */
+    @Override
+    public DoubleMatrix2D diffusionDerivative(double t, DoubleMatrix1D x, DoubleMatrix1D direction) {
+        return diffusion(t, direction);
+    }
+
+    @Override
+    public DoubleMatrix1D evolveMatrix(final double t, final DoubleMatrix1D x, final double dt,
+                                      final DoubleMatrix1D dw) {
+        final double[] result = new double[dim];
+        evolveInto(t, x.toArray(), dt, dw.toArray(), result);
+        return DoubleFactory1D.dense.make(result);
+    }
+
+    public void initialInto(double[] x0) {
+        this.x0.toArray(x0);
+    }
+
+    public void evolveInto(final double t, final double[] x, final double dt, final double[] dw,
+                           final double[] out) {
+        final double sdt = FastMath.sqrt(dt);
+        int k = 0;
+        for (int i = 0; i < dim; ++i) {
+            double s = 0.0;
+            for (int j = 0; j <= i; ++j)
+                s += lower[k++] * dw[j];
+            out[i] = x[i] * FastMath.exp(logDrift[i] * dt + s * sdt);
+        }
+    }
+}
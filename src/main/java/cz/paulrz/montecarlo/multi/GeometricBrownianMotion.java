@@ -4,20 +4,31 @@ import cern.colt.matrix.DoubleFactory1D;
 import cern.colt.matrix.DoubleFactory2D;
 import cern.colt.matrix.DoubleMatrix1D;
 import cern.colt.matrix.DoubleMatrix2D;
+import org.apache.commons.math.util.FastMath;
 
 /**
  * User: paul
  * Date: 2/5/11
  * Time: 13:25 PM
  */
-public final class GeometricBrownianMotion extends StochasticProcess {
+public final class GeometricBrownianMotion extends StochasticProcess implements FlatProcess {
 
     private final DoubleMatrix1D mu;
     private final DoubleMatrix2D sigma;
     private final int dim;
+    private final int factors;
+    // mu and sigma row-major for the flat engine
+    private final double[] muValues;
+    private final double[] sigmaValues;
+    private final boolean euler;
 
     public GeometricBrownianMotion(DoubleMatrix1D x0, DoubleMatrix1D mu, DoubleMatrix2D sigma) {
-        super(x0, new EulerDiscretization());
+        this(x0, mu, sigma, new EulerDiscretization());
+    }
+
+    public GeometricBrownianMotion(DoubleMatrix1D x0, DoubleMatrix1D mu, DoubleMatrix2D sigma,
+                                   Discretization d) {
+        super(x0, d);
         dim = x0.size();
 
         if (mu.size() != dim)
@@ -27,6 +38,13 @@ public final class GeometricBrownianMotion extends StochasticProcess {
 
         this.mu = mu;
         this.sigma = sigma;
+        factors = sigma.columns();
+        muValues = mu.toArray();
+        sigmaValues = new double[dim * factors];
+        for (int i = 0; i < dim; ++i)
+            for (int j = 0; j < factors; ++j)
+                sigmaValues[i * factors + j] = sigma.getQuick(i, j);
+        euler = d instanceof EulerDiscretization;
     }
 
     @Override
@@ -46,7 +64,29 @@ public final class GeometricBrownianMotion extends StochasticProcess {
         final DoubleMatrix2D result = DoubleFactory2D.dense.make(dim, dim, 0.0);
         final DoubleMatrix2D xs     = DoubleFactory2D.dense.diagonal(x);
 
-        return sigma.zMult(xs, result);
+        // dX_i = mu_i X_i dt + X_i sum_j sigma_ij dW_j
+        return xs.zMult(sigma, result);
+    }
+
+    /**
+     * Diffusion is linear in x, the derivative along v is diag(v)*sigma
+     */
+    @Override
+    public DoubleMatrix2D diffusionDerivative(double t, DoubleMatrix1D x, DoubleMatrix1D direction) {
+        return diffusion(t, direction);
+    }
+
+    public DoubleMatrix1D getMu() {
+        return mu;
+    }
+
+    /**
+     * Gets volatility factor applied to the Brownian increments
+     *
+     * @return Volatility matrix
+     */
+    public DoubleMatrix2D getSigma() {
+        return sigma;
     }
 
     public DoubleMatrix1D getInitialVector() {
@@ -56,4 +96,29 @@ public final class GeometricBrownianMotion extends StochasticProcess {
     public int getDimension() {
         return dim;
     }
+
+    public void initialInto(double[] x0) {
+        this.x0.toArray(x0);
+    }
+
+    /**
+     * Euler step on primitives, other discretizations go through
+     * {@link #evolveMatrix}
+     */
+    public void evolveInto(final double t, final double[] x, final double dt, final double[] dw,
+                           final double[] out) {
+        if (!euler) {
+            FlatProcessAdapter.evolve(this, t, x, dt, dw, out);
+            return;
+        }
+
+        final double sdt = FastMath.sqrt(dt);
+        for (int i = 0; i < dim; ++i) {
+            final int row = i * factors;
+            double s = 0.0;
+            for (int j = 0; j < factors; ++j)
+                s += sigmaValues[row + j] * dw[j];
+            out[i] = x[i] + x[i] * (muValues[i] * dt + s * sdt);
+        }
+    }
 }
@@ -0,0 +1,119 @@
+package cz.paulrz.montecarlo.multi;
+
+/**
+ * Path block on the heap. Paths are stored in arrays of at most
+ * {@link #defaultChunkSize} values, each holding a power of two of whole
+ * paths, so the block is not limited by the maximal array size. The whole
+ * block is on the heap and scanned by the garbage collector, large
+ * scenario sets should use off-heap blocks, see {@link PathBlocks}.
+ */
+public final class HeapPathBlock implements PathBlock {
+    public static final int defaultChunkSize = 1 << 24;
+
+    private final int paths;
+    private final int dim;
+    private final int length;
+    private final int pathSize;
+    private final double dt;
+    private final int shift;
+    private final int mask;
+    private double[][] chunks;
+
+    public HeapPathBlock(int paths, int dim, int length, double dt) {
+        this(paths, dim, length, dt, defaultChunkSize);
+    }
+
+    /**
+     * Constructor of heap block
+     *
+     * @param paths Number of paths
+     * @param dim Dimension of the process
+     * @param length Number of points of each path
+     * @param dt Time step
+     * @param chunkSize Maximal number of values in one array, at least one path
+     */
+    public HeapPathBlock(int paths, int dim, int length, double dt, int chunkSize) {
+        if ((long) dim * length > chunkSize)
+            throw new IllegalArgumentException("path of " + dim + "x" + length + " values does not fit into a chunk");
+        this.paths = paths;
+        this.dim = dim;
+        this.length = length;
+        this.dt = dt;
+        pathSize = dim * length;
+
+        // paths per chunk rounded down to a power of two
+        shift = 31 - Integer.numberOfLeadingZeros(Math.max(1, chunkSize / Math.max(1, pathSize)));
+        mask = (1 << shift) - 1;
+        final int count = (int) (((long) paths + mask) >>> shift);
+        chunks = new double[count][];
+        for (int c = 0; c < count; ++c)
+            chunks[c] = new double[Math.min(paths - (c << shift), 1 << shift) * pathSize];
+    }
+
+    public int getPathCount() {
+        return paths;
+    }
+
+    public int getDimension() {
+        return dim;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public double getTimeStep() {
+        return dt;
+    }
+
+    public double getValue(int p, int i, int f) {
+        return chunks[p >>> shift][(p & mask) * pathSize + i * dim + f];
+    }
+
+    public PathView getPath(int p) {
+        return new ArrayPath(chunks[p >>> shift], (p & mask) * pathSize);
+    }
+
+    public void setPoint(int p, int i, double[] x) {
+        final double[] values = chunks[p >>> shift];
+        final int offset = (p & mask) * pathSize + i * dim;
+        for (int f = 0; f < dim; ++f)
+            values[offset + f] = x[f];
+    }
+
+    /**
+     * Drops the arrays, they are collected with the block
+     */
+    public void close() {
+        chunks = null;
+    }
+
+    /**
+     * Path in its chunk
+     */
+    private final class ArrayPath implements PathView {
+        private final double[] values;
+        private final int offset;
+
+        ArrayPath(double[] values, int offset) {
+            this.values = values;
+            this.offset = offset;
+        }
+
+        public int getDimension() {
+            return dim;
+        }
+
+        public int getLength() {
+            return length;
+        }
+
+        public double getTimeStep() {
+            return dt;
+        }
+
+        public double getValue(int i, int f) {
+            return values[offset + i * dim + f];
+        }
+    }
+}
@@ -16,7 +16,7 @@ import org.apache.commons.math.util.FastMath;
         dW_1 dW_2 &=& \rho dt
 
  */
-public final class HestonProcess extends StochasticProcess {
+public final class HestonProcess extends StochasticProcess implements FlatProcess {
 
     private final double riskFreeRate;
     private final double v0;
@@ -26,11 +26,30 @@ public final class HestonProcess extends StochasticProcess {
     private final double rho;
     private final double sqrhov;
 
+    private final QuadraticExponentialDiscretization qe;
+    private final boolean euler;
+    private volatile HestonTransition transition = null;
+
     public HestonProcess(double riskFreeRate, double s0, double v0, double kappa,
                          double theta, double sigma, double rho)
     {
-        super(DoubleFactory1D.dense.make(new double[] {s0, v0}),
-                new EulerDiscretization());
+        this(riskFreeRate, s0, v0, kappa, theta, sigma, rho, new EulerDiscretization());
+    }
+
+    /**
+     * Constructs process with given discretization. The default
+     * {@link EulerDiscretization} selects log-Euler for S and truncated
+     * Euler for v, {@link QuadraticExponentialDiscretization} the QE
+     * scheme of Andersen.
+     *
+     * @param d Discretization
+     */
+    public HestonProcess(double riskFreeRate, double s0, double v0, double kappa,
+                         double theta, double sigma, double rho, Discretization d)
+    {
+        super(DoubleFactory1D.dense.make(new double[] {s0, v0}), d);
+        qe = d instanceof QuadraticExponentialDiscretization ? (QuadraticExponentialDiscretization) d : null;
+        euler = d instanceof EulerDiscretization;
         this.riskFreeRate = riskFreeRate;
         this.v0 = v0;
         this.kappa = kappa;
@@ -40,6 +59,41 @@ public final class HestonProcess extends StochasticProcess {
         sqrhov = FastMath.sqrt(1.0-rho*rho);
     }
 
+    public double getRiskFreeRate() {
+        return riskFreeRate;
+    }
+
+    public double getKappa() {
+        return kappa;
+    }
+
+    public double getTheta() {
+        return theta;
+    }
+
+    public double getSigma() {
+        return sigma;
+    }
+
+    public double getRho() {
+        return rho;
+    }
+
+    /**
+     * Gets exact transition over given interval, the last one is cached
+     *
+     * @param t Length of the interval
+     * @return Transition
+     */
+    HestonTransition transition(final double t) {
+        HestonTransition c = transition;
+        if (c == null || c.t != t) {
+            c = new HestonTransition(this, t);
+            transition = c;
+        }
+        return c;
+    }
+
     /**
      * Uses Feller condition
      * @return
@@ -90,20 +144,44 @@ public final class HestonProcess extends StochasticProcess {
 
     @Override
     public DoubleMatrix1D evolveMatrix(final double t, final DoubleMatrix1D x, final double dt, final DoubleMatrix1D dw) {
+        if (!euler && qe == null)
+            return discretization.evolve(this, t, x, dt, dw);
+
         final double[] result = new double[2];
-        final double x1 = x.getQuick(1);
+        step(x.getQuick(0), x.getQuick(1), dt, dw.getQuick(0), dw.getQuick(1), result);
+        return DoubleFactory1D.dense.make(result);
+    }
+
+    public void initialInto(double[] x0) {
+        this.x0.toArray(x0);
+    }
+
+    public void evolveInto(final double t, final double[] x, final double dt, final double[] dw,
+                           final double[] out) {
+        if (!euler && qe == null)
+            FlatProcessAdapter.evolve(this, t, x, dt, dw, out);
+        else
+            step(x[0], x[1], dt, dw[0], dw[1], out);
+    }
+
+    /**
+     * Euler or QE step on primitives, shared by the matrix and flat interfaces
+     */
+    private void step(final double s, final double x1, final double dt,
+                      final double dw0, final double dw1, final double[] out) {
+        if (qe != null) {
+            qe.evolveInto(this, s, x1, dt, dw0, dw1, out);
+            return;
+        }
+
         final double volvol = x1 > 0 ? x1 : 0.0;
         final double vol = FastMath.sqrt(volvol);
         final double vol2= sigma*vol;
         final double mu  = riskFreeRate - 0.5*volvol;
         final double nu  = kappa*(theta - x1);
         final double sdt = FastMath.sqrt(dt);
-        final double dw0 = dw.getQuick(0);
-        final double dw1 = dw.getQuick(1);
 
-        result[0] = x.getQuick(0) * FastMath.exp(mu*dt + vol*dw0*sdt);
-        result[1] = x1 + nu*dt + vol2*sdt*(rho*dw0 + sqrhov*dw1);
-
-        return DoubleFactory1D.dense.make(result);
+        out[0] = s * FastMath.exp(mu*dt + vol*dw0*sdt);
+        out[1] = x1 + nu*dt + vol2*sdt*(rho*dw0 + sqrhov*dw1);
     }
 }
@@ -0,0 +1,104 @@
+package cz.paulrz.montecarlo.multi;
+
+import cern.colt.matrix.DoubleFactory1D;
+import cern.colt.matrix.DoubleMatrix1D;
+import cz.paulrz.montecarlo.schedule.ObservationSchedule;
+import org.apache.commons.math.random.NormalizedRandomGenerator;
+
+/**
+ * Generator of terminal points of {@link HestonProcess} paths. The price
+ * and variance at time (timeSteps-1)*dt are drawn with one exact
+ * transition instead of timeSteps-1 discretization steps, there is no
+ * discretization bias.
+ *
+ * Paths have two points, the initial one and the terminal one with time
+ * step equal to the horizon, so only valuations of the terminal point
+ * (European payoffs, terminal likelihoods) are meaningful. Observed paths
+ * may schedule the first and the last step only.
+ *
+ * The characteristic function tables of the transition are built on the
+ * first use of a horizon and cached by the process.
+ */
+public final class HestonTerminalGenerator implements PathGenerator {
+    private final HestonProcess process;
+    private final HestonTransition transition;
+    private final int timeSteps;
+    private final double horizon;
+    private final NormalizedRandomGenerator generator;
+    private final double[] x = new double[2];
+    private final double[] out = new double[2];
+    private final DoubleMatrix1D point = DoubleFactory1D.dense.make(2);
+
+    /**
+     * Constructor of terminal generator
+     *
+     * @param process Heston process
+     * @param timeSteps Number of time steps of the replaced path
+     * @param duration Total duration of the process
+     * @param generator Random generator of normalized real values
+     */
+    public HestonTerminalGenerator(HestonProcess process, int timeSteps, double duration,
+                                   NormalizedRandomGenerator generator) {
+        this.process = process;
+        this.timeSteps = timeSteps;
+        this.horizon = (timeSteps - 1) * duration / timeSteps;
+        this.generator = generator;
+        this.transition = process.transition(horizon);
+    }
+
+    public double getHorizon() {
+        return horizon;
+    }
+
+    /**
+     * Draws terminal price and variance
+     *
+     * @param result Price and variance at the horizon
+     */
+    public void nextInto(final double[] result) {
+        process.initialInto(x);
+        transition.sample(x, generator, result);
+    }
+
+    public Path next() {
+        final Path path = new Path(2, 2, horizon);
+        process.initialInto(x);
+        path.addValue(point(x));
+        transition.sample(x, generator, out);
+        path.addValue(point(out));
+        return path;
+    }
+
+    public void nextObserved(final ObservedPath path) {
+        final ObservationSchedule schedule = path.getSchedule();
+        schedule.checkLength(timeSteps);
+
+        process.initialInto(x);
+        for (int k = 0; k < schedule.size(); ++k) {
+            final int step = schedule.getStep(k);
+            if (step == 0)
+                path.setValue(k, x);
+            else if (step == timeSteps - 1) {
+                transition.sample(x, generator, out);
+                path.setValue(k, out);
+            } else
+                throw new IllegalArgumentException("terminal generator observes first and last step only");
+        }
+    }
+
+    public void stream(final PathObserver<?> observer) {
+        process.initialInto(x);
+        observer.start(point(x));
+        if (StoppablePathObserver.isDone(observer))
+            return;
+
+        transition.sample(x, generator, out);
+        observer.observe(point(out));
+    }
+
+    private DoubleMatrix1D point(final double[] values) {
+        point.setQuick(0, values[0]);
+        point.setQuick(1, values[1]);
+        return point;
+    }
+}
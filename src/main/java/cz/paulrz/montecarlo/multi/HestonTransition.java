@@ -0,0 +1,224 @@
+package cz.paulrz.montecarlo.multi;
+
+import cz.paulrz.montecarlo.random.Variates;
+import org.apache.commons.math.complex.Complex;
+import org.apache.commons.math.random.NormalizedRandomGenerator;
+import org.apache.commons.math.util.FastMath;
+
+/**
+ * Exact transition of {@link HestonProcess} over one interval, Broadie and
+ * Kaya (2006) with the integrated variance sampled by the gamma expansion
+ * of Glasserman and Kim (2011).
+ *
+ * The variance v_t is a scaled non-central chi-square, drawn as a Poisson
+ * mixture of gammas. Conditional on the end points the integrated variance
+ * is X1 + X2 + (X3 = sum of eta copies of Z). The Poisson count of the
+ * mixture is the Bessel variate eta, X1 is a series of compound Poisson
+ * terms truncated after {@link #terms} and closed by a moment matched
+ * gamma. X2 and Z do not depend on the end points, their distributions
+ * are tabulated once by inverting the characteristic functions and sampled
+ * by interpolation. The log-price follows from the exact representation
+ * of the integral of sqrt(v) dW_v.
+ *
+ * Instances are immutable and shared between generators.
+ */
+final class HestonTransition {
+    static final int terms = 10;
+    private static final int tablePoints = 512;
+    private static final double tableEpsilon = 1e-9;
+    private static final double tableStdDevs = 12.0;
+    private static final double tableTail = 25.0;
+
+    final double t;
+    private final double r;
+    private final double kappa;
+    private final double theta;
+    private final double sigma;
+    private final double rho;
+    private final double sqrhov;
+
+    // v_t = scale * chi^2(delta, noncentral * v_s)
+    private final double delta;
+    private final double scale;
+    private final double noncentral;
+
+    // X1 per unit of v_s + v_t
+    private final double[] gammaN = new double[terms];
+    private final double[] lambdaN = new double[terms];
+    private final double remainderMean;
+    private final double remainderVariance;
+
+    private final InversionTable x2;
+    private final InversionTable z;
+
+    HestonTransition(HestonProcess process, double t) {
+        if (process.getKappa() <= 0.0 || process.getSigma() <= 0.0)
+            throw new IllegalArgumentException("exact Heston scheme needs kappa > 0 and sigma > 0");
+
+        this.t = t;
+        r = process.getRiskFreeRate();
+        kappa = process.getKappa();
+        theta = process.getTheta();
+        sigma = process.getSigma();
+        rho = process.getRho();
+        sqrhov = FastMath.sqrt(1.0 - rho * rho);
+
+        final double sigma2 = sigma * sigma;
+        final double oneMinusE = -FastMath.expm1(-kappa * t);
+        delta = 4.0 * kappa * theta / sigma2;
+        scale = sigma2 * oneMinusE / (4.0 * kappa);
+        noncentral = 4.0 * kappa * FastMath.exp(-kappa * t) / (sigma2 * oneMinusE);
+
+        final double kt2 = kappa * kappa * t * t;
+        double mean = 0.0;
+        double variance = 0.0;
+        for (int n = 1; n <= 100000; ++n) {
+            final double pn = 4.0 * Math.PI * Math.PI * n * n;
+            final double g = (kt2 + pn) / (2.0 * sigma2 * t * t);
+            final double l = 4.0 * pn / (sigma2 * t * (kt2 + pn));
+            if (n <= terms) {
+                gammaN[n - 1] = g;
+                lambdaN[n - 1] = l;
+            } else {
+                mean += l / g;
+                variance += 2.0 * l / (g * g);
+            }
+        }
+        // terms of the mean decay like 2t/(pi n)^2
+        remainderMean = mean + 2.0 * t / (Math.PI * Math.PI * 100000);
+        remainderVariance = variance;
+
+        x2 = new InversionTable(0.5 * delta);
+        z = new InversionTable(2.0);
+    }
+
+    /**
+     * Draws the state at t
+     *
+     * @param x Price and variance at 0
+     * @param generator Generator of normalized values
+     * @param out Price and variance at t
+     */
+    void sample(final double[] x, final NormalizedRandomGenerator generator, final double[] out) {
+        final double s = x[0];
+        final double v = Math.max(x[1], 0.0);
+
+        final int eta = Variates.poisson(generator, 0.5 * noncentral * v);
+        final double vt = 2.0 * scale * Variates.gamma(generator, 0.5 * delta + eta);
+
+        final double sum = v + vt;
+        double integral = x2.sample(Variates.uniform(generator));
+        for (int j = 0; j < eta; ++j)
+            integral += z.sample(Variates.uniform(generator));
+        if (sum > 0.0) {
+            for (int n = 0; n < terms; ++n) {
+                final int count = Variates.poisson(generator, sum * lambdaN[n]);
+                if (count > 0)
+                    integral += Variates.gamma(generator, count) / gammaN[n];
+            }
+            final double m = sum * remainderMean;
+            final double var = sum * remainderVariance;
+            integral += var / m * Variates.gamma(generator, m * m / var);
+        }
+
+        final double logS = FastMath.log(s) + r * t - 0.5 * integral
+                + rho / sigma * (vt - v - kappa * theta * t + kappa * integral)
+                + sqrhov * FastMath.sqrt(integral) * generator.nextNormalizedDouble();
+        out[0] = FastMath.exp(logS);
+        out[1] = vt;
+    }
+
+    /**
+     * Inverse distribution of sum_n Gamma(shape, 1)/gamma_n, a positive
+     * variable with Laplace transform
+     * ((L/kappa) sinh(kappa t/2) / sinh(L t/2))^shape, L = sqrt(kappa^2 + 2 sigma^2 b).
+     * The distribution is inverted by the trapezoidal Fourier sine sum of
+     * Abate and Whitt on a grid up to mean + 12 standard deviations
+     * or 25 scales of the leading term for skewed small shapes, quadratic in
+     * the grid index to follow the steep density at zero.
+     */
+    private final class InversionTable {
+        private final double[] x = new double[tablePoints + 1];
+        private final double[] cdf = new double[tablePoints + 1];
+
+        InversionTable(double shape) {
+            double s1 = 0.0;
+            double s2 = 0.0;
+            for (int n = 1; n <= 100000; ++n) {
+                final double g = (kappa * kappa * t * t + 4.0 * Math.PI * Math.PI * n * n)
+                        / (2.0 * sigma * sigma * t * t);
+                s1 += 1.0 / g;
+                s2 += 1.0 / (g * g);
+            }
+            s1 += 2.0 * sigma * sigma * t * t / (4.0 * Math.PI * Math.PI * 100000);
+            // small shapes are skewed, the tail follows the leading term Gamma(shape)/gamma_1
+            final double upper = Math.max(shape * s1 + tableStdDevs * FastMath.sqrt(shape * s2),
+                    (shape + tableTail) / gammaN[0]);
+
+            // characteristic function on the grid h*j, aliasing error below P(X > upper)
+            final double h = Math.PI / upper;
+            double[] phi = new double[1024];
+            int count = 0;
+            while (count < 1 << 22) {
+                final int j = count + 1;
+                final Complex value = characteristic(shape, h * j);
+                if (count == phi.length) {
+                    final double[] grown = new double[2 * phi.length];
+                    System.arraycopy(phi, 0, grown, 0, count);
+                    phi = grown;
+                }
+                phi[count++] = value.getReal() / j;
+                if (value.abs() / j < tableEpsilon)
+                    break;
+            }
+
+            for (int i = 1; i <= tablePoints; ++i) {
+                final double f = (double) i / tablePoints;
+                final double xi = upper * f * f;
+                final double c1 = FastMath.cos(h * xi);
+                final double s1i = FastMath.sin(h * xi);
+                double c = c1;
+                double sn = s1i;
+                double sum = 0.0;
+                for (int j = 0; j < count; ++j) {
+                    sum += sn * phi[j];
+                    final double next = sn * c1 + c * s1i;
+                    c = c * c1 - sn * s1i;
+                    sn = next;
+                }
+                x[i] = xi;
+                final double value = (h * xi + 2.0 * sum) / Math.PI;
+                cdf[i] = Math.min(1.0, Math.max(value, cdf[i - 1]));
+            }
+        }
+
+        private Complex characteristic(double shape, double u) {
+            final Complex l = new Complex(kappa * kappa, -2.0 * sigma * sigma * u).sqrt();
+            final Complex w = l.multiply(0.5 * t);
+            // log sinh(w) = w + log(1 - exp(-2w)) - log 2, continuous for Re w > 0
+            final Complex logSinh = w.add(Complex.ONE.subtract(w.multiply(-2.0).exp()).log())
+                    .subtract(new Complex(FastMath.log(2.0), 0.0));
+            final double logSinhKappa = FastMath.log(FastMath.sinh(0.5 * kappa * t));
+            final Complex logRatio = l.log().subtract(logSinh)
+                    .add(new Complex(logSinhKappa - FastMath.log(kappa), 0.0));
+            return logRatio.multiply(shape).exp();
+        }
+
+        double sample(final double u) {
+            if (u >= cdf[tablePoints])
+                return x[tablePoints];
+
+            int lo = 0;
+            int hi = tablePoints;
+            while (hi - lo > 1) {
+                final int mid = (lo + hi) >>> 1;
+                if (cdf[mid] < u)
+                    lo = mid;
+                else
+                    hi = mid;
+            }
+            final double width = cdf[hi] - cdf[lo];
+            return width > 0.0 ? x[lo] + (x[hi] - x[lo]) * (u - cdf[lo]) / width : x[hi];
+        }
+    }
+}
@@ -7,7 +7,8 @@ import org.apache.commons.math.util.FastMath;
  * Date: 2/5/11
  * Time: 13:31 PM
  */
-public class LogArrivedPointValuation implements PathValuation<Double> {
+public class LogArrivedPointValuation implements PathValuation<Double>, FlatPathValuation<Double>,
+        PathBlockValuation<Double> {
     private final int _dim;
 
     public LogArrivedPointValuation(int dim) {
@@ -15,8 +16,20 @@ public class LogArrivedPointValuation implements PathValuation<Double> {
     }
 
     public Double value(Path path) {
-        final double value = path.getValues(path.getLength() - 1).getQuick(_dim);
-        final double initial = path.getValues(0).getQuick(_dim);
+        final double value = path.getValue(path.getLength() - 1, _dim);
+        final double initial = path.getValue(0, _dim);
+        return FastMath.log(value / initial);
+    }
+
+    public Double value(FlatPath path) {
+        final double value = path.getValue(path.getLength() - 1, _dim);
+        final double initial = path.getValue(0, _dim);
+        return FastMath.log(value / initial);
+    }
+
+    public Double value(PathBlock block, int path) {
+        final double value = block.getValue(path, block.getLength() - 1, _dim);
+        final double initial = block.getValue(path, 0, _dim);
         return FastMath.log(value / initial);
     }
 }
@@ -1,28 +1,18 @@
 package cz.paulrz.montecarlo.multi;
 
 import cern.colt.matrix.linalg.Blas;
-import cern.colt.matrix.linalg.SeqBlas;
-import cern.colt.matrix.linalg.SmpBlas;
+import cz.paulrz.montecarlo.parallel.CpuPool;
 
 /**
+ * Blas used by the processes and discretizations. Per-step operations are
+ * small and run inside parallel workers, so the size-aware dispatch keeps
+ * them sequential, see {@link SizeAwareBlas}.
+ *
  * User: paul
  * Date: 2/5/11
  * Time: 10:31 AM
  */
 public final class MatrixHelper {
 
-    private static int numOfCpu = 1;
-    public static Blas blas;
-
-    static {
-        numOfCpu = Runtime.getRuntime().availableProcessors();
-
-        if (numOfCpu > 1)
-        {
-            SmpBlas.allocateBlas(numOfCpu, SeqBlas.seqBlas);
-            blas = SmpBlas.smpBlas;
-        }
-        else
-            blas = SeqBlas.seqBlas;
-    }
+    public static Blas blas = new SizeAwareBlas(CpuPool.numOfCpu);
 }
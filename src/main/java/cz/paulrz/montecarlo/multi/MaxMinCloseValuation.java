@@ -9,15 +9,17 @@ import cz.paulrz.montecarlo.single.MaxMinClose;
  */
 public class MaxMinCloseValuation implements PathValuation<MaxMinClose> {
     public MaxMinClose value(Path path) {
-        double[] values = path.getRow(0);
-        int len = values.length;
-        double close = values[len-1];
-        double max = values[0];
-        double min = values[0];
+        final double[] values = path.getElements();
+        final int stride = path.getTimeStride();
+        final int start = path.index(0, 0);
+        final int end = path.index(path.getLength() - 1, 0);
+        double close = values[end];
+        double max = values[start];
+        double min = values[start];
 
-        for(int i=1; i<len; ++i)
+        for(int k=start+stride; k<=end; k+=stride)
         {
-            double v = values[i];
+            double v = values[k];
             if (max < v) max = v;
             if (min > v) min = v;
         }
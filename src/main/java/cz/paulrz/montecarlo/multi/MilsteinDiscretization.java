@@ -0,0 +1,53 @@
+package cz.paulrz.montecarlo.multi;
+
+import cern.colt.matrix.DoubleMatrix1D;
+import cern.colt.matrix.DoubleMatrix2D;
+import org.apache.commons.math.util.FastMath;
+
+/**
+ * Multi-dimensional Milstein discretization. The Euler step is corrected
+ * by sum over j1, j2 of L^j1 b^j2 * I(j1, j2), where b^j is j-th column of
+ * the diffusion and L^j b is the derivative of the diffusion in the
+ * direction of b^j, see
+ * {@link StochasticProcess#diffusionDerivative(double, DoubleMatrix1D, DoubleMatrix1D)}.
+ *
+ * Iterated integrals are I(j, j) = (dW_j^2 - dt)/2 and
+ * I(j1, j2) = dW_j1*dW_j2/2 for j1 != j2. This is exact for commutative
+ * noise (L^j1 b^j2 = L^j2 b^j1, e.g. diagonal or additive noise) and the
+ * scheme has strong order 1. For non-commutative noise the Levy areas are
+ * replaced by their zero mean, the weak order is kept but the strong
+ * order drops to 1/2.
+ */
+public final class MilsteinDiscretization implements Discretization {
+    private final EulerDiscretization euler = new EulerDiscretization();
+
+    public DoubleMatrix1D drift(StochasticProcess process, double t, DoubleMatrix1D x, double dt) {
+        return euler.drift(process, t, x, dt);
+    }
+
+    public DoubleMatrix2D diffusion(StochasticProcess process, double t, DoubleMatrix1D x, double dt) {
+        return euler.diffusion(process, t, x, dt);
+    }
+
+    public DoubleMatrix1D evolve(StochasticProcess process, double t, DoubleMatrix1D x, double dt, DoubleMatrix1D dw) {
+        final DoubleMatrix1D result = euler.evolve(process, t, x, dt, dw);
+        final DoubleMatrix2D b = process.diffusion(t, x);
+        final int dim = result.size();
+        final int factors = b.columns();
+
+        for (int j1 = 0; j1 < factors; ++j1) {
+            final double w1 = dw.getQuick(j1);
+            final DoubleMatrix2D lb = process.diffusionDerivative(t, x, b.viewColumn(j1));
+            for (int j2 = 0; j2 < factors; ++j2) {
+                final double w2 = dw.getQuick(j2);
+                final double integral = j1 == j2 ? 0.5 * (w1 * w1 - 1.0) * dt : 0.5 * w1 * w2 * dt;
+                if (integral == 0.0)
+                    continue;
+                for (int i = 0; i < dim; ++i)
+                    result.setQuick(i, result.getQuick(i) + lb.getQuick(i, j2) * integral);
+            }
+        }
+
+        return result;
+    }
+}
@@ -6,6 +6,9 @@ import org.apache.commons.math.MathException;
 import org.apache.commons.math.random.NormalizedRandomGenerator;
 
 /**
+ * Valuations implementing {@link StreamingPathValuation} are fed point by
+ * point and the paths are not stored.
+ *
  * User: paul
  * Date: 2/5/11
  * Time: 12:43 PM
@@ -15,6 +18,7 @@ public class MonteCarloModel<TValue> implements IMonteCarloModel<TValue> {
     private final PathGenerator pathGenerator;
     private final PathValuation<TValue> pathValuation;
     private final boolean useAntithetic;
+    private final PathObserver<TValue> observer;
 
     /**
      * Constructor of Monte Carlo model
@@ -38,6 +42,7 @@ public class MonteCarloModel<TValue> implements IMonteCarloModel<TValue> {
             this.pathGenerator = new SimplePathGenerator(process, timeSteps, duration,
                     random);
         this.pathValuation = valuation;
+        this.observer = observerOf(valuation);
     }
 
     /**
@@ -52,12 +57,47 @@ public class MonteCarloModel<TValue> implements IMonteCarloModel<TValue> {
      */
     public MonteCarloModel(GenericProcess process, double duration, int timeSteps,
                            PathValuation<TValue> valuation, Accumulator<TValue> statistics) throws Exception {
+        this(process, duration, timeSteps, valuation, statistics, false);
+    }
+
+    /**
+     *
+     * Constructor of Quasi Monte Carlo Model with Sobol generator
+     *
+     * @param process Underlying stochastic process
+     * @param duration Duration of paths in time units
+     * @param timeSteps Path discretization time step
+     * @param valuation Path valuation function
+     * @param statistics Statistics summary
+     * @param useBridge Construct paths with multi-factor Brownian bridge
+     */
+    public MonteCarloModel(GenericProcess process, double duration, int timeSteps,
+                           PathValuation<TValue> valuation, Accumulator<TValue> statistics,
+                           boolean useBridge) throws Exception {
         this.summary = statistics;
-        this.pathGenerator = new SobolPathGenerator(process, timeSteps, duration);
+        this.pathGenerator = new SobolPathGenerator(process, timeSteps, duration, useBridge);
         this.pathValuation = valuation;
+        this.observer = observerOf(valuation);
         this.useAntithetic = false;
     }
 
+    /**
+     * Constructor of Monte Carlo model with given path generator
+     *
+     * @param generator Path generator
+     * @param valuation Path valuation function
+     * @param statistics Statistics summary
+     */
+    public MonteCarloModel(PathGenerator generator, PathValuation<TValue> valuation,
+                           Accumulator<TValue> statistics) {
+        this.summary = statistics;
+        this.pathGenerator = generator;
+        this.pathValuation = valuation;
+        this.observer = observerOf(valuation);
+        this.useAntithetic = generator instanceof AntitheticPathGenerator
+                || generator instanceof FlatPathGenerator && ((FlatPathGenerator) generator).isAntithetic();
+    }
+
     /**
      * Adds path samples to statistics
      *
@@ -66,6 +106,14 @@ public class MonteCarloModel<TValue> implements IMonteCarloModel<TValue> {
     public int addSamples(int samples) throws MathException {
         final int allSamples = useAntithetic ? samples*2 : samples;
 
+        if (observer != null) {
+            for (int i = 0; i < allSamples; ++i) {
+                pathGenerator.stream(observer);
+                summary.addValue(observer.value());
+            }
+            return samples;
+        }
+
         for (int i = 0; i < allSamples; ++i) {
             final Path path = pathGenerator.next();
             final TValue pathValue = pathValuation.value(path);
@@ -74,19 +122,17 @@ public class MonteCarloModel<TValue> implements IMonteCarloModel<TValue> {
         return samples;
     }
 
-    public int addSamples(int minSamples, double eps, int maxSteps) throws MathException {
-        addSamples(minSamples);
-        Accumulator<TValue> prev = summary.deepCopy();
-        int steps = 1;
-        while(steps==1 || summary.norm(prev) > eps) {
-            prev = summary.deepCopy();
-            addSamples(minSamples);
-            steps++;
-
-            if (steps>maxSteps)
-                return steps*minSamples;
-        }
-        return steps*minSamples;
+    /**
+     * Gets observer for streaming mode
+     *
+     * @param valuation Path valuation
+     * @return New observer or null if the valuation needs whole paths
+     */
+    @SuppressWarnings("unchecked")
+    static <T> PathObserver<T> observerOf(PathValuation<T> valuation) {
+        if (StreamingPathValuation.streams(valuation))
+            return ((StreamingPathValuation<T>) valuation).newObserver();
+        return null;
     }
 
     /**
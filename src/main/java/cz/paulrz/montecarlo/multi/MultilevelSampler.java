@@ -0,0 +1,74 @@
+package cz.paulrz.montecarlo.multi;
+
+import cern.colt.matrix.DoubleFactory1D;
+import cern.colt.matrix.DoubleMatrix1D;
+import cz.paulrz.montecarlo.mlmc.LevelSampler;
+import org.apache.commons.math.random.NormalizedRandomGenerator;
+import org.apache.commons.math.util.FastMath;
+
+/**
+ * Level sampler of multilevel Monte Carlo for multi-dimensional processes,
+ * see {@link cz.paulrz.montecarlo.single.MultilevelSampler1D}.
+ */
+public final class MultilevelSampler implements LevelSampler {
+    private static final double invSqrt2 = 1.0 / FastMath.sqrt(2.0);
+
+    private final GenericProcess process;
+    private final double duration;
+    private final int baseSteps;
+    private final PathValuation<Double> valuation;
+    private final int dim;
+    private final int noise;
+
+    public MultilevelSampler(GenericProcess process, double duration, int baseSteps,
+                             PathValuation<Double> valuation) {
+        this.process = process;
+        this.duration = duration;
+        this.baseSteps = baseSteps;
+        this.valuation = valuation;
+        dim = process.getDimension();
+        noise = process.getNoiseDimension();
+    }
+
+    public double sample(final int level, final NormalizedRandomGenerator random) {
+        final int steps = baseSteps << level;
+        final double dt = duration / steps;
+        final Path fine = new Path(dim, steps + 1, dt);
+        DoubleMatrix1D xf = process.getInitialVector();
+        fine.addValue(xf);
+
+        if (level == 0) {
+            for (int i = 0; i < steps; ++i) {
+                xf = process.evolveMatrix(i * dt, xf, dt, generate(random));
+                fine.addValue(xf);
+            }
+            return valuation.value(fine);
+        }
+
+        final Path coarse = new Path(dim, steps / 2 + 1, 2.0 * dt);
+        DoubleMatrix1D xc = xf;
+        coarse.addValue(xc);
+        final DoubleMatrix1D dwc = DoubleFactory1D.dense.make(noise);
+        for (int i = 0; i < steps; i += 2) {
+            final DoubleMatrix1D dw1 = generate(random);
+            final DoubleMatrix1D dw2 = generate(random);
+            xf = process.evolveMatrix(i * dt, xf, dt, dw1);
+            fine.addValue(xf);
+            xf = process.evolveMatrix((i + 1) * dt, xf, dt, dw2);
+            fine.addValue(xf);
+
+            for (int j = 0; j < noise; ++j)
+                dwc.setQuick(j, (dw1.getQuick(j) + dw2.getQuick(j)) * invSqrt2);
+            xc = process.evolveMatrix(i * dt, xc, 2.0 * dt, dwc);
+            coarse.addValue(xc);
+        }
+        return valuation.value(fine) - valuation.value(coarse);
+    }
+
+    private DoubleMatrix1D generate(final NormalizedRandomGenerator random) {
+        final double[] result = new double[noise];
+        for (int i = 0; i < noise; ++i)
+            result[i] = random.nextNormalizedDouble();
+        return DoubleFactory1D.dense.make(result);
+    }
+}
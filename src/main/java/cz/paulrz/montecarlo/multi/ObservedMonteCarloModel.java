@@ -0,0 +1,56 @@
+package cz.paulrz.montecarlo.multi;
+
+import cz.paulrz.montecarlo.accumulator.Accumulator;
+import cz.paulrz.montecarlo.single.IMonteCarloModel;
+import cz.paulrz.montecarlo.schedule.ObservationSchedule;
+import org.apache.commons.math.MathException;
+
+/**
+ * Monte Carlo model valuing paths on an observation schedule. The process is
+ * stepped on the fine grid of the generator, but only the scheduled points
+ * are stored, in a single buffer reused for all paths.
+ *
+ */
+public final class ObservedMonteCarloModel<TValue> implements IMonteCarloModel<TValue> {
+    private final Accumulator<TValue> summary;
+    private final PathGenerator pathGenerator;
+    private final ObservedPathValuation<TValue> pathValuation;
+    private final ObservedPath path;
+    private final boolean useAntithetic;
+
+    /**
+     * Constructor of Monte Carlo model
+     *
+     * @param generator Path generator
+     * @param dim Dimension of the process
+     * @param schedule Observation schedule
+     * @param dt Time step of the generator
+     * @param valuation Path valuation function
+     * @param statistics Statistics summary
+     */
+    public ObservedMonteCarloModel(PathGenerator generator, int dim,
+                                   ObservationSchedule schedule, double dt,
+                                   ObservedPathValuation<TValue> valuation,
+                                   Accumulator<TValue> statistics) {
+        this.summary = statistics;
+        this.pathGenerator = generator;
+        this.pathValuation = valuation;
+        this.path = new ObservedPath(dim, schedule, dt);
+        this.useAntithetic = generator instanceof AntitheticPathGenerator
+                || generator instanceof FlatPathGenerator && ((FlatPathGenerator) generator).isAntithetic();
+    }
+
+    public int addSamples(int samples) throws MathException {
+        final int allSamples = useAntithetic ? samples*2 : samples;
+
+        for (int i = 0; i < allSamples; ++i) {
+            pathGenerator.nextObserved(path);
+            summary.addValue(pathValuation.value(path));
+        }
+        return samples;
+    }
+
+    public Accumulator<TValue> getStats() {
+        return summary;
+    }
+}
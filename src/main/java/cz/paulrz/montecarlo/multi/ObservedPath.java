@@ -0,0 +1,88 @@
+package cz.paulrz.montecarlo.multi;
+
+import cern.colt.matrix.DoubleMatrix1D;
+import cz.paulrz.montecarlo.schedule.ObservationSchedule;
+
+/**
+ * Multi-dimensional path recorded at the points of an
+ * {@link ObservationSchedule} only. Values are stored by observation,
+ * element k*dim + i is coordinate i at observation k.
+ *
+ */
+public final class ObservedPath {
+    private final ObservationSchedule schedule;
+    private final double[] values;
+    private final double dt;
+    private final int dim;
+
+    /**
+     * Constructor of observed path
+     *
+     * @param dim Dimension of the process
+     * @param schedule Observation schedule
+     * @param dt Time step of the fine grid
+     */
+    public ObservedPath(int dim, ObservationSchedule schedule, double dt) {
+        this.dim = dim;
+        this.schedule = schedule;
+        this.dt = dt;
+        values = new double[dim * schedule.size()];
+    }
+
+    public ObservationSchedule getSchedule() {
+        return schedule;
+    }
+
+    public int getDimension() {
+        return dim;
+    }
+
+    /**
+     * Gets number of observations
+     *
+     * @return Number of observations
+     */
+    public int getLength() {
+        return schedule.size();
+    }
+
+    /**
+     * Gets coordinate i at k-th observation
+     *
+     * @param k Observation index
+     * @param i Coordinate index
+     * @return Value
+     */
+    public double getValue(int k, int i) {
+        return values[k * dim + i];
+    }
+
+    /**
+     * Gets time of k-th observation
+     *
+     * @param k Observation index
+     * @return Time
+     */
+    public double getTime(int k) {
+        return schedule.getStep(k) * dt;
+    }
+
+    /**
+     * Gets all observed values
+     *
+     * @return Values, element k*dim + i is coordinate i at observation k
+     */
+    public double[] getValues() {
+        return values;
+    }
+
+    void setValue(int k, DoubleMatrix1D x) {
+        final int offset = k * dim;
+        for (int i = 0; i < dim; ++i)
+            values[offset + i] = x.getQuick(i);
+    }
+
+    void setValue(int k, double[] x) {
+        System.arraycopy(x, 0, values, k * dim, dim);
+    }
+}
@@ -23,10 +23,12 @@ public final class ParallelMonteCarloModel<TValue> implements IMonteCarloModel<T
     private final RandomGeneratorFactory factory;
     private final PathValuation<TValue> pathValuation;
     private final boolean useAntithetic;
+    private final boolean useBridge;
     private final GenericProcess process;
     private final double duration;
     private final int timeSteps;
-
+    // points of the Sobol sequence used by previous calls, quasi random mode only
+    private int quasiOffset = 0;
 
     /**
      * Constructor of Monte Carlo model
@@ -42,9 +44,28 @@ public final class ParallelMonteCarloModel<TValue> implements IMonteCarloModel<T
                                    GenericProcess process, double duration, int timeSteps,
                                    PathValuation<TValue> valuation, Accumulator<TValue> statistics,
                                    boolean useAntithetic) {
+        this(random, process, duration, timeSteps, valuation, statistics, useAntithetic, false);
+    }
+
+    /**
+     * Constructor of Monte Carlo model
+     *
+     * @param random     Underlying random number generator, null for Sobol generator
+     * @param process    Underlying stochastic process
+     * @param duration   Duration of paths in time units
+     * @param timeSteps  Path discretization time step
+     * @param valuation  Path valuation function
+     * @param statistics Statistics summary
+     * @param useBridge  Construct Sobol paths with multi-factor Brownian bridge
+     */
+    public ParallelMonteCarloModel(RandomGeneratorFactory random,
+                                   GenericProcess process, double duration, int timeSteps,
+                                   PathValuation<TValue> valuation, Accumulator<TValue> statistics,
+                                   boolean useAntithetic, boolean useBridge) {
         this.factory = random;
         this.summary = statistics;
         this.useAntithetic = useAntithetic;
+        this.useBridge = useBridge;
         this.pathValuation = valuation;
         this.process = process;
         this.duration = duration;
@@ -56,7 +77,8 @@ public final class ParallelMonteCarloModel<TValue> implements IMonteCarloModel<T
         final int samplesPerPartition = samples / CpuPool.numOfCpu;
 
         for (int i = 0; i < CpuPool.numOfCpu; ++i) {
-            Callable<List<TValue>> callable = new ValuatedPathsWorker(samplesPerPartition);
+            Callable<List<TValue>> callable = new ValuatedPathsWorker(samplesPerPartition,
+                    quasiOffset + i * samplesPerPartition);
             Future<List<TValue>> submit = CpuPool.executorService.submit(callable);
             executionList.add(submit);
         }
@@ -76,22 +98,27 @@ public final class ParallelMonteCarloModel<TValue> implements IMonteCarloModel<T
 
         }
 
+        quasiOffset += samplesPerPartition * CpuPool.numOfCpu;
         return samplesPerPartition * CpuPool.numOfCpu;
     }
 
-    public int addSamples(int minSamples, double eps, int maxSteps) throws MathException {
-        return 0;
-    }
-
     public Accumulator<TValue> getStats() {
         return summary;
     }
 
     private final class ValuatedPathsWorker implements Callable<List<TValue>> {
         private final int samples;
-
-        public ValuatedPathsWorker(int samples) {
+        private final int offset;
+
+        /**
+         * Constructs worker
+         *
+         * @param samples Number of samples
+         * @param offset First point of the Sobol sequence used by the worker in quasi random mode
+         */
+        public ValuatedPathsWorker(int samples, int offset) {
             this.samples = samples;
+            this.offset = offset;
         }
 
         public List<TValue> call() throws Exception {
@@ -99,6 +126,15 @@ public final class ParallelMonteCarloModel<TValue> implements IMonteCarloModel<T
             final int allSamples = useAntithetic ? samples * 2 : samples;
             final List<TValue> result = new ArrayList<TValue>(allSamples);
 
+            final PathObserver<TValue> observer = MonteCarloModel.observerOf(pathValuation);
+            if (observer != null) {
+                for (int i = 0; i < allSamples; ++i) {
+                    pathGenerator.stream(observer);
+                    result.add(observer.value());
+                }
+                return result;
+            }
+
             for (int i = 0; i < allSamples; ++i) {
                 final Path path = pathGenerator.next();
                 final TValue pathValue = pathValuation.value(path);
@@ -111,7 +147,7 @@ public final class ParallelMonteCarloModel<TValue> implements IMonteCarloModel<T
         private PathGenerator createPathGenerator() {
             if (factory == null) {
                 try {
-                    return new SobolPathGenerator(process, timeSteps, duration);
+                    return new SobolPathGenerator(process, timeSteps, duration, useBridge, offset);
                 } catch (Exception e) {
                     // fallback...
                 }
@@ -1,11 +1,22 @@
 package cz.paulrz.montecarlo.multi;
 
-import cern.colt.matrix.DoubleFactory2D;
 import cern.colt.matrix.DoubleMatrix1D;
 import cern.colt.matrix.DoubleMatrix2D;
+import cern.colt.matrix.impl.DenseDoubleMatrix2D;
 import org.apache.commons.math.exception.OutOfRangeException;
 
 /**
+ * Multi-dimensional path, a matrix with factors in rows and points in
+ * columns stored in one primitive array. In the default row-major layout
+ * the time series of each factor is contiguous, in the column-major layout
+ * the point of each time is contiguous.
+ *
+ * Views of the matrix and the primitive accessors read the array directly,
+ * element {@link #index(int, int)} of {@link #getElements()} is factor f at
+ * point i. Valuations over one factor should walk the array by
+ * {@link #getTimeStride()} instead of copying the series by
+ * {@link #getRow(int)}.
+ *
  * User: paul
  * Date: 2/5/11
  * Time: 12:24 PM
@@ -13,18 +24,46 @@ import org.apache.commons.math.exception.OutOfRangeException;
 public final class Path {
 
     private final DoubleMatrix2D _path;
+    private final double[] _elements;
     private final double _dt;
     private final int _length;
     private int currentColumn = 0;
     private final int _dim;
+    private final int _factorStride;
+    private final int _timeStride;
+    private final boolean _columnMajor;
 
     public Path(int dim, int length, double dt) {
+        this(dim, length, dt, false);
+    }
+
+    /**
+     * Constructor of path with given layout
+     *
+     * @param dim Dimension of the process
+     * @param length Number of points
+     * @param dt Time step
+     * @param columnMajor Store points contiguously instead of factor time series
+     */
+    public Path(int dim, int length, double dt, boolean columnMajor) {
         _dt = dt;
         _dim = dim;
         _length = length;
-        _path = DoubleFactory2D.dense.make(dim, length);
+        _columnMajor = columnMajor;
+        _elements = new double[dim * length];
+        _factorStride = columnMajor ? 1 : length;
+        _timeStride = columnMajor ? dim : 1;
+        _path = new View(dim, length, _elements, _factorStride, _timeStride);
     }
 
+    /**
+     * Dense matrix over the elements of the path
+     */
+    private static final class View extends DenseDoubleMatrix2D {
+        View(int rows, int columns, double[] elements, int rowStride, int columnStride) {
+            super(rows, columns, elements, 0, 0, rowStride, columnStride);
+        }
+    }
 
     /**
      * Gets time step (dt)
@@ -44,6 +83,14 @@ public final class Path {
         return _length;
     }
 
+    public int getDimension() {
+        return _dim;
+    }
+
+    public boolean isColumnMajor() {
+        return _columnMajor;
+    }
+
     public void addValue(DoubleMatrix1D vector) {
         if (currentColumn>= _length)
             throw new OutOfRangeException(currentColumn, 0, _length);
@@ -51,17 +98,109 @@ public final class Path {
         if (vector.size() != _dim)
             throw new OutOfRangeException(vector.size(), 0, _dim);
 
-        for(int i=0; i<_dim; ++i)
-            _path.setQuick(i, currentColumn, vector.get(i));
+        int k = currentColumn * _timeStride;
+        for(int i=0; i<_dim; ++i) {
+            _elements[k] = vector.getQuick(i);
+            k += _factorStride;
+        }
 
         currentColumn++;
     }
 
+    /**
+     * Appends point given by primitive values
+     *
+     * @param x Values of all factors
+     */
+    void addValue(double[] x) {
+        if (currentColumn>= _length)
+            throw new OutOfRangeException(currentColumn, 0, _length);
+
+        int k = currentColumn * _timeStride;
+        for(int i=0; i<_dim; ++i) {
+            _elements[k] = x[i];
+            k += _factorStride;
+        }
+
+        currentColumn++;
+    }
+
+    /**
+     * Gets point of the path
+     *
+     * @param i Point index
+     * @return View of the point, no copy
+     */
     public DoubleMatrix1D getValues(int i) {
         return _path.viewColumn(i);
     }
 
+    /**
+     * Gets time series of one factor
+     *
+     * @param f Factor index
+     * @return View of the series, no copy
+     */
+    public DoubleMatrix1D getSeries(int f) {
+        return _path.viewRow(f);
+    }
+
+    /**
+     * Gets copy of the time series of one factor
+     *
+     * @param i Factor index
+     * @return New array
+     */
     public double[] getRow(int i) {
         return _path.viewRow(i).toArray();
     }
+
+    /**
+     * Gets factor f at point i
+     *
+     * @param i Point index
+     * @param f Factor index
+     * @return Value
+     */
+    public double getValue(int i, int f) {
+        return _elements[i * _timeStride + f * _factorStride];
+    }
+
+    /**
+     * Gets the elements of the path, not a copy
+     *
+     * @return Elements, see {@link #index(int, int)}
+     */
+    public double[] getElements() {
+        return _elements;
+    }
+
+    /**
+     * Gets position of factor f at point i in the elements
+     *
+     * @param i Point index
+     * @param f Factor index
+     * @return Index to {@link #getElements()}
+     */
+    public int index(int i, int f) {
+        return i * _timeStride + f * _factorStride;
+    }
+
+    /**
+     * Gets distance of consecutive points of one factor in the elements
+     *
+     * @return 1 for row-major layout, dimension for column-major
+     */
+    public int getTimeStride() {
+        return _timeStride;
+    }
+
+    /**
+     * Gets distance of consecutive factors of one point in the elements
+     *
+     * @return Length for row-major layout, 1 for column-major
+     */
+    public int getFactorStride() {
+        return _factorStride;
+    }
 }
@@ -0,0 +1,58 @@
+package cz.paulrz.montecarlo.multi;
+
+/**
+ * Block of multi-dimensional paths of equal dimension and length, the
+ * storage of a whole scenario set. Each path occupies one contiguous region
+ * laid out as {@link FlatPath}, element i*dim + f of path p is factor f at
+ * point i. No objects are held per path.
+ *
+ * Blocks obtained from {@link PathBlocks} may hold native memory, which is
+ * released by {@link #close()}. Values must not be accessed afterwards.
+ */
+public interface PathBlock {
+    int getPathCount();
+
+    int getDimension();
+
+    /**
+     * Gets length of the paths
+     *
+     * @return Number of points in each path
+     */
+    int getLength();
+
+    double getTimeStep();
+
+    /**
+     * Gets factor f at point i of path p
+     *
+     * @param p Path index
+     * @param i Point index
+     * @param f Factor index
+     * @return Value
+     */
+    double getValue(int p, int i, int f);
+
+    /**
+     * Gets view of path p, valid until the path is overwritten or the
+     * block is closed
+     *
+     * @param p Path index
+     * @return View reading the block, no copy
+     */
+    PathView getPath(int p);
+
+    /**
+     * Stores point i of path p
+     *
+     * @param p Path index
+     * @param i Point index
+     * @param x Values of all factors
+     */
+    void setPoint(int p, int i, double[] x);
+
+    /**
+     * Releases the storage of the block
+     */
+    void close();
+}
@@ -0,0 +1,15 @@
+package cz.paulrz.montecarlo.multi;
+
+/**
+ * Valuation of paths stored in a {@link PathBlock}, reads the block directly
+ */
+public interface PathBlockValuation<T> {
+    /**
+     * Calculates path's value
+     *
+     * @param block Block of paths
+     * @param path Index of the path in the block
+     * @return Valuation of the path
+     */
+    T value(final PathBlock block, final int path);
+}
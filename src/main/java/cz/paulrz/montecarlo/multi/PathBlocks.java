@@ -0,0 +1,84 @@
+package cz.paulrz.montecarlo.multi;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Allocates {@link PathBlock}s.
+ *
+ * Blocks are allocated on the heap by default, in {@link HeapPathBlock}
+ * chunks, so any size fits as far as the heap does. A scenario set of
+ * 10^5 paths of 50 factors and 250 points is 10 GB of heap; either keep
+ * the block smaller and let {@link BlockMonteCarloModel} reuse it, or
+ * store the block off-heap.
+ *
+ * Off-heap blocks keep the heap flat whatever the block size. They use the
+ * incubating Foreign Memory API (<code>jdk.incubator.foreign</code>) and
+ * must be opted in to:
+ * <ul>
+ * <li>build with the <code>vector</code> Maven profile, which compiles
+ * ForeignPathBlock,</li>
+ * <li>run with <code>--add-modules jdk.incubator.foreign</code>,</li>
+ * <li>set the system property <code>cz.paulrz.montecarlo.offheap</code>
+ * to true or call {@link #setOffHeapEnabled(boolean)}.</li>
+ * </ul>
+ * Without any of these, heap blocks are allocated.
+ */
+public final class PathBlocks {
+    public static final String offHeapProperty = "cz.paulrz.montecarlo.offheap";
+    private static final String offHeapBlockClass = "cz.paulrz.montecarlo.multi.ForeignPathBlock";
+
+    private static final Constructor<?> offHeap = loadOffHeapBlock();
+    private static volatile boolean offHeapEnabled = Boolean.getBoolean(offHeapProperty) && offHeap != null;
+
+    private PathBlocks() {
+    }
+
+    private static Constructor<?> loadOffHeapBlock() {
+        try {
+            return Class.forName(offHeapBlockClass)
+                    .getConstructor(int.class, int.class, int.class, double.class);
+        } catch (Throwable e) {
+            // not compiled in or module not resolved
+            return null;
+        }
+    }
+
+    /**
+     * Allocates block of paths
+     *
+     * @param paths Number of paths
+     * @param dim Dimension of the process
+     * @param length Number of points of each path
+     * @param dt Time step
+     * @return Off-heap block if enabled, heap block otherwise
+     */
+    public static PathBlock allocate(int paths, int dim, int length, double dt) {
+        if (!offHeapEnabled)
+            return new HeapPathBlock(paths, dim, length, dt);
+        try {
+            return (PathBlock) offHeap.newInstance(paths, dim, length, dt);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static boolean isOffHeapAvailable() {
+        return offHeap != null;
+    }
+
+    /**
+     * Switches between off-heap and heap blocks
+     *
+     * @param enabled Allocate off-heap blocks if they are available
+     * @return True if off-heap blocks are allocated
+     */
+    public static boolean setOffHeapEnabled(boolean enabled) {
+        offHeapEnabled = enabled && offHeap != null;
+        return offHeapEnabled;
+    }
+}
@@ -1,5 +1,6 @@
 package cz.paulrz.montecarlo.multi;
 
+import cz.paulrz.montecarlo.schedule.ObservationSchedule;
 import org.apache.commons.math.MathException;
 
 /**
@@ -14,4 +15,35 @@ public interface PathGenerator {
      * @return Path for the stochastic process
      */
     Path next() throws MathException;
+
+    /**
+     * Generates a new path recording only the scheduled points. The process
+     * is stepped up to the last observation only. The default copies the
+     * scheduled points of {@link #next()}, generators override it to step
+     * only up to the last observation.
+     *
+     * @param path Observed path buffer, its schedule must fit the generator's length
+     */
+    default void nextObserved(ObservedPath path) throws MathException {
+        final Path generated = next();
+        final ObservationSchedule schedule = path.getSchedule();
+        schedule.checkLength(generated.getLength());
+        for (int k = 0; k < schedule.size(); ++k)
+            path.setValue(k, generated.getValues(schedule.getStep(k)));
+    }
+
+    /**
+     * Generates a new path passing its points to the observer as they are
+     * generated. The path is not stored. Stepping ends early once a
+     * {@link StoppablePathObserver} is done. The default passes the points
+     * of {@link #next()}, generators override it to step without the path.
+     *
+     * @param observer Observer of the path points
+     */
+    default void stream(PathObserver<?> observer) throws MathException {
+        final Path path = next();
+        observer.start(path.getValues(0));
+        for (int i = 1; i < path.getLength() && !StoppablePathObserver.isDone(observer); ++i)
+            observer.observe(path.getValues(i));
+    }
 }
@@ -0,0 +1,31 @@
+package cz.paulrz.montecarlo.multi;
+
+import cern.colt.matrix.DoubleMatrix1D;
+
+/**
+ * Running state of a streaming valuation of multi-factor paths, see
+ * {@link cz.paulrz.montecarlo.single.PathObserver}. Points passed to the
+ * observer must not be modified nor kept after the call.
+ */
+public interface PathObserver<T> {
+    /**
+     * Starts a new path
+     *
+     * @param x0 First point of the path
+     */
+    void start(final DoubleMatrix1D x0);
+
+    /**
+     * Receives the next point of the path
+     *
+     * @param x Point value
+     */
+    void observe(final DoubleMatrix1D x);
+
+    /**
+     * Calculates value of the path after its last point
+     *
+     * @return Valuation of the path
+     */
+    T value();
+}
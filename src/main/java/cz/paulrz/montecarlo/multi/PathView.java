@@ -0,0 +1,28 @@
+package cz.paulrz.montecarlo.multi;
+
+/**
+ * Read-only view of one multi-dimensional path stored elsewhere, e.g. in a
+ * {@link PathBlock} or a {@link FlatPath}. Values are read from the
+ * storage, nothing is copied.
+ */
+public interface PathView {
+    int getDimension();
+
+    /**
+     * Gets length of the path
+     *
+     * @return Number of points in the path
+     */
+    int getLength();
+
+    double getTimeStep();
+
+    /**
+     * Gets factor f at point i
+     *
+     * @param i Point index
+     * @param f Factor index
+     * @return Value
+     */
+    double getValue(int i, int f);
+}
@@ -0,0 +1,262 @@
+package cz.paulrz.montecarlo.multi;
+
+import cern.colt.matrix.DoubleFactory2D;
+import cern.colt.matrix.DoubleMatrix1D;
+import cern.colt.matrix.DoubleMatrix2D;
+import cern.colt.matrix.linalg.EigenvalueDecomposition;
+import cern.colt.matrix.linalg.SingularValueDecomposition;
+import org.apache.commons.math.util.FastMath;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Principal component construction of multi-factor Brownian paths.
+ *
+ * The joint covariance of the path is the Kronecker product of the time
+ * covariance min(t_i, t_j) and of the factor covariance A*A', where A is the
+ * constant volatility factor applied to the Brownian increments. Its
+ * eigenvectors are products of the time eigenvectors and of the right
+ * singular vectors of A, so the decomposition is done on the two small
+ * matrices only and the transform is two dense matrix products.
+ *
+ * Variates are assigned to components in the order of decreasing explained
+ * variance, i.e. the first Sobol dimensions drive the leading components.
+ * Input and output use the same layout as the batched
+ * {@link cz.paulrz.montecarlo.random.BrownianBridge} transform: row i of
+ * width dim holds step i, row 0 is ignored in input and zeroed in output.
+ *
+ * Instances are immutable and shared, see
+ * {@link #getInstance(int, double, DoubleMatrix2D)}. Only the
+ * {@link #cacheSize} most recently used decompositions are kept, callers
+ * recalibrating the factor often may construct and own their instances.
+ */
+public final class PcaPathConstruction {
+    private static final int block = 64;
+    public static final int cacheSize = 16;
+    private static final Map<Key, PcaPathConstruction> cache =
+            new LinkedHashMap<Key, PcaPathConstruction>(2 * cacheSize, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, PcaPathConstruction> eldest) {
+                    return size() > cacheSize;
+                }
+            };
+
+    private final int steps;
+    private final int points;
+    private final int dim;
+    private final double sqrtdt;
+    // time components scaled by sqrt of eigenvalues, points x points row-major
+    private final double[] timeFactor;
+    // right singular vectors of A, transposed, dim x dim row-major
+    private final double[] rotation;
+    // k-th variate drives component componentIndex[k] = r*dim + c
+    private final int[] componentIndex;
+    private final double[] explained;
+
+    /**
+     * Constructs the decomposition
+     *
+     * @param steps Number of path points, the first one is known
+     * @param dt Time step
+     * @param factor Volatility factor A (rows are assets, columns are Brownian factors)
+     */
+    public PcaPathConstruction(int steps, double dt, DoubleMatrix2D factor) {
+        if (factor.rows() != factor.columns())
+            throw new IllegalArgumentException("factor");
+
+        this.steps = steps;
+        points = steps - 1;
+        dim = factor.columns();
+        sqrtdt = FastMath.sqrt(dt);
+
+        final DoubleMatrix2D timeCov = DoubleFactory2D.dense.make(points, points);
+        for (int i = 0; i < points; ++i)
+            for (int j = 0; j < points; ++j)
+                timeCov.setQuick(i, j, (Math.min(i, j) + 1) * dt);
+
+        // eigenvalues are returned in ascending order
+        final EigenvalueDecomposition eigen = new EigenvalueDecomposition(timeCov);
+        final DoubleMatrix1D lambda = eigen.getRealEigenvalues();
+        final DoubleMatrix2D u = eigen.getV();
+
+        timeFactor = new double[points * points];
+        final double[] timeVariance = new double[points];
+        for (int r = 0; r < points; ++r) {
+            final int col = points - 1 - r;
+            final double l = Math.max(lambda.getQuick(col), 0.0);
+            timeVariance[r] = l;
+            final double sl = FastMath.sqrt(l);
+            for (int i = 0; i < points; ++i)
+                timeFactor[i * points + r] = u.getQuick(i, col) * sl;
+        }
+
+        // singular values are returned in descending order
+        final SingularValueDecomposition svd = new SingularValueDecomposition(factor);
+        final double[] s = svd.getSingularValues();
+        final DoubleMatrix2D v = svd.getV();
+        rotation = new double[dim * dim];
+        for (int a = 0; a < dim; ++a)
+            for (int c = 0; c < dim; ++c)
+                rotation[c * dim + a] = v.getQuick(a, c);
+
+        final int components = points * dim;
+        final Integer[] order = new Integer[components];
+        final double[] variance = new double[components];
+        for (int r = 0; r < points; ++r)
+            for (int c = 0; c < dim; ++c) {
+                order[r * dim + c] = r * dim + c;
+                variance[r * dim + c] = timeVariance[r] * s[c] * s[c];
+            }
+
+        Arrays.sort(order, new Comparator<Integer>() {
+            public int compare(Integer o1, Integer o2) {
+                return Double.compare(variance[o2], variance[o1]);
+            }
+        });
+
+        componentIndex = new int[components];
+        explained = new double[components];
+        for (int k = 0; k < components; ++k) {
+            componentIndex[k] = order[k];
+            explained[k] = variance[order[k]];
+        }
+    }
+
+    /**
+     * Gets a shared decomposition for the given grid and volatility factor,
+     * least recently used decompositions are evicted
+     *
+     * @param steps Number of path points
+     * @param dt Time step
+     * @param factor Volatility factor
+     * @return Cached decomposition
+     */
+    public static PcaPathConstruction getInstance(int steps, double dt, DoubleMatrix2D factor) {
+        final Key key = new Key(steps, dt, factor.toArray());
+        synchronized (cache) {
+            final PcaPathConstruction pca = cache.get(key);
+            if (pca != null)
+                return pca;
+        }
+
+        // decomposed outside of the lock, a concurrent duplicate is harmless
+        final PcaPathConstruction created = new PcaPathConstruction(steps, dt, factor);
+        synchronized (cache) {
+            final PcaPathConstruction pca = cache.get(key);
+            if (pca != null)
+                return pca;
+            cache.put(key, created);
+            return created;
+        }
+    }
+
+    public int size() {
+        return steps;
+    }
+
+    public int getDimension() {
+        return dim;
+    }
+
+    /**
+     * Variance explained by the k-th variate's component, in decreasing order
+     *
+     * @param k Variate index
+     * @return Explained variance
+     */
+    public double getExplainedVariance(int k) {
+        return explained[k];
+    }
+
+    /**
+     * Transforms variates into normalized Brownian increments. Input and
+     * output must have steps*dim elements and must not be the same array.
+     *
+     * @param input Variates starting at row 1, most important first
+     * @param output Increments normalized to unit time, row 0 is zeroed
+     * @param z Caller owned scratch of (steps-1)*dim elements
+     */
+    public void transform(final double[] input, final double[] output, final double[] z) {
+        final int components = points * dim;
+
+        // scatter variates to the component matrix Z (points x dim)
+        for (int k = 0; k < components; ++k)
+            z[componentIndex[k]] = input[dim + k];
+
+        // B = timeFactor * Z, written to output rows 1..points
+        Arrays.fill(output, 0, (points + 1) * dim, 0.0);
+        for (int i0 = 0; i0 < points; i0 += block) {
+            final int i1 = Math.min(i0 + block, points);
+            for (int r0 = 0; r0 < points; r0 += block) {
+                final int r1 = Math.min(r0 + block, points);
+                for (int i = i0; i < i1; ++i) {
+                    final int out = (i + 1) * dim;
+                    final int tf = i * points;
+                    for (int r = r0; r < r1; ++r) {
+                        final double w = timeFactor[tf + r];
+                        final int zr = r * dim;
+                        for (int c = 0; c < dim; ++c)
+                            output[out + c] += w * z[zr + c];
+                    }
+                }
+            }
+        }
+
+        // W = B * V', reusing z as row buffer
+        for (int i = 1; i <= points; ++i) {
+            final int row = i * dim;
+            System.arraycopy(output, row, z, 0, dim);
+            for (int a = 0; a < dim; ++a)
+                output[row + a] = 0.0;
+            for (int c = 0; c < dim; ++c) {
+                final double b = z[c];
+                final int rc = c * dim;
+                for (int a = 0; a < dim; ++a)
+                    output[row + a] += b * rotation[rc + a];
+            }
+        }
+
+        // increments normalized to unit time
+        final double norm = 1.0 / sqrtdt;
+        for (int i = points; i > 1; --i) {
+            final int row = i * dim;
+            final int prev = row - dim;
+            for (int a = 0; a < dim; ++a)
+                output[row + a] = (output[row + a] - output[prev + a]) * norm;
+        }
+        for (int a = 0; a < dim; ++a) {
+            output[dim + a] *= norm;
+            output[a] = 0.0;
+        }
+    }
+
+    private static final class Key {
+        private final int steps;
+        private final long dtBits;
+        private final double[][] factor;
+
+        Key(int steps, double dt, double[][] factor) {
+            this.steps = steps;
+            this.dtBits = Double.doubleToLongBits(dt);
+            this.factor = factor;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            final Key that = (Key) o;
+            return steps == that.steps && dtBits == that.dtBits
+                    && Arrays.deepEquals(factor, that.factor);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * steps + (int) (dtBits ^ (dtBits >>> 32)))
+                    + Arrays.deepHashCode(factor);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package cz.paulrz.montecarlo.multi;
+
+import cern.colt.matrix.DoubleFactory1D;
+import cern.colt.matrix.DoubleMatrix1D;
+import cern.colt.matrix.DoubleMatrix2D;
+import cz.paulrz.montecarlo.random.CumulativeNormal;
+import org.apache.commons.math.util.FastMath;
+
+/**
+ * Quadratic-Exponential scheme of Andersen (2008) for {@link HestonProcess}
+ * with the martingale correction of the log-price step.
+ *
+ * The variance is moment matched to its exact conditional mean m and
+ * variance s^2. For psi = s^2/m^2 up to the critical value it is a scaled
+ * non-central square a(b + Z)^2, otherwise a mixture of a mass at zero and
+ * an exponential tail sampled from U = N(Z). The log-price uses the trapezoidal
+ * integrated variance (gamma1 = gamma2 = 1/2) and K0 is chosen so that the
+ * discounted price is an exact martingale.
+ *
+ * dw[0] drives the price and dw[1] the variance, they are independent, the
+ * correlation is carried by the K coefficients. The scheme stays accurate
+ * with weekly steps when the Feller condition fails and keeps v >= 0.
+ */
+public final class QuadraticExponentialDiscretization implements Discretization {
+    public static final double defaultCriticalPsi = 1.5;
+
+    private final EulerDiscretization euler = new EulerDiscretization();
+    private final double criticalPsi;
+    private volatile Coefficients cached = null;
+
+    public QuadraticExponentialDiscretization() {
+        this(defaultCriticalPsi);
+    }
+
+    /**
+     * Constructs the scheme
+     *
+     * @param criticalPsi Switching level of psi between the quadratic and exponential branch, in [1, 2]
+     */
+    public QuadraticExponentialDiscretization(double criticalPsi) {
+        if (criticalPsi < 1.0 || criticalPsi > 2.0)
+            throw new IllegalArgumentException("criticalPsi");
+        this.criticalPsi = criticalPsi;
+    }
+
+    public DoubleMatrix1D drift(StochasticProcess process, double t, DoubleMatrix1D x, double dt) {
+        return euler.drift(process, t, x, dt);
+    }
+
+    public DoubleMatrix2D diffusion(StochasticProcess process, double t, DoubleMatrix1D x, double dt) {
+        return euler.diffusion(process, t, x, dt);
+    }
+
+    public DoubleMatrix1D evolve(StochasticProcess process, double t, DoubleMatrix1D x, double dt, DoubleMatrix1D dw) {
+        if (!(process instanceof HestonProcess))
+            throw new IllegalArgumentException("QE scheme needs HestonProcess");
+
+        final double[] result = new double[2];
+        evolveInto((HestonProcess) process, x.getQuick(0), x.getQuick(1), dt,
+                dw.getQuick(0), dw.getQuick(1), result);
+        return DoubleFactory1D.dense.make(result);
+    }
+
+    /**
+     * Single QE step on primitives
+     *
+     * @param process Heston process
+     * @param s Price
+     * @param x1 Variance
+     * @param dt Time step
+     * @param zs Normal variate of the price
+     * @param zv Normal variate of the variance, independent of zs
+     * @param out Price and variance at t+dt
+     */
+    void evolveInto(final HestonProcess process, final double s, final double x1, final double dt,
+                    final double zs, final double zv, final double[] out) {
+        final Coefficients c = coefficients(process, dt);
+        final double v = Math.max(x1, 0.0);
+        final double m = c.theta + (v - c.theta) * c.e;
+        final double s2 = v * c.s2v + c.s2c;
+        final double psi = s2 / (m * m);
+
+        final double v1;
+        double k0 = c.k0;
+        if (psi <= criticalPsi) {
+            final double p2 = 2.0 / psi;
+            final double b2 = p2 - 1.0 + FastMath.sqrt(p2) * FastMath.sqrt(p2 - 1.0);
+            final double a = m / (1.0 + b2);
+            final double bz = FastMath.sqrt(b2) + zv;
+            v1 = a * bz * bz;
+            if (c.a < 0.5 / a)
+                k0 = -c.a * b2 * a / (1.0 - 2.0 * c.a * a) + 0.5 * FastMath.log(1.0 - 2.0 * c.a * a)
+                        - c.k13 * v;
+        } else {
+            final double p = (psi - 1.0) / (psi + 1.0);
+            final double beta = (1.0 - p) / m;
+            // 1 - U computed directly, no cancellation in the tail
+            final double q = CumulativeNormal.op(-zv);
+            v1 = 1.0 - q <= p ? 0.0 : FastMath.log((1.0 - p) / q) / beta;
+            if (c.a < beta)
+                k0 = -FastMath.log(p + beta * (1.0 - p) / (beta - c.a)) - c.k13 * v;
+        }
+
+        final double variance = Math.max(c.k3 * v + c.k4 * v1, 0.0);
+        out[0] = s * FastMath.exp(c.rdt + k0 + c.k1 * v + c.k2 * v1
+                + FastMath.sqrt(variance) * zs);
+        out[1] = v1;
+    }
+
+    private Coefficients coefficients(final HestonProcess process, final double dt) {
+        Coefficients c = cached;
+        if (c == null || c.process != process || c.dt != dt) {
+            c = new Coefficients(process, dt);
+            cached = c;
+        }
+        return c;
+    }
+
+    /**
+     * Step constants of one process and time step, immutable
+     */
+    private static final class Coefficients {
+        final HestonProcess process;
+        final double dt;
+        final double theta;
+        final double e;
+        final double s2v;
+        final double s2c;
+        final double rdt;
+        final double k0;
+        final double k1;
+        final double k2;
+        final double k3;
+        final double k4;
+        // K1 + K3/2 and A = K2 + K4/2 of the martingale correction
+        final double k13;
+        final double a;
+
+        Coefficients(HestonProcess process, double dt) {
+            this.process = process;
+            this.dt = dt;
+            final double kappa = process.getKappa();
+            final double sigma = process.getSigma();
+            final double rho = process.getRho();
+            theta = process.getTheta();
+
+            e = FastMath.exp(-kappa * dt);
+            final double oneMinusE = -FastMath.expm1(-kappa * dt);
+            s2v = sigma * sigma * e * oneMinusE / kappa;
+            s2c = theta * sigma * sigma * oneMinusE * oneMinusE / (2.0 * kappa);
+
+            rdt = process.getRiskFreeRate() * dt;
+            final double g = 0.5 * dt * (kappa * rho / sigma - 0.5);
+            k0 = -rho * kappa * theta * dt / sigma;
+            k1 = g - rho / sigma;
+            k2 = g + rho / sigma;
+            k3 = 0.5 * dt * (1.0 - rho * rho);
+            k4 = k3;
+            k13 = k1 + 0.5 * k3;
+            a = k2 + 0.5 * k4;
+        }
+    }
+}
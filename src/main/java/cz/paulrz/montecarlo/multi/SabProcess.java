@@ -16,11 +16,29 @@ public final class SabProcess extends StochasticProcess {
     private final double beta;
 
     public SabProcess(double f0, double sigma0, double alfa, double beta) {
-        super(DoubleFactory1D.dense.make(new double[] {f0, sigma0}), new EulerDiscretization());
+        this(f0, sigma0, alfa, beta, new EulerDiscretization());
+    }
+
+    /**
+     * Constructs process with given discretization, {@link SabrDiscretization}
+     * selects the low-bias scheme with absorption at zero
+     *
+     * @param d Discretization
+     */
+    public SabProcess(double f0, double sigma0, double alfa, double beta, Discretization d) {
+        super(DoubleFactory1D.dense.make(new double[] {f0, sigma0}), d);
         this.alfa = alfa;
         this.beta = beta;
     }
 
+    public double getAlfa() {
+        return alfa;
+    }
+
+    public double getBeta() {
+        return beta;
+    }
+
     private final static DoubleMatrix1D mu = DoubleFactory1D.dense.make(2, 0.0);
 
     @Override
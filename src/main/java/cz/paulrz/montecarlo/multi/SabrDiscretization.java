@@ -0,0 +1,147 @@
+package cz.paulrz.montecarlo.multi;
+
+import cern.colt.matrix.DoubleFactory1D;
+import cern.colt.matrix.DoubleMatrix1D;
+import cern.colt.matrix.DoubleMatrix2D;
+import cz.paulrz.montecarlo.random.CumulativeNormal;
+import org.apache.commons.math.MathException;
+import org.apache.commons.math.special.Gamma;
+import org.apache.commons.math.util.FastMath;
+
+/**
+ * Low-bias scheme for {@link SabrProcess} and {@link SabProcess} after
+ * Chen, Oosterlee and van der Weide (2012), the forward is absorbed at zero.
+ *
+ * The volatility is lognormal and stepped exactly. Given its end points
+ * the integrated variance is the trapezoidal A = dt (s^2 + s'^2)/2 and the
+ * correlated part of the forward is frozen at F^beta, which shifts the
+ * forward to F + rho F^beta (s' - s)/alfa. From there the forward is a
+ * CEV process over time (1 - rho^2) A. Its transform
+ * X = F^(2(1-beta))/(1-beta)^2 is a squared Bessel process absorbed at
+ * zero with known absorption probability and moments. X is moment matched
+ * by the quadratic branch of the QE scheme when its law is concentrated,
+ * otherwise by the exact absorption mass and an exponential tail. For
+ * beta = 1 the conditional forward is lognormal and stepped exactly.
+ *
+ * dw[1] is the volatility noise (mixed with dw[0] by rho as in the
+ * diffusion of the process), dw[0] the noise of the forward.
+ */
+public final class SabrDiscretization implements Discretization {
+    private final EulerDiscretization euler = new EulerDiscretization();
+    private final double criticalPsi;
+
+    public SabrDiscretization() {
+        this(QuadraticExponentialDiscretization.defaultCriticalPsi);
+    }
+
+    /**
+     * Constructs the scheme
+     *
+     * @param criticalPsi Switching level of psi between the quadratic and exponential branch, in [1, 2]
+     */
+    public SabrDiscretization(double criticalPsi) {
+        if (criticalPsi < 1.0 || criticalPsi > 2.0)
+            throw new IllegalArgumentException("criticalPsi");
+        this.criticalPsi = criticalPsi;
+    }
+
+    public DoubleMatrix1D drift(StochasticProcess process, double t, DoubleMatrix1D x, double dt) {
+        return euler.drift(process, t, x, dt);
+    }
+
+    public DoubleMatrix2D diffusion(StochasticProcess process, double t, DoubleMatrix1D x, double dt) {
+        return euler.diffusion(process, t, x, dt);
+    }
+
+    public DoubleMatrix1D evolve(StochasticProcess process, double t, DoubleMatrix1D x, double dt, DoubleMatrix1D dw) {
+        final double[] result = new double[2];
+        if (process instanceof SabrProcess) {
+            final SabrProcess sabr = (SabrProcess) process;
+            evolveInto(sabr.getAlfa(), sabr.getBeta(), sabr.getRho(), x.toArray(), dt, dw.toArray(), result);
+        } else if (process instanceof SabProcess) {
+            final SabProcess sab = (SabProcess) process;
+            evolveInto(sab.getAlfa(), sab.getBeta(), 0.0, x.toArray(), dt, dw.toArray(), result);
+        } else
+            throw new IllegalArgumentException("SABR scheme needs SabrProcess or SabProcess");
+        return DoubleFactory1D.dense.make(result);
+    }
+
+    private void evolveInto(final double alfa, final double beta, final double rho, final double[] x,
+                            final double dt, final double[] dw, final double[] out) {
+        final double sqrhov = FastMath.sqrt(1.0 - rho * rho);
+        final double zv = rho * dw[0] + sqrhov * dw[1];
+        final double zf = sqrhov * dw[0] - rho * dw[1];
+
+        final double f = x[0];
+        final double s = x[1];
+        final double sdt = FastMath.sqrt(dt);
+        final double s1 = s * FastMath.exp(alfa * sdt * zv - 0.5 * alfa * alfa * dt);
+        // integral of s dZ over the step
+        final double sdz = alfa > 0.0 ? (s1 - s) / alfa : s * sdt * zv;
+        final double a = 0.5 * dt * (s * s + s1 * s1);
+        out[1] = s1;
+
+        if (f <= 0.0) {
+            out[0] = 0.0;
+            return;
+        }
+        if (beta >= 1.0) {
+            out[0] = f * FastMath.exp(rho * sdz - 0.5 * a + sqrhov * FastMath.sqrt(a) * zf);
+            return;
+        }
+
+        final double shifted = f + rho * FastMath.pow(f, beta) * sdz;
+        final double tau = (1.0 - rho * rho) * a;
+        if (shifted <= 0.0 || tau <= 0.0) {
+            out[0] = Math.max(shifted, 0.0);
+            return;
+        }
+
+        final double b = 1.0 - beta;
+        final double x1 = cev(FastMath.pow(shifted, 2.0 * b) / (b * b), 0.5 / b, tau, zf);
+        out[0] = x1 > 0.0 ? FastMath.pow(b * FastMath.sqrt(x1), 1.0 / b) : 0.0;
+    }
+
+    /**
+     * Draws squared Bessel process absorbed at zero. With z = x/(2 tau) and
+     * E ~ Gamma(mu), the process is absorbed when E >= z, otherwise it is
+     * 2 tau Gamma(K + 1) with K ~ Poisson(z - E).
+     *
+     * @param x Initial value
+     * @param mu Index 1 - delta/2 of the absorbed process
+     * @param tau Time
+     * @param z Normal variate
+     * @return Value at tau
+     */
+    private double cev(final double x, final double mu, final double tau, final double z) {
+        final double y = x / (2.0 * tau);
+        final double p0;
+        try {
+            p0 = Gamma.regularizedGammaP(mu, y);
+        } catch (MathException e) {
+            throw new IllegalStateException(e);
+        }
+        // P(mu + 1, y) and P(mu + 2, y) by the recurrence of the incomplete gamma
+        final double logY = FastMath.log(y);
+        final double p1 = p0 - FastMath.exp(mu * logY - y - Gamma.logGamma(mu + 1.0));
+        final double p2 = p1 - FastMath.exp((mu + 1.0) * logY - y - Gamma.logGamma(mu + 2.0));
+
+        // E[(y - E); E < y] and E[(y - E)^2; E < y]
+        final double l1 = Math.max(y * p0 - mu * p1, 0.0);
+        final double l2 = Math.max(y * y * p0 - 2.0 * y * mu * p1 + mu * (mu + 1.0) * p2, 0.0);
+        final double m1 = 2.0 * tau * (p0 + l1);
+        final double m2 = 4.0 * tau * tau * (2.0 * p0 + 4.0 * l1 + l2);
+        final double psi = m2 / (m1 * m1) - 1.0;
+
+        if (psi <= criticalPsi) {
+            final double p2psi = 2.0 / psi;
+            final double b2 = p2psi - 1.0 + FastMath.sqrt(p2psi) * FastMath.sqrt(p2psi - 1.0);
+            final double bz = FastMath.sqrt(b2) + z;
+            return m1 / (1.0 + b2) * bz * bz;
+        }
+
+        // absorbed with probability 1 - p0, survivors exponential with mean m1/p0
+        final double q = CumulativeNormal.op(-z);
+        return q >= p0 ? 0.0 : m1 / p0 * FastMath.log(p0 / q);
+    }
+}
@@ -19,13 +19,36 @@ public final class SabrProcess extends StochasticProcess {
     private final double sqrhov;
 
     public SabrProcess(double f0, double sigma0, double alfa, double beta, double rho) {
-        super(DoubleFactory1D.dense.make(new double[] {f0, sigma0}), new EulerDiscretization());
+        this(f0, sigma0, alfa, beta, rho, new EulerDiscretization());
+    }
+
+    /**
+     * Constructs process with given discretization, {@link SabrDiscretization}
+     * selects the low-bias scheme with absorption at zero
+     *
+     * @param d Discretization
+     */
+    public SabrProcess(double f0, double sigma0, double alfa, double beta, double rho,
+                       Discretization d) {
+        super(DoubleFactory1D.dense.make(new double[] {f0, sigma0}), d);
         this.alfa = alfa;
         this.beta = beta;
         this.rho  = rho;
         sqrhov = FastMath.sqrt(1.0 - rho * rho);
     }
 
+    public double getAlfa() {
+        return alfa;
+    }
+
+    public double getBeta() {
+        return beta;
+    }
+
+    public double getRho() {
+        return rho;
+    }
+
     private final static DoubleMatrix1D mu = DoubleFactory1D.dense.make(2, 0.0);
 
     @Override
@@ -41,7 +64,7 @@ public final class SabrProcess extends StochasticProcess {
         final double fsigma= sigma*FastMath.pow(f, beta);
 
         result[0][0] = fsigma;     result[0][1] = 0.0;
-        result[1][0] = rho*fsigma; result[1][1] = sqrhov*sigma*alfa;
+        result[1][0] = rho*sigma*alfa; result[1][1] = sqrhov*sigma*alfa;
 
         return DoubleFactory2D.dense.make(result);
     }
@@ -2,6 +2,7 @@ package cz.paulrz.montecarlo.multi;
 
 import cern.colt.matrix.DoubleFactory1D;
 import cern.colt.matrix.DoubleMatrix1D;
+import cz.paulrz.montecarlo.schedule.ObservationSchedule;
 import org.apache.commons.math.FunctionEvaluationException;
 import org.apache.commons.math.random.NormalizedRandomGenerator;
 
@@ -16,6 +17,7 @@ public final class SimplePathGenerator implements PathGenerator {
     private final double dt;
     private final NormalizedRandomGenerator generator;
     private final int processDimension;
+    private final int noiseDimension;
 
     /**
      * Constructor of SimplePathGenerator1D
@@ -29,6 +31,7 @@ public final class SimplePathGenerator implements PathGenerator {
                                  double duration, NormalizedRandomGenerator generator) {
         this.process = process;
         processDimension = process.getDimension();
+        noiseDimension = process.getNoiseDimension();
         this.timeSteps = timeSteps;
         this.generator = generator;
         this.dt = duration / timeSteps;
@@ -48,10 +51,45 @@ public final class SimplePathGenerator implements PathGenerator {
         return path;
     }
 
+    public void nextObserved(final ObservedPath path) throws FunctionEvaluationException {
+        final ObservationSchedule schedule = path.getSchedule();
+        schedule.checkLength(timeSteps);
+
+        DoubleMatrix1D x = process.getInitialVector();
+        int next = 0;
+        if (schedule.getStep(0) == 0)
+            path.setValue(next++, x);
+
+        final int last = schedule.getLastStep();
+        double t = 0.0;
+        for (int i = 1; i <= last; ++i) {
+            x = process.evolveMatrix(t, x, dt, generate());
+            if (schedule.getStep(next) == i)
+                path.setValue(next++, x);
+            t += dt;
+        }
+    }
+
+    public void stream(final PathObserver<?> observer) throws FunctionEvaluationException {
+        DoubleMatrix1D x = process.getInitialVector();
+        observer.start(x);
+        if (StoppablePathObserver.isDone(observer))
+            return;
+
+        double t = 0.0;
+        for (int i = 1; i < timeSteps; ++i) {
+            x = process.evolveMatrix(t, x, dt, generate());
+            observer.observe(x);
+            if (StoppablePathObserver.isDone(observer))
+                return;
+            t += dt;
+        }
+    }
+
     private DoubleMatrix1D generate()
     {
-        final double[] result = new double[processDimension];
-        for(int i=0; i< processDimension; ++i)
+        final double[] result = new double[noiseDimension];
+        for(int i=0; i< noiseDimension; ++i)
             result[i] = generator.nextNormalizedDouble();
         return DoubleFactory1D.dense.make(result);
     }
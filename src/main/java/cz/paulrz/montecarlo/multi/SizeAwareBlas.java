@@ -0,0 +1,410 @@
+package cz.paulrz.montecarlo.multi;
+
+import cern.colt.function.DoubleDoubleFunction;
+import cern.colt.function.DoubleFunction;
+import cern.colt.matrix.DoubleMatrix1D;
+import cern.colt.matrix.DoubleMatrix2D;
+import cern.colt.matrix.linalg.Blas;
+import cern.colt.matrix.linalg.SeqBlas;
+import cern.colt.matrix.linalg.SmpBlas;
+import cz.paulrz.montecarlo.parallel.CpuPool;
+
+/**
+ * Blas dispatching on the size of the operands. Simulation steps work
+ * with matrices of a few factors, where even the task setup of
+ * {@link SmpBlas} costs more than the operation.
+ *
+ * <ul>
+ * <li>square matrix-vector products up to {@link #maxUnrolled} use
+ * fully unrolled kernels</li>
+ * <li>other matrix-vector products use {@link SeqBlas}, matrix products
+ * a sequential loop blocked by {@link #block}</li>
+ * <li>only operations of at least {@link #parallelThreshold} matrix
+ * elements go to {@link SmpBlas}, and never from a {@link CpuPool}
+ * worker, where the simulation is already parallel</li>
+ * </ul>
+ *
+ * Sizes come from BlasBenchmark (y = A*x + y, one core): the unrolled
+ * kernels do 68, 36 and 15 products per microsecond for n = 2, 4, 8
+ * against 32, 17 and 10 of zMult, while a getQuick loop is no faster
+ * than zMult from n = 16. SmpBlas did not beat zMult below 512x512, so
+ * the threshold defaults to 262144 elements. With more cores the
+ * crossover is lower, run the benchmark on the target machine and set
+ * the system property cz.paulrz.montecarlo.parallelBlasThreshold.
+ */
+public final class SizeAwareBlas implements Blas {
+    public static final int maxUnrolled = 8;
+    public static final int block = 64;
+    public static final int parallelThreshold =
+            Integer.getInteger("cz.paulrz.montecarlo.parallelBlasThreshold", 262144);
+
+    private static final Blas seq = SeqBlas.seqBlas;
+    private static Blas smp = null;
+
+    private final int numOfCpu;
+
+    public SizeAwareBlas(int numOfCpu) {
+        this.numOfCpu = numOfCpu;
+    }
+
+    /**
+     * Chooses sequential or parallel Blas for an operation
+     *
+     * @param elements Number of matrix elements touched
+     * @return Blas to use
+     */
+    Blas blasFor(long elements) {
+        if (numOfCpu < 2 || elements < parallelThreshold || CpuPool.isWorkerThread())
+            return seq;
+        return parallel(numOfCpu);
+    }
+
+    private static synchronized Blas parallel(int numOfCpu) {
+        if (smp == null) {
+            SmpBlas.allocateBlas(numOfCpu, seq);
+            smp = SmpBlas.smpBlas;
+        }
+        return smp;
+    }
+
+    private static long size(DoubleMatrix2D a) {
+        return (long) a.rows() * a.columns();
+    }
+
+    public void dgemv(boolean transposeA, double alpha, DoubleMatrix2D a, DoubleMatrix1D x,
+                      double beta, DoubleMatrix1D y) {
+        if (!transposeA && unrolled(alpha, a, x, beta, y))
+            return;
+
+        blasFor(size(a)).dgemv(transposeA, alpha, a, x, beta, y);
+    }
+
+    /**
+     * y = alpha*A*x + beta*y for square A of at most {@link #maxUnrolled}
+     * rows, x is read before y is written
+     *
+     * @return False if the operands do not fit the kernels
+     */
+    private static boolean unrolled(double alpha, DoubleMatrix2D a, DoubleMatrix1D x,
+                                    double beta, DoubleMatrix1D y) {
+        final int n = a.rows();
+        if (n > maxUnrolled || a.columns() != n || x.size() != n || y.size() != n)
+            return false;
+
+        switch (n) {
+            case 1: {
+                final double x0 = x.getQuick(0);
+                y.setQuick(0, alpha * (a.getQuick(0, 0) * x0)
+                        + beta * y.getQuick(0));
+                return true;
+            }
+            case 2: {
+                final double x0 = x.getQuick(0);
+                final double x1 = x.getQuick(1);
+                y.setQuick(0, alpha * (a.getQuick(0, 0) * x0 + a.getQuick(0, 1) * x1)
+                        + beta * y.getQuick(0));
+                y.setQuick(1, alpha * (a.getQuick(1, 0) * x0 + a.getQuick(1, 1) * x1)
+                        + beta * y.getQuick(1));
+                return true;
+            }
+            case 3: {
+                final double x0 = x.getQuick(0);
+                final double x1 = x.getQuick(1);
+                final double x2 = x.getQuick(2);
+                y.setQuick(0, alpha * (a.getQuick(0, 0) * x0 + a.getQuick(0, 1) * x1 + a.getQuick(0, 2) * x2)
+                        + beta * y.getQuick(0));
+                y.setQuick(1, alpha * (a.getQuick(1, 0) * x0 + a.getQuick(1, 1) * x1 + a.getQuick(1, 2) * x2)
+                        + beta * y.getQuick(1));
+                y.setQuick(2, alpha * (a.getQuick(2, 0) * x0 + a.getQuick(2, 1) * x1 + a.getQuick(2, 2) * x2)
+                        + beta * y.getQuick(2));
+                return true;
+            }
+            case 4: {
+                final double x0 = x.getQuick(0);
+                final double x1 = x.getQuick(1);
+                final double x2 = x.getQuick(2);
+                final double x3 = x.getQuick(3);
+                y.setQuick(0, alpha * (a.getQuick(0, 0) * x0 + a.getQuick(0, 1) * x1 + a.getQuick(0, 2) * x2
+                        + a.getQuick(0, 3) * x3)
+                        + beta * y.getQuick(0));
+                y.setQuick(1, alpha * (a.getQuick(1, 0) * x0 + a.getQuick(1, 1) * x1 + a.getQuick(1, 2) * x2
+                        + a.getQuick(1, 3) * x3)
+                        + beta * y.getQuick(1));
+                y.setQuick(2, alpha * (a.getQuick(2, 0) * x0 + a.getQuick(2, 1) * x1 + a.getQuick(2, 2) * x2
+                        + a.getQuick(2, 3) * x3)
+                        + beta * y.getQuick(2));
+                y.setQuick(3, alpha * (a.getQuick(3, 0) * x0 + a.getQuick(3, 1) * x1 + a.getQuick(3, 2) * x2
+                        + a.getQuick(3, 3) * x3)
+                        + beta * y.getQuick(3));
+                return true;
+            }
+            case 5: {
+                final double x0 = x.getQuick(0);
+                final double x1 = x.getQuick(1);
+                final double x2 = x.getQuick(2);
+                final double x3 = x.getQuick(3);
+                final double x4 = x.getQuick(4);
+                y.setQuick(0, alpha * (a.getQuick(0, 0) * x0 + a.getQuick(0, 1) * x1 + a.getQuick(0, 2) * x2
+                        + a.getQuick(0, 3) * x3 + a.getQuick(0, 4) * x4)
+                        + beta * y.getQuick(0));
+                y.setQuick(1, alpha * (a.getQuick(1, 0) * x0 + a.getQuick(1, 1) * x1 + a.getQuick(1, 2) * x2
+                        + a.getQuick(1, 3) * x3 + a.getQuick(1, 4) * x4)
+                        + beta * y.getQuick(1));
+                y.setQuick(2, alpha * (a.getQuick(2, 0) * x0 + a.getQuick(2, 1) * x1 + a.getQuick(2, 2) * x2
+                        + a.getQuick(2, 3) * x3 + a.getQuick(2, 4) * x4)
+                        + beta * y.getQuick(2));
+                y.setQuick(3, alpha * (a.getQuick(3, 0) * x0 + a.getQuick(3, 1) * x1 + a.getQuick(3, 2) * x2
+                        + a.getQuick(3, 3) * x3 + a.getQuick(3, 4) * x4)
+                        + beta * y.getQuick(3));
+                y.setQuick(4, alpha * (a.getQuick(4, 0) * x0 + a.getQuick(4, 1) * x1 + a.getQuick(4, 2) * x2
+                        + a.getQuick(4, 3) * x3 + a.getQuick(4, 4) * x4)
+                        + beta * y.getQuick(4));
+                return true;
+            }
+            case 6: {
+                final double x0 = x.getQuick(0);
+                final double x1 = x.getQuick(1);
+                final double x2 = x.getQuick(2);
+                final double x3 = x.getQuick(3);
+                final double x4 = x.getQuick(4);
+                final double x5 = x.getQuick(5);
+                y.setQuick(0, alpha * (a.getQuick(0, 0) * x0 + a.getQuick(0, 1) * x1 + a.getQuick(0, 2) * x2
+                        + a.getQuick(0, 3) * x3 + a.getQuick(0, 4) * x4 + a.getQuick(0, 5) * x5)
+                        + beta * y.getQuick(0));
+                y.setQuick(1, alpha * (a.getQuick(1, 0) * x0 + a.getQuick(1, 1) * x1 + a.getQuick(1, 2) * x2
+                        + a.getQuick(1, 3) * x3 + a.getQuick(1, 4) * x4 + a.getQuick(1, 5) * x5)
+                        + beta * y.getQuick(1));
+                y.setQuick(2, alpha * (a.getQuick(2, 0) * x0 + a.getQuick(2, 1) * x1 + a.getQuick(2, 2) * x2
+                        + a.getQuick(2, 3) * x3 + a.getQuick(2, 4) * x4 + a.getQuick(2, 5) * x5)
+                        + beta * y.getQuick(2));
+                y.setQuick(3, alpha * (a.getQuick(3, 0) * x0 + a.getQuick(3, 1) * x1 + a.getQuick(3, 2) * x2
+                        + a.getQuick(3, 3) * x3 + a.getQuick(3, 4) * x4 + a.getQuick(3, 5) * x5)
+                        + beta * y.getQuick(3));
+                y.setQuick(4, alpha * (a.getQuick(4, 0) * x0 + a.getQuick(4, 1) * x1 + a.getQuick(4, 2) * x2
+                        + a.getQuick(4, 3) * x3 + a.getQuick(4, 4) * x4 + a.getQuick(4, 5) * x5)
+                        + beta * y.getQuick(4));
+                y.setQuick(5, alpha * (a.getQuick(5, 0) * x0 + a.getQuick(5, 1) * x1 + a.getQuick(5, 2) * x2
+                        + a.getQuick(5, 3) * x3 + a.getQuick(5, 4) * x4 + a.getQuick(5, 5) * x5)
+                        + beta * y.getQuick(5));
+                return true;
+            }
+            case 7: {
+                final double x0 = x.getQuick(0);
+                final double x1 = x.getQuick(1);
+                final double x2 = x.getQuick(2);
+                final double x3 = x.getQuick(3);
+                final double x4 = x.getQuick(4);
+                final double x5 = x.getQuick(5);
+                final double x6 = x.getQuick(6);
+                y.setQuick(0, alpha * (a.getQuick(0, 0) * x0 + a.getQuick(0, 1) * x1 + a.getQuick(0, 2) * x2
+                        + a.getQuick(0, 3) * x3 + a.getQuick(0, 4) * x4 + a.getQuick(0, 5) * x5
+                        + a.getQuick(0, 6) * x6)
+                        + beta * y.getQuick(0));
+                y.setQuick(1, alpha * (a.getQuick(1, 0) * x0 + a.getQuick(1, 1) * x1 + a.getQuick(1, 2) * x2
+                        + a.getQuick(1, 3) * x3 + a.getQuick(1, 4) * x4 + a.getQuick(1, 5) * x5
+                        + a.getQuick(1, 6) * x6)
+                        + beta * y.getQuick(1));
+                y.setQuick(2, alpha * (a.getQuick(2, 0) * x0 + a.getQuick(2, 1) * x1 + a.getQuick(2, 2) * x2
+                        + a.getQuick(2, 3) * x3 + a.getQuick(2, 4) * x4 + a.getQuick(2, 5) * x5
+                        + a.getQuick(2, 6) * x6)
+                        + beta * y.getQuick(2));
+                y.setQuick(3, alpha * (a.getQuick(3, 0) * x0 + a.getQuick(3, 1) * x1 + a.getQuick(3, 2) * x2
+                        + a.getQuick(3, 3) * x3 + a.getQuick(3, 4) * x4 + a.getQuick(3, 5) * x5
+                        + a.getQuick(3, 6) * x6)
+                        + beta * y.getQuick(3));
+                y.setQuick(4, alpha * (a.getQuick(4, 0) * x0 + a.getQuick(4, 1) * x1 + a.getQuick(4, 2) * x2
+                        + a.getQuick(4, 3) * x3 + a.getQuick(4, 4) * x4 + a.getQuick(4, 5) * x5
+                        + a.getQuick(4, 6) * x6)
+                        + beta * y.getQuick(4));
+                y.setQuick(5, alpha * (a.getQuick(5, 0) * x0 + a.getQuick(5, 1) * x1 + a.getQuick(5, 2) * x2
+                        + a.getQuick(5, 3) * x3 + a.getQuick(5, 4) * x4 + a.getQuick(5, 5) * x5
+                        + a.getQuick(5, 6) * x6)
+                        + beta * y.getQuick(5));
+                y.setQuick(6, alpha * (a.getQuick(6, 0) * x0 + a.getQuick(6, 1) * x1 + a.getQuick(6, 2) * x2
+                        + a.getQuick(6, 3) * x3 + a.getQuick(6, 4) * x4 + a.getQuick(6, 5) * x5
+                        + a.getQuick(6, 6) * x6)
+                        + beta * y.getQuick(6));
+                return true;
+            }
+            case 8: {
+                final double x0 = x.getQuick(0);
+                final double x1 = x.getQuick(1);
+                final double x2 = x.getQuick(2);
+                final double x3 = x.getQuick(3);
+                final double x4 = x.getQuick(4);
+                final double x5 = x.getQuick(5);
+                final double x6 = x.getQuick(6);
+                final double x7 = x.getQuick(7);
+                y.setQuick(0, alpha * (a.getQuick(0, 0) * x0 + a.getQuick(0, 1) * x1 + a.getQuick(0, 2) * x2
+                        + a.getQuick(0, 3) * x3 + a.getQuick(0, 4) * x4 + a.getQuick(0, 5) * x5
+                        + a.getQuick(0, 6) * x6 + a.getQuick(0, 7) * x7)
+                        + beta * y.getQuick(0));
+                y.setQuick(1, alpha * (a.getQuick(1, 0) * x0 + a.getQuick(1, 1) * x1 + a.getQuick(1, 2) * x2
+                        + a.getQuick(1, 3) * x3 + a.getQuick(1, 4) * x4 + a.getQuick(1, 5) * x5
+                        + a.getQuick(1, 6) * x6 + a.getQuick(1, 7) * x7)
+                        + beta * y.getQuick(1));
+                y.setQuick(2, alpha * (a.getQuick(2, 0) * x0 + a.getQuick(2, 1) * x1 + a.getQuick(2, 2) * x2
+                        + a.getQuick(2, 3) * x3 + a.getQuick(2, 4) * x4 + a.getQuick(2, 5) * x5
+                        + a.getQuick(2, 6) * x6 + a.getQuick(2, 7) * x7)
+                        + beta * y.getQuick(2));
+                y.setQuick(3, alpha * (a.getQuick(3, 0) * x0 + a.getQuick(3, 1) * x1 + a.getQuick(3, 2) * x2
+                        + a.getQuick(3, 3) * x3 + a.getQuick(3, 4) * x4 + a.getQuick(3, 5) * x5
+                        + a.getQuick(3, 6) * x6 + a.getQuick(3, 7) * x7)
+                        + beta * y.getQuick(3));
+                y.setQuick(4, alpha * (a.getQuick(4, 0) * x0 + a.getQuick(4, 1) * x1 + a.getQuick(4, 2) * x2
+                        + a.getQuick(4, 3) * x3 + a.getQuick(4, 4) * x4 + a.getQuick(4, 5) * x5
+                        + a.getQuick(4, 6) * x6 + a.getQuick(4, 7) * x7)
+                        + beta * y.getQuick(4));
+                y.setQuick(5, alpha * (a.getQuick(5, 0) * x0 + a.getQuick(5, 1) * x1 + a.getQuick(5, 2) * x2
+                        + a.getQuick(5, 3) * x3 + a.getQuick(5, 4) * x4 + a.getQuick(5, 5) * x5
+                        + a.getQuick(5, 6) * x6 + a.getQuick(5, 7) * x7)
+                        + beta * y.getQuick(5));
+                y.setQuick(6, alpha * (a.getQuick(6, 0) * x0 + a.getQuick(6, 1) * x1 + a.getQuick(6, 2) * x2
+                        + a.getQuick(6, 3) * x3 + a.getQuick(6, 4) * x4 + a.getQuick(6, 5) * x5
+                        + a.getQuick(6, 6) * x6 + a.getQuick(6, 7) * x7)
+                        + beta * y.getQuick(6));
+                y.setQuick(7, alpha * (a.getQuick(7, 0) * x0 + a.getQuick(7, 1) * x1 + a.getQuick(7, 2) * x2
+                        + a.getQuick(7, 3) * x3 + a.getQuick(7, 4) * x4 + a.getQuick(7, 5) * x5
+                        + a.getQuick(7, 6) * x6 + a.getQuick(7, 7) * x7)
+                        + beta * y.getQuick(7));
+                return true;
+            }
+            default:
+                return false;
+        }
+    }
+
+    public void dgemm(boolean transposeA, boolean transposeB, double alpha, DoubleMatrix2D a,
+                      DoubleMatrix2D b, double beta, DoubleMatrix2D c) {
+        final long elements = Math.max(size(a), size(b));
+        if (elements >= parallelThreshold) {
+            blasFor(elements).dgemm(transposeA, transposeB, alpha, a, b, beta, c);
+            return;
+        }
+
+        final DoubleMatrix2D left = transposeA ? a.viewDice() : a;
+        final DoubleMatrix2D right = transposeB ? b.viewDice() : b;
+        final int m = left.rows();
+        final int p = left.columns();
+        final int n = right.columns();
+        if (right.rows() != p || c.rows() != m || c.columns() != n || c == left || c == right)
+            throw new IllegalArgumentException("Incompatible args: " + left.toStringShort()
+                    + ", " + right.toStringShort() + ", " + c.toStringShort());
+
+        // C = beta*C, then C += alpha*A*B blocked over the inner dimension
+        for (int i = 0; i < m; ++i)
+            for (int j = 0; j < n; ++j)
+                c.setQuick(i, j, beta * c.getQuick(i, j));
+
+        for (int k0 = 0; k0 < p; k0 += block) {
+            final int k1 = Math.min(k0 + block, p);
+            for (int j0 = 0; j0 < n; j0 += block) {
+                final int j1 = Math.min(j0 + block, n);
+                for (int i = 0; i < m; ++i) {
+                    for (int k = k0; k < k1; ++k) {
+                        final double aik = alpha * left.getQuick(i, k);
+                        if (aik == 0.0)
+                            continue;
+                        for (int j = j0; j < j1; ++j)
+                            c.setQuick(i, j, c.getQuick(i, j) + aik * right.getQuick(k, j));
+                    }
+                }
+            }
+        }
+    }
+
+    public void daxpy(double alpha, DoubleMatrix1D x, DoubleMatrix1D y) {
+        final int n = x.size();
+        if (y.size() != n)
+            throw new IllegalArgumentException("Incompatible args: " + x.toStringShort()
+                    + ", " + y.toStringShort());
+        for (int i = 0; i < n; ++i)
+            y.setQuick(i, y.getQuick(i) + alpha * x.getQuick(i));
+    }
+
+    public void dscal(double alpha, DoubleMatrix1D x) {
+        final int n = x.size();
+        for (int i = 0; i < n; ++i)
+            x.setQuick(i, alpha * x.getQuick(i));
+    }
+
+    public void dscal(double alpha, DoubleMatrix2D a) {
+        final long elements = size(a);
+        if (elements >= parallelThreshold) {
+            blasFor(elements).dscal(alpha, a);
+            return;
+        }
+
+        final int rows = a.rows();
+        final int columns = a.columns();
+        for (int i = 0; i < rows; ++i)
+            for (int j = 0; j < columns; ++j)
+                a.setQuick(i, j, alpha * a.getQuick(i, j));
+    }
+
+    public void assign(DoubleMatrix2D a, DoubleFunction function) {
+        blasFor(size(a)).assign(a, function);
+    }
+
+    public void assign(DoubleMatrix2D a, DoubleMatrix2D b, DoubleDoubleFunction function) {
+        blasFor(size(a)).assign(a, b, function);
+    }
+
+    public double dasum(DoubleMatrix1D x) {
+        return seq.dasum(x);
+    }
+
+    public void daxpy(double alpha, DoubleMatrix2D a, DoubleMatrix2D b) {
+        blasFor(size(a)).daxpy(alpha, a, b);
+    }
+
+    public void dcopy(DoubleMatrix1D x, DoubleMatrix1D y) {
+        seq.dcopy(x, y);
+    }
+
+    public void dcopy(DoubleMatrix2D a, DoubleMatrix2D b) {
+        blasFor(size(a)).dcopy(a, b);
+    }
+
+    public double ddot(DoubleMatrix1D x, DoubleMatrix1D y) {
+        return seq.ddot(x, y);
+    }
+
+    public void dger(double alpha, DoubleMatrix1D x, DoubleMatrix1D y, DoubleMatrix2D a) {
+        blasFor(size(a)).dger(alpha, x, y, a);
+    }
+
+    public double dnrm2(DoubleMatrix1D x) {
+        return seq.dnrm2(x);
+    }
+
+    public void drot(DoubleMatrix1D x, DoubleMatrix1D y, double c, double s) {
+        seq.drot(x, y, c, s);
+    }
+
+    public void drotg(double a, double b, double[] rotvec) {
+        seq.drotg(a, b, rotvec);
+    }
+
+    public void dswap(DoubleMatrix1D x, DoubleMatrix1D y) {
+        seq.dswap(x, y);
+    }
+
+    public void dswap(DoubleMatrix2D a, DoubleMatrix2D b) {
+        blasFor(size(a)).dswap(a, b);
+    }
+
+    public void dsymv(boolean isUpperTriangular, double alpha, DoubleMatrix2D a, DoubleMatrix1D x,
+                      double beta, DoubleMatrix1D y) {
+        blasFor(size(a)).dsymv(isUpperTriangular, alpha, a, x, beta, y);
+    }
+
+    public void dtrmv(boolean isUpperTriangular, boolean transposeA, boolean isUnitTriangular,
+                      DoubleMatrix2D a, DoubleMatrix1D x) {
+        blasFor(size(a)).dtrmv(isUpperTriangular, transposeA, isUnitTriangular, a, x);
+    }
+
+    public int idamax(DoubleMatrix1D x) {
+        return seq.idamax(x);
+    }
+}
@@ -2,29 +2,117 @@ package cz.paulrz.montecarlo.multi;
 
 import cern.colt.matrix.DoubleFactory1D;
 import cern.colt.matrix.DoubleMatrix1D;
+import cern.colt.matrix.DoubleMatrix2D;
+import cz.paulrz.montecarlo.random.BrownianBridge;
+import cz.paulrz.montecarlo.random.FastGaussianRandomGenerator;
 import cz.paulrz.montecarlo.random.InverseCumulativeNormal;
 import cz.paulrz.montecarlo.random.Sobol;
+import cz.paulrz.montecarlo.schedule.ObservationSchedule;
 import org.apache.commons.math.MathException;
+import org.apache.commons.math.random.NormalizedRandomGenerator;
 
 /**
+ * Quasi Monte Carlo path generator. Each path is driven by one Sobol point
+ * of dimension (timeSteps-1)*n, where n is the noise dimension of the
+ * process, coordinate (i-1)*n+f drives Brownian factor f at step i.
+ *
+ * With the bridge the coordinates are fed to a multi-factor Brownian bridge,
+ * so the first n coordinates construct the terminal point of all factors,
+ * the next ones the midpoints and so on. The most uniform Sobol dimensions
+ * then drive the coarse structure of the path. For correlated factors the
+ * principal component construction ({@link PcaPathConstruction}) assigns
+ * them to the leading components of the joint time and factor covariance.
+ *
+ * Sobol sequence is limited to {@link #maxSobolDimension} dimensions, the
+ * remaining coordinates are taken from a pseudo random generator. This works
+ * well with the bridge, where the trailing coordinates only refine the path.
+ *
  * User: paul
  * Date: 2/5/11
  * Time: 12:46 PM
  */
 public final class SobolPathGenerator implements PathGenerator {
+    public static final int maxSobolDimension = 300;
+
     private final GenericProcess process;
     private final int timeSteps;
     private final double dt;
     private final Sobol generator;
+    private final NormalizedRandomGenerator tail;
     private final int dim;
+    private final int noise;
+    private final int sobolDimension;
+    private final BrownianBridge bridge;
+    private final PcaPathConstruction pca;
+    private final double[] scratch;
+    private final double[] variates;
+    private final double[] dw;
+    private final DoubleMatrix1D dwStep;
 
     public SobolPathGenerator(GenericProcess process, int timeSteps,
                                 double duration) throws Exception {
+        this(process, timeSteps, duration, false);
+    }
+
+    public SobolPathGenerator(GenericProcess process, int timeSteps,
+                              double duration, boolean useBridge) throws Exception {
+        this(process, timeSteps, duration, useBridge, null, 0);
+    }
+
+    /**
+     * Constructs generator starting at given point of the Sobol sequence,
+     * generators of parallel workers use disjoint ranges of points
+     *
+     * @param process Stochastic process
+     * @param timeSteps Number of time steps
+     * @param duration Total duration of the process
+     * @param useBridge Construct paths with multi-factor Brownian bridge
+     * @param offset Number of Sobol points to skip, see {@link Sobol#skipTo(int)}
+     */
+    public SobolPathGenerator(GenericProcess process, int timeSteps,
+                              double duration, boolean useBridge, int offset) throws Exception {
+        this(process, timeSteps, duration, useBridge, null, offset);
+    }
+
+    /**
+     * Constructs generator with principal component path construction
+     *
+     * @param process Stochastic process
+     * @param timeSteps Number of time steps
+     * @param duration Total duration of the process
+     * @param factor Constant volatility factor applied to the Brownian increments,
+     *               e.g. {@link GeometricBrownianMotion#getSigma()}
+     */
+    public SobolPathGenerator(GenericProcess process, int timeSteps,
+                              double duration, DoubleMatrix2D factor) throws Exception {
+        this(process, timeSteps, duration, false, factor, 0);
+    }
+
+    private SobolPathGenerator(GenericProcess process, int timeSteps, double duration,
+                               boolean useBridge, DoubleMatrix2D factor, int offset) throws Exception {
         this.process = process;
         dim = process.getDimension();
+        noise = process.getNoiseDimension();
         this.timeSteps = timeSteps;
-        this.generator = new Sobol(timeSteps-1); // first point is known
         this.dt = duration / timeSteps;
+
+        // first point is known
+        final int dimension = (timeSteps - 1) * noise;
+        sobolDimension = Math.min(dimension, maxSobolDimension);
+        this.generator = new Sobol(sobolDimension);
+        if (offset > 0)
+            generator.skipTo(offset);
+        this.tail = dimension > sobolDimension ? new FastGaussianRandomGenerator() : null;
+
+        bridge = useBridge ? BrownianBridge.getInstance(timeSteps, dt) : null;
+        pca = factor != null ? PcaPathConstruction.getInstance(timeSteps, dt, factor) : null;
+        if (pca != null && pca.getDimension() != noise)
+            throw new IllegalArgumentException("factor");
+
+        variates = new double[timeSteps * noise];
+        dw = bridge != null || pca != null ? new double[timeSteps * noise] : variates;
+        scratch = pca != null ? new double[(timeSteps - 1) * noise] : null;
+        dwStep = DoubleFactory1D.dense.make(noise);
     }
 
     /**
@@ -44,35 +132,95 @@ public final class SobolPathGenerator implements PathGenerator {
     }
 
     private Path getNext() throws MathException {
+        if (!generate())
+            return null;
+
+        transform();
 
         Path path = new Path(dim, timeSteps, dt);
         path.addValue(process.getInitialVector());
 
         double t = 0.0;
         for(int i=1; i<timeSteps; ++i){
+            path.addValue(process.evolveMatrix(t, path.getValues(i - 1), dt, step(i)));
+            t += dt;
+        }
+        return path;
+    }
+
+    public void nextObserved(final ObservedPath path) throws MathException {
+        final ObservationSchedule schedule = path.getSchedule();
+        schedule.checkLength(timeSteps);
 
-            DoubleMatrix1D dw = null;
-            while(dw == null)
-                dw = generate();
+        while (!generate()) {
+            // skip points on the boundary of the unit cube
+        }
+        transform();
 
-            path.addValue(process.evolveMatrix(t, path.getValues(i - 1), dt, dw));
+        DoubleMatrix1D x = process.getInitialVector();
+        int next = 0;
+        if (schedule.getStep(0) == 0)
+            path.setValue(next++, x);
+
+        final int last = schedule.getLastStep();
+        double t = 0.0;
+        for (int i = 1; i <= last; ++i) {
+            x = process.evolveMatrix(t, x, dt, step(i));
+            if (schedule.getStep(next) == i)
+                path.setValue(next++, x);
+            t += dt;
+        }
+    }
+
+    public void stream(final PathObserver<?> observer) throws MathException {
+        while (!generate()) {
+            // skip points on the boundary of the unit cube
+        }
+        transform();
+
+        DoubleMatrix1D x = process.getInitialVector();
+        observer.start(x);
+        if (StoppablePathObserver.isDone(observer))
+            return;
+
+        double t = 0.0;
+        for (int i = 1; i < timeSteps; ++i) {
+            x = process.evolveMatrix(t, x, dt, step(i));
+            observer.observe(x);
+            if (StoppablePathObserver.isDone(observer))
+                return;
             t += dt;
         }
-        return path;
     }
 
-    private DoubleMatrix1D generate() {
+    private void transform() {
+        if (bridge != null)
+            bridge.transform(variates, dw, noise);
+        else if (pca != null)
+            pca.transform(variates, dw, scratch);
+    }
+
+    private DoubleMatrix1D step(int i) {
+        final int row = i * noise;
+        for (int f = 0; f < noise; ++f)
+            dwStep.setQuick(f, dw[row + f]);
+        return dwStep;
+    }
+
+    private boolean generate() {
         final double[] uniform = generator.nextPoint();
-        final double[] result  = new double[dim];
-        for(int i=0; i<dim; ++i)
+        for(int i=0; i<sobolDimension; ++i)
         {
             final double value = uniform[i];
             if (value >=1.0 || value<=0.0)
-                return null;
+                return false;
 
-            result[i] = InverseCumulativeNormal.op(value);
+            variates[noise + i] = InverseCumulativeNormal.op(value);
         }
 
-        return DoubleFactory1D.dense.make(result);
+        for (int i = noise + sobolDimension; i < variates.length; ++i)
+            variates[i] = tail.nextNormalizedDouble();
+
+        return true;
     }
 }
@@ -37,6 +37,15 @@ public abstract class StochasticProcess implements GenericProcess {
         x0 = x;
     }
 
+    /**
+     * Number of Brownian motions, by default the same as the dimension
+     *
+     * @return Dimension of the noise
+     */
+    public int getNoiseDimension() {
+        return getDimension();
+    }
+
     /**
      * Drift component of stochastic process
      *
@@ -55,6 +64,26 @@ public abstract class StochasticProcess implements GenericProcess {
      */
     public abstract DoubleMatrix2D diffusion(double t, DoubleMatrix1D x);
 
+    /**
+     * Directional derivative of the diffusion component, used by
+     * {@link MilsteinDiscretization}. Default is central difference along
+     * the direction, processes override it with the analytic derivative.
+     *
+     * @param t Time
+     * @param x Position
+     * @param direction Direction of the derivative
+     * @return Sum over k of direction_k * d diffusion / dx_k
+     */
+    public DoubleMatrix2D diffusionDerivative(double t, DoubleMatrix1D x, DoubleMatrix1D direction) {
+        final double h = 1e-5 * Math.max(1.0, x.aggregate(Functions.max, Functions.abs));
+        final DoubleMatrix1D up = x.copy().assign(direction, Functions.plusMult(h));
+        final DoubleMatrix1D down = x.copy().assign(direction, Functions.minusMult(h));
+
+        // (b(x + h*v) - b(x - h*v)) / 2h
+        return diffusion(t, up).copy().assign(diffusion(t, down), Functions.minus)
+                .assign(Functions.mult(0.5 / h));
+    }
+
     /**
      * Returns position after time interval dt
      *
@@ -65,12 +94,6 @@ public abstract class StochasticProcess implements GenericProcess {
      * @return Position after time step
      */
     public DoubleMatrix1D evolveMatrix(final double t, final DoubleMatrix1D x, final double dt, final DoubleMatrix1D dw) {
-        final DoubleMatrix1D mu = discretization.drift(this, t, x, dt).assign(x, Functions.plus); // x+mu
-        final DoubleMatrix2D sigma = discretization.diffusion(this, t, x ,dt);
-
-        // (x + mu) + sigma*dw
-        MatrixHelper.blas.dgemv(false, 1.0, sigma, dw, 1.0, mu);
-
-        return mu;
+        return discretization.evolve(this, t, x, dt, dw);
     }
 }
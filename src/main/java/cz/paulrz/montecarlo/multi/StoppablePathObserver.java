@@ -0,0 +1,26 @@
+package cz.paulrz.montecarlo.multi;
+
+/**
+ * Observer that can end the path early, e.g. when a barrier is hit or a
+ * factor is absorbed. Generators check {@link #isDone()} after the starting
+ * point and after every step and stop stepping the path once it is set.
+ */
+public interface StoppablePathObserver<T> extends PathObserver<T> {
+    /**
+     * Checks the value of the path is known
+     *
+     * @return True if the remaining points are not needed
+     */
+    boolean isDone();
+
+    /**
+     * Checks whether an observer ends the path, generators call it after the
+     * starting point and after every step
+     *
+     * @param observer Observer of the path points
+     * @return True if the observer is stoppable and done
+     */
+    static boolean isDone(PathObserver<?> observer) {
+        return observer instanceof StoppablePathObserver && ((StoppablePathObserver<?>) observer).isDone();
+    }
+}
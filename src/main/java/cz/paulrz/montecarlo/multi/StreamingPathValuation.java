@@ -0,0 +1,41 @@
+package cz.paulrz.montecarlo.multi;
+
+/**
+ * Valuation that only needs running state of the path, so the engine can
+ * feed it step by step instead of materializing the whole {@link Path}.
+ *
+ * Models stream a {@link PathValuation} implementing this interface and do
+ * not call its {@link PathValuation#value(Path)}, the observer must give
+ * the same value. A subclass overriding value(Path) but not
+ * {@link #newObserver()} is valuated from whole paths, see
+ * {@link #streams(PathValuation)}.
+ */
+public interface StreamingPathValuation<T> {
+    /**
+     * Creates observer with the running state. The valuation itself may be
+     * shared between threads, observers are not.
+     *
+     * @return New observer
+     */
+    PathObserver<T> newObserver();
+
+    /**
+     * Checks a model may stream the valuation. It must implement this
+     * interface and the class declaring {@link #newObserver()} must also
+     * declare {@link PathValuation#value(Path)}.
+     *
+     * @param valuation Path valuation
+     * @return True if the observer gives the value of the path
+     */
+    static boolean streams(PathValuation<?> valuation) {
+        if (!(valuation instanceof StreamingPathValuation))
+            return false;
+        try {
+            final Class<?> type = valuation.getClass();
+            return type.getMethod("newObserver").getDeclaringClass()
+                    == type.getMethod("value", Path.class).getDeclaringClass();
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
@@ -2,15 +2,40 @@ package cz.paulrz.montecarlo.parallel;
 
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
+ * Shared pool of simulation workers, one per CPU. Code running on a worker
+ * must not start parallel work of its own, see {@link #isWorkerThread()}.
+ *
  * User: paul
  * Date: 1/10/11
  * Time: 18:13 PM
  */
 public final class CpuPool {
     public static final int numOfCpu = Runtime.getRuntime().availableProcessors();
-    public static final ExecutorService executorService = Executors.newFixedThreadPool(numOfCpu);
+    public static final ExecutorService executorService = Executors.newFixedThreadPool(numOfCpu,
+            new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger();
 
+                public Thread newThread(Runnable r) {
+                    return new Worker(r, "cpupool-" + count.incrementAndGet());
+                }
+            });
 
+    /**
+     * Checks the current thread is a worker of the pool
+     *
+     * @return True if called from a pool worker
+     */
+    public static boolean isWorkerThread() {
+        return Thread.currentThread() instanceof Worker;
+    }
+
+    private static final class Worker extends Thread {
+        Worker(Runnable r, String name) {
+            super(r, name);
+        }
+    }
 }
@@ -2,13 +2,36 @@ package cz.paulrz.montecarlo.random;
 
 import org.apache.commons.math.util.FastMath;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
+ * Brownian bridge construction of a path with <code>steps</code> points
+ * spaced by <code>dt</code>. The first point is known (t=0), so the bridge
+ * builds the remaining <code>steps-1</code> points, starting with the
+ * terminal one.
+ *
+ * Instances are immutable and may be shared between threads and generators,
+ * see {@link #getInstance(int, double)}. The shared instances are kept for
+ * the {@link #cacheSize} most recently used grids only, callers sweeping
+ * many grids may construct and own their bridges instead.
+ *
  * User: paul
  * Date: 9/5/11
  * Time: 10:36 AM
  */
 public final class BrownianBridge {
+    public static final int cacheSize = 32;
+    private static final Map<Key, BrownianBridge> cache =
+            new LinkedHashMap<Key, BrownianBridge>(2 * cacheSize, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, BrownianBridge> eldest) {
+                    return size() > cacheSize;
+                }
+            };
+
     private final int size_;
+    private final int points_;
     private final double dt;
     private final double sqrtdt;
     private final int[] bridgeIndex_, leftIndex_, rightIndex_;
@@ -17,21 +40,57 @@ public final class BrownianBridge {
 
     public BrownianBridge(int steps, double dt) {
         size_ = steps;
+        points_ = steps > 1 ? steps - 1 : 0;
         this.dt = dt;
         sqrtdt = FastMath.sqrt(dt);
-        bridgeIndex_ = new int[steps];
-        leftIndex_ = new int[steps];
-        rightIndex_ = new int[steps];
-        leftWeight_ = new double[steps];
-        rightWeight_ = new double[steps];
-        stdDev_ = new double[steps];
-        t_ = new double[steps];
-
-        for (int i = 0; i < size_; ++i) {
-            t_[i] = i * dt;
+        bridgeIndex_ = new int[points_];
+        leftIndex_ = new int[points_];
+        rightIndex_ = new int[points_];
+        leftWeight_ = new double[points_];
+        rightWeight_ = new double[points_];
+        stdDev_ = new double[points_];
+        t_ = new double[points_];
+
+        for (int i = 0; i < points_; ++i) {
+            t_[i] = (i + 1) * dt;
+        }
+
+        if (points_ > 0)
+            initialize();
+    }
+
+    /**
+     * Gets a shared bridge for the given grid. Bridge tables depend only on
+     * the number of steps and the time step, so generators with the same
+     * grid use one instance. Least recently used grids are evicted.
+     *
+     * @param steps Number of path points
+     * @param dt Time step
+     * @return Cached bridge
+     */
+    public static BrownianBridge getInstance(int steps, double dt) {
+        final Key key = new Key(steps, dt);
+        synchronized (cache) {
+            BrownianBridge bridge = cache.get(key);
+            if (bridge == null) {
+                bridge = new BrownianBridge(steps, dt);
+                cache.put(key, bridge);
+            }
+            return bridge;
         }
+    }
+
+    /**
+     * Gets number of path points
+     *
+     * @return Number of points, including the known starting one
+     */
+    public int size() {
+        return size_;
+    }
 
-        initialize();
+    public double getTimeStep() {
+        return dt;
     }
 
     private void initialize() {
@@ -39,17 +98,17 @@ public final class BrownianBridge {
         // If map[i] is zero, path point i is yet unconstructed.
         // map[i]-1 is the index of the variate that constructs
         // the path point # i.
-        int[] map = new int[size_];
+        int[] map = new int[points_];
 
         //  The first point in the construction is the global step.
-        map[size_ - 1] = 1;
+        map[points_ - 1] = 1;
         //  The global step is constructed from the first variate.
-        bridgeIndex_[0] = size_ - 1;
+        bridgeIndex_[0] = points_ - 1;
         //  The variance of the global step
-        stdDev_[0] = FastMath.sqrt(t_[size_ - 1]);
+        stdDev_[0] = FastMath.sqrt(t_[points_ - 1]);
         //  The global step to the last point in time is special.
         leftWeight_[0] = rightWeight_[0] = 0.0;
-        for (int j = 0, i = 1; i < size_; ++i) {
+        for (int j = 0, i = 1; i < points_; ++i) {
             // Find the next unpopulated entry in the map.
             while (map[j] != 0)
                 ++j;
@@ -76,57 +135,141 @@ public final class BrownianBridge {
                 stdDev_[i] = FastMath.sqrt(t_[l] * (t_[k] - t_[l]) / t_[k]);
             }
             j = k + 1;
-            if (j >= size_)
+            if (j >= points_)
                 j = 0;    //  wrap around
         }
 
     }
 
 
-    //! Brownian-bridge generator function
-    /*! Transforms an input sequence of random variates into a
-        sequence of variations in a Brownian bridge path.
-
-        \param begin  The start iterator of the input sequence.
-        \param end    The end iterator of the input sequence.
-        \param output The start iterator of the output sequence.
-
-        \note To get the canonical Brownian bridge which starts
-                  and finishes at the same value, the first element of
-                  the input sequence must be zero. Conversely, to get
-                  a sloped bridge set the first element to a non-zero
-                  value. In this case, the final value in the bridge
-                  will be sqrt(last time point)*(first element of
-                  input sequence).
-    */
+    /**
+     * Transforms a sequence of independent standard normal variates into
+     * normalized Brownian increments.
+     *
+     * @param input Variates, input[1] drives the terminal point, input[2] the
+     *              midpoint etc., input[0] is ignored
+     * @return Increments normalized to unit time, output[0] is zero
+     * @see #transform(double[], double[])
+     */
     public double[] transform(final double[] input) {
         final double[] output = new double[size_];
+        transform(input, output);
+        return output;
+    }
+
+    /**
+     * Transforms variates into normalized Brownian increments writing into a
+     * caller owned buffer. Both arrays must have at least {@link #size()}
+     * elements and must not be the same array.
+     *
+     * @param input Variates, input[1] drives the terminal point, input[0] is ignored
+     * @param output Increments normalized to unit time, output[0] is set to zero
+     */
+    public void transform(final double[] input, final double[] output) {
+        output[0] = 0.0;
+        if (points_ == 0)
+            return;
 
-        output[size_ - 1] = stdDev_[0] * input[0];
-        for (int i = 1; i < size_; ++i) {
+        // path values W(t_1)..W(t_n) are stored in output[1..n]
+        output[points_] = stdDev_[0] * input[1];
+        for (int i = 1; i < points_; ++i) {
             final int j = leftIndex_[i];
             final int k = rightIndex_[i];
             final int l = bridgeIndex_[i];
             if (j != 0) {
-                output[l] =
-                        leftWeight_[i] * output[j - 1] +
-                                rightWeight_[i] * output[k] +
-                                stdDev_[i] * input[i];
+                output[l + 1] =
+                        leftWeight_[i] * output[j] +
+                                rightWeight_[i] * output[k + 1] +
+                                stdDev_[i] * input[i + 1];
             } else {
-                output[l] =
-                        rightWeight_[i] * output[k] +
-                                stdDev_[i] * input[i];
+                output[l + 1] =
+                        rightWeight_[i] * output[k + 1] +
+                                stdDev_[i] * input[i + 1];
             }
         }
         // ...after which, we calculate the variations and
         // normalize to unit times
-        for (int i = size_ - 1; i >= 1; --i) {
-            output[i] -= output[i - 1];
-            output[i] /= sqrtdt;
+        final double norm = 1.0 / sqrtdt;
+        for (int i = points_; i > 1; --i) {
+            output[i] = (output[i] - output[i - 1]) * norm;
         }
-        output[0] /= sqrtdt;
+        output[1] *= norm;
+    }
 
-        return output;
+    /**
+     * Batched transform of <code>width</code> independent series stored
+     * time-major, i.e. element <code>i*width + p</code> belongs to series
+     * <code>p</code> at index <code>i</code>. Each row is processed by one
+     * contiguous inner loop, which keeps the tables in registers and lets
+     * the JIT vectorize the loop.
+     *
+     * The series can be paths of one factor or factors of one path, the
+     * latter being the multi-factor bridge where the first <code>width</code>
+     * variates of row 1 construct the terminal point of all factors.
+     *
+     * @param input Variates, row 0 is ignored
+     * @param output Increments normalized to unit time, row 0 is set to zero
+     * @param width Number of series
+     */
+    public void transform(final double[] input, final double[] output, final int width) {
+        for (int p = 0; p < width; ++p)
+            output[p] = 0.0;
+        if (points_ == 0)
+            return;
+
+        final double sd0 = stdDev_[0];
+        final int last = points_ * width;
+        for (int p = 0; p < width; ++p)
+            output[last + p] = sd0 * input[width + p];
+
+        for (int i = 1; i < points_; ++i) {
+            final int l = (bridgeIndex_[i] + 1) * width;
+            final int k = (rightIndex_[i] + 1) * width;
+            final int in = (i + 1) * width;
+            final double rw = rightWeight_[i];
+            final double sd = stdDev_[i];
+            if (leftIndex_[i] != 0) {
+                final int j = leftIndex_[i] * width;
+                final double lw = leftWeight_[i];
+                for (int p = 0; p < width; ++p)
+                    output[l + p] = lw * output[j + p] + rw * output[k + p] + sd * input[in + p];
+            } else {
+                for (int p = 0; p < width; ++p)
+                    output[l + p] = rw * output[k + p] + sd * input[in + p];
+            }
+        }
+
+        final double norm = 1.0 / sqrtdt;
+        for (int i = points_; i > 1; --i) {
+            final int row = i * width;
+            final int prev = row - width;
+            for (int p = 0; p < width; ++p)
+                output[row + p] = (output[row + p] - output[prev + p]) * norm;
+        }
+        for (int p = 0; p < width; ++p)
+            output[width + p] *= norm;
     }
 
+    private static final class Key {
+        private final int steps;
+        private final long dtBits;
+
+        Key(int steps, double dt) {
+            this.steps = steps;
+            this.dtBits = Double.doubleToLongBits(dt);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            final Key that = (Key) o;
+            return steps == that.steps && dtBits == that.dtBits;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * steps + (int) (dtBits ^ (dtBits >>> 32));
+        }
+    }
 }
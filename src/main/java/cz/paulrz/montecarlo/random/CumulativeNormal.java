@@ -0,0 +1,57 @@
+package cz.paulrz.montecarlo.random;
+
+import org.apache.commons.math.util.FastMath;
+
+/**
+ * Standard normal cumulative distribution function, double precision
+ * rational approximation of Hart (1968) with the continued fraction for
+ * the tails. Absolute error is below 1e-14.
+ *
+ * @see <a href="http://www.wilmott.com/pdfs/090721_west.pdf">
+ * 		G. West, Better approximations to cumulative normal functions</a>
+ *
+ */
+public final class CumulativeNormal {
+
+    static final private double a0 = 3.52624965998911e-02;
+    static final private double a1 = 0.700383064443688;
+    static final private double a2 = 6.37396220353165;
+    static final private double a3 = 33.912866078383;
+    static final private double a4 = 112.079291497871;
+    static final private double a5 = 221.213596169931;
+    static final private double a6 = 220.206867912376;
+
+    static final private double b0 = 8.83883476483184e-02;
+    static final private double b1 = 1.75566716318264;
+    static final private double b2 = 16.064177579207;
+    static final private double b3 = 86.7807322029461;
+    static final private double b4 = 296.564248779674;
+    static final private double b5 = 637.333633378831;
+    static final private double b6 = 793.826512519948;
+    static final private double b7 = 440.413735824752;
+
+    static final private double sqrt2pi = 2.506628274631;
+
+    private CumulativeNormal() {
+
+    }
+
+    public static double op(final double x) {
+        final double z = Math.abs(x);
+        double c = 0.0;
+
+        if (z <= 37.0) {
+            final double e = FastMath.exp(-0.5 * z * z);
+            if (z < 7.07106781186547) {
+                final double n = ((((((a0*z+a1)*z+a2)*z+a3)*z+a4)*z+a5)*z+a6);
+                final double d = (((((((b0*z+b1)*z+b2)*z+b3)*z+b4)*z+b5)*z+b6)*z+b7);
+                c = e * n / d;
+            } else {
+                final double f = z + 1.0 / (z + 2.0 / (z + 3.0 / (z + 4.0 / (z + 0.65))));
+                c = e / f / sqrt2pi;
+            }
+        }
+
+        return x > 0.0 ? 1.0 - c : c;
+    }
+}
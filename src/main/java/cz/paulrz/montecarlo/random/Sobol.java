@@ -603,6 +603,29 @@ for(k=0;k<50;k++)
     }
 
 
+    /**
+     * Positions the sequence at the n-th point, the next point is the one
+     * returned after n calls of {@link #nextPoint()} from {@link #restart()}.
+     * Parallel workers skip to disjoint offsets instead of repeating the
+     * first points.
+     *
+     * @param n Number of points to skip from the start
+     */
+    public void skipTo(int n) {
+        if (n < 0)
+            throw new IllegalArgumentException("n");
+        index = n + 1;
+        // integers of point index are the direction numbers of the set bits of its Gray code
+        final int code = gray(index);
+        for (int k = 0; k < dim; k++) {
+            long value = 0;
+            for (int j = 0; j < bits; j++)
+                if ((code >>> j & 1) != 0)
+                    value ^= v[k][j];
+            x_int[k] = value;
+        }
+    }
+
     /**
      * The next Sobol point in the unit cube [0,1]^dim.
      */
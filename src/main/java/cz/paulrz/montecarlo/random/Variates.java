@@ -0,0 +1,103 @@
+package cz.paulrz.montecarlo.random;
+
+import org.apache.commons.math.random.NormalizedRandomGenerator;
+import org.apache.commons.math.special.Gamma;
+import org.apache.commons.math.util.FastMath;
+
+/**
+ * Non-normal variates drawn from a generator of normalized values, so the
+ * exact schemes can share the generators of the path engines. Uniforms
+ * are N(z) of a standard normal z.
+ */
+public final class Variates {
+    private Variates() {
+    }
+
+    /**
+     * Draws uniform variate
+     *
+     * @param generator Generator of normalized values
+     * @return Value in (0, 1)
+     */
+    public static double uniform(final NormalizedRandomGenerator generator) {
+        double u;
+        do {
+            u = CumulativeNormal.op(generator.nextNormalizedDouble());
+        } while (u <= 0.0 || u >= 1.0);
+        return u;
+    }
+
+    /**
+     * Draws gamma variate of unit scale, Marsaglia and Tsang (2000)
+     *
+     * @param generator Generator of normalized values
+     * @param shape Shape, positive
+     * @return Gamma(shape, 1) variate
+     */
+    public static double gamma(final NormalizedRandomGenerator generator, final double shape) {
+        if (shape < 1.0)
+            return gamma(generator, shape + 1.0) * FastMath.pow(uniform(generator), 1.0 / shape);
+
+        final double d = shape - 1.0 / 3.0;
+        final double c = 1.0 / FastMath.sqrt(9.0 * d);
+        while (true) {
+            final double x = generator.nextNormalizedDouble();
+            double v = 1.0 + c * x;
+            if (v <= 0.0)
+                continue;
+            v = v * v * v;
+            final double x2 = x * x;
+            final double u = uniform(generator);
+            if (u < 1.0 - 0.0331 * x2 * x2)
+                return d * v;
+            if (FastMath.log(u) < 0.5 * x2 + d * (1.0 - v + FastMath.log(v)))
+                return d * v;
+        }
+    }
+
+    /**
+     * Draws Poisson variate, inversion for small means and transformed
+     * rejection of Hormann (1993) otherwise
+     *
+     * @param generator Generator of normalized values
+     * @param mean Mean, non-negative
+     * @return Poisson(mean) variate
+     */
+    public static int poisson(final NormalizedRandomGenerator generator, final double mean) {
+        if (mean <= 0.0)
+            return 0;
+
+        if (mean < 10.0) {
+            final double u = uniform(generator);
+            int k = 0;
+            double p = FastMath.exp(-mean);
+            double f = p;
+            while (u > f && p > 0.0) {
+                ++k;
+                p *= mean / k;
+                f += p;
+            }
+            return k;
+        }
+
+        final double slam = FastMath.sqrt(mean);
+        final double loglam = FastMath.log(mean);
+        final double b = 0.931 + 2.53 * slam;
+        final double a = -0.059 + 0.02483 * b;
+        final double invalpha = 1.1239 + 1.1328 / (b - 3.4);
+        final double vr = 0.9277 - 3.6224 / (b - 2.0);
+        while (true) {
+            final double u = uniform(generator) - 0.5;
+            final double v = uniform(generator);
+            final double us = 0.5 - Math.abs(u);
+            final double k = Math.floor((2.0 * a / us + b) * u + mean + 0.43);
+            if (us >= 0.07 && v <= vr)
+                return (int) k;
+            if (k < 0.0 || (us < 0.013 && v > us))
+                continue;
+            if (FastMath.log(v) + FastMath.log(invalpha) - FastMath.log(a / (us * us) + b)
+                    <= -mean + k * loglam - Gamma.logGamma(k + 1.0))
+                return (int) k;
+        }
+    }
+}
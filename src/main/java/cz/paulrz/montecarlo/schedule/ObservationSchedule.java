@@ -0,0 +1,81 @@
+package cz.paulrz.montecarlo.schedule;
+
+import java.util.Arrays;
+
+/**
+ * Sorted set of monitored points of a path. The process is stepped on the
+ * fine grid of the generator, only points with the scheduled step indices
+ * are recorded. Index 0 is the starting point.
+ *
+ */
+public final class ObservationSchedule {
+    private final int[] steps;
+
+    /**
+     * Constructs schedule from step indices
+     *
+     * @param steps Strictly increasing, non-negative step indices
+     */
+    public ObservationSchedule(int[] steps) {
+        if (steps.length == 0)
+            throw new IllegalArgumentException("steps");
+        for (int k = 0; k < steps.length; ++k) {
+            if (steps[k] < 0 || (k > 0 && steps[k] <= steps[k - 1]))
+                throw new IllegalArgumentException("steps");
+        }
+        this.steps = steps.clone();
+    }
+
+    /**
+     * Constructs schedule from observation times, each time is rounded to
+     * the nearest point of the grid
+     *
+     * @param times Increasing observation times
+     * @param dt Time step of the grid
+     * @return Schedule
+     */
+    public static ObservationSchedule fromTimes(double[] times, double dt) {
+        final int[] steps = new int[times.length];
+        for (int k = 0; k < times.length; ++k)
+            steps[k] = (int) Math.round(times[k] / dt);
+        return new ObservationSchedule(steps);
+    }
+
+    /**
+     * Gets number of observations
+     *
+     * @return Number of observations
+     */
+    public int size() {
+        return steps.length;
+    }
+
+    /**
+     * Gets step index of k-th observation
+     *
+     * @param k Observation index
+     * @return Step index on the fine grid
+     */
+    public int getStep(int k) {
+        return steps[k];
+    }
+
+    public int getLastStep() {
+        return steps[steps.length - 1];
+    }
+
+    /**
+     * Checks the schedule fits the path of given length
+     *
+     * @param length Number of points of the fine grid
+     */
+    public void checkLength(int length) {
+        if (getLastStep() >= length)
+            throw new IllegalArgumentException("schedule exceeds path length " + length);
+    }
+
+    @Override
+    public String toString() {
+        return "ObservationSchedule : " + Arrays.toString(steps);
+    }
+}
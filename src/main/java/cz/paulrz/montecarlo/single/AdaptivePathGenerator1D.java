@@ -0,0 +1,159 @@
+package cz.paulrz.montecarlo.single;
+
+import org.apache.commons.math.FunctionEvaluationException;
+import org.apache.commons.math.random.NormalizedRandomGenerator;
+import org.apache.commons.math.util.FastMath;
+
+/**
+ * Path generator with adaptive time stepping. Paths are emitted on the
+ * usual grid of timeSteps points, each grid interval is integrated with
+ * steps refined where the local error is large.
+ *
+ * The Brownian increment of a grid interval is drawn first, finer
+ * increments are sampled from the Brownian bridge, so the refinement does
+ * not change the law of the driving Brownian motion. A step of size h from
+ * x is halved while the error indicator
+ * <pre>
+ *   h * (|a(u) - a(x)| + |a(d) - a(x)|) / 2 + sqrt(h) * |b(u) - b(d)| / 2,
+ *   u, d = x + a(x)*h +- b(x)*sqrt(h)
+ * </pre>
+ * exceeds tolerance * max(1, |x|), up to maxDepth times; smooth intervals
+ * are done in one step of the grid. The indicator is the variation of the
+ * drift and diffusion over the step. It depends on x and h only, not on
+ * the Brownian increments: a decision based on the sampled increments
+ * (e.g. step doubling) prefers paths with low quadratic variation and
+ * biases the estimates.
+ *
+ * Paths need every grid point, so a grid interval is the longest step;
+ * after a refined region the following intervals start with one step
+ * again. Discretizations taking a second variate per step, see
+ * {@link StochasticProcess1D#usesSecondVariate()}, get an independent one
+ * for every accepted step.
+ *
+ * Like the other generators it keeps state and is used by one thread,
+ * parallel models create a generator per worker.
+ *
+ */
+public final class AdaptivePathGenerator1D implements PathGenerator1D {
+    public static final int defaultMaxDepth = 8;
+
+    private final StochasticProcess1D process;
+    private final int timeSteps;
+    private final double dt;
+    private final NormalizedRandomGenerator generator;
+    private final double tolerance;
+    private final int maxDepth;
+    private final boolean strong;
+    private long stepCount = 0;
+
+    /**
+     * Constructor of AdaptivePathGenerator1D
+     *
+     * @param process Stochastic Process
+     * @param timeSteps Number of time steps of the emitted paths
+     * @param duration Total duration of the process
+     * @param generator Random generator of normalized real values
+     * @param tolerance Local error tolerance relative to max(1, |x|)
+     */
+    public AdaptivePathGenerator1D(StochasticProcess1D process, int timeSteps, double duration,
+                                   NormalizedRandomGenerator generator, double tolerance) {
+        this(process, timeSteps, duration, generator, tolerance, defaultMaxDepth);
+    }
+
+    /**
+     * Constructor of AdaptivePathGenerator1D
+     *
+     * @param process Stochastic Process
+     * @param timeSteps Number of time steps of the emitted paths
+     * @param duration Total duration of the process
+     * @param generator Random generator of normalized real values
+     * @param tolerance Local error tolerance relative to max(1, |x|)
+     * @param maxDepth Maximal number of halvings of a grid interval
+     */
+    public AdaptivePathGenerator1D(StochasticProcess1D process, int timeSteps, double duration,
+                                   NormalizedRandomGenerator generator, double tolerance, int maxDepth) {
+        this.process = process;
+        this.timeSteps = timeSteps;
+        this.generator = generator;
+        this.dt = duration / timeSteps;
+        this.tolerance = tolerance;
+        this.maxDepth = maxDepth;
+        this.strong = process.usesSecondVariate();
+    }
+
+    /**
+     * Gets number of accepted steps of all paths generated by this generator
+     *
+     * @return Number of steps
+     */
+    public long getStepCount() {
+        return stepCount;
+    }
+
+    public Path next() throws FunctionEvaluationException {
+        final Path path = new Path(timeSteps, dt);
+        nextInto(path);
+        return path;
+    }
+
+    public void nextInto(final Path path) throws FunctionEvaluationException {
+        path.checkLength(timeSteps);
+        final double[] values = path.getValues();
+        values[0] = process.getInitialX();
+
+        final double sdt = FastMath.sqrt(dt);
+        double t = 0.0;
+        for (int i = 1; i < timeSteps; ++i) {
+            values[i] = step(t, values[i - 1], dt, sdt * generator.nextNormalizedDouble(), 0);
+            t += dt;
+        }
+
+        path.complete();
+    }
+
+    public void stream(final PathObserver<?> observer) throws FunctionEvaluationException {
+        double x = process.getInitialX();
+        observer.start(x);
+        if (StoppablePathObserver.isDone(observer))
+            return;
+
+        final double sdt = FastMath.sqrt(dt);
+        double t = 0.0;
+        for (int i = 1; i < timeSteps; ++i) {
+            x = step(t, x, dt, sdt * generator.nextNormalizedDouble(), 0);
+            observer.observe(x);
+            if (StoppablePathObserver.isDone(observer))
+                return;
+            t += dt;
+        }
+    }
+
+    /**
+     * Integrates interval [t, t+h] with Brownian increment w
+     */
+    private double step(final double t, final double x, final double h, final double w,
+                        final int depth) throws FunctionEvaluationException {
+        if (depth == maxDepth || indicator(t, x, h) <= tolerance * Math.max(1.0, FastMath.abs(x))) {
+            stepCount++;
+            if (strong)
+                return process.evolve(t, x, h, w / FastMath.sqrt(h), generator.nextNormalizedDouble());
+            return process.evolve(t, x, h, w / FastMath.sqrt(h));
+        }
+
+        // bridge midpoint of the increment
+        final double half = 0.5 * h;
+        final double w1 = 0.5 * w + 0.5 * FastMath.sqrt(h) * generator.nextNormalizedDouble();
+        final double x1 = step(t, x, half, w1, depth + 1);
+        return step(t + half, x1, half, w - w1, depth + 1);
+    }
+
+    private double indicator(final double t, final double x, final double h) throws FunctionEvaluationException {
+        final double a = process.drift(t, x);
+        final double bsh = process.diffusion(t, x) * FastMath.sqrt(h);
+        final double up = x + a * h + bsh;
+        final double down = x + a * h - bsh;
+
+        return 0.5 * h * (FastMath.abs(process.drift(t, up) - a) + FastMath.abs(process.drift(t, down) - a))
+                + 0.5 * FastMath.sqrt(h) * FastMath.abs(process.diffusion(t, up) - process.diffusion(t, down));
+    }
+}
@@ -14,8 +14,12 @@ public final class AntitheticBridgedPathGenerator1D implements PathGenerator1D {
     private final int timeSteps;
     private final double dt;
     private final NormalizedRandomGenerator generator;
-    private Path nextPath = null;
+    private boolean antitheticPending = false;
     private final BrownianBridge bridge;
+    private final double[] variates;
+    private final double[] dw;
+    private final StochasticProcess1D strong;
+    private final double[] dz;
 
     /**
      * Constructor of SimplePathGenerator1D
@@ -31,39 +35,87 @@ public final class AntitheticBridgedPathGenerator1D implements PathGenerator1D {
         this.timeSteps = timeSteps;
         this.generator = generator;
         this.dt = duration / timeSteps;
-        bridge = new BrownianBridge(timeSteps, dt);
+        bridge = BrownianBridge.getInstance(timeSteps, dt);
+        variates = new double[timeSteps];
+        dw = new double[timeSteps];
+        strong = SimplePathGenerator1D.secondVariateOf(process);
+        dz = strong != null ? new double[timeSteps] : null;
     }
 
     public Path next() throws FunctionEvaluationException {
-        if (nextPath!=null)
-        {
-            final Path retPath = nextPath;
-            nextPath = null;
-            return retPath;
-        }
-
         final Path path = new Path(timeSteps, dt);
-        nextPath = new Path(timeSteps, dt);
-        path.addValue(process.getInitialX());
-        nextPath.addValue(process.getInitialX());
+        nextInto(path);
+        return path;
+    }
 
-        double[] dw = new double[timeSteps];
-        dw[0] = 0.0;
-        for(int i = 1; i<timeSteps; ++i) {
-            dw[i] = generator.nextNormalizedDouble();
+    /**
+     * Generates paths in pairs, the second path of the pair uses the
+     * negated increments of the first one.
+     *
+     * @param path Path buffer
+     */
+    public void nextInto(final Path path) throws FunctionEvaluationException {
+        path.checkLength(timeSteps);
+        final double sign = nextSign();
+        final double[] values = path.getValues();
+        values[0] = process.getInitialX();
+
+        double t = 0.0;
+        for (int i = 1; i < timeSteps; ++i) {
+            values[i] = step(t, values[i - 1], sign, i);
+            t += dt;
         }
 
-        dw = bridge.transform(dw);
+        path.complete();
+    }
+
+    public void stream(final PathObserver<?> observer) throws FunctionEvaluationException {
+        final double sign = nextSign();
+        double x = process.getInitialX();
+        observer.start(x);
+        if (StoppablePathObserver.isDone(observer))
+            return;
 
         double t = 0.0;
-        final double[] pathValues = path.getValues();
-        final double[] nextPathValues = nextPath.getValues();
         for (int i = 1; i < timeSteps; ++i) {
-            path.addValue(process.evolve(t, pathValues[i - 1], dt, dw[i]));
-            nextPath.addValue(process.evolve(t, nextPathValues[i - 1], dt, -dw[i]));
+            x = step(t, x, sign, i);
+            observer.observe(x);
+            if (StoppablePathObserver.isDone(observer))
+                return;
             t += dt;
         }
+    }
 
-        return path;
+    /**
+     * Draws increments for a new pair of paths or switches to the
+     * antithetic path of the current pair
+     *
+     * @return Sign of the increments
+     */
+    private double nextSign() {
+        final double sign;
+        if (antitheticPending) {
+            sign = -1.0;
+        } else {
+            sign = 1.0;
+            for (int i = 1; i < timeSteps; ++i)
+                variates[i] = generator.nextNormalizedDouble();
+
+            bridge.transform(variates, dw);
+            // second variates belong to single steps, they are not bridged
+            if (dz != null) {
+                for (int i = 1; i < timeSteps; ++i)
+                    dz[i] = generator.nextNormalizedDouble();
+            }
+        }
+        antitheticPending = !antitheticPending;
+        return sign;
+    }
+
+    private double step(final double t, final double x, final double sign, final int i)
+            throws FunctionEvaluationException {
+        if (strong != null)
+            return strong.evolve(t, x, dt, sign * dw[i], sign * dz[i]);
+        return process.evolve(t, x, dt, sign * dw[i]);
     }
 }
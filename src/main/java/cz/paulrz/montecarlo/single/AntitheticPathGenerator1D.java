@@ -13,7 +13,10 @@ public final class AntitheticPathGenerator1D implements PathGenerator1D {
     private final int timeSteps;
     private final double dt;
     private final NormalizedRandomGenerator generator;
-    private Path nextPath = null;
+    private final double[] dw;
+    private final double[] dz;
+    private final StochasticProcess1D strong;
+    private boolean antitheticPending = false;
 
     /**
      * Constructor of SimplePathGenerator1D
@@ -29,29 +32,82 @@ public final class AntitheticPathGenerator1D implements PathGenerator1D {
         this.timeSteps = timeSteps;
         this.generator = generator;
         this.dt = duration / timeSteps;
+        dw = new double[timeSteps];
+        strong = SimplePathGenerator1D.secondVariateOf(process);
+        dz = strong != null ? new double[timeSteps] : null;
     }
 
     public Path next() throws FunctionEvaluationException {
-        if (nextPath!=null)
-        {
-            final Path retPath = nextPath;
-            nextPath = null;
-            return retPath;
+        final Path path = new Path(timeSteps, dt);
+        nextInto(path);
+        return path;
+    }
+
+    /**
+     * Generates paths in pairs, the second path of the pair uses the
+     * negated increments of the first one.
+     *
+     * @param path Path buffer
+     */
+    public void nextInto(final Path path) throws FunctionEvaluationException {
+        path.checkLength(timeSteps);
+        final double sign = nextSign();
+        final double[] values = path.getValues();
+        values[0] = process.getInitialX();
+
+        double t = 0.0;
+        for (int i = 1; i < timeSteps; ++i) {
+            values[i] = step(t, values[i - 1], sign, i);
+            t += dt;
         }
 
-        final Path path = new Path(timeSteps, dt);
-        nextPath = new Path(timeSteps, dt);
-        path.addValue(process.getInitialX());
-        nextPath.addValue(process.getInitialX());
+        path.complete();
+    }
+
+    public void stream(final PathObserver<?> observer) throws FunctionEvaluationException {
+        final double sign = nextSign();
+        double x = process.getInitialX();
+        observer.start(x);
+        if (StoppablePathObserver.isDone(observer))
+            return;
 
         double t = 0.0;
         for (int i = 1; i < timeSteps; ++i) {
-            final double dw = generator.nextNormalizedDouble();
-            path.addValue(process.evolve(t, path.getValues()[i - 1], dt, dw));
-            nextPath.addValue(process.evolve(t, nextPath.getValues()[i - 1], dt, -dw));
+            x = step(t, x, sign, i);
+            observer.observe(x);
+            if (StoppablePathObserver.isDone(observer))
+                return;
             t += dt;
         }
+    }
 
-        return path;
+    /**
+     * Draws increments for a new pair of paths or switches to the
+     * antithetic path of the current pair
+     *
+     * @return Sign of the increments
+     */
+    private double nextSign() {
+        final double sign;
+        if (antitheticPending) {
+            sign = -1.0;
+        } else {
+            sign = 1.0;
+            for (int i = 1; i < timeSteps; ++i)
+                dw[i] = generator.nextNormalizedDouble();
+            if (dz != null) {
+                for (int i = 1; i < timeSteps; ++i)
+                    dz[i] = generator.nextNormalizedDouble();
+            }
+        }
+        antitheticPending = !antitheticPending;
+        return sign;
+    }
+
+    private double step(final double t, final double x, final double sign, final int i)
+            throws FunctionEvaluationException {
+        if (strong != null)
+            return strong.evolve(t, x, dt, sign * dw[i], sign * dz[i]);
+        return process.evolve(t, x, dt, sign * dw[i]);
     }
 }
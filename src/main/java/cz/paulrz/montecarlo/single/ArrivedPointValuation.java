@@ -16,15 +16,50 @@
  */
 package cz.paulrz.montecarlo.single;
 
+import java.util.List;
+
 /**
  * This valuation provides a final, or arrived, point of the path as path value
  * 
  */
-public class ArrivedPointValuation implements PathValuation<Double> {
+public class ArrivedPointValuation implements PathValuation<Double>, BatchPathValuation<Double>,
+        StreamingPathValuation<Double>, TerminalValuation<Double> {
 
     /** {@inheritedDoc} */
     public Double value(final Path path) {
         return path.getValues()[path.getLength() - 1];
     }
 
+    /** {@inheritedDoc} */
+    public void value(final PathBlock block, final List<Double> result) {
+        final double[] last = block.getValues(block.getLength() - 1);
+        final int count = block.getCount();
+        for (int p = 0; p < count; ++p)
+            result.add(last[p]);
+    }
+
+    /** {@inheritedDoc} */
+    public Double value(final double initial, final double terminal) {
+        return terminal;
+    }
+
+    /** {@inheritedDoc} */
+    public PathObserver<Double> newObserver() {
+        return new PathObserver<Double>() {
+            private double last;
+
+            public void start(final double x0) {
+                last = x0;
+            }
+
+            public void observe(final double x) {
+                last = x;
+            }
+
+            public Double value() {
+                return last;
+            }
+        };
+    }
+
 }
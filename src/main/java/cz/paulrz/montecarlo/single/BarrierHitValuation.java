@@ -0,0 +1,60 @@
+package cz.paulrz.montecarlo.single;
+
+/**
+ * Indicator of the path touching a barrier, e.g. knock-out event or
+ * absorption of the process. The path value is 1 if any point is at or
+ * beyond the level and 0 otherwise.
+ *
+ * In streaming mode the observer is done at the first hit, so the
+ * generator stops stepping the path.
+ */
+public final class BarrierHitValuation implements PathValuation<Double>, StreamingPathValuation<Double> {
+    private final double level;
+    private final boolean up;
+
+    /**
+     * Constructs the valuation
+     *
+     * @param level Barrier level
+     * @param up True for the barrier above the path, false for below
+     */
+    public BarrierHitValuation(double level, boolean up) {
+        this.level = level;
+        this.up = up;
+    }
+
+    public Double value(final Path path) {
+        final double[] values = path.getValues();
+        final int len = path.getLength();
+        for (int i = 0; i < len; ++i)
+            if (isHit(values[i]))
+                return 1.0;
+        return 0.0;
+    }
+
+    public PathObserver<Double> newObserver() {
+        return new StoppablePathObserver<Double>() {
+            private boolean hit;
+
+            public void start(final double x0) {
+                hit = isHit(x0);
+            }
+
+            public void observe(final double x) {
+                hit = hit || isHit(x);
+            }
+
+            public boolean isDone() {
+                return hit;
+            }
+
+            public Double value() {
+                return hit ? 1.0 : 0.0;
+            }
+        };
+    }
+
+    private boolean isHit(final double x) {
+        return up ? x >= level : x <= level;
+    }
+}
@@ -0,0 +1,63 @@
+package cz.paulrz.montecarlo.single;
+
+/**
+ * Selects kernels used by {@link BatchProcess1D} implementations.
+ *
+ * Vector kernels use the incubating <code>jdk.incubator.vector</code> module.
+ * They are compiled with the <code>vector</code> Maven profile only and are
+ * used when the class is present, the module is resolved
+ * (<code>--add-modules jdk.incubator.vector</code>) and the system property
+ * <code>cz.paulrz.montecarlo.vector</code> is true. Otherwise the scalar
+ * kernels are used. The choice can be changed at runtime with
+ * {@link #setVectorEnabled(boolean)}.
+ *
+ */
+public final class BatchKernels {
+    public static final String vectorProperty = "cz.paulrz.montecarlo.vector";
+    private static final String vectorKernelsClass = "cz.paulrz.montecarlo.single.VectorBatchKernels1D";
+
+    private static final BatchKernels1D scalar = new ScalarBatchKernels1D();
+    private static final BatchKernels1D vector = loadVectorKernels();
+    private static volatile BatchKernels1D current =
+            Boolean.getBoolean(vectorProperty) && vector != null ? vector : scalar;
+
+    private BatchKernels() {
+    }
+
+    private static BatchKernels1D loadVectorKernels() {
+        try {
+            return (BatchKernels1D) Class.forName(vectorKernelsClass).getDeclaredConstructor().newInstance();
+        } catch (Throwable e) {
+            // not compiled in or module not resolved
+            return null;
+        }
+    }
+
+    /**
+     * Gets kernels currently in use
+     *
+     * @return Kernels
+     */
+    public static BatchKernels1D get() {
+        return current;
+    }
+
+    public static BatchKernels1D getScalar() {
+        return scalar;
+    }
+
+    public static boolean isVectorAvailable() {
+        return vector != null;
+    }
+
+    /**
+     * Switches between vector and scalar kernels
+     *
+     * @param enabled Use vector kernels if they are available
+     * @return True if vector kernels are used
+     */
+    public static boolean setVectorEnabled(boolean enabled) {
+        current = enabled && vector != null ? vector : scalar;
+        return current == vector;
+    }
+}
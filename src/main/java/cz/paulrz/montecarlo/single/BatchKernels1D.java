@@ -0,0 +1,43 @@
+package cz.paulrz.montecarlo.single;
+
+/**
+ * Kernels of one Euler or exact step of a block of paths for the common processes.
+ * All kernels write <code>count</code> elements of out, which may be the
+ * same array as x.
+ *
+ */
+public interface BatchKernels1D {
+
+    /**
+     * Geometric Brownian motion, out = x + mudt*x + sigmasdt*x*dw
+     */
+    void gbm(double mudt, double sigmasdt, double[] x, double[] dw, double[] out, int count);
+
+    /**
+     * Ornstein-Uhlenbeck, out = x + thetadt*(mu - x) + sigmasdt*dw
+     */
+    void ou(double thetadt, double mu, double sigmasdt, double[] x, double[] dw, double[] out, int count);
+
+    /**
+     * Mean reverting process with proportional diffusion,
+     * out = x + thetadt*(mu - x) + sigmasdt*x*dw
+     */
+    void logOu(double thetadt, double mu, double sigmasdt, double[] x, double[] dw, double[] out, int count);
+
+    /**
+     * Exponential Ornstein-Uhlenbeck,
+     * out = x + (driftdt - thetadt*log(x))*x + sigmasdt*x*dw
+     */
+    void expOu(double thetadt, double driftdt, double sigmasdt, double[] x, double[] dw, double[] out, int count);
+
+    /**
+     * Exact step of geometric Brownian motion, out = x*exp(driftdt + sigmasdt*dw)
+     */
+    void gbmExact(double driftdt, double sigmasdt, double[] x, double[] dw, double[] out, int count);
+
+    /**
+     * Exact step of exponential Ornstein-Uhlenbeck,
+     * out = exp(mu + (log(x) - mu)*decay + sd*dw)
+     */
+    void expOuExact(double decay, double mu, double sd, double[] x, double[] dw, double[] out, int count);
+}
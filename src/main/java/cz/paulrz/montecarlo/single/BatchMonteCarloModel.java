@@ -0,0 +1,74 @@
+package cz.paulrz.montecarlo.single;
+
+import cz.paulrz.montecarlo.accumulator.Accumulator;
+import org.apache.commons.math.MathException;
+import org.apache.commons.math.random.NormalizedRandomGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Monte Carlo model generating and valuating paths in blocks. Paths of a
+ * block are stepped together through {@link BatchProcess1D} and valued by
+ * {@link BatchPathValuation}, the block is reused.
+ *
+ */
+public final class BatchMonteCarloModel<TValue> implements IMonteCarloModel<TValue> {
+    public static final int defaultBlockSize = 256;
+
+    private final Accumulator<TValue> summary;
+    private final BatchPathGenerator1D pathGenerator;
+    private final BatchPathValuation<TValue> pathValuation;
+    private final boolean useAntithetic;
+    private final PathBlock block;
+    private final List<TValue> values;
+
+    /**
+     * Constructor of batched Monte Carlo model
+     *
+     * @param random Underlying random number generator
+     * @param process Underlying stochastic process
+     * @param duration Duration of paths in time units
+     * @param timeSteps Path discretization time step
+     * @param valuation Path valuation function
+     * @param statistics Statistics summary
+     * @param useAntithetic Use antithetic variates
+     * @param blockSize Number of paths in a block, even with antithetic variates
+     */
+    public BatchMonteCarloModel(NormalizedRandomGenerator random,
+                                BatchProcess1D process, double duration, int timeSteps,
+                                BatchPathValuation<TValue> valuation, Accumulator<TValue> statistics,
+                                boolean useAntithetic, int blockSize) {
+        if (useAntithetic && (blockSize & 1) != 0)
+            throw new IllegalArgumentException("blockSize");
+
+        this.summary = statistics;
+        this.useAntithetic = useAntithetic;
+        this.pathGenerator = new BatchPathGenerator1D(process, timeSteps, duration, random,
+                blockSize, useAntithetic);
+        this.pathValuation = valuation;
+        this.block = pathGenerator.createBlock();
+        this.values = new ArrayList<TValue>(blockSize);
+    }
+
+    public int addSamples(final int samples) throws MathException {
+        final int allSamples = useAntithetic ? samples*2 : samples;
+
+        for (int done = 0; done < allSamples; ) {
+            final int count = Math.min(block.getCapacity(), allSamples - done);
+            pathGenerator.nextInto(block, count);
+
+            values.clear();
+            pathValuation.value(block, values);
+            for (TValue value : values)
+                summary.addValue(value);
+
+            done += count;
+        }
+        return samples;
+    }
+
+    public Accumulator<TValue> getStats() {
+        return summary;
+    }
+}
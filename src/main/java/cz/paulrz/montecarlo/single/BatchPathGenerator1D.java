@@ -0,0 +1,79 @@
+package cz.paulrz.montecarlo.single;
+
+import org.apache.commons.math.FunctionEvaluationException;
+import org.apache.commons.math.random.NormalizedRandomGenerator;
+
+/**
+ * Generates blocks of paths advancing all paths of the block together,
+ * one {@link BatchProcess1D#evolveBatch} call per time step.
+ *
+ */
+public final class BatchPathGenerator1D {
+    private final BatchProcess1D process;
+    private final int timeSteps;
+    private final double dt;
+    private final NormalizedRandomGenerator generator;
+    private final boolean useAntithetic;
+    private final double[] dw;
+
+    /**
+     * Constructor of BatchPathGenerator1D
+     *
+     * @param process Stochastic Process
+     * @param timeSteps Number of time steps
+     * @param duration Total duration of the process
+     * @param generator Random generator of normalized real values
+     * @param blockSize Maximal number of paths in the block
+     * @param useAntithetic Second half of the block uses negated increments of the first half
+     */
+    public BatchPathGenerator1D(BatchProcess1D process, int timeSteps, double duration,
+                                NormalizedRandomGenerator generator, int blockSize,
+                                boolean useAntithetic) {
+        this.process = process;
+        this.timeSteps = timeSteps;
+        this.generator = generator;
+        this.dt = duration / timeSteps;
+        this.useAntithetic = useAntithetic;
+        dw = new double[blockSize];
+    }
+
+    /**
+     * Creates a block matching this generator
+     *
+     * @return Empty block
+     */
+    public PathBlock createBlock() {
+        return new PathBlock(timeSteps, dw.length, dt);
+    }
+
+    /**
+     * Generates new paths into the block
+     *
+     * @param block Path block
+     * @param count Number of paths, even with antithetic variates
+     */
+    public void nextInto(final PathBlock block, final int count) throws FunctionEvaluationException {
+        if (useAntithetic && (count & 1) != 0)
+            throw new IllegalArgumentException("count");
+
+        block.setCount(count);
+        final double x0 = process.getInitialX();
+        final double[] first = block.getValues(0);
+        for (int p = 0; p < count; ++p)
+            first[p] = x0;
+
+        final int draws = useAntithetic ? count / 2 : count;
+        double t = 0.0;
+        for (int i = 1; i < timeSteps; ++i) {
+            for (int p = 0; p < draws; ++p)
+                dw[p] = generator.nextNormalizedDouble();
+            if (useAntithetic) {
+                for (int p = 0; p < draws; ++p)
+                    dw[draws + p] = -dw[p];
+            }
+
+            process.evolveBatch(t, block.getValues(i - 1), dt, dw, block.getValues(i), count);
+            t += dt;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package cz.paulrz.montecarlo.single;
+
+import java.util.List;
+
+/**
+ * Valuation of a whole block of paths, reading the time-major block
+ * directly.
+ *
+ */
+public interface BatchPathValuation<T> {
+    /**
+     * Calculates values of all paths in the block
+     *
+     * @param block Paths given by Monte Carlo engine
+     * @param result List the {@link PathBlock#getCount()} values are appended to
+     */
+    void value(final PathBlock block, final List<T> result);
+}
@@ -0,0 +1,25 @@
+package cz.paulrz.montecarlo.single;
+
+import org.apache.commons.math.FunctionEvaluationException;
+
+/**
+ * Stochastic process that evolves a block of independent paths in one call.
+ * Implementations use plain loops over primitive arrays, which the JIT can
+ * unroll and vectorize, instead of one virtual call per path and step.
+ *
+ */
+public interface BatchProcess1D extends GenericProcess1D {
+
+    /**
+     * Single step of <code>count</code> paths from x in time interval dt
+     *
+     * @param t Time
+     * @param x Positions at time t
+     * @param dt Time interval
+     * @param dw Standard normal variates, one per path
+     * @param out Positions at t+dt, may be the same array as x
+     * @param count Number of paths
+     */
+    void evolveBatch(final double t, final double[] x, final double dt, final double[] dw,
+                     final double[] out, final int count) throws FunctionEvaluationException;
+}
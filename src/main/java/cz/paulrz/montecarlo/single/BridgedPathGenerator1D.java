@@ -16,6 +16,10 @@ public final class BridgedPathGenerator1D implements PathGenerator1D {
     private final double dt;
     private final NormalizedRandomGenerator generator;
     private final BrownianBridge bridge;
+    private final double[] variates;
+    private final double[] dw;
+    private final StochasticProcess1D strong;
+    private final double[] dz;
 
     public BridgedPathGenerator1D(GenericProcess1D process, int timeSteps,
                                  double duration, NormalizedRandomGenerator generator) {
@@ -23,28 +27,70 @@ public final class BridgedPathGenerator1D implements PathGenerator1D {
         this.timeSteps = timeSteps;
         this.generator = generator;
         this.dt = duration / timeSteps;
-        bridge = new BrownianBridge(timeSteps, dt);
+        bridge = BrownianBridge.getInstance(timeSteps, dt);
+        variates = new double[timeSteps];
+        dw = new double[timeSteps];
+        strong = SimplePathGenerator1D.secondVariateOf(process);
+        dz = strong != null ? new double[timeSteps] : null;
     }
 
     public Path next() throws FunctionEvaluationException {
         final Path path = new Path(timeSteps, dt);
-        path.addValue(process.getInitialX());
+        nextInto(path);
+        return path;
+    }
 
-        double[] dw = new double[timeSteps];
-        dw[0] = 0.0;
-        for(int i = 1; i<timeSteps; ++i) {
-            dw[i] = generator.nextNormalizedDouble();
+    public void nextInto(final Path path) throws FunctionEvaluationException {
+        path.checkLength(timeSteps);
+        generate();
+
+        final double[] values = path.getValues();
+        values[0] = process.getInitialX();
+
+        double t = 0.0;
+        for (int i = 1; i < timeSteps; ++i) {
+            values[i] = step(t, values[i - 1], i);
+            t += dt;
         }
 
-        dw = bridge.transform(dw);
+        path.complete();
+    }
+
+    public void stream(final PathObserver<?> observer) throws FunctionEvaluationException {
+        generate();
+
+        double x = process.getInitialX();
+        observer.start(x);
+        if (StoppablePathObserver.isDone(observer))
+            return;
 
         double t = 0.0;
         for (int i = 1; i < timeSteps; ++i) {
-            path.addValue(process.evolve(t, path.getValues()[i - 1], dt, dw[i]));
+            x = step(t, x, i);
+            observer.observe(x);
+            if (StoppablePathObserver.isDone(observer))
+                return;
             t += dt;
         }
+    }
 
-        return path;
+    private void generate() {
+        for(int i = 1; i<timeSteps; ++i) {
+            variates[i] = generator.nextNormalizedDouble();
+        }
+
+        bridge.transform(variates, dw);
+        // second variates belong to single steps, they are not bridged
+        if (dz != null) {
+            for (int i = 1; i < timeSteps; ++i)
+                dz[i] = generator.nextNormalizedDouble();
+        }
+    }
+
+    private double step(final double t, final double x, final int i) throws FunctionEvaluationException {
+        if (strong != null)
+            return strong.evolve(t, x, dt, dw[i], dz[i]);
+        return process.evolve(t, x, dt, dw[i]);
     }
 
 }
@@ -44,4 +44,20 @@ public interface Discretization {
      * @return Diffusion value step
      */
     double diffusion(StochasticProcess1D process, double t, double x, double dt) throws FunctionEvaluationException;
+
+    /**
+     * Single step of the process, by default x + drift + diffusion*dw.
+     * Schemes that are not linear in dw override it.
+     *
+     * @param process Stochastic process
+     * @param t Time
+     * @param x Position
+     * @param dt Time step
+     * @param dw Standard Brownian step
+     * @return Position after time step
+     */
+    default double evolve(StochasticProcess1D process, double t, double x, double dt, double dw)
+            throws FunctionEvaluationException {
+        return x + drift(process, t, x, dt) + diffusion(process, t, x, dt) * dw;
+    }
 }
@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.paulrz.montecarlo.single;
+
+import org.apache.commons.math.FunctionEvaluationException;
+
+/**
+ * Exact discretization, each step samples the transition law of an
+ * {@link ExactProcess1D}, so the paths have no discretization bias on any
+ * grid. Drift and diffusion components are the Euler ones and are not
+ * used by {@link #evolve}.
+ *
+ */
+public final class ExactDiscretization implements Discretization {
+    private final EulerDiscretization euler = new EulerDiscretization();
+
+    /** {@inheritDoc} */
+    public double drift(final StochasticProcess1D process, final double t, final double x,
+                        final double dt) throws FunctionEvaluationException {
+        return euler.drift(process, t, x, dt);
+    }
+
+    /** {@inheritDoc} */
+    public double diffusion(final StochasticProcess1D process, final double t, final double x,
+                            final double dt) throws FunctionEvaluationException {
+        return euler.diffusion(process, t, x, dt);
+    }
+
+    /** {@inheritDoc} */
+    public double evolve(final StochasticProcess1D process, final double t, final double x,
+                         final double dt, final double dw) {
+        if (!(process instanceof ExactProcess1D))
+            throw new IllegalArgumentException("process has no exact transition");
+        return ((ExactProcess1D) process).transition(t, x, dt, dw);
+    }
+
+}
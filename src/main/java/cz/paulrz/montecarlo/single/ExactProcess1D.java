@@ -0,0 +1,20 @@
+package cz.paulrz.montecarlo.single;
+
+/**
+ * Process with known transition law. The position after any time interval
+ * can be sampled exactly from a single standard normal variate, so the
+ * terminal point of a path does not need the intermediate steps.
+ *
+ */
+public interface ExactProcess1D extends GenericProcess1D {
+    /**
+     * Samples position after time interval dt from its exact distribution
+     *
+     * @param t Time
+     * @param x Position
+     * @param dt Time interval, may span many steps of the path
+     * @param dw Standard normal variate
+     * @return Position at t+dt, i.e. X(t+dt)
+     */
+    double transition(final double t, final double x, final double dt, final double dw);
+}
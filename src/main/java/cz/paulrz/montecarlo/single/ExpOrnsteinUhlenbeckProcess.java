@@ -16,6 +16,7 @@
  */
 package cz.paulrz.montecarlo.single;
 
+import org.apache.commons.math.FunctionEvaluationException;
 import org.apache.commons.math.util.FastMath;
 
 /**
@@ -24,13 +25,14 @@ import org.apache.commons.math.util.FastMath;
  * >Ornstein-Uhlenbeck process</a>, also known as the mean-reverting process.
  * 
  */
-public class ExpOrnsteinUhlenbeckProcess extends StochasticProcess1D {
+public class ExpOrnsteinUhlenbeckProcess extends StochasticProcess1D implements BatchProcess1D, ExactProcess1D {
 
     private final double theta;
     private final double mu;
     private final double sigma;
     private final double halfsigmasquare;
     private final double expMu;
+    private volatile TransitionStep step;
 
     /**
      * Constructor of the process
@@ -42,7 +44,21 @@ public class ExpOrnsteinUhlenbeckProcess extends StochasticProcess1D {
      */
     public ExpOrnsteinUhlenbeckProcess(double x0, double theta, double mu,
             double sigma) {
-        super(x0, new EulerDiscretization());
+        this(x0, theta, mu, sigma, new EulerDiscretization());
+    }
+
+    /**
+     * Constructor of the process with given discretization
+     *
+     * @param x0 Starting point
+     * @param theta Theta parameter
+     * @param mu Mu parameter
+     * @param sigma Sigma parameter
+     * @param d Discretization, e.g. {@link ExactDiscretization}
+     */
+    public ExpOrnsteinUhlenbeckProcess(double x0, double theta, double mu,
+            double sigma, Discretization d) {
+        super(x0, d);
         this.theta = theta;
         this.mu = mu;
         expMu = FastMath.exp(mu);
@@ -74,6 +90,48 @@ public class ExpOrnsteinUhlenbeckProcess extends StochasticProcess1D {
         return sigma * x;
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public double diffusionDerivative(double t, double x) {
+        return sigma;
+    }
+
+    /**
+     * Exact transition, log(X) is Ornstein-Uhlenbeck process with long-term
+     * mean mu.
+     */
+    public double transition(final double t, final double x, final double dt, final double dw) {
+        final TransitionStep s = step(dt);
+        return FastMath.exp(mu + (FastMath.log(x) - mu) * s.a + s.b * dw);
+    }
+
+    /**
+     * Decay factor and standard deviation of log(X) over dt
+     */
+    private TransitionStep step(final double dt) {
+        TransitionStep s = step;
+        if (s == null || s.dt != dt) {
+            s = new TransitionStep(dt, FastMath.exp(-theta * dt),
+                    sigma * OrnsteinUhlenbeckProcess.stdDev(theta, dt));
+            step = s;
+        }
+        return s;
+    }
+
+    /** {@inheritDoc} */
+    public void evolveBatch(final double t, final double[] x, final double dt, final double[] dw,
+                            final double[] out, final int count) throws FunctionEvaluationException {
+        if (discretization instanceof ExactDiscretization) {
+            final TransitionStep s = step(dt);
+            BatchKernels.get().expOuExact(s.a, mu, s.b, x, dw, out, count);
+        } else if (discretization instanceof EulerDiscretization) {
+            BatchKernels.get().expOu(theta * dt, (theta * mu + halfsigmasquare) * dt,
+                    sigma * FastMath.sqrt(dt), x, dw, out, count);
+        } else {
+            evolveEach(t, x, dt, dw, out, count);
+        }
+    }
+
     @Override
     public String toString() {
         return "OUP : x0 = "+x0+"; expMu = "+ expMu + "; mu = "+mu+"; sigma = "+sigma+"; theta = "+theta;
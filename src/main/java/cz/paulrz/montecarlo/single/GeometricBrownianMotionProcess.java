@@ -16,16 +16,21 @@
  */
 package cz.paulrz.montecarlo.single;
 
+import org.apache.commons.math.FunctionEvaluationException;
+import org.apache.commons.math.util.FastMath;
+
 /**
  * This class represent <a
  * href="http://en.wikipedia.org/wiki/Geometric_Brownian_motion">Geometric
  * Brownian Motion</a> with constant drift and diffusion.
  * 
  */
-public final class GeometricBrownianMotionProcess extends StochasticProcess1D {
+public final class GeometricBrownianMotionProcess extends StochasticProcess1D
+        implements BatchProcess1D, ExactProcess1D {
 
     private final double mu;
     private final double sigma;
+    private volatile TransitionStep step;
 
     /**
      * Constructs geometric brownian motion.
@@ -35,7 +40,19 @@ public final class GeometricBrownianMotionProcess extends StochasticProcess1D {
      * @param sigma Process diffusion
      */
     public GeometricBrownianMotionProcess(double x0, double mu, double sigma) {
-        super(x0, new EulerDiscretization());
+        this(x0, mu, sigma, new EulerDiscretization());
+    }
+
+    /**
+     * Constructs geometric brownian motion with given discretization.
+     *
+     * @param x0 Starting point of the process
+     * @param mu Process drift
+     * @param sigma Process diffusion
+     * @param d Discretization, e.g. {@link ExactDiscretization}
+     */
+    public GeometricBrownianMotionProcess(double x0, double mu, double sigma, Discretization d) {
+        super(x0, d);
         this.mu = mu;
         this.sigma = sigma;
     }
@@ -60,6 +77,46 @@ public final class GeometricBrownianMotionProcess extends StochasticProcess1D {
         return sigma * x;
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public double diffusionDerivative(double t, double x) {
+        return sigma;
+    }
+
+    /**
+     * Log-exact transition, log(X) is Brownian motion with drift
+     * mu - sigma^2/2.
+     */
+    public double transition(final double t, final double x, final double dt, final double dw) {
+        final TransitionStep s = step(dt);
+        return x * FastMath.exp(s.a + s.b * dw);
+    }
+
+    /** {@inheritDoc} */
+    public void evolveBatch(final double t, final double[] x, final double dt, final double[] dw,
+                            final double[] out, final int count) throws FunctionEvaluationException {
+        if (discretization instanceof ExactDiscretization) {
+            final TransitionStep s = step(dt);
+            BatchKernels.get().gbmExact(s.a, s.b, x, dw, out, count);
+        } else if (discretization instanceof EulerDiscretization) {
+            BatchKernels.get().gbm(mu * dt, sigma * FastMath.sqrt(dt), x, dw, out, count);
+        } else {
+            evolveEach(t, x, dt, dw, out, count);
+        }
+    }
+
+    /**
+     * Log drift and log volatility over dt
+     */
+    private TransitionStep step(final double dt) {
+        TransitionStep s = step;
+        if (s == null || s.dt != dt) {
+            s = new TransitionStep(dt, (mu - 0.5 * sigma * sigma) * dt, sigma * FastMath.sqrt(dt));
+            step = s;
+        }
+        return s;
+    }
+
     @Override
     public String toString() {
         return "GBM : x0 = "+x0+"; mu = "+mu+"; sigma = "+sigma;
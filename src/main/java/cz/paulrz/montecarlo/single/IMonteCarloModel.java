@@ -16,7 +16,30 @@ public interface IMonteCarloModel<TValue> {
      */
     int addSamples(int samples) throws MathException;
 
-    int addSamples(int minSamples, double eps, int maxSteps) throws MathException;
+    /**
+     * Adds batches of path samples until the statistics move by at most
+     * eps between two batches
+     *
+     * @param minSamples Number of paths in each batch
+     * @param eps Tolerance of {@link Accumulator#norm} between batches
+     * @param maxSteps Maximal number of batches
+     * @return Number of added paths
+     */
+    default int addSamples(int minSamples, double eps, int maxSteps) throws MathException {
+        final Accumulator<TValue> summary = getStats();
+        addSamples(minSamples);
+        Accumulator<TValue> prev = summary.deepCopy();
+        int steps = 1;
+        while(steps==1 || summary.norm(prev) > eps) {
+            prev = summary.deepCopy();
+            addSamples(minSamples);
+            steps++;
+
+            if (steps>maxSteps)
+                return steps*minSamples;
+        }
+        return steps*minSamples;
+    }
 
     /**
      * Gets statistics summary
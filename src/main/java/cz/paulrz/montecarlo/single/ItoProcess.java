@@ -38,7 +38,21 @@ public class ItoProcess extends StochasticProcess1D {
      */
     public ItoProcess(double x0, MultivariateRealFunction mu,
             MultivariateRealFunction sigma) {
-        super(x0, new EulerDiscretization());
+        this(x0, mu, sigma, new EulerDiscretization());
+    }
+
+    /**
+     * Constructs Ito process with given discretization, the diffusion
+     * derivative is numerical
+     *
+     * @param x0 Starting point
+     * @param mu Drift function mu(x,t)
+     * @param sigma Diffusion function sigma(x,t)
+     * @param d Discretization
+     */
+    public ItoProcess(double x0, MultivariateRealFunction mu,
+            MultivariateRealFunction sigma, Discretization d) {
+        super(x0, d);
         this.mu = mu;
         this.sigma = sigma;
     }
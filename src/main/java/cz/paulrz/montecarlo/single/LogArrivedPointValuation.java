@@ -18,12 +18,15 @@ package cz.paulrz.montecarlo.single;
 
 import org.apache.commons.math.util.FastMath;
 
+import java.util.List;
+
 /**
  * This valuation provides a logarithm of a final, or arrived, point of the path
  * as path value
  * 
  */
-public final class LogArrivedPointValuation implements PathValuation<Double> {
+public final class LogArrivedPointValuation implements PathValuation<Double>, BatchPathValuation<Double>,
+        StreamingPathValuation<Double>, TerminalValuation<Double> {
 
     /** {@inheritedDoc} */
     public final Double value(final Path path) {
@@ -32,4 +35,39 @@ public final class LogArrivedPointValuation implements PathValuation<Double> {
                 / values[0]);
     }
 
+    /** {@inheritedDoc} */
+    public final void value(final PathBlock block, final List<Double> result) {
+        final double[] first = block.getValues(0);
+        final double[] last = block.getValues(block.getLength() - 1);
+        final int count = block.getCount();
+        for (int p = 0; p < count; ++p)
+            result.add(FastMath.log(last[p] / first[p]));
+    }
+
+    /** {@inheritedDoc} */
+    public final Double value(final double initial, final double terminal) {
+        return FastMath.log(terminal / initial);
+    }
+
+    /** {@inheritedDoc} */
+    public PathObserver<Double> newObserver() {
+        return new PathObserver<Double>() {
+            private double first;
+            private double last;
+
+            public void start(final double x0) {
+                first = x0;
+                last = x0;
+            }
+
+            public void observe(final double x) {
+                last = x;
+            }
+
+            public Double value() {
+                return FastMath.log(last / first);
+            }
+        };
+    }
+
 }
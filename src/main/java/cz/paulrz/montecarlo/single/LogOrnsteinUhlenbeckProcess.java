@@ -16,13 +16,16 @@
  */
 package cz.paulrz.montecarlo.single;
 
+import org.apache.commons.math.FunctionEvaluationException;
+import org.apache.commons.math.util.FastMath;
+
 /**
  * This class represents <a
  * href="http://en.wikipedia.org/wiki/Ornstein�Uhlenbeck_process"
  * >Ornstein-Uhlenbeck process</a>, also known as the mean-reverting process.
  * 
  */
-public class LogOrnsteinUhlenbeckProcess extends StochasticProcess1D {
+public class LogOrnsteinUhlenbeckProcess extends StochasticProcess1D implements BatchProcess1D {
 
     private final double theta;
     private final double mu;
@@ -38,7 +41,21 @@ public class LogOrnsteinUhlenbeckProcess extends StochasticProcess1D {
      */
     public LogOrnsteinUhlenbeckProcess(double x0, double theta, double mu,
             double sigma) {
-        super(x0, new EulerDiscretization());
+        this(x0, theta, mu, sigma, new EulerDiscretization());
+    }
+
+    /**
+     * Constructor of the process with given discretization
+     *
+     * @param x0 Starting point
+     * @param theta Theta parameter
+     * @param mu Mu parameter
+     * @param sigma Sigma parameter
+     * @param d Discretization, e.g. {@link MilsteinDiscretization}
+     */
+    public LogOrnsteinUhlenbeckProcess(double x0, double theta, double mu,
+            double sigma, Discretization d) {
+        super(x0, d);
         this.theta = theta;
         this.mu = mu;
         this.sigma = sigma;
@@ -68,6 +85,21 @@ public class LogOrnsteinUhlenbeckProcess extends StochasticProcess1D {
         return sigma * x;
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public double diffusionDerivative(double t, double x) {
+        return sigma;
+    }
+
+    /** {@inheritDoc} */
+    public void evolveBatch(final double t, final double[] x, final double dt, final double[] dw,
+                            final double[] out, final int count) throws FunctionEvaluationException {
+        if (discretization instanceof EulerDiscretization)
+            BatchKernels.get().logOu(theta * dt, mu, sigma * FastMath.sqrt(dt), x, dw, out, count);
+        else
+            evolveEach(t, x, dt, dw, out, count);
+    }
+
     @Override
     public String toString() {
         return "LOUP : x0 = "+x0+"; mu = "+mu+"; sigma = "+sigma+"; theta = "+theta;
@@ -1,5 +1,7 @@
 package cz.paulrz.montecarlo.single;
 
+import java.util.List;
+
 /**
  * Created by IntelliJ IDEA.
  * User: paul
@@ -7,7 +9,8 @@ package cz.paulrz.montecarlo.single;
  * Time: 09:58 AM
  * To change this template use File | Settings | File Templates.
  */
-public class MaxMinCloseValuation implements PathValuation<MaxMinClose> {
+public class MaxMinCloseValuation implements PathValuation<MaxMinClose>, BatchPathValuation<MaxMinClose>,
+        StreamingPathValuation<MaxMinClose> {
     public MaxMinClose value(Path path) {
         double[] values = path.getValues();
         int len = values.length;
@@ -24,4 +27,49 @@ public class MaxMinCloseValuation implements PathValuation<MaxMinClose> {
 
         return new MaxMinClose(max, min , close);
     }
+
+    public void value(PathBlock block, List<MaxMinClose> result) {
+        final int count = block.getCount();
+        final int len = block.getLength();
+        final double[] max = block.getValues(0).clone();
+        final double[] min = max.clone();
+
+        for(int i=1; i<len; ++i)
+        {
+            final double[] values = block.getValues(i);
+            for (int p = 0; p < count; ++p) {
+                final double v = values[p];
+                if (max[p] < v) max[p] = v;
+                if (min[p] > v) min[p] = v;
+            }
+        }
+
+        final double[] close = block.getValues(len - 1);
+        for (int p = 0; p < count; ++p)
+            result.add(new MaxMinClose(max[p], min[p], close[p]));
+    }
+
+    public PathObserver<MaxMinClose> newObserver() {
+        return new PathObserver<MaxMinClose>() {
+            private double max;
+            private double min;
+            private double close;
+
+            public void start(double x0) {
+                max = x0;
+                min = x0;
+                close = x0;
+            }
+
+            public void observe(double v) {
+                if (max < v) max = v;
+                if (min > v) min = v;
+                close = v;
+            }
+
+            public MaxMinClose value() {
+                return new MaxMinClose(max, min, close);
+            }
+        };
+    }
 }
@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.paulrz.montecarlo.single;
+
+import org.apache.commons.math.FunctionEvaluationException;
+import org.apache.commons.math.util.FastMath;
+
+/**
+ * Milstein discretization of strong order 1. The Euler step is corrected by
+ * b*b'/2 * (dW^2 - dt), the derivative is taken from
+ * {@link StochasticProcess1D#diffusionDerivative(double, double)}.
+ *
+ */
+public final class MilsteinDiscretization implements Discretization {
+    private final EulerDiscretization euler = new EulerDiscretization();
+
+    /** {@inheritDoc} */
+    public double drift(final StochasticProcess1D process, final double t, final double x,
+                        final double dt) throws FunctionEvaluationException {
+        return euler.drift(process, t, x, dt);
+    }
+
+    /** {@inheritDoc} */
+    public double diffusion(final StochasticProcess1D process, final double t, final double x,
+                            final double dt) throws FunctionEvaluationException {
+        return euler.diffusion(process, t, x, dt);
+    }
+
+    /** {@inheritDoc} */
+    public double evolve(final StochasticProcess1D process, final double t, final double x,
+                         final double dt, final double dw) throws FunctionEvaluationException {
+        final double b = process.diffusion(t, x);
+        return x + process.drift(t, x) * dt + b * FastMath.sqrt(dt) * dw
+                + 0.5 * b * process.diffusionDerivative(t, x) * dt * (dw * dw - 1.0);
+    }
+
+}
@@ -23,6 +23,11 @@ import org.apache.commons.math.random.NormalizedRandomGenerator;
 /**
  * This class implements Monte Carlo model. It provides constructs paths,
  * evaluate them and collect statistics.
+ *
+ * Valuations implementing {@link StreamingPathValuation} are fed point by
+ * point and the paths are not stored. {@link TerminalValuation}s of an
+ * {@link ExactProcess1D} stepped by {@link ExactDiscretization} get the final
+ * point from one exact transition, see {@link TerminalSampler1D#supports}.
  * 
  */
 public final class MonteCarloModel<TValue> implements IMonteCarloModel<TValue> {
@@ -30,6 +35,9 @@ public final class MonteCarloModel<TValue> implements IMonteCarloModel<TValue> {
     private final PathGenerator1D pathGenerator;
     private final PathValuation<TValue> pathValuation;
     private final boolean useAntithetic;
+    private final Path path;
+    private final PathObserver<TValue> observer;
+    private final TerminalSampler1D terminal;
 
     /**
      * Constructor of Monte Carlo model
@@ -60,6 +68,11 @@ public final class MonteCarloModel<TValue> implements IMonteCarloModel<TValue> {
             this.pathGenerator = new SimplePathGenerator1D(process, timeSteps, duration, random);
 
         this.pathValuation = valuation;
+        this.observer = observerOf(valuation);
+        this.path = observer == null ? new Path(timeSteps, duration / timeSteps) : null;
+        this.terminal = TerminalSampler1D.supports(process, valuation)
+                ? new TerminalSampler1D((ExactProcess1D) process, timeSteps, duration, random, useAntithetic)
+                : null;
     }
 
     /**
@@ -78,33 +91,79 @@ public final class MonteCarloModel<TValue> implements IMonteCarloModel<TValue> {
         this.summary = statistics;
         this.pathGenerator = new SobolPathGenerator1D(process, timeSteps, duration, useBridge);
         this.pathValuation = valuation;
+        this.observer = observerOf(valuation);
+        this.path = observer == null ? new Path(timeSteps, duration / timeSteps) : null;
+        this.terminal = TerminalSampler1D.supports(process, valuation)
+                ? new TerminalSampler1D((ExactProcess1D) process, timeSteps, duration)
+                : null;
         this.useAntithetic = false;
     }
 
+    /**
+     * Constructor of Monte Carlo model with given path generator, e.g.
+     * {@link AdaptivePathGenerator1D}
+     *
+     * @param generator Path generator
+     * @param duration Duration of paths in time units
+     * @param timeSteps Number of points of generated paths
+     * @param valuation Path valuation function
+     * @param statistics Statistics summary
+     */
+    public MonteCarloModel(PathGenerator1D generator, double duration, int timeSteps,
+                           PathValuation<TValue> valuation, Accumulator<TValue> statistics) {
+        this.summary = statistics;
+        this.pathGenerator = generator;
+        this.pathValuation = valuation;
+        this.observer = observerOf(valuation);
+        this.path = observer == null ? new Path(timeSteps, duration / timeSteps) : null;
+        this.terminal = null;
+        this.useAntithetic = generator instanceof AntitheticPathGenerator1D
+                || generator instanceof AntitheticBridgedPathGenerator1D;
+    }
+
     public int addSamples(final int samples) throws MathException {
         final int allSamples = useAntithetic ? samples*2 : samples;
 
+        if (terminal != null) {
+            final TerminalValuation<TValue> valuation = terminalOf(pathValuation);
+            final double x0 = terminal.getInitialX();
+            for (int i = 0; i < allSamples; ++i)
+                summary.addValue(valuation.value(x0, terminal.next()));
+            return samples;
+        }
+
+        if (observer != null) {
+            for (int i = 0; i < allSamples; ++i) {
+                pathGenerator.stream(observer);
+                summary.addValue(observer.value());
+            }
+            return samples;
+        }
+
         for (int i = 0; i < allSamples; ++i) {
-            final Path path = pathGenerator.next();
+            pathGenerator.nextInto(path);
             final TValue pathValue = pathValuation.value(path);
             summary.addValue(pathValue);
         }
         return samples;
     }
 
-    public int addSamples(final int minSamples, double eps, int maxSteps) throws MathException {
-        addSamples(minSamples);
-        Accumulator<TValue> prev = summary.deepCopy();
-        int steps = 1;
-        while(steps==1 || summary.norm(prev) > eps) {
-            prev = summary.deepCopy();
-            addSamples(minSamples);
-            steps++;
+    /**
+     * Gets observer for streaming mode
+     *
+     * @param valuation Path valuation
+     * @return New observer or null if the valuation needs whole paths
+     */
+    @SuppressWarnings("unchecked")
+    static <T> PathObserver<T> observerOf(PathValuation<T> valuation) {
+        if (StreamingPathValuation.streams(valuation))
+            return ((StreamingPathValuation<T>) valuation).newObserver();
+        return null;
+    }
 
-            if (steps>maxSteps)
-                return steps*minSamples;
-        }
-        return steps*minSamples;
+    @SuppressWarnings("unchecked")
+    static <T> TerminalValuation<T> terminalOf(PathValuation<T> valuation) {
+        return (TerminalValuation<T>) valuation;
     }
 
     public Accumulator<TValue> getStats() {
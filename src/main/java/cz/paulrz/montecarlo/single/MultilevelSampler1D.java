@@ -0,0 +1,69 @@
+package cz.paulrz.montecarlo.single;
+
+import cz.paulrz.montecarlo.mlmc.LevelSampler;
+import org.apache.commons.math.MathException;
+import org.apache.commons.math.random.NormalizedRandomGenerator;
+import org.apache.commons.math.util.FastMath;
+
+/**
+ * Level sampler of multilevel Monte Carlo for one-dimensional processes.
+ * The fine path of level l has baseSteps * 2^l steps, the coarse path is
+ * stepped with the sums of pairs of fine increments.
+ *
+ * Paths of all levels end at the duration, i.e. they have steps + 1 points.
+ *
+ */
+public final class MultilevelSampler1D implements LevelSampler {
+    private static final double invSqrt2 = 1.0 / FastMath.sqrt(2.0);
+
+    private final GenericProcess1D process;
+    private final double duration;
+    private final int baseSteps;
+    private final PathValuation<Double> valuation;
+
+    /**
+     * Constructor of the sampler
+     *
+     * @param process Stochastic process
+     * @param duration Duration of paths in time units
+     * @param baseSteps Number of steps of level 0
+     * @param valuation Path valuation function
+     */
+    public MultilevelSampler1D(GenericProcess1D process, double duration, int baseSteps,
+                               PathValuation<Double> valuation) {
+        this.process = process;
+        this.duration = duration;
+        this.baseSteps = baseSteps;
+        this.valuation = valuation;
+    }
+
+    /** {@inheritDoc} */
+    public double sample(final int level, final NormalizedRandomGenerator random) throws MathException {
+        final int steps = baseSteps << level;
+        final double dt = duration / steps;
+        final Path fine = new Path(steps + 1, dt);
+        final double[] f = fine.getValues();
+        f[0] = process.getInitialX();
+
+        if (level == 0) {
+            for (int i = 0; i < steps; ++i)
+                f[i + 1] = process.evolve(i * dt, f[i], dt, random.nextNormalizedDouble());
+            fine.complete();
+            return valuation.value(fine);
+        }
+
+        final Path coarse = new Path(steps / 2 + 1, 2.0 * dt);
+        final double[] c = coarse.getValues();
+        c[0] = f[0];
+        for (int i = 0; i < steps; i += 2) {
+            final double dw1 = random.nextNormalizedDouble();
+            final double dw2 = random.nextNormalizedDouble();
+            f[i + 1] = process.evolve(i * dt, f[i], dt, dw1);
+            f[i + 2] = process.evolve((i + 1) * dt, f[i + 1], dt, dw2);
+            c[i / 2 + 1] = process.evolve(i * dt, c[i / 2], 2.0 * dt, (dw1 + dw2) * invSqrt2);
+        }
+        fine.complete();
+        coarse.complete();
+        return valuation.value(fine) - valuation.value(coarse);
+    }
+}
@@ -0,0 +1,69 @@
+package cz.paulrz.montecarlo.single;
+
+import cz.paulrz.montecarlo.schedule.ObservationSchedule;
+
+/**
+ * Path recorded at the points of an {@link ObservationSchedule} only.
+ * Memory scales with the number of observations rather than with the
+ * number of time steps.
+ *
+ */
+public final class ObservedPath {
+    private final ObservationSchedule schedule;
+    private final double[] values;
+    private final double dt;
+
+    /**
+     * Constructor of observed path
+     *
+     * @param schedule Observation schedule
+     * @param dt Time step of the fine grid
+     */
+    public ObservedPath(ObservationSchedule schedule, double dt) {
+        this.schedule = schedule;
+        this.dt = dt;
+        values = new double[schedule.size()];
+    }
+
+    public ObservationSchedule getSchedule() {
+        return schedule;
+    }
+
+    /**
+     * Gets number of observations
+     *
+     * @return Number of observations
+     */
+    public int getLength() {
+        return values.length;
+    }
+
+    /**
+     * Gets value at k-th observation
+     *
+     * @param k Observation index
+     * @return Value
+     */
+    public double getValue(int k) {
+        return values[k];
+    }
+
+    /**
+     * Gets time of k-th observation
+     *
+     * @param k Observation index
+     * @return Time
+     */
+    public double getTime(int k) {
+        return schedule.getStep(k) * dt;
+    }
+
+    /**
+     * Gets all observed values
+     *
+     * @return Values indexed by observation
+     */
+    public double[] getValues() {
+        return values;
+    }
+}
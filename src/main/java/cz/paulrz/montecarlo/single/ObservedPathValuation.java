@@ -0,0 +1,15 @@
+package cz.paulrz.montecarlo.single;
+
+/**
+ * Valuation of a path observed on a schedule.
+ *
+ */
+public interface ObservedPathValuation<T> {
+    /**
+     * Calculates path's value
+     *
+     * @param path Observed path, reused by the engine
+     * @return Valuation of the path
+     */
+    T value(final ObservedPath path);
+}
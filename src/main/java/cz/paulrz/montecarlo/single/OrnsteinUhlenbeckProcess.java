@@ -16,17 +16,21 @@
  */
 package cz.paulrz.montecarlo.single;
 
+import org.apache.commons.math.FunctionEvaluationException;
+import org.apache.commons.math.util.FastMath;
+
 /**
  * This class represents <a
  * href="http://en.wikipedia.org/wiki/Ornstein�Uhlenbeck_process"
  * >Ornstein-Uhlenbeck process</a>, also known as the mean-reverting process.
  * 
  */
-public class OrnsteinUhlenbeckProcess extends StochasticProcess1D {
+public class OrnsteinUhlenbeckProcess extends StochasticProcess1D implements BatchProcess1D, ExactProcess1D {
 
     private final double theta;
     private final double mu;
     private final double sigma;
+    private volatile TransitionStep step;
 
     /**
      * Constructor of the process
@@ -38,7 +42,21 @@ public class OrnsteinUhlenbeckProcess extends StochasticProcess1D {
      */
     public OrnsteinUhlenbeckProcess(double x0, double theta, double mu,
             double sigma) {
-        super(x0, new EulerDiscretization());
+        this(x0, theta, mu, sigma, new EulerDiscretization());
+    }
+
+    /**
+     * Constructor of the process with given discretization
+     *
+     * @param x0 Starting point
+     * @param theta Theta parameter
+     * @param mu Mu parameter
+     * @param sigma Sigma parameter
+     * @param d Discretization, e.g. {@link ExactDiscretization}
+     */
+    public OrnsteinUhlenbeckProcess(double x0, double theta, double mu,
+            double sigma, Discretization d) {
+        super(x0, d);
         this.theta = theta;
         this.mu = mu;
         this.sigma = sigma;
@@ -68,6 +86,60 @@ public class OrnsteinUhlenbeckProcess extends StochasticProcess1D {
         return sigma;
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public double diffusionDerivative(double t, double x) {
+        return 0.0;
+    }
+
+    /**
+     * Exact Gaussian transition with mean mu + (x - mu)*exp(-theta*dt) and
+     * variance sigma^2 * (1 - exp(-2*theta*dt)) / (2*theta).
+     */
+    public double transition(final double t, final double x, final double dt, final double dw) {
+        final TransitionStep s = step(dt);
+        return mu + (x - mu) * s.a + s.b * dw;
+    }
+
+    /**
+     * Decay factor and standard deviation over dt
+     */
+    private TransitionStep step(final double dt) {
+        TransitionStep s = step;
+        if (s == null || s.dt != dt) {
+            s = new TransitionStep(dt, FastMath.exp(-theta * dt), sigma * stdDev(theta, dt));
+            step = s;
+        }
+        return s;
+    }
+
+    /**
+     * Standard deviation of the OU transition with unit sigma
+     *
+     * @param theta Mean reversion speed
+     * @param dt Time interval
+     * @return sqrt((1 - exp(-2*theta*dt)) / (2*theta)), or sqrt(dt) without mean reversion
+     */
+    static double stdDev(final double theta, final double dt) {
+        if (FastMath.abs(theta * dt) < 1e-8)
+            return FastMath.sqrt(dt);
+        return FastMath.sqrt(-FastMath.expm1(-2.0 * theta * dt) / (2.0 * theta));
+    }
+
+    /** {@inheritDoc} */
+    public void evolveBatch(final double t, final double[] x, final double dt, final double[] dw,
+                            final double[] out, final int count) throws FunctionEvaluationException {
+        if (discretization instanceof ExactDiscretization) {
+            // exact step is the Euler one with theta*dt replaced by 1 - decay
+            final TransitionStep s = step(dt);
+            BatchKernels.get().ou(1.0 - s.a, mu, s.b, x, dw, out, count);
+        } else if (discretization instanceof EulerDiscretization) {
+            BatchKernels.get().ou(theta * dt, mu, sigma * FastMath.sqrt(dt), x, dw, out, count);
+        } else {
+            evolveEach(t, x, dt, dw, out, count);
+        }
+    }
+
     @Override
     public String toString() {
         return "OUP : x0 = "+x0+"; mu = "+mu+"; sigma = "+sigma+"; theta = "+theta;
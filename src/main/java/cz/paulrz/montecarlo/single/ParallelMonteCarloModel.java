@@ -3,6 +3,7 @@ package cz.paulrz.montecarlo.single;
 import cz.paulrz.montecarlo.accumulator.Accumulator;
 import cz.paulrz.montecarlo.parallel.CpuPool;
 import cz.paulrz.montecarlo.random.RandomGeneratorFactory;
+import cz.paulrz.montecarlo.random.Sobol;
 import org.apache.commons.math.MathException;
 import org.apache.commons.math.random.NormalizedRandomGenerator;
 
@@ -24,6 +25,8 @@ public final class ParallelMonteCarloModel<TValue> implements IMonteCarloModel {
     private final GenericProcess1D process;
     private final double duration;
     private final int timeSteps;
+    // points of the Sobol sequence used by previous calls, quasi random mode only
+    private int quasiOffset = 0;
 
     public ParallelMonteCarloModel(RandomGeneratorFactory random,
                                    GenericProcess1D process, double duration, int timeSteps,
@@ -45,7 +48,8 @@ public final class ParallelMonteCarloModel<TValue> implements IMonteCarloModel {
         final int samplesPerPartition = samples / CpuPool.numOfCpu;
 
         for (int i = 0; i < CpuPool.numOfCpu; ++i) {
-            Callable<List<TValue>> callable = new ValuatedPathsWorker(samplesPerPartition);
+            Callable<List<TValue>> callable = new ValuatedPathsWorker(samplesPerPartition,
+                    quasiOffset + i * samplesPerPartition);
             Future<List<TValue>> submit = CpuPool.executorService.submit(callable);
             executionList.add(submit);
         }
@@ -65,31 +69,54 @@ public final class ParallelMonteCarloModel<TValue> implements IMonteCarloModel {
 
         }
 
+        quasiOffset += samplesPerPartition * CpuPool.numOfCpu;
         return samplesPerPartition * CpuPool.numOfCpu;
     }
 
-    public int addSamples(int minSamples, double eps, int maxSteps) throws MathException {
-        return 0;  //To change body of implemented methods use File | Settings | File Templates.
-    }
-
     public Accumulator getStats() {
         return summary;
     }
 
     private final class ValuatedPathsWorker implements Callable<List<TValue>> {
         private final int samples;
-
-        public ValuatedPathsWorker(int samples) {
+        private final int offset;
+
+        /**
+         * Constructs worker
+         *
+         * @param samples Number of samples
+         * @param offset First point of the Sobol sequence used by the worker in quasi random mode
+         */
+        public ValuatedPathsWorker(int samples, int offset) {
             this.samples = samples;
+            this.offset = offset;
         }
 
         public List<TValue> call() throws Exception {
-            final PathGenerator1D pathGenerator = createPathGenerator();
             final int allSamples = useAntithetic ? samples * 2 : samples;
             final List<TValue> result = new ArrayList<TValue>(allSamples);
+            final TerminalSampler1D terminal = createTerminalSampler();
+            if (terminal != null) {
+                final TerminalValuation<TValue> valuation = MonteCarloModel.terminalOf(pathValuation);
+                final double x0 = terminal.getInitialX();
+                for (int i = 0; i < allSamples; ++i)
+                    result.add(valuation.value(x0, terminal.next()));
+                return result;
+            }
 
+            final PathGenerator1D pathGenerator = createPathGenerator();
+            final PathObserver<TValue> observer = MonteCarloModel.observerOf(pathValuation);
+            if (observer != null) {
+                for (int i = 0; i < allSamples; ++i) {
+                    pathGenerator.stream(observer);
+                    result.add(observer.value());
+                }
+                return result;
+            }
+
+            final Path path = new Path(timeSteps, duration / timeSteps);
             for (int i = 0; i < allSamples; ++i) {
-                final Path path = pathGenerator.next();
+                pathGenerator.nextInto(path);
                 final TValue pathValue = pathValuation.value(path);
                 result.add(pathValue);
             }
@@ -97,10 +124,23 @@ public final class ParallelMonteCarloModel<TValue> implements IMonteCarloModel {
             return result;
         }
 
+        private TerminalSampler1D createTerminalSampler() throws Exception {
+            if (!TerminalSampler1D.supports(process, pathValuation))
+                return null;
+            if (randomFactory == null)
+                return new TerminalSampler1D((ExactProcess1D) process, timeSteps, duration, offset);
+            return new TerminalSampler1D((ExactProcess1D) process, timeSteps, duration,
+                    randomFactory.newGenerator(), useAntithetic);
+        }
+
         private PathGenerator1D createPathGenerator() {
             if (randomFactory == null){
                 try {
-                    return new SobolPathGenerator1D(process, timeSteps, duration, useBridge);
+                    final Sobol sobol = new Sobol(timeSteps - 1);
+                    sobol.skipTo(offset);
+                    return new SobolPathGenerator1D(sobol, process, timeSteps, duration, useBridge);
+                } catch (IllegalArgumentException e) {
+                    throw e;
                 } catch (Exception e) {
                     // fallback...
                 }
@@ -64,10 +64,22 @@ public final class Path {
      * 
      * @return Number of points in the path
      */
-    int getLength() {
+    public int getLength() {
         return length;
     }
 
+    /**
+     * Checks the path is a buffer for the given number of points
+     *
+     * @param length Number of points written by a generator
+     * @throws IllegalArgumentException The exception is thrown if the path has other length
+     */
+    public void checkLength(int length) {
+        if (this.length != length)
+            throw new IllegalArgumentException("path of length " + this.length
+                    + " cannot hold " + length + " points");
+    }
+
     /**
      * Adds a new value to the end of path
      * 
@@ -82,4 +94,21 @@ public final class Path {
         values[currentIndex] = value;
         currentIndex++;
     }
+
+    /**
+     * Resets the path so it can be filled again. Values are kept until
+     * overwritten.
+     */
+    public void reset() {
+        currentIndex = 0;
+    }
+
+    /**
+     * Marks all points as set. Used by generators that write values
+     * directly to {@link #getValues()} in
+     * {@link PathGenerator1D#nextInto(Path)}.
+     */
+    public void complete() {
+        currentIndex = length;
+    }
 }
@@ -0,0 +1,79 @@
+package cz.paulrz.montecarlo.single;
+
+/**
+ * Block of paths stored time-major in structure-of-arrays layout: one
+ * <code>double[]</code> per time step holding that step of every path.
+ * Blocks are reused by the batched engine, valuations must not keep
+ * references to them.
+ *
+ */
+public final class PathBlock {
+    private final double[][] values;
+    private final int length;
+    private final int capacity;
+    private final double dt;
+    private int count;
+
+    /**
+     * Constructor of path block
+     *
+     * @param length Number of points of each path
+     * @param capacity Maximal number of paths
+     * @param dt Time step
+     */
+    public PathBlock(int length, int capacity, double dt) {
+        this.length = length;
+        this.capacity = capacity;
+        this.dt = dt;
+        this.count = capacity;
+        values = new double[length][capacity];
+    }
+
+    /**
+     * Gets time step (dt)
+     *
+     * @return Value of the step
+     */
+    public double getTimeStep() {
+        return dt;
+    }
+
+    /**
+     * Gets length of the paths
+     *
+     * @return Number of points in each path
+     */
+    public int getLength() {
+        return length;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets number of valid paths, the first <code>count</code> elements of
+     * each step
+     *
+     * @return Number of paths
+     */
+    public int getCount() {
+        return count;
+    }
+
+    void setCount(int count) {
+        if (count > capacity)
+            throw new IllegalArgumentException("count");
+        this.count = count;
+    }
+
+    /**
+     * Gets values of all paths at given step
+     *
+     * @param step Step index
+     * @return Values, valid up to {@link #getCount()}
+     */
+    public double[] getValues(int step) {
+        return values[step];
+    }
+}
@@ -14,4 +14,38 @@ public interface PathGenerator1D {
      * @return Path for the stochastic process
      */
     Path next() throws MathException;
+
+    /**
+     * Generates a new path into caller owned buffer, overwriting all its
+     * points. No memory is allocated per path. Implementations write the
+     * points to {@link Path#getValues()} and mark the path
+     * {@link Path#complete()}. The default copies the path of
+     * {@link #next()}, generators override it to avoid the allocation.
+     *
+     * @param path Path buffer of the generator's length and time step
+     * @throws IllegalArgumentException The exception is thrown if the path length differs, see
+     *             {@link Path#checkLength(int)}
+     */
+    default void nextInto(Path path) throws MathException {
+        final Path generated = next();
+        path.checkLength(generated.getLength());
+        System.arraycopy(generated.getValues(), 0, path.getValues(), 0, generated.getLength());
+        path.complete();
+    }
+
+    /**
+     * Generates a new path passing its points to the observer as they are
+     * generated. The path is not stored. Stepping ends early once a
+     * {@link StoppablePathObserver} is done. The default passes the points
+     * of {@link #next()}, generators override it to step without the path.
+     *
+     * @param observer Observer of the path points
+     */
+    default void stream(PathObserver<?> observer) throws MathException {
+        final Path path = next();
+        final double[] values = path.getValues();
+        observer.start(values[0]);
+        for (int i = 1; i < path.getLength() && !StoppablePathObserver.isDone(observer); ++i)
+            observer.observe(values[i]);
+    }
 }
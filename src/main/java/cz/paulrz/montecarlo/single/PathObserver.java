@@ -0,0 +1,30 @@
+package cz.paulrz.montecarlo.single;
+
+/**
+ * Running state of a streaming valuation. The generator passes points of
+ * the path one by one as they are generated, the path itself is never
+ * stored. An observer is reused for all paths of one engine or worker.
+ *
+ */
+public interface PathObserver<T> {
+    /**
+     * Starts a new path
+     *
+     * @param x0 First point of the path
+     */
+    void start(final double x0);
+
+    /**
+     * Receives the next point of the path
+     *
+     * @param x Point value
+     */
+    void observe(final double x);
+
+    /**
+     * Calculates value of the path after its last point
+     *
+     * @return Valuation of the path
+     */
+    T value();
+}
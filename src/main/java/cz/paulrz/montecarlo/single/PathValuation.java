@@ -27,7 +27,8 @@ public interface PathValuation<T> {
     /**
      * Calculates path's value
      * 
-     * @param path Path given by Monte Carlo engine
+     * @param path Path given by Monte Carlo engine. The engine reuses the
+     *             path buffer, so the valuation must not keep a reference to it
      * @return Valuation of the path
      */
     T value(final Path path);
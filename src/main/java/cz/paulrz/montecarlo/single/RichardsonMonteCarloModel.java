@@ -0,0 +1,127 @@
+package cz.paulrz.montecarlo.single;
+
+import cz.paulrz.montecarlo.accumulator.Accumulator;
+import org.apache.commons.math.MathException;
+import org.apache.commons.math.random.NormalizedRandomGenerator;
+import org.apache.commons.math.stat.descriptive.SummaryStatistics;
+import org.apache.commons.math.util.FastMath;
+
+/**
+ * Monte Carlo model with Richardson extrapolation over the step count.
+ * Each sample simulates a fine path with step dt/2 and a coarse path with
+ * step dt on the same Brownian motion, the coarse increments being sums of
+ * pairs of fine ones. The value added to the statistics is
+ * (2^p * fine - coarse) / (2^p - 1), which cancels the leading term of the
+ * weak error of order p (1 for Euler).
+ *
+ * The coarse path has timeSteps points as in {@link MonteCarloModel}, the
+ * fine one 2*timeSteps - 1 points ending at the same time.
+ *
+ */
+public final class RichardsonMonteCarloModel implements IMonteCarloModel<Double> {
+    private static final double invSqrt2 = 1.0 / FastMath.sqrt(2.0);
+
+    private final Accumulator<Double> summary;
+    private final SummaryStatistics combined = new SummaryStatistics();
+    private final GenericProcess1D process;
+    private final NormalizedRandomGenerator generator;
+    private final PathValuation<Double> pathValuation;
+    private final int timeSteps;
+    private final double dt;
+    private final double weight;
+    private final Path fine;
+    private final Path coarse;
+
+    /**
+     * Constructor of the model for Euler discretization
+     *
+     * @param random Underlying random number generator
+     * @param process Underlying stochastic process
+     * @param duration Duration of paths in time units
+     * @param timeSteps Number of points of the coarse path
+     * @param valuation Path valuation function
+     * @param statistics Statistics summary of the extrapolated values
+     */
+    public RichardsonMonteCarloModel(NormalizedRandomGenerator random, GenericProcess1D process,
+                                     double duration, int timeSteps, PathValuation<Double> valuation,
+                                     Accumulator<Double> statistics) {
+        this(random, process, duration, timeSteps, valuation, statistics, 1);
+    }
+
+    /**
+     * Constructor of the model
+     *
+     * @param random Underlying random number generator
+     * @param process Underlying stochastic process
+     * @param duration Duration of paths in time units
+     * @param timeSteps Number of points of the coarse path
+     * @param valuation Path valuation function
+     * @param statistics Statistics summary of the extrapolated values
+     * @param weakOrder Weak order p of the discretization
+     */
+    public RichardsonMonteCarloModel(NormalizedRandomGenerator random, GenericProcess1D process,
+                                     double duration, int timeSteps, PathValuation<Double> valuation,
+                                     Accumulator<Double> statistics, int weakOrder) {
+        this.summary = statistics;
+        this.process = process;
+        this.generator = random;
+        this.pathValuation = valuation;
+        this.timeSteps = timeSteps;
+        this.dt = duration / timeSteps;
+        final double scale = 1 << weakOrder;
+        this.weight = scale / (scale - 1.0);
+        fine = new Path(2 * timeSteps - 1, 0.5 * dt);
+        coarse = new Path(timeSteps, dt);
+    }
+
+    public int addSamples(final int samples) throws MathException {
+        final double half = 0.5 * dt;
+        final double[] f = fine.getValues();
+        final double[] c = coarse.getValues();
+
+        for (int s = 0; s < samples; ++s) {
+            f[0] = process.getInitialX();
+            c[0] = f[0];
+            double t = 0.0;
+            for (int i = 1; i < timeSteps; ++i) {
+                final double dw1 = generator.nextNormalizedDouble();
+                final double dw2 = generator.nextNormalizedDouble();
+                final int j = 2 * i;
+                f[j - 1] = process.evolve(t, f[j - 2], half, dw1);
+                f[j] = process.evolve(t + half, f[j - 1], half, dw2);
+                c[i] = process.evolve(t, c[i - 1], dt, (dw1 + dw2) * invSqrt2);
+                t += dt;
+            }
+            fine.complete();
+            coarse.complete();
+
+            final double value = weight * pathValuation.value(fine)
+                    + (1.0 - weight) * pathValuation.value(coarse);
+            combined.addValue(value);
+            summary.addValue(value);
+        }
+        return samples;
+    }
+
+    /**
+     * Gets extrapolated estimate
+     *
+     * @return Mean of the extrapolated values
+     */
+    public double getEstimate() {
+        return combined.getMean();
+    }
+
+    /**
+     * Gets standard error of the extrapolated estimate
+     *
+     * @return Standard deviation of the extrapolated values over sqrt(N)
+     */
+    public double getStandardError() {
+        return combined.getStandardDeviation() / FastMath.sqrt(combined.getN());
+    }
+
+    public Accumulator<Double> getStats() {
+        return summary;
+    }
+}
@@ -0,0 +1,55 @@
+package cz.paulrz.montecarlo.single;
+
+import org.apache.commons.math.util.FastMath;
+
+/**
+ * Plain loop kernels, left to the JIT to unroll and auto-vectorize. This
+ * is the fallback when the vector kernels are not available.
+ *
+ */
+public final class ScalarBatchKernels1D implements BatchKernels1D {
+
+    /** {@inheritDoc} */
+    public void gbm(double mudt, double sigmasdt, double[] x, double[] dw, double[] out, int count) {
+        for (int p = 0; p < count; ++p) {
+            final double xp = x[p];
+            out[p] = xp + mudt * xp + sigmasdt * xp * dw[p];
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void ou(double thetadt, double mu, double sigmasdt, double[] x, double[] dw, double[] out, int count) {
+        for (int p = 0; p < count; ++p) {
+            final double xp = x[p];
+            out[p] = xp + thetadt * (mu - xp) + sigmasdt * dw[p];
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void logOu(double thetadt, double mu, double sigmasdt, double[] x, double[] dw, double[] out, int count) {
+        for (int p = 0; p < count; ++p) {
+            final double xp = x[p];
+            out[p] = xp + thetadt * (mu - xp) + sigmasdt * xp * dw[p];
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void expOu(double thetadt, double driftdt, double sigmasdt, double[] x, double[] dw, double[] out, int count) {
+        for (int p = 0; p < count; ++p) {
+            final double xp = x[p];
+            out[p] = xp + (driftdt - thetadt * FastMath.log(xp)) * xp + sigmasdt * xp * dw[p];
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void gbmExact(double driftdt, double sigmasdt, double[] x, double[] dw, double[] out, int count) {
+        for (int p = 0; p < count; ++p)
+            out[p] = x[p] * FastMath.exp(driftdt + sigmasdt * dw[p]);
+    }
+
+    /** {@inheritDoc} */
+    public void expOuExact(double decay, double mu, double sd, double[] x, double[] dw, double[] out, int count) {
+        for (int p = 0; p < count; ++p)
+            out[p] = FastMath.exp(mu + (FastMath.log(x[p]) - mu) * decay + sd * dw[p]);
+    }
+}
@@ -0,0 +1,85 @@
+package cz.paulrz.montecarlo.single;
+
+import cz.paulrz.montecarlo.schedule.ObservationSchedule;
+
+/**
+ * Adapts {@link ObservedPathValuation} to the Monte Carlo engines. In
+ * streaming mode only the scheduled points are recorded, the full path is
+ * never stored. Valuation of stored paths copies the scheduled points to an
+ * observed path kept per thread, so neither mode allocates per path.
+ *
+ */
+public final class ScheduledPathValuation<T> implements PathValuation<T>, StreamingPathValuation<T> {
+    private final ObservationSchedule schedule;
+    private final ObservedPathValuation<T> valuation;
+    private final double dt;
+    private final ThreadLocal<ObservedPath> observed = new ThreadLocal<ObservedPath>() {
+        @Override
+        protected ObservedPath initialValue() {
+            return new ObservedPath(schedule, dt);
+        }
+    };
+
+    /**
+     * Constructor of the valuation
+     *
+     * @param schedule Observation schedule
+     * @param dt Time step of the fine grid
+     * @param valuation Valuation of observed path
+     */
+    public ScheduledPathValuation(ObservationSchedule schedule, double dt,
+                                  ObservedPathValuation<T> valuation) {
+        this.schedule = schedule;
+        this.dt = dt;
+        this.valuation = valuation;
+    }
+
+    /** {@inheritDoc} */
+    public T value(final Path path) {
+        schedule.checkLength(path.getLength());
+        final ObservedPath result = observed.get();
+        final double[] values = path.getValues();
+        final double[] observedValues = result.getValues();
+        for (int k = 0; k < observedValues.length; ++k)
+            observedValues[k] = values[schedule.getStep(k)];
+        return valuation.value(result);
+    }
+
+    /** {@inheritDoc} */
+    public PathObserver<T> newObserver() {
+        return new Recorder();
+    }
+
+    private final class Recorder implements PathObserver<T> {
+        private final ObservedPath path = new ObservedPath(schedule, dt);
+        private final double[] values = path.getValues();
+        private int step;
+        private int next;
+        private int nextStep;
+
+        public void start(final double x0) {
+            step = 0;
+            next = 0;
+            nextStep = schedule.getStep(0);
+            record(x0);
+        }
+
+        public void observe(final double x) {
+            step++;
+            record(x);
+        }
+
+        private void record(final double x) {
+            if (step == nextStep) {
+                values[next++] = x;
+                nextStep = next < values.length ? schedule.getStep(next) : -1;
+            }
+        }
+
+        public T value() {
+            if (next != values.length)
+                throw new IllegalStateException("schedule exceeds path length " + (step + 1));
+            return valuation.value(path);
+        }
+    }
+}
@@ -28,6 +28,8 @@ public final class SimplePathGenerator1D implements PathGenerator1D {
     private final int timeSteps;
     private final double dt;
     private final NormalizedRandomGenerator generator;
+    // set when the discretization takes second variate per step
+    private final StochasticProcess1D strong;
 
     /**
      * Constructor of SimplePathGenerator1D
@@ -43,19 +45,62 @@ public final class SimplePathGenerator1D implements PathGenerator1D {
         this.timeSteps = timeSteps;
         this.generator = generator;
         this.dt = duration / timeSteps;
+        this.strong = secondVariateOf(process);
+    }
+
+    /**
+     * Gets the process if its discretization takes second variate per step
+     *
+     * @param process Stochastic process
+     * @return The process or null
+     */
+    static StochasticProcess1D secondVariateOf(GenericProcess1D process) {
+        if (process instanceof StochasticProcess1D && ((StochasticProcess1D) process).usesSecondVariate())
+            return (StochasticProcess1D) process;
+        return null;
     }
 
     public Path next() throws FunctionEvaluationException {
         final Path path = new Path(timeSteps, dt);
-        path.addValue(process.getInitialX());
+        nextInto(path);
+        return path;
+    }
+
+    public void nextInto(final Path path) throws FunctionEvaluationException {
+        path.checkLength(timeSteps);
+        final double[] values = path.getValues();
+        values[0] = process.getInitialX();
 
         double t = 0.0;
         for (int i = 1; i < timeSteps; ++i) {
             final double dw = generator.nextNormalizedDouble();
-            path.addValue(process.evolve(t, path.getValues()[i - 1], dt, dw));
+            values[i] = step(t, values[i - 1], dw);
             t += dt;
         }
 
-        return path;
+        path.complete();
+    }
+
+    public void stream(final PathObserver<?> observer) throws FunctionEvaluationException {
+        double x = process.getInitialX();
+        observer.start(x);
+        if (StoppablePathObserver.isDone(observer))
+            return;
+
+        double t = 0.0;
+        for (int i = 1; i < timeSteps; ++i) {
+            final double dw = generator.nextNormalizedDouble();
+            x = step(t, x, dw);
+            observer.observe(x);
+            if (StoppablePathObserver.isDone(observer))
+                return;
+            t += dt;
+        }
+    }
+
+    private double step(final double t, final double x, final double dw) throws FunctionEvaluationException {
+        if (strong != null)
+            return strong.evolve(t, x, dt, dw, generator.nextNormalizedDouble());
+        return process.evolve(t, x, dt, dw);
     }
 }
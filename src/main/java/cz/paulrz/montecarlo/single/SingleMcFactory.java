@@ -31,4 +31,13 @@ public final class SingleMcFactory {
                 sp, duration, timeSteps, valuation, statistics, true, true);
 
     }
+
+    public static <T> IMonteCarloModel<T> createBatchMc(
+            BatchProcess1D sp, double duration, int timeSteps,
+            BatchPathValuation<T> valuation, Accumulator<T> statistics) {
+
+        return new BatchMonteCarloModel<T>(new FastGaussianRandomGenerator(),
+                sp, duration, timeSteps, valuation, statistics, true,
+                BatchMonteCarloModel.defaultBlockSize);
+    }
 }
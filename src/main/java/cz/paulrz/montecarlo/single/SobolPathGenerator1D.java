@@ -16,6 +16,8 @@ public final class SobolPathGenerator1D implements PathGenerator1D {
     private final double dt;
     private final Sobol generator;
     private final BrownianBridge bridge;
+    private final double[] variates;
+    private final double[] dw;
 
     public SobolPathGenerator1D(GenericProcess1D process, int timeSteps,
                                 double duration, boolean useBridge) throws Exception {
@@ -24,11 +26,15 @@ public final class SobolPathGenerator1D implements PathGenerator1D {
 
     public SobolPathGenerator1D(Sobol generator, GenericProcess1D process, int timeSteps,
                                 double duration, boolean useBridge) throws Exception {
+        if (SimplePathGenerator1D.secondVariateOf(process) != null)
+            throw new IllegalArgumentException("Sobol paths have no second variate for the strong order 1.5 scheme");
         this.process = process;
         this.timeSteps = timeSteps;
         this.generator = generator; // first point is known
         this.dt = duration / timeSteps;
-        bridge = useBridge ? new BrownianBridge(timeSteps, dt) : null;
+        bridge = useBridge ? BrownianBridge.getInstance(timeSteps, dt) : null;
+        variates = new double[timeSteps];
+        dw = useBridge ? new double[timeSteps] : variates;
     }
 
     /**
@@ -37,39 +43,63 @@ public final class SobolPathGenerator1D implements PathGenerator1D {
      * @return Path for the stochastic process
      */
     public Path next() throws MathException {
-        Path path = null;
-
-        while(path == null)
-        {
-            path = getNext();
-        }
-
+        final Path path = new Path(timeSteps, dt);
+        nextInto(path);
         return path;
     }
 
-    private Path getNext() throws MathException {
-        final double[] uniform = generator.nextPoint();
-        Path path = new Path(timeSteps, dt);
-        path.addValue(process.getInitialX());
+    public void nextInto(final Path path) throws MathException {
+        path.checkLength(timeSteps);
+        nextIncrements();
 
-        double[] dw = new double[timeSteps];
-        dw[0] = 0.0;
-        for(int i=1; i<timeSteps; ++i) {
-            final double value = uniform[i-1];
-            if (value >=1.0 || value<=0.0)
-                return null;
+        final double[] values = path.getValues();
+        values[0] = process.getInitialX();
 
-            dw[i] = InverseCumulativeNormal.op(value);
+        double t = 0.0;
+        for(int i=1; i<timeSteps; ++i){
+            values[i] = process.evolve(t, values[i - 1], dt, dw[i]);
+            t += dt;
         }
 
-        if (bridge!=null)
-            dw = bridge.transform(dw);
+        path.complete();
+    }
+
+    public void stream(final PathObserver<?> observer) throws MathException {
+        nextIncrements();
+
+        double x = process.getInitialX();
+        observer.start(x);
+        if (StoppablePathObserver.isDone(observer))
+            return;
 
         double t = 0.0;
         for(int i=1; i<timeSteps; ++i){
-            path.addValue(process.evolve(t, path.getValues()[i - 1], dt, dw[i]));
+            x = process.evolve(t, x, dt, dw[i]);
+            observer.observe(x);
+            if (StoppablePathObserver.isDone(observer))
+                return;
             t += dt;
         }
-        return path;
+    }
+
+    private void nextIncrements() {
+        while (!generate()) {
+            // skip points on the boundary of the unit cube
+        }
+
+        if (bridge!=null)
+            bridge.transform(variates, dw);
+    }
+
+    private boolean generate() {
+        final double[] uniform = generator.nextPoint();
+        for(int i=1; i<timeSteps; ++i) {
+            final double value = uniform[i-1];
+            if (value >=1.0 || value<=0.0)
+                return false;
+
+            variates[i] = InverseCumulativeNormal.op(value);
+        }
+        return true;
     }
 }
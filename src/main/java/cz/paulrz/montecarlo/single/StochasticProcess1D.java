@@ -46,6 +46,10 @@ public abstract class StochasticProcess1D implements GenericProcess1D {
         return x0;
     }
 
+    public Discretization getDiscretization() {
+        return discretization;
+    }
+
     public void setInitialX(double x) {
         x0 = x;
     }
@@ -68,6 +72,20 @@ public abstract class StochasticProcess1D implements GenericProcess1D {
      */
     public abstract double diffusion(double t, double x) throws FunctionEvaluationException;
 
+    /**
+     * Derivative of the diffusion component by position, used by
+     * {@link MilsteinDiscretization}. Default is central difference,
+     * processes override it with the analytic derivative.
+     *
+     * @param t Time
+     * @param x Position
+     * @return d diffusion / dx
+     */
+    public double diffusionDerivative(double t, double x) throws FunctionEvaluationException {
+        final double h = 1e-5 * Math.max(1.0, Math.abs(x));
+        return (diffusion(t, x + h) - diffusion(t, x - h)) / (2.0 * h);
+    }
+
     /**
      * Returns position after time interval dt
      * 
@@ -78,7 +96,45 @@ public abstract class StochasticProcess1D implements GenericProcess1D {
      * @return Position after time step
      */
     public double evolve(final double t, final double x, final double dt, final double dw) throws FunctionEvaluationException {
-        return x + discretization.drift(this, t, x, dt)
-                + discretization.diffusion(this, t, x, dt) * dw;
+        return discretization.evolve(this, t, x, dt, dw);
+    }
+
+    /**
+     * Checks the discretization uses second standard normal variate per step,
+     * see {@link #evolve(double, double, double, double, double)}
+     *
+     * @return True for {@link StrongOrder15Discretization}
+     */
+    public boolean usesSecondVariate() {
+        return discretization instanceof StrongOrder15Discretization;
+    }
+
+    /**
+     * Returns position after time interval dt with second variate driving
+     * the double integral of the Brownian motion over the step
+     *
+     * @param t Time
+     * @param x Position
+     * @param dt Time step
+     * @param dw Standard Brownian Step
+     * @param dz Standard normal variate independent of dw
+     * @return Position after time step
+     */
+    public double evolve(final double t, final double x, final double dt, final double dw,
+                         final double dz) throws FunctionEvaluationException {
+        if (discretization instanceof StrongOrder15Discretization)
+            return ((StrongOrder15Discretization) discretization).evolve(this, t, x, dt, dw, dz);
+        return discretization.evolve(this, t, x, dt, dw);
+    }
+
+    /**
+     * Steps positions of a block one by one, for batched evolution with
+     * discretizations that have no batch kernel
+     */
+    protected final void evolveEach(final double t, final double[] x, final double dt,
+                                    final double[] dw, final double[] out, final int count)
+            throws FunctionEvaluationException {
+        for (int p = 0; p < count; ++p)
+            out[p] = discretization.evolve(this, t, x[p], dt, dw[p]);
     }
 }
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cz.paulrz.montecarlo.single;
+
+import org.apache.commons.math.FunctionEvaluationException;
+import org.apache.commons.math.util.FastMath;
+
+/**
+ * Explicit derivative-free scheme of strong order 1.5 (Platen, Runge-Kutta
+ * form of the Ito-Taylor expansion, Kloeden-Platen 11.2.1). Coefficients
+ * are evaluated at the start of the step, so the order holds for time
+ * homogeneous processes.
+ *
+ * The scheme needs the double integral dZ of the Brownian motion over the
+ * step, dZ = dt^(3/2)/2 * (dw + dz/sqrt(3)) with independent standard
+ * normal dz. Pseudo random generators supply dz when
+ * {@link StochasticProcess1D#usesSecondVariate()} is set, Sobol generators
+ * reject the scheme. Steps without dz use dz = 0, i.e. dZ is replaced by
+ * its expectation given dW and the scheme keeps strong order 1 only.
+ *
+ */
+public final class StrongOrder15Discretization implements Discretization {
+    private static final double invSqrt3 = 1.0 / FastMath.sqrt(3.0);
+
+    private final EulerDiscretization euler = new EulerDiscretization();
+
+    /** {@inheritDoc} */
+    public double drift(final StochasticProcess1D process, final double t, final double x,
+                        final double dt) throws FunctionEvaluationException {
+        return euler.drift(process, t, x, dt);
+    }
+
+    /** {@inheritDoc} */
+    public double diffusion(final StochasticProcess1D process, final double t, final double x,
+                            final double dt) throws FunctionEvaluationException {
+        return euler.diffusion(process, t, x, dt);
+    }
+
+    /** {@inheritDoc} */
+    public double evolve(final StochasticProcess1D process, final double t, final double x,
+                         final double dt, final double dw) throws FunctionEvaluationException {
+        return evolve(process, t, x, dt, dw, 0.0);
+    }
+
+    /**
+     * Single step of the process
+     *
+     * @param process Stochastic process
+     * @param t Time
+     * @param x Position
+     * @param dt Time step
+     * @param dw Standard Brownian step
+     * @param dz Standard normal variate independent of dw
+     * @return Position after time step
+     */
+    public double evolve(final StochasticProcess1D process, final double t, final double x,
+                         final double dt, final double dw, final double dz) throws FunctionEvaluationException {
+        final double sdt = FastMath.sqrt(dt);
+        final double dW = sdt * dw;
+        final double dZ = 0.5 * dt * sdt * (dw + dz * invSqrt3);
+
+        final double a = process.drift(t, x);
+        final double b = process.diffusion(t, x);
+        final double up = x + a * dt + b * sdt;
+        final double um = x + a * dt - b * sdt;
+        final double aup = process.drift(t, up);
+        final double aum = process.drift(t, um);
+        final double bup = process.diffusion(t, up);
+        final double bum = process.diffusion(t, um);
+        final double php = process.diffusion(t, up + bup * sdt);
+        final double phm = process.diffusion(t, up - bup * sdt);
+
+        return x + b * dW
+                + (aup - aum) * dZ / (2.0 * sdt)
+                + 0.25 * (aup + 2.0 * a + aum) * dt
+                + (bup - bum) * (dW * dW - dt) / (4.0 * sdt)
+                + (bup - 2.0 * b + bum) * (dW * dt - dZ) / (2.0 * dt)
+                + (php - phm - bup + bum) * (dW * dW / 3.0 - dt) * dW / (4.0 * dt);
+    }
+
+}
@@ -0,0 +1,148 @@
+package cz.paulrz.montecarlo.single;
+
+import cz.paulrz.montecarlo.random.InverseCumulativeNormal;
+import cz.paulrz.montecarlo.random.Sobol;
+import org.apache.commons.math.random.NormalizedRandomGenerator;
+
+/**
+ * Generator of terminal points of paths. The final point at time
+ * (timeSteps-1)*dt is drawn with one exact transition of the process
+ * instead of timeSteps-1 discretization steps.
+ *
+ */
+public final class TerminalSampler1D {
+    private final ExactProcess1D process;
+    private final double horizon;
+    private final NormalizedRandomGenerator generator;
+    private final Sobol sobol;
+    private final boolean useAntithetic;
+    private boolean antitheticPending = false;
+    private double dw;
+
+    /**
+     * Constructor of pseudo random sampler
+     *
+     * @param process Stochastic process
+     * @param timeSteps Number of time steps of the replaced path
+     * @param duration Total duration of the process
+     * @param generator Random generator of normalized real values
+     * @param useAntithetic Draw terminal points in antithetic pairs
+     */
+    public TerminalSampler1D(ExactProcess1D process, int timeSteps, double duration,
+                             NormalizedRandomGenerator generator, boolean useAntithetic) {
+        this.process = process;
+        this.horizon = (timeSteps - 1) * duration / timeSteps;
+        this.generator = generator;
+        this.sobol = null;
+        this.useAntithetic = useAntithetic;
+    }
+
+    /**
+     * Constructor of quasi random sampler driven by one-dimensional Sobol sequence
+     *
+     * @param process Stochastic process
+     * @param timeSteps Number of time steps of the replaced path
+     * @param duration Total duration of the process
+     */
+    public TerminalSampler1D(ExactProcess1D process, int timeSteps, double duration) throws Exception {
+        this(process, timeSteps, duration, 0);
+    }
+
+    /**
+     * Constructor of quasi random sampler starting at the given point of the
+     * Sobol sequence, parallel samplers use disjoint ranges of points
+     *
+     * @param process Stochastic process
+     * @param timeSteps Number of time steps of the replaced path
+     * @param duration Total duration of the process
+     * @param offset Number of Sobol points to skip
+     */
+    public TerminalSampler1D(ExactProcess1D process, int timeSteps, double duration,
+                             int offset) throws Exception {
+        this.process = process;
+        this.horizon = (timeSteps - 1) * duration / timeSteps;
+        this.generator = null;
+        this.sobol = new Sobol(1);
+        this.sobol.skipTo(offset);
+        this.useAntithetic = false;
+    }
+
+    /**
+     * Checks the process and the valuation allow terminal-only sampling.
+     * The process must be stepped by {@link ExactDiscretization}, so the
+     * terminal point has the same law as the end of a stepped path; with
+     * any other scheme the caller measures that scheme and paths are
+     * stepped. The exact transition must also be declared by the class
+     * that declares drift and diffusion, a subclass changing the dynamics
+     * of e.g. {@link OrnsteinUhlenbeckProcess} is not sampled with the
+     * transition of its base class. Likewise the terminal value must be
+     * declared by the class declaring {@link PathValuation#value(Path)}.
+     *
+     * @param process Stochastic process
+     * @param valuation Path valuation
+     * @return True if the terminal point can be sampled exactly
+     */
+    public static boolean supports(GenericProcess1D process, PathValuation<?> valuation) {
+        if (!(process instanceof ExactProcess1D) || !(valuation instanceof TerminalValuation)
+                || !(process instanceof StochasticProcess1D))
+            return false;
+        if (!(((StochasticProcess1D) process).getDiscretization() instanceof ExactDiscretization))
+            return false;
+        return declaresDynamics(process.getClass()) && declaresTerminalValue(valuation.getClass());
+    }
+
+    private static boolean declaresTerminalValue(Class<?> type) {
+        try {
+            return type.getMethod("value", double.class, double.class).getDeclaringClass()
+                    == type.getMethod("value", Path.class).getDeclaringClass();
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static boolean declaresDynamics(Class<?> type) {
+        try {
+            final Class<?> owner = type.getMethod("transition",
+                    double.class, double.class, double.class, double.class).getDeclaringClass();
+            return owner == type.getMethod("drift", double.class, double.class).getDeclaringClass()
+                    && owner == type.getMethod("diffusion", double.class, double.class).getDeclaringClass();
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    public double getInitialX() {
+        return process.getInitialX();
+    }
+
+    public double getHorizon() {
+        return horizon;
+    }
+
+    /**
+     * Generates a new terminal point
+     *
+     * @return Final point of the path
+     */
+    public double next() {
+        return process.transition(0.0, process.getInitialX(), horizon, nextVariate());
+    }
+
+    private double nextVariate() {
+        if (sobol != null) {
+            double u;
+            do {
+                u = sobol.nextPoint()[0];
+            } while (u >= 1.0 || u <= 0.0);
+            return InverseCumulativeNormal.op(u);
+        }
+
+        if (!useAntithetic)
+            return generator.nextNormalizedDouble();
+
+        if (!antitheticPending)
+            dw = generator.nextNormalizedDouble();
+        antitheticPending = !antitheticPending;
+        return antitheticPending ? dw : -dw;
+    }
+}
@@ -0,0 +1,18 @@
+package cz.paulrz.montecarlo.single;
+
+/**
+ * Valuation depending on the starting and final points of the path only.
+ * Engines sample the final point of an {@link ExactProcess1D} directly,
+ * see {@link TerminalSampler1D}.
+ *
+ */
+public interface TerminalValuation<T> {
+    /**
+     * Calculates path's value
+     *
+     * @param initial Starting point of the path
+     * @param terminal Final point of the path
+     * @return Valuation of the path
+     */
+    T value(final double initial, final double terminal);
+}
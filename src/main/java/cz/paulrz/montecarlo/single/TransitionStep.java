@@ -0,0 +1,19 @@
+package cz.paulrz.montecarlo.single;
+
+/**
+ * Constants of an exact transition over fixed time interval, the
+ * meaning of the coefficients is given by the process. Processes keep the
+ * last used instance, paths are stepped with the same dt.
+ *
+ */
+final class TransitionStep {
+    final double dt;
+    final double a;
+    final double b;
+
+    TransitionStep(double dt, double a, double b) {
+        this.dt = dt;
+        this.a = a;
+        this.b = b;
+    }
+}
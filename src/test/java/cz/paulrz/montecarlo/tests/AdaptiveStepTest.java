@@ -0,0 +1,81 @@
+package cz.paulrz.montecarlo.tests;
+
+import cern.colt.matrix.DoubleFactory1D;
+import cern.colt.matrix.DoubleFactory2D;
+import cz.paulrz.montecarlo.accumulator.SimpleAccumulator;
+import cz.paulrz.montecarlo.multi.AdaptivePathGenerator;
+import cz.paulrz.montecarlo.multi.GeometricBrownianMotion;
+import cz.paulrz.montecarlo.multi.LogArrivedPointValuation;
+import cz.paulrz.montecarlo.multi.ObservedMonteCarloModel;
+import cz.paulrz.montecarlo.multi.ObservedPath;
+import cz.paulrz.montecarlo.multi.ObservedPathValuation;
+import cz.paulrz.montecarlo.random.FastGaussianRandomGenerator;
+import cz.paulrz.montecarlo.schedule.ObservationSchedule;
+import cz.paulrz.montecarlo.single.*;
+import junit.framework.TestCase;
+import org.apache.commons.math.MathException;
+import org.apache.commons.math.util.FastMath;
+
+public class AdaptiveStepTest extends TestCase {
+
+    public void testFastMeanReversionOnCoarseGrid() throws MathException {
+        // theta*dt = 10 on the grid, plain Euler diverges
+        final double theta = 50.0, mu = 1.0, sigma = 0.5;
+        final OrnsteinUhlenbeckProcess process = new OrnsteinUhlenbeckProcess(0.0, theta, mu, sigma);
+        final AdaptivePathGenerator1D generator = new AdaptivePathGenerator1D(process, 5, 1.0,
+                new FastGaussianRandomGenerator(), 1e-3);
+
+        final SimpleAccumulator summary = new SimpleAccumulator();
+        new MonteCarloModel<Double>(generator, 1.0, 5, new PathValuation<Double>() {
+            public Double value(Path path) {
+                return path.getValues()[1];
+            }
+        }, summary).addSamples(20000);
+
+        final double t = 0.2;
+        assertEquals(mu * (1.0 - FastMath.exp(-theta * t)), summary.stats.getMean(), 0.01);
+        assertEquals(sigma * FastMath.sqrt((1.0 - FastMath.exp(-2.0 * theta * t)) / (2.0 * theta)),
+                summary.stats.getStandardDeviation(), 0.005);
+        assertTrue(generator.getStepCount() > 20000 * 4 * 8);
+    }
+
+    public void testMultiAdaptiveGbm() throws MathException {
+        final GeometricBrownianMotion process = new GeometricBrownianMotion(
+                DoubleFactory1D.dense.make(new double[] {1.0, 1.0}),
+                DoubleFactory1D.dense.make(new double[] {0.0, 0.0}),
+                DoubleFactory2D.dense.make(new double[][] { {0.5, 0.0}, {0.0, 0.5} }));
+        final AdaptivePathGenerator generator = new AdaptivePathGenerator(process, 4, 1.0,
+                new FastGaussianRandomGenerator(), 1e-2);
+
+        final SimpleAccumulator summary = new SimpleAccumulator();
+        new cz.paulrz.montecarlo.multi.MonteCarloModel<Double>(generator,
+                new LogArrivedPointValuation(0), summary).addSamples(20000);
+
+        // horizon 3/4, log mean -sigma^2/2 * t
+        assertEquals(-0.125 * 0.75, summary.stats.getMean(), 0.01);
+        assertEquals(0.5 * FastMath.sqrt(0.75), summary.stats.getStandardDeviation(), 0.01);
+    }
+
+    public void testObservedPathsCoarsenSteps() throws MathException {
+        final GeometricBrownianMotion process = new GeometricBrownianMotion(
+                DoubleFactory1D.dense.make(new double[] {1.0, 1.0}),
+                DoubleFactory1D.dense.make(new double[] {0.0, 0.0}),
+                DoubleFactory2D.dense.make(new double[][] { {0.05, 0.0}, {0.0, 0.05} }));
+        final AdaptivePathGenerator generator = new AdaptivePathGenerator(process, 16, 1.0,
+                new FastGaussianRandomGenerator(), 1e-2);
+
+        final SimpleAccumulator summary = new SimpleAccumulator();
+        new ObservedMonteCarloModel<Double>(generator, 2, new ObservationSchedule(new int[] {0, 15}),
+                1.0 / 16, new ObservedPathValuation<Double>() {
+                    public Double value(ObservedPath path) {
+                        return FastMath.log(path.getValue(1, 0) / path.getValue(0, 0));
+                    }
+                }, summary).addSamples(20000);
+
+        // smooth process, one step from the start to the observation; the
+        // standard error of the mean is 0.05/sqrt(20000), about 6 of them allowed
+        assertEquals(20000, generator.getStepCount());
+        assertEquals(-0.00125 * 15.0 / 16, summary.stats.getMean(), 0.002);
+        assertEquals(0.05 * FastMath.sqrt(15.0 / 16), summary.stats.getStandardDeviation(), 0.002);
+    }
+}
@@ -0,0 +1,93 @@
+package cz.paulrz.montecarlo.tests;
+
+import cz.paulrz.montecarlo.accumulator.SimpleAccumulator;
+import cz.paulrz.montecarlo.random.FastGaussianRandomGenerator;
+import cz.paulrz.montecarlo.single.*;
+import junit.framework.TestCase;
+import org.apache.commons.math.FunctionEvaluationException;
+import org.apache.commons.math.MathException;
+
+public class BatchMcTests extends TestCase {
+
+    // log(x_t/x_0) = (mu-sigma^2/2)*t
+    private final static double expectedMean = -0.5;
+    private final static double expectedStdDev = 1.0;
+
+    public void testMeanAndVariance() throws MathException {
+        GeometricBrownianMotionProcess process = new GeometricBrownianMotionProcess(1.0, 0.0, expectedStdDev);
+        SimpleAccumulator summary = new SimpleAccumulator();
+        IMonteCarloModel<Double> mcm = SingleMcFactory.createBatchMc(process, 1.0, 100,
+                new LogArrivedPointValuation(), summary);
+
+        long ms = System.currentTimeMillis();
+        int iters = mcm.addSamples(250000);
+        ms = System.currentTimeMillis() - ms;
+        System.out.println(ms+" ms");
+        System.out.format("%f iters/s %n", iters*2*1000.0/ms);
+
+        assertEquals(expectedMean, summary.stats.getMean(), 0.01);
+        assertEquals(expectedStdDev, summary.stats.getStandardDeviation(), 0.02);
+    }
+
+    public void testBatchMatchesScalarEvolve() throws Exception {
+        check(new GeometricBrownianMotionProcess(1.0, 0.05, 0.3));
+        check(new OrnsteinUhlenbeckProcess(1.0, 2.0, 0.5, 0.3));
+        check(new LogOrnsteinUhlenbeckProcess(1.0, 2.0, 0.5, 0.3));
+        check(new ExpOrnsteinUhlenbeckProcess(1.0, 2.0, 0.5, 0.3));
+        check(new GeometricBrownianMotionProcess(1.0, 0.05, 0.3, new ExactDiscretization()));
+        check(new OrnsteinUhlenbeckProcess(1.0, 2.0, 0.5, 0.3, new ExactDiscretization()));
+        check(new ExpOrnsteinUhlenbeckProcess(1.0, 2.0, 0.5, 0.3, new ExactDiscretization()));
+    }
+
+    public void testVectorKernelsMatchScalarEvolve() throws Exception {
+        if (!BatchKernels.isVectorAvailable())
+            return;
+
+        final boolean enabled = BatchKernels.get() != BatchKernels.getScalar();
+        BatchKernels.setVectorEnabled(true);
+        try {
+            testBatchMatchesScalarEvolve();
+        } finally {
+            BatchKernels.setVectorEnabled(enabled);
+        }
+    }
+
+    private void check(BatchProcess1D process) throws Exception {
+        final int count = 37;
+        final double dt = 0.01;
+        final FastGaussianRandomGenerator random = new FastGaussianRandomGenerator();
+        final double[] x = new double[count];
+        final double[] dw = new double[count];
+        final double[] out = new double[count];
+        for (int p = 0; p < count; ++p) {
+            x[p] = 0.5 + p * 0.05;
+            dw[p] = random.nextNormalizedDouble();
+        }
+
+        process.evolveBatch(0.0, x, dt, dw, out, count);
+        for (int p = 0; p < count; ++p)
+            assertEquals(process.evolve(0.0, x[p], dt, dw[p]), out[p], 1e-12);
+    }
+
+    public void testEvaluationErrorOfStepwiseBatch() {
+        // a scheme without batch kernel, its evaluation error reaches the caller as is
+        final FunctionEvaluationException error = new FunctionEvaluationException(0.5);
+        final GeometricBrownianMotionProcess process = new GeometricBrownianMotionProcess(1.0, 0.0, 1.0,
+                new Discretization() {
+                    public double drift(StochasticProcess1D process, double t, double x, double dt)
+                            throws FunctionEvaluationException {
+                        throw error;
+                    }
+
+                    public double diffusion(StochasticProcess1D process, double t, double x, double dt) {
+                        return 0.0;
+                    }
+                });
+        try {
+            process.evolveBatch(0.0, new double[] {0.5}, 0.01, new double[] {0.0}, new double[1], 1);
+            fail();
+        } catch (FunctionEvaluationException e) {
+            assertSame(error, e);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package cz.paulrz.montecarlo.tests;
+
+import cz.paulrz.montecarlo.random.BrownianBridge;
+import cz.paulrz.montecarlo.random.FastGaussianRandomGenerator;
+import junit.framework.TestCase;
+import org.apache.commons.math.random.NormalizedRandomGenerator;
+import org.apache.commons.math.util.FastMath;
+
+public class BrownianBridgeTest extends TestCase {
+    private static final int steps = 17;
+    private static final double dt = 0.01;
+
+    public void testTerminalPointIsNotPinned() {
+        final BrownianBridge bridge = new BrownianBridge(steps, dt);
+        final double[] input = new double[steps];
+        input[1] = 1.0;
+        final double[] output = bridge.transform(input);
+
+        double sum = 0.0;
+        for (int i = 1; i < steps; ++i)
+            sum += output[i] * FastMath.sqrt(dt);
+
+        // W(T) = sqrt(T) * first variate
+        assertEquals(FastMath.sqrt((steps - 1) * dt), sum, 1e-12);
+    }
+
+    public void testIncrementsAreIndependent() {
+        final BrownianBridge bridge = new BrownianBridge(steps, dt);
+        final NormalizedRandomGenerator random = new FastGaussianRandomGenerator();
+        final double[] input = new double[steps];
+        final double[] output = new double[steps];
+        final int samples = 200000;
+        double sq = 0.0;
+        double cross = 0.0;
+
+        for (int s = 0; s < samples; ++s) {
+            for (int i = 1; i < steps; ++i)
+                input[i] = random.nextNormalizedDouble();
+            bridge.transform(input, output);
+            sq += output[5] * output[5];
+            cross += output[5] * output[6];
+        }
+
+        assertEquals(1.0, sq / samples, 0.02);
+        assertEquals(0.0, cross / samples, 0.02);
+    }
+
+    public void testBatchedTransformMatchesSingle() {
+        final BrownianBridge bridge = BrownianBridge.getInstance(steps, dt);
+        assertSame(bridge, BrownianBridge.getInstance(steps, dt));
+
+        final int width = 3;
+        final NormalizedRandomGenerator random = new FastGaussianRandomGenerator();
+        final double[][] inputs = new double[width][steps];
+        final double[] block = new double[steps * width];
+        for (int p = 0; p < width; ++p) {
+            for (int i = 1; i < steps; ++i) {
+                inputs[p][i] = random.nextNormalizedDouble();
+                block[i * width + p] = inputs[p][i];
+            }
+        }
+
+        final double[] blockOutput = new double[steps * width];
+        bridge.transform(block, blockOutput, width);
+
+        final double[] output = new double[steps];
+        for (int p = 0; p < width; ++p) {
+            bridge.transform(inputs[p], output);
+            for (int i = 0; i < steps; ++i)
+                assertEquals(output[i], blockOutput[i * width + p], 1e-12);
+        }
+    }
+
+    public void testSharedBridgesAreBounded() {
+        final BrownianBridge bridge = BrownianBridge.getInstance(steps, dt);
+        for (int n = 1; n <= BrownianBridge.cacheSize; ++n)
+            BrownianBridge.getInstance(steps, dt * (1.0 + n));
+
+        // the least recently used grid was evicted
+        assertNotSame(bridge, BrownianBridge.getInstance(steps, dt));
+    }
+}
@@ -0,0 +1,103 @@
+package cz.paulrz.montecarlo.tests;
+
+import cern.colt.matrix.DoubleFactory1D;
+import cern.colt.matrix.DoubleFactory2D;
+import cz.paulrz.montecarlo.accumulator.SimpleAccumulator;
+import cz.paulrz.montecarlo.single.*;
+import cz.paulrz.montecarlo.multi.GeometricBrownianMotion;
+import cz.paulrz.montecarlo.multi.SimplePathGenerator;
+import junit.framework.TestCase;
+import org.apache.commons.math.MathException;
+import org.apache.commons.math.random.GaussianRandomGenerator;
+import org.apache.commons.math.random.MersenneTwister;
+
+public class EarlyTerminationTest extends TestCase {
+    private static final int steps = 50;
+
+    public void testStoppedPathsMatchStoredPaths() throws MathException {
+        final GeometricBrownianMotionProcess process = new GeometricBrownianMotionProcess(1.0, 0.05, 0.3);
+        final PathGenerator1D stored = new AntitheticPathGenerator1D(process, steps, 1.0,
+                new GaussianRandomGenerator(new MersenneTwister(7)));
+        final PathGenerator1D streamed = new AntitheticPathGenerator1D(process, steps, 1.0,
+                new GaussianRandomGenerator(new MersenneTwister(7)));
+
+        final BarrierHitValuation valuation = new BarrierHitValuation(1.2, true);
+        final CountingObserver observer = new CountingObserver(valuation.newObserver());
+        final Path path = new Path(steps, 1.0 / steps);
+
+        int hits = 0;
+        for (int i = 0; i < 200; ++i) {
+            stored.nextInto(path);
+            observer.count = 0;
+            streamed.stream(observer);
+
+            final double expected = valuation.value(path);
+            assertEquals(expected, observer.value(), 0.0);
+
+            // stepping ends at the first hit
+            int first = steps - 1;
+            for (int j = 1; j < steps; ++j)
+                if (path.getValues()[j] >= 1.2) {
+                    first = j;
+                    hits++;
+                    break;
+                }
+            assertEquals(first, observer.count);
+        }
+        assertTrue(hits > 0);
+    }
+
+    public void testMultiFactorAbsorption() throws MathException {
+        final GeometricBrownianMotion process = new GeometricBrownianMotion(
+                DoubleFactory1D.dense.make(new double[] {1.0, 1.0}),
+                DoubleFactory1D.dense.make(new double[] {0.0, 0.0}),
+                DoubleFactory2D.dense.make(new double[][] { {0.3, 0.0}, {0.0, 0.3} }));
+        final cz.paulrz.montecarlo.multi.BarrierHitValuation valuation =
+                new cz.paulrz.montecarlo.multi.BarrierHitValuation(1, 0.8, false);
+
+        final SimpleAccumulator streamed = new SimpleAccumulator();
+        new cz.paulrz.montecarlo.multi.MonteCarloModel<Double>(
+                new GaussianRandomGenerator(new MersenneTwister(11)), process, 1.0, steps,
+                valuation, streamed, true).addSamples(10000);
+
+        // plain valuation hides the streaming interface, paths are stored
+        final SimpleAccumulator stored = new SimpleAccumulator();
+        new cz.paulrz.montecarlo.multi.MonteCarloModel<Double>(
+                new SimplePathGenerator(process, steps, 1.0,
+                        new GaussianRandomGenerator(new MersenneTwister(13))),
+                new cz.paulrz.montecarlo.multi.PathValuation<Double>() {
+                    public Double value(cz.paulrz.montecarlo.multi.Path path) {
+                        return valuation.value(path);
+                    }
+                }, stored).addSamples(20000);
+
+        assertEquals(stored.stats.getMean(), streamed.stats.getMean(), 0.015);
+        assertTrue(streamed.stats.getMean() > 0.1);
+    }
+
+    private static final class CountingObserver implements StoppablePathObserver<Double> {
+        private final StoppablePathObserver<Double> observer;
+        int count;
+
+        CountingObserver(PathObserver<Double> observer) {
+            this.observer = (StoppablePathObserver<Double>) observer;
+        }
+
+        public void start(double x0) {
+            observer.start(x0);
+        }
+
+        public void observe(double x) {
+            count++;
+            observer.observe(x);
+        }
+
+        public boolean isDone() {
+            return observer.isDone();
+        }
+
+        public Double value() {
+            return observer.value();
+        }
+    }
+}
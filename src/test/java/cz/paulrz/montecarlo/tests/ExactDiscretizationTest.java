@@ -0,0 +1,45 @@
+package cz.paulrz.montecarlo.tests;
+
+import cz.paulrz.montecarlo.accumulator.SimpleAccumulator;
+import cz.paulrz.montecarlo.random.FastGaussianRandomGenerator;
+import cz.paulrz.montecarlo.single.*;
+import junit.framework.TestCase;
+import org.apache.commons.math.MathException;
+import org.apache.commons.math.util.FastMath;
+
+public class ExactDiscretizationTest extends TestCase {
+
+    // valuation reading the midpoint, so the whole path is generated
+    private static final PathValuation<Double> midpoint = new PathValuation<Double>() {
+        public Double value(Path path) {
+            return path.getValues()[2];
+        }
+    };
+
+    public void testCoarseOuIsUnbiased() throws MathException {
+        final double theta = 3.0, mu = 1.0, sigma = 0.5;
+        final OrnsteinUhlenbeckProcess process = new OrnsteinUhlenbeckProcess(0.0, theta, mu, sigma,
+                new ExactDiscretization());
+
+        final SimpleAccumulator summary = new SimpleAccumulator();
+        new MonteCarloModel<Double>(new FastGaussianRandomGenerator(), process, 1.0, 4,
+                midpoint, summary, true, false).addSamples(100000);
+
+        // two steps of 1/4, Euler would give mean 1 - (1/4)^2
+        final double t = 0.5;
+        assertEquals(mu * (1.0 - FastMath.exp(-theta * t)), summary.stats.getMean(), 0.005);
+        assertEquals(sigma * FastMath.sqrt((1.0 - FastMath.exp(-2.0 * theta * t)) / (2.0 * theta)),
+                summary.stats.getStandardDeviation(), 0.005);
+    }
+
+    public void testCoarseGbmIsUnbiased() throws MathException {
+        final GeometricBrownianMotionProcess process = new GeometricBrownianMotionProcess(1.0, 0.5, 0.8,
+                new ExactDiscretization());
+
+        final SimpleAccumulator summary = new SimpleAccumulator();
+        new MonteCarloModel<Double>(new FastGaussianRandomGenerator(), process, 1.0, 4,
+                midpoint, summary, true, false).addSamples(200000);
+
+        assertEquals(FastMath.exp(0.25), summary.stats.getMean(), 0.01);
+    }
+}
@@ -0,0 +1,78 @@
+package cz.paulrz.montecarlo.tests;
+
+import cern.colt.matrix.DoubleFactory1D;
+import cern.colt.matrix.DoubleFactory2D;
+import cz.paulrz.montecarlo.accumulator.SimpleAccumulator;
+import cz.paulrz.montecarlo.multi.*;
+import junit.framework.TestCase;
+import org.apache.commons.math.MathException;
+import org.apache.commons.math.random.GaussianRandomGenerator;
+import org.apache.commons.math.random.MersenneTwister;
+
+public class FlatEngineTest extends TestCase {
+    private static final int steps = 40;
+
+    private static GeometricBrownianMotion basket() {
+        return new GeometricBrownianMotion(
+                DoubleFactory1D.dense.make(new double[] {1.0, 2.0}),
+                DoubleFactory1D.dense.make(new double[] {0.05, 0.02}),
+                DoubleFactory2D.dense.make(new double[][] { {0.3, 0.0}, {0.1, 0.2} }));
+    }
+
+    private static void assertSamePaths(GenericProcess process) throws MathException {
+        final PathGenerator matrix = new SimplePathGenerator(process, steps, 1.0,
+                new GaussianRandomGenerator(new MersenneTwister(5)));
+        final FlatPathGenerator flat = new FlatPathGenerator(process, steps, 1.0,
+                new GaussianRandomGenerator(new MersenneTwister(5)));
+        final int dim = process.getDimension();
+        final FlatPath flatPath = new FlatPath(dim, steps, 1.0 / steps);
+
+        for (int n = 0; n < 5; ++n) {
+            final Path path = matrix.next();
+            flat.nextInto(flatPath);
+            for (int i = 0; i < steps; ++i)
+                for (int f = 0; f < dim; ++f)
+                    assertEquals(path.getValues(i).getQuick(f), flatPath.getValue(i, f), 1e-12);
+        }
+    }
+
+    public void testGbmMatchesMatrixEngine() throws MathException {
+        assertSamePaths(basket());
+    }
+
+    public void testHestonMatchesMatrixEngine() throws MathException {
+        assertSamePaths(new HestonProcess(0.02, 1.0, 0.04, 1.5, 0.04, 0.3, -0.7));
+    }
+
+    public void testAdaptedProcessMatchesMatrixEngine() throws MathException {
+        final SabrProcess sabr = new SabrProcess(0.04, 0.05, 0.4, 0.4, -0.3);
+        assertTrue(FlatProcessAdapter.of(sabr) instanceof FlatProcessAdapter);
+        assertSamePaths(sabr);
+    }
+
+    public void testNextUsesMatrixLayout() throws MathException {
+        final PathGenerator matrix = new SimplePathGenerator(basket(), steps, 1.0,
+                new GaussianRandomGenerator(new MersenneTwister(5)));
+        final FlatPathGenerator flat = new FlatPathGenerator(basket(), steps, 1.0,
+                new GaussianRandomGenerator(new MersenneTwister(5)));
+        final Path expected = matrix.next();
+        final Path path = flat.next();
+
+        assertEquals(expected.isColumnMajor(), path.isColumnMajor());
+        assertEquals(expected.getTimeStride(), path.getTimeStride());
+        for (int k = 0; k < expected.getElements().length; ++k)
+            assertEquals(expected.getElements()[k], path.getElements()[k], 1e-12);
+    }
+
+    public void testAntitheticLogMean() throws MathException {
+        final SimpleAccumulator summary = new SimpleAccumulator();
+        new FlatMonteCarloModel<Double>(new GaussianRandomGenerator(new MersenneTwister(3)),
+                basket(), 1.0, steps, new LogArrivedPointValuation(0), summary, true)
+                .addSamples(20000);
+
+        // Euler log mean at 39/40 is close to (mu - sigma^2/2) t
+        final double t = 39.0 / 40.0;
+        assertEquals((0.05 - 0.045) * t, summary.stats.getMean(), 0.003);
+        assertEquals(40000, summary.stats.getN());
+    }
+}
@@ -0,0 +1,137 @@
+package cz.paulrz.montecarlo.tests;
+
+import cern.colt.matrix.DoubleFactory1D;
+import cern.colt.matrix.DoubleFactory2D;
+import cern.colt.matrix.DoubleMatrix1D;
+import cern.colt.matrix.DoubleMatrix2D;
+import cern.jet.math.Functions;
+import cz.paulrz.montecarlo.multi.*;
+import junit.framework.TestCase;
+import org.apache.commons.math.random.GaussianRandomGenerator;
+import org.apache.commons.math.random.MersenneTwister;
+import org.apache.commons.math.util.FastMath;
+
+public class GeometricBasketTest extends TestCase {
+    private static final double[] vol = new double[] {0.2, 0.3, 0.4};
+    private static final double[][] correlation = new double[][] {
+            {1.0, 0.5, 0.3}, {0.5, 1.0, 0.2}, {0.3, 0.2, 1.0} };
+
+    private static GeometricBrownianBasket basket() {
+        return new GeometricBrownianBasket(DoubleFactory1D.dense.make(new double[] {1.0, 1.0, 1.0}),
+                DoubleFactory1D.dense.make(new double[] {0.05, 0.0, 0.1}),
+                DoubleFactory1D.dense.make(vol), DoubleFactory2D.dense.make(correlation));
+    }
+
+    public void testLogReturnsAreExactOnCoarseGrid() {
+        // 5 points, horizon 4/5
+        final int steps = 5;
+        final GeometricBrownianBasket basket = basket();
+        final FlatPathGenerator generator = new FlatPathGenerator(basket, steps, 1.0,
+                new GaussianRandomGenerator(new MersenneTwister(17)), true);
+        final FlatPath path = new FlatPath(3, steps, 1.0 / steps);
+
+        final int samples = 100000;
+        final double[] mean = new double[3];
+        final double[][] cross = new double[3][3];
+        for (int n = 0; n < samples; ++n) {
+            generator.nextInto(path);
+            final double[] r = new double[3];
+            for (int i = 0; i < 3; ++i) {
+                r[i] = FastMath.log(path.getValue(steps - 1, i));
+                mean[i] += r[i] / samples;
+            }
+            for (int i = 0; i < 3; ++i)
+                for (int j = 0; j < 3; ++j)
+                    cross[i][j] += r[i] * r[j] / samples;
+        }
+
+        final double t = 0.8;
+        final double[] mu = new double[] {0.05, 0.0, 0.1};
+        for (int i = 0; i < 3; ++i) {
+            assertEquals((mu[i] - 0.5 * vol[i] * vol[i]) * t, mean[i], 1e-3);
+            for (int j = 0; j < 3; ++j)
+                assertEquals(vol[i] * correlation[i][j] * vol[j] * t,
+                        cross[i][j] - mean[i] * mean[j], 0.003);
+        }
+    }
+
+    public void testMatrixAndFlatStepsAgree() {
+        final GeometricBrownianBasket basket = basket();
+        final double[] x = new double[] {1.1, 0.9, 1.3};
+        final double[] dw = new double[] {0.3, -1.2, 0.7};
+        final double[] out = new double[3];
+        basket.evolveInto(0.0, x, 0.1, dw, out);
+
+        final DoubleMatrix1D result = basket.evolveMatrix(0.0, DoubleFactory1D.dense.make(x), 0.1,
+                DoubleFactory1D.dense.make(dw));
+        for (int i = 0; i < 3; ++i)
+            assertEquals(out[i], result.getQuick(i), 1e-15);
+    }
+
+    public void testIndefiniteCorrelationIsRejected() {
+        try {
+            new GeometricBrownianBasket(DoubleFactory1D.dense.make(new double[] {1.0, 1.0}),
+                    DoubleFactory1D.dense.make(2), DoubleFactory1D.dense.make(new double[] {0.2, 0.2}),
+                    DoubleFactory2D.dense.make(new double[][] { {1.0, 1.5}, {1.5, 1.0} }));
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void testNoiseDimensionDefaultsToDimension() {
+        final GenericProcess process = new GenericProcess() {
+            public DoubleMatrix1D getInitialVector() {
+                return DoubleFactory1D.dense.make(3, 1.0);
+            }
+
+            public int getDimension() {
+                return 3;
+            }
+
+            public DoubleMatrix1D evolveMatrix(double t, DoubleMatrix1D x, double dt, DoubleMatrix1D dw) {
+                return x.copy().assign(dw, Functions.plus);
+            }
+        };
+        assertEquals(3, process.getNoiseDimension());
+        assertEquals(3, FlatProcessAdapter.of(process).getNoiseDimension());
+    }
+
+    public void testFactorModelCovariance() throws Exception {
+        final int assets = 20;
+        final DoubleMatrix2D loadings = DoubleFactory2D.dense.make(assets, 2);
+        for (int i = 0; i < assets; ++i) {
+            loadings.setQuick(i, 0, 0.15);
+            loadings.setQuick(i, 1, i % 2 == 0 ? 0.1 : -0.1);
+        }
+        final FactorGeometricBasket basket = new FactorGeometricBasket(
+                DoubleFactory1D.dense.make(assets, 1.0), DoubleFactory1D.dense.make(assets, 0.0),
+                loadings, DoubleFactory1D.dense.make(assets, 0.2));
+        assertEquals(assets + 2, basket.getNoiseDimension());
+
+        // matrix engine draws k + d variates per step
+        final PathGenerator generator = new SimplePathGenerator(basket, 3, 1.0,
+                new GaussianRandomGenerator(new MersenneTwister(23)));
+        final int samples = 50000;
+        double m0 = 0.0, m1 = 0.0, m2 = 0.0, c01 = 0.0, c02 = 0.0, v0 = 0.0;
+        for (int n = 0; n < samples; ++n) {
+            final DoubleMatrix1D last = generator.next().getValues(2);
+            final double r0 = FastMath.log(last.getQuick(0));
+            final double r1 = FastMath.log(last.getQuick(1));
+            final double r2 = FastMath.log(last.getQuick(2));
+            m0 += r0 / samples;
+            m1 += r1 / samples;
+            m2 += r2 / samples;
+            v0 += r0 * r0 / samples;
+            c01 += r0 * r1 / samples;
+            c02 += r0 * r2 / samples;
+        }
+
+        // horizon 2/3, variance 0.0225 + 0.01 + 0.04
+        final double t = 2.0 / 3.0;
+        assertEquals(-0.5 * 0.0725 * t, m0, 0.003);
+        assertEquals(0.0725 * t, v0 - m0 * m0, 0.002);
+        assertEquals((0.0225 - 0.01) * t, c01 - m0 * m1, 0.002);
+        assertEquals((0.0225 + 0.01) * t, c02 - m0 * m2, 0.002);
+    }
+}
@@ -0,0 +1,46 @@
+package cz.paulrz.montecarlo.tests;
+
+import org.apache.commons.math.complex.Complex;
+import org.apache.commons.math.util.FastMath;
+
+/**
+ * Semi-analytic Heston call price for checking simulation schemes. Lewis
+ * single integral over the characteristic function of log(S_T/S_0) - rT
+ * in the rotation-free form of Albrecher et al.
+ */
+final class HestonReference {
+    private HestonReference() {
+    }
+
+    static double call(double r, double s0, double v0, double kappa, double theta,
+                       double sigma, double rho, double strike, double t) {
+        final double k = FastMath.log(s0 / strike) + r * t;
+        final int n = 20000;
+        final double h = 200.0 / n;
+        double integral = 0.0;
+        for (int j = 0; j < n; ++j) {
+            final double u = (j + 0.5) * h;
+            final Complex phi = characteristic(new Complex(u, -0.5), v0, kappa, theta, sigma, rho, t);
+            final Complex value = new Complex(0.0, u * k).exp().multiply(phi);
+            integral += value.getReal() / (u * u + 0.25) * h;
+        }
+        return s0 - FastMath.sqrt(s0 * strike) * FastMath.exp(-0.5 * r * t) * integral / FastMath.PI;
+    }
+
+    private static Complex characteristic(Complex u, double v0, double kappa, double theta,
+                                          double sigma, double rho, double t) {
+        final Complex iu = Complex.I.multiply(u);
+        final Complex beta = new Complex(kappa, 0.0).subtract(iu.multiply(rho * sigma));
+        final Complex d = beta.multiply(beta).add(iu.add(u.multiply(u)).multiply(sigma * sigma)).sqrt();
+        final Complex g = beta.subtract(d).divide(beta.add(d));
+        final Complex edt = d.multiply(-t).exp();
+        final Complex one = Complex.ONE;
+
+        final Complex c = beta.subtract(d).multiply(t)
+                .subtract(one.subtract(g.multiply(edt)).divide(one.subtract(g)).log().multiply(2.0))
+                .multiply(kappa * theta / (sigma * sigma));
+        final Complex dd = beta.subtract(d).multiply(1.0 / (sigma * sigma))
+                .multiply(one.subtract(edt).divide(one.subtract(g.multiply(edt))));
+        return c.add(dd.multiply(v0)).exp();
+    }
+}
@@ -0,0 +1,108 @@
+package cz.paulrz.montecarlo.tests;
+
+import cz.paulrz.montecarlo.accumulator.SimpleAccumulator;
+import cz.paulrz.montecarlo.multi.*;
+import junit.framework.TestCase;
+import org.apache.commons.math.random.GaussianRandomGenerator;
+import org.apache.commons.math.random.MersenneTwister;
+
+public class HestonSchemesTest extends TestCase {
+    // Feller condition fails, 2*kappa*theta = 0.04 < sigma^2 = 1
+    private static final double r = 0.0, s0 = 100.0, v0 = 0.04, kappa = 0.5, theta = 0.04,
+            sigma = 1.0, rho = -0.9, strike = 100.0;
+
+    private static FlatPathValuation<Double> call(final double strike) {
+        return new FlatPathValuation<Double>() {
+            public Double value(FlatPath path) {
+                return Math.max(path.getValue(path.getLength() - 1, 0) - strike, 0.0);
+            }
+        };
+    }
+
+    private static SimpleAccumulator simulate(HestonProcess heston, int points, double duration,
+                                              FlatPathValuation<Double> valuation, int samples) throws Exception {
+        final SimpleAccumulator summary = new SimpleAccumulator();
+        new FlatMonteCarloModel<Double>(new GaussianRandomGenerator(new MersenneTwister(29)), heston,
+                duration, points, valuation, summary, true).addSamples(samples);
+        return summary;
+    }
+
+    public void testReferencePriceOfBlackScholesLimit() {
+        // tiny vol of vol, variance stays at theta = 0.04, BS price 7.9656
+        assertEquals(7.9656, HestonReference.call(0.0, 100.0, 0.04, 1.0, 0.04, 1e-4, 0.0, 100.0, 1.0), 1e-3);
+    }
+
+    public void testQeMatchesReferenceOnMonthlyGrid() throws Exception {
+        assertFalse(new HestonProcess(r, s0, v0, kappa, theta, sigma, rho).isStrictlyPositive());
+        final HestonProcess qe = new HestonProcess(r, s0, v0, kappa, theta, sigma, rho,
+                new QuadraticExponentialDiscretization());
+
+        // 13 points, 12 monthly steps, horizon 12/13 of the duration
+        final double duration = 13.0 / 12.0;
+        final double expected = HestonReference.call(r, s0, v0, kappa, theta, sigma, rho, strike, 1.0);
+
+        final SimpleAccumulator price = simulate(qe, 13, duration, call(strike), 20000);
+        final double error = price.stats.getStandardDeviation() / Math.sqrt(price.stats.getN());
+        assertEquals(expected, price.stats.getMean(), 4.0 * error);
+
+        // discounted price is a martingale, variance is never negative
+        final SimpleAccumulator forward = simulate(qe, 13, duration, new FlatPathValuation<Double>() {
+            public Double value(FlatPath path) {
+                for (int i = 0; i < path.getLength(); ++i)
+                    assertTrue(path.getValue(i, 1) >= 0.0);
+                return path.getValue(path.getLength() - 1, 0);
+            }
+        }, 20000);
+        assertEquals(s0, forward.stats.getMean(), 0.5);
+    }
+
+    public void testExactTerminalMatchesReference() throws Exception {
+        final double rate = 0.03;
+        final HestonProcess heston = new HestonProcess(rate, s0, v0, kappa, theta, sigma, rho);
+        final double expected = HestonReference.call(rate, s0, v0, kappa, theta, sigma, rho, strike, 1.0);
+
+        // 13 points of the replaced path, the terminal point is at t = 1
+        final HestonTerminalGenerator generator = new HestonTerminalGenerator(heston, 13, 13.0 / 12.0,
+                new GaussianRandomGenerator(new MersenneTwister(31)));
+        assertEquals(1.0, generator.getHorizon(), 1e-12);
+
+        final SimpleAccumulator price = new SimpleAccumulator();
+        final SimpleAccumulator forward = new SimpleAccumulator();
+        final SimpleAccumulator variance = new SimpleAccumulator();
+        new MonteCarloModel<Double>(generator, new PathValuation<Double>() {
+            public Double value(Path path) {
+                final double s = path.getValues(1).getQuick(0);
+                final double v = path.getValues(1).getQuick(1);
+                assertTrue(v >= 0.0);
+                forward.addValue(s);
+                variance.addValue(v);
+                return Math.exp(-rate) * Math.max(s - strike, 0.0);
+            }
+        }, price).addSamples(20000);
+
+        final double error = price.stats.getStandardDeviation() / Math.sqrt(price.stats.getN());
+        assertEquals(expected, price.stats.getMean(), 4.0 * error);
+        assertEquals(s0 * Math.exp(rate), forward.stats.getMean(),
+                4.0 * forward.stats.getStandardDeviation() / Math.sqrt(forward.stats.getN()));
+        assertEquals(theta + (v0 - theta) * Math.exp(-kappa), variance.stats.getMean(),
+                4.0 * variance.stats.getStandardDeviation() / Math.sqrt(variance.stats.getN()));
+    }
+
+    public void testExactTerminalMatchesReferenceWithFellerCondition() throws Exception {
+        // 2*kappa*theta = 0.18 > sigma^2 = 0.09, many Bessel terms
+        final HestonProcess heston = new HestonProcess(0.0, s0, 0.09, 1.5, 0.06, 0.3, -0.5);
+        final double expected = HestonReference.call(0.0, s0, 0.09, 1.5, 0.06, 0.3, -0.5, 110.0, 0.5);
+
+        final HestonTerminalGenerator generator = new HestonTerminalGenerator(heston, 2, 1.0,
+                new GaussianRandomGenerator(new MersenneTwister(37)));
+        final SimpleAccumulator price = new SimpleAccumulator();
+        final double[] terminal = new double[2];
+        for (int i = 0; i < 20000; ++i) {
+            generator.nextInto(terminal);
+            price.addValue(Math.max(terminal[0] - 110.0, 0.0));
+        }
+
+        final double error = price.stats.getStandardDeviation() / Math.sqrt(price.stats.getN());
+        assertEquals(expected, price.stats.getMean(), 4.0 * error);
+    }
+}
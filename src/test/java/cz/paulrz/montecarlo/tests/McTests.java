@@ -6,6 +6,7 @@ import cz.paulrz.montecarlo.single.*;
 import cz.paulrz.montecarlo.accumulator.SimpleAccumulator;
 import junit.framework.TestCase;
 import org.apache.commons.math.MathException;
+import org.apache.commons.math.exception.OutOfRangeException;
 import org.apache.commons.math.random.NormalizedRandomGenerator;
 
 /**
@@ -30,6 +31,8 @@ public class McTests extends TestCase {
         // mean should be 1.0, and stddev = sqrt(e-1)
         process = new GeometricBrownianMotionProcess(1.0, 0.0, expectedStdDev);
         LogArrivedPointValuation apv = new LogArrivedPointValuation();
+        // Euler discretization, the paths are stepped
+        assertFalse(TerminalSampler1D.supports(process, apv));
         summary = new SimpleAccumulator();
         NormalizedRandomGenerator nrg = new FastGaussianRandomGenerator();
         mcm = new MonteCarloModel<Double>(nrg, process, 1.0, 100, apv, summary, true, false);
@@ -75,4 +78,48 @@ public class McTests extends TestCase {
         assertEquals(expectedStdDev, stddev, 0.02);
     }
 
+
+    public void testNextIntoChecksLength() throws MathException {
+        final PathGenerator1D generator = new AntitheticPathGenerator1D(process, 100, 1.0,
+                new FastGaussianRandomGenerator());
+        try {
+            generator.nextInto(new Path(50, 0.01));
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        final Path path = new Path(100, 0.01);
+        generator.nextInto(path);
+        try {
+            path.addValue(1.0);
+            fail();
+        } catch (OutOfRangeException e) {
+            // path is complete
+        }
+    }
+
+    public void testDefaultNextIntoCopiesNext() throws MathException {
+        final Path generated = new Path(3, 0.5);
+        generated.addValue(1.0);
+        generated.addValue(2.0);
+        generated.addValue(3.0);
+        // generator written against the original interface
+        final PathGenerator1D generator = new PathGenerator1D() {
+            public Path next() {
+                return generated;
+            }
+        };
+
+        final Path path = new Path(3, 0.5);
+        generator.nextInto(path);
+        assertNotSame(generated.getValues(), path.getValues());
+        assertEquals(2.0, path.getValues()[1]);
+        try {
+            path.addValue(1.0);
+            fail();
+        } catch (OutOfRangeException e) {
+            // path is complete
+        }
+    }
 }
@@ -0,0 +1,84 @@
+package cz.paulrz.montecarlo.tests;
+
+import cern.colt.matrix.DoubleFactory1D;
+import cern.colt.matrix.DoubleFactory2D;
+import cz.paulrz.montecarlo.multi.*;
+import junit.framework.TestCase;
+import org.apache.commons.math.MathException;
+import org.apache.commons.math.random.GaussianRandomGenerator;
+import org.apache.commons.math.random.MersenneTwister;
+import org.apache.commons.math.random.NormalizedRandomGenerator;
+import org.apache.commons.math.stat.descriptive.SummaryStatistics;
+
+public class MultiAntitheticTest extends TestCase {
+    private static final int steps = 16;
+
+    private static final class Negated implements NormalizedRandomGenerator {
+        private final NormalizedRandomGenerator generator;
+
+        Negated(NormalizedRandomGenerator generator) {
+            this.generator = generator;
+        }
+
+        public double nextNormalizedDouble() {
+            return -generator.nextNormalizedDouble();
+        }
+    }
+
+    public void testSecondPathUsesItsOwnState() throws MathException {
+        final HestonProcess process = new HestonProcess(0.02, 1.0, 0.04, 1.5, 0.04, 0.3, -0.7);
+        final PathGenerator antithetic = new AntitheticPathGenerator(process, steps, 1.0,
+                new GaussianRandomGenerator(new MersenneTwister(17)));
+        final PathGenerator primary = new SimplePathGenerator(process, steps, 1.0,
+                new GaussianRandomGenerator(new MersenneTwister(17)));
+        final PathGenerator negated = new SimplePathGenerator(process, steps, 1.0,
+                new Negated(new GaussianRandomGenerator(new MersenneTwister(17))));
+
+        for (int n = 0; n < 3; ++n) {
+            final Path first = antithetic.next();
+            final Path second = antithetic.next();
+            final Path expectedFirst = primary.next();
+            final Path expectedSecond = negated.next();
+            for (int i = 0; i < steps; ++i)
+                for (int f = 0; f < 2; ++f) {
+                    assertEquals(expectedFirst.getValues(i).getQuick(f), first.getValues(i).getQuick(f), 1e-12);
+                    assertEquals(expectedSecond.getValues(i).getQuick(f), second.getValues(i).getQuick(f), 1e-12);
+                }
+        }
+    }
+
+    public void testBridgedPairsAreExact() {
+        final double mu = 0.05;
+        final double vol = 0.3;
+        final GeometricBrownianBasket basket = new GeometricBrownianBasket(
+                DoubleFactory1D.dense.make(new double[] {1.0, 2.0}),
+                DoubleFactory1D.dense.make(new double[] {mu, mu}),
+                DoubleFactory1D.dense.make(new double[] {vol, vol}),
+                DoubleFactory2D.dense.make(new double[][] { {1.0, 0.5}, {0.5, 1.0} }));
+        final FlatPathGenerator generator = new FlatPathGenerator(basket, steps, 1.0,
+                new GaussianRandomGenerator(new MersenneTwister(19)), true, true);
+        assertTrue(generator.isAntithetic() && generator.isBridged());
+
+        final FlatPath first = new FlatPath(2, steps, 1.0 / steps);
+        final FlatPath second = new FlatPath(2, steps, 1.0 / steps);
+        final SummaryStatistics terminal = new SummaryStatistics();
+        final SummaryStatistics middle = new SummaryStatistics();
+        final double t = (steps - 1.0) / steps;
+        final double drift = (mu - 0.5 * vol * vol) * t;
+        for (int n = 0; n < 20000; ++n) {
+            generator.nextInto(first);
+            generator.nextInto(second);
+
+            // log-exact steps, the pair is symmetric around the drift at every point
+            final double a = Math.log(first.getValue(steps - 1, 1) / 2.0);
+            final double b = Math.log(second.getValue(steps - 1, 1) / 2.0);
+            assertEquals(2.0 * drift, a + b, 1e-12);
+            terminal.addValue(a);
+            middle.addValue(Math.log(first.getValue(steps / 2, 0)));
+        }
+
+        assertEquals(drift, terminal.getMean(), 4.0 * vol * Math.sqrt(t / 20000));
+        assertEquals(vol * vol * t, terminal.getVariance(), 0.01);
+        assertEquals(vol * vol * 0.5, middle.getVariance(), 0.01);
+    }
+}
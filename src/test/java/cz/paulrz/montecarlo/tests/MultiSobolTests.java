@@ -0,0 +1,141 @@
+package cz.paulrz.montecarlo.tests;
+
+import cern.colt.matrix.DoubleFactory1D;
+import cern.colt.matrix.DoubleFactory2D;
+import cz.paulrz.montecarlo.accumulator.SimpleAccumulator;
+import cz.paulrz.montecarlo.multi.GeometricBrownianMotion;
+import cz.paulrz.montecarlo.multi.HestonProcess;
+import cz.paulrz.montecarlo.multi.LogArrivedPointValuation;
+import cz.paulrz.montecarlo.multi.MonteCarloModel;
+import cz.paulrz.montecarlo.multi.ParallelMonteCarloModel;
+import cz.paulrz.montecarlo.multi.Path;
+import cz.paulrz.montecarlo.multi.PathValuation;
+import cz.paulrz.montecarlo.multi.PcaPathConstruction;
+import cz.paulrz.montecarlo.multi.SobolPathGenerator;
+import cz.paulrz.montecarlo.parallel.CpuPool;
+import junit.framework.TestCase;
+import org.apache.commons.math.util.FastMath;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+public class MultiSobolTests extends TestCase {
+    private GeometricBrownianMotion process;
+
+    // log(x_t/x_0) = (mu-sigma^2/2)*t
+    private final static double expectedMean = -0.5;
+    private final static double expectedStdDev = 1.0;
+
+    public MultiSobolTests() {
+        double[] start = new double[] {1.0, 1.0 };
+        double[] mu    = new double[] {0.0, 0.0 };
+        double[][] sigma = new double[][] { {1.0, 0.0}, {0.0, 1.0} };
+
+        process = new GeometricBrownianMotion(DoubleFactory1D.dense.make(start),
+                DoubleFactory1D.dense.make(mu), DoubleFactory2D.dense.make(sigma));
+    }
+
+    public void testBridgedGbm() throws Exception {
+        SimpleAccumulator summary = new SimpleAccumulator();
+        MonteCarloModel<Double> mcm = new MonteCarloModel<Double>(process, 1.0, 64,
+                new LogArrivedPointValuation(1), summary, true);
+        mcm.addSamples(4095);
+
+        assertEquals(expectedMean, summary.stats.getMean(), 0.01);
+        assertEquals(expectedStdDev, summary.stats.getStandardDeviation(), 0.01);
+    }
+
+    public void testBridgedHestonBeyondSobolDimension() throws Exception {
+        // 2 * 199 dimensions, the tail is pseudo random
+        HestonProcess heston = new HestonProcess(0.0, 1.0, 0.04, 1.0, 0.04, 0.2, -0.5);
+        SimpleAccumulator summary = new SimpleAccumulator();
+        MonteCarloModel<Double> mcm = new MonteCarloModel<Double>(heston, 1.0, 200,
+                new LogArrivedPointValuation(0), summary, true);
+        mcm.addSamples(4095);
+
+        // E[log S_T] = -E[int v dt]/2 = -0.02 with v0 = theta
+        assertEquals(-0.02, summary.stats.getMean(), 0.005);
+    }
+
+    public void testPcaCorrelatedBasket() throws Exception {
+        // sigma = 0.3 * cholesky of 0.5 correlation
+        final double c = 0.3 * FastMath.sqrt(0.75);
+        double[][] sigma = new double[][] { {0.3, 0.0}, {0.15, c} };
+        GeometricBrownianMotion basket = new GeometricBrownianMotion(
+                DoubleFactory1D.dense.make(new double[] {1.0, 1.0}),
+                DoubleFactory1D.dense.make(new double[] {0.0, 0.0}),
+                DoubleFactory2D.dense.make(sigma));
+
+        SimpleAccumulator summary = new SimpleAccumulator();
+        MonteCarloModel<Double> mcm = new MonteCarloModel<Double>(
+                new SobolPathGenerator(basket, 64, 1.0, basket.getSigma()),
+                new PathValuation<Double>() {
+                    public Double value(Path path) {
+                        final int last = path.getLength() - 1;
+                        final double x = FastMath.log(path.getValues(last).getQuick(0));
+                        final double y = FastMath.log(path.getValues(last).getQuick(1));
+                        return x * y;
+                    }
+                }, summary);
+        mcm.addSamples(4095);
+
+        // horizon is 63/64, E[xy] = cov + means product
+        final double t = 63.0 / 64.0;
+        final double expected = 0.045 * t + 0.045 * 0.045 * t * t;
+        assertEquals(expected, summary.stats.getMean(), 0.002);
+    }
+
+    public void testPcaDecompositionsAreBounded() {
+        final PcaPathConstruction pca = PcaPathConstruction.getInstance(8, 0.1,
+                DoubleFactory2D.dense.identity(2));
+        assertSame(pca, PcaPathConstruction.getInstance(8, 0.1, DoubleFactory2D.dense.identity(2)));
+        for (int n = 1; n <= PcaPathConstruction.cacheSize; ++n)
+            PcaPathConstruction.getInstance(8, 0.1, DoubleFactory2D.dense.diagonal(
+                    DoubleFactory1D.dense.make(2, 1.0 + n)));
+
+        // the least recently used factor was evicted
+        assertNotSame(pca, PcaPathConstruction.getInstance(8, 0.1, DoubleFactory2D.dense.identity(2)));
+    }
+
+    public void testWorkerOffsetsAreDisjoint() throws Exception {
+        final int n = 64;
+        final SobolPathGenerator first = new SobolPathGenerator(process, 16, 1.0, true, 0);
+        final SobolPathGenerator second = new SobolPathGenerator(process, 16, 1.0, true, n);
+        final SobolPathGenerator whole = new SobolPathGenerator(process, 16, 1.0, true);
+
+        final Set<Double> seen = new HashSet<Double>();
+        for (int k = 0; k < n; ++k) {
+            final double value = first.next().getValue(15, 0);
+            assertEquals(value, whole.next().getValue(15, 0), 0.0);
+            assertTrue(seen.add(value));
+        }
+        // the second worker continues the sequence where the first one stops
+        for (int k = 0; k < n; ++k) {
+            final double value = second.next().getValue(15, 0);
+            assertEquals(value, whole.next().getValue(15, 0), 0.0);
+            assertTrue(seen.add(value));
+        }
+    }
+
+    public void testParallelQuasiPathsAreDistinct() throws Exception {
+        final Set<Double> seen = Collections.synchronizedSet(new HashSet<Double>());
+        final PathValuation<Double> valuation = new PathValuation<Double>() {
+            public Double value(Path path) {
+                final double value = path.getValue(path.getLength() - 1, 0);
+                assertTrue("repeated path", seen.add(value));
+                return value;
+            }
+        };
+        final SimpleAccumulator summary = new SimpleAccumulator();
+        final ParallelMonteCarloModel<Double> mcm = new ParallelMonteCarloModel<Double>(null, process,
+                1.0, 16, valuation, summary, false, true);
+
+        // each call and each worker takes new points of the sequence
+        final int samples = 256 * CpuPool.numOfCpu;
+        mcm.addSamples(samples);
+        mcm.addSamples(samples);
+        assertEquals(2 * samples, summary.stats.getN());
+        assertEquals(2 * samples, seen.size());
+    }
+}
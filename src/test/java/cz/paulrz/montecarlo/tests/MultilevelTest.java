@@ -0,0 +1,48 @@
+package cz.paulrz.montecarlo.tests;
+
+import cz.paulrz.montecarlo.mlmc.MultilevelMonteCarloModel;
+import cz.paulrz.montecarlo.multi.HestonProcess;
+import cz.paulrz.montecarlo.multi.MultilevelSampler;
+import cz.paulrz.montecarlo.multi.Path;
+import cz.paulrz.montecarlo.multi.PathValuation;
+import cz.paulrz.montecarlo.random.FastRandomFactory;
+import cz.paulrz.montecarlo.single.ArrivedPointValuation;
+import cz.paulrz.montecarlo.single.GeometricBrownianMotionProcess;
+import cz.paulrz.montecarlo.single.MultilevelSampler1D;
+import junit.framework.TestCase;
+import org.apache.commons.math.MathException;
+import org.apache.commons.math.util.FastMath;
+
+public class MultilevelTest extends TestCase {
+
+    public void testGbmMean() throws MathException {
+        final GeometricBrownianMotionProcess process = new GeometricBrownianMotionProcess(1.0, 0.05, 0.2);
+        final MultilevelMonteCarloModel mlmc = new MultilevelMonteCarloModel(
+                new MultilevelSampler1D(process, 1.0, 2, new ArrivedPointValuation()),
+                new FastRandomFactory(), 10);
+
+        final double eps = 0.002;
+        final double estimate = mlmc.estimate(eps, 1000);
+
+        assertEquals(FastMath.exp(0.05), estimate, 3 * eps);
+        assertTrue(mlmc.getLevels() >= 3);
+        // corrections decay with the level
+        assertTrue(mlmc.getVariance(mlmc.getLevels() - 1) < 0.1 * mlmc.getVariance(0));
+        // coarse levels get most of the samples
+        assertTrue(mlmc.getSamples(0) > mlmc.getSamples(mlmc.getLevels() - 1));
+    }
+
+    public void testHestonForward() throws MathException {
+        final HestonProcess heston = new HestonProcess(0.05, 1.0, 0.04, 1.5, 0.04, 0.3, -0.7);
+        final MultilevelMonteCarloModel mlmc = new MultilevelMonteCarloModel(
+                new MultilevelSampler(heston, 1.0, 2, new PathValuation<Double>() {
+                    public Double value(Path path) {
+                        return path.getValues(path.getLength() - 1).getQuick(0);
+                    }
+                }), new FastRandomFactory(), 8);
+
+        final double estimate = mlmc.estimate(0.002, 1000);
+        assertEquals(FastMath.exp(0.05), estimate, 0.006);
+        assertTrue(mlmc.getStandardError() < 0.002);
+    }
+}
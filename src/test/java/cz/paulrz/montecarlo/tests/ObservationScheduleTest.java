@@ -0,0 +1,120 @@
+package cz.paulrz.montecarlo.tests;
+
+import cern.colt.matrix.DoubleFactory1D;
+import cern.colt.matrix.DoubleFactory2D;
+import cz.paulrz.montecarlo.accumulator.SimpleAccumulator;
+import cz.paulrz.montecarlo.multi.AntitheticPathGenerator;
+import cz.paulrz.montecarlo.multi.FlatPathGenerator;
+import cz.paulrz.montecarlo.multi.FlatProcessAdapter;
+import cz.paulrz.montecarlo.multi.GeometricBrownianMotion;
+import cz.paulrz.montecarlo.multi.ObservedMonteCarloModel;
+import cz.paulrz.montecarlo.multi.PathGenerator;
+import cz.paulrz.montecarlo.multi.SimplePathGenerator;
+import cz.paulrz.montecarlo.schedule.ObservationSchedule;
+import cz.paulrz.montecarlo.single.*;
+import junit.framework.TestCase;
+import org.apache.commons.math.MathException;
+import org.apache.commons.math.random.GaussianRandomGenerator;
+import org.apache.commons.math.random.MersenneTwister;
+import org.apache.commons.math.util.FastMath;
+
+public class ObservationScheduleTest extends TestCase {
+    private final ObservationSchedule schedule = new ObservationSchedule(new int[] { 0, 10, 25, 40 });
+
+    public void testScheduledMatchesStoredPath() throws MathException {
+        final GeometricBrownianMotionProcess process = new GeometricBrownianMotionProcess(1.0, 0.05, 0.3);
+        final PathGenerator1D stored = new SimplePathGenerator1D(process, 50, 1.0,
+                new GaussianRandomGenerator(new MersenneTwister(7)));
+        final PathGenerator1D streamed = new SimplePathGenerator1D(process, 50, 1.0,
+                new GaussianRandomGenerator(new MersenneTwister(7)));
+
+        final double[][] seen = new double[1][];
+        final ScheduledPathValuation<Double> valuation = new ScheduledPathValuation<Double>(
+                schedule, 1.0 / 50, new ObservedPathValuation<Double>() {
+                    public Double value(ObservedPath path) {
+                        seen[0] = path.getValues().clone();
+                        return path.getValue(path.getLength() - 1);
+                    }
+                });
+        final PathObserver<Double> observer = valuation.newObserver();
+        final Path path = new Path(50, 1.0 / 50);
+
+        for (int i = 0; i < 10; ++i) {
+            stored.nextInto(path);
+            streamed.stream(observer);
+            assertEquals(path.getValues()[40], observer.value(), 0.0);
+            for (int k = 0; k < schedule.size(); ++k)
+                assertEquals(path.getValues()[schedule.getStep(k)], seen[0][k], 0.0);
+        }
+    }
+
+    public void testMultiObservedGbm() throws MathException {
+        final GeometricBrownianMotion process = new GeometricBrownianMotion(
+                DoubleFactory1D.dense.make(new double[] {1.0, 1.0}),
+                DoubleFactory1D.dense.make(new double[] {0.0, 0.0}),
+                DoubleFactory2D.dense.make(new double[][] { {0.3, 0.0}, {0.0, 0.3} }));
+        final cz.paulrz.montecarlo.multi.ObservedPathValuation<Double> valuation =
+                new cz.paulrz.montecarlo.multi.ObservedPathValuation<Double>() {
+                    public Double value(cz.paulrz.montecarlo.multi.ObservedPath path) {
+                        return FastMath.log(path.getValue(path.getLength() - 1, 1));
+                    }
+                };
+
+        // log x at step 40 of 50 has mean -sigma^2/2 * 0.8 and variance sigma^2 * 0.8
+        final double t = 0.8;
+        SimpleAccumulator summary = new SimpleAccumulator();
+        new ObservedMonteCarloModel<Double>(new SimplePathGenerator(process, 50, 1.0,
+                new GaussianRandomGenerator(new MersenneTwister(11))), 2, schedule, 1.0 / 50,
+                valuation, summary).addSamples(20000);
+        assertEquals(-0.045 * t, summary.stats.getMean(), 0.01);
+        assertEquals(0.3 * FastMath.sqrt(t), summary.stats.getStandardDeviation(), 0.01);
+
+        summary = new SimpleAccumulator();
+        new ObservedMonteCarloModel<Double>(new AntitheticPathGenerator(process, 50, 1.0,
+                new GaussianRandomGenerator(new MersenneTwister(11))), 2, schedule, 1.0 / 50,
+                valuation, summary).addSamples(10000);
+        assertEquals(-0.045 * t, summary.stats.getMean(), 0.01);
+        assertEquals(0.3 * FastMath.sqrt(t), summary.stats.getStandardDeviation(), 0.01);
+    }
+
+    public void testDefaultNextObservedCopiesScheduledPoints() throws MathException {
+        final GeometricBrownianMotion process = new GeometricBrownianMotion(
+                DoubleFactory1D.dense.make(new double[] {1.0, 1.0}),
+                DoubleFactory1D.dense.make(new double[] {0.0, 0.0}),
+                DoubleFactory2D.dense.make(new double[][] { {0.3, 0.0}, {0.0, 0.3} }));
+        final SimplePathGenerator simple = new SimplePathGenerator(process, 50, 1.0,
+                new GaussianRandomGenerator(new MersenneTwister(5)));
+        final cz.paulrz.montecarlo.multi.Path[] last = new cz.paulrz.montecarlo.multi.Path[1];
+        // generator written against the original interface
+        final PathGenerator generator = new PathGenerator() {
+            public cz.paulrz.montecarlo.multi.Path next() throws MathException {
+                return last[0] = simple.next();
+            }
+        };
+
+        final cz.paulrz.montecarlo.multi.ObservedPath path =
+                new cz.paulrz.montecarlo.multi.ObservedPath(2, schedule, 1.0 / 50);
+        generator.nextObserved(path);
+        for (int k = 0; k < schedule.size(); ++k)
+            for (int f = 0; f < 2; ++f)
+                assertEquals(last[0].getValue(schedule.getStep(k), f), path.getValue(k, f), 0.0);
+    }
+
+    public void testObservedFlatAntitheticPairs() throws MathException {
+        final GeometricBrownianMotion process = new GeometricBrownianMotion(
+                DoubleFactory1D.dense.make(new double[] {1.0, 1.0}),
+                DoubleFactory1D.dense.make(new double[] {0.0, 0.0}),
+                DoubleFactory2D.dense.make(new double[][] { {0.3, 0.0}, {0.0, 0.3} }));
+        final SimpleAccumulator summary = new SimpleAccumulator();
+        new ObservedMonteCarloModel<Double>(new FlatPathGenerator(FlatProcessAdapter.of(process), 50, 1.0,
+                new GaussianRandomGenerator(new MersenneTwister(11)), true), 2, schedule, 1.0 / 50,
+                new cz.paulrz.montecarlo.multi.ObservedPathValuation<Double>() {
+                    public Double value(cz.paulrz.montecarlo.multi.ObservedPath path) {
+                        return FastMath.log(path.getValue(path.getLength() - 1, 1));
+                    }
+                }, summary).addSamples(1000);
+
+        // both paths of every antithetic pair are valued
+        assertEquals(2000, summary.stats.getN());
+    }
+}
@@ -0,0 +1,175 @@
+package cz.paulrz.montecarlo.tests;
+
+import cern.colt.matrix.DoubleFactory1D;
+import cern.colt.matrix.DoubleFactory2D;
+import cz.paulrz.montecarlo.accumulator.SimpleAccumulator;
+import cz.paulrz.montecarlo.multi.*;
+import junit.framework.TestCase;
+import org.apache.commons.math.MathException;
+import org.apache.commons.math.random.GaussianRandomGenerator;
+import org.apache.commons.math.random.MersenneTwister;
+
+import java.lang.management.ManagementFactory;
+
+public class PathBlockTest extends TestCase {
+    private static final int steps = 16;
+    private static final double mu = 0.05;
+    private static final double vol = 0.3;
+
+    private static GeometricBrownianBasket basket() {
+        return new GeometricBrownianBasket(
+                DoubleFactory1D.dense.make(new double[] {1.0, 2.0}),
+                DoubleFactory1D.dense.make(new double[] {mu, mu}),
+                DoubleFactory1D.dense.make(new double[] {vol, vol}),
+                DoubleFactory2D.dense.make(new double[][] { {1.0, 0.5}, {0.5, 1.0} }));
+    }
+
+    public void testHeapBlock() throws MathException {
+        checkBlock(PathBlocks.allocate(64, 2, steps, 1.0 / steps));
+    }
+
+    public void testChunkedHeapBlock() throws MathException {
+        // five paths per chunk rounded down to four
+        checkBlock(new HeapPathBlock(63, 2, steps, 1.0 / steps, 5 * 2 * steps));
+        checkBlock(new HeapPathBlock(7, 2, steps, 1.0 / steps, 2 * steps));
+    }
+
+    public void testOffHeapBlock() throws MathException {
+        if (!isForeignModuleResolved()) {
+            // default build, the block stays on the heap
+            assertFalse(PathBlocks.isOffHeapAvailable());
+            assertFalse(PathBlocks.setOffHeapEnabled(true));
+            assertTrue(PathBlocks.allocate(4, 2, steps, 1.0 / steps) instanceof HeapPathBlock);
+            return;
+        }
+
+        assertTrue(PathBlocks.isOffHeapAvailable());
+        final boolean enabled = PathBlocks.setOffHeapEnabled(true);
+        try {
+            assertTrue(enabled);
+            final PathBlock block = PathBlocks.allocate(64, 2, steps, 1.0 / steps);
+            assertFalse(block instanceof HeapPathBlock);
+            checkBlock(block);
+        } finally {
+            PathBlocks.setOffHeapEnabled(Boolean.getBoolean(PathBlocks.offHeapProperty));
+        }
+    }
+
+    public void testOffHeapBlockKeepsHeapFlat() {
+        if (!isForeignModuleResolved())
+            return;
+
+        // 10^4 paths of 50 factors and 100 points, 400 MB
+        final int paths = 10000, dim = 50, length = 100;
+        final double[] x = new double[dim];
+        final boolean enabled = PathBlocks.setOffHeapEnabled(true);
+        try {
+            assertTrue(enabled);
+            final long before = allocatedBytes();
+            final PathBlock block = PathBlocks.allocate(paths, dim, length, 1.0 / length);
+            final long allocated = allocatedBytes() - before;
+            assertFalse(block instanceof HeapPathBlock);
+            assertTrue("block allocated " + allocated + " bytes on the heap", allocated < 1 << 16);
+
+            for (int p = 0; p < paths; ++p) {
+                x[0] = p;
+                block.setPoint(p, length - 1, x);
+            }
+            assertEquals(paths - 1.0, block.getPath(paths - 1).getValue(length - 1, 0), 0.0);
+            block.close();
+        } finally {
+            PathBlocks.setOffHeapEnabled(Boolean.getBoolean(PathBlocks.offHeapProperty));
+        }
+    }
+
+    public void testBlockModelKeepsHeapBounded() throws MathException {
+        final SimpleAccumulator summary = new SimpleAccumulator();
+        final PathBlock block = PathBlocks.allocate(256, 2, steps, 1.0 / steps);
+        final BlockMonteCarloModel<Double> model = new BlockMonteCarloModel<Double>(
+                new GaussianRandomGenerator(new MersenneTwister(31)), basket(), 1.0, steps,
+                block, new LogArrivedPointValuation(0), summary, false);
+
+        model.addSamples(1000);
+        final long before = allocatedBytes();
+        model.addSamples(100000);
+        final long perSample = (allocatedBytes() - before) / 100000;
+
+        // the paths stay in the block, a sample allocates less than its path
+        assertSame(block, model.getBlock());
+        assertEquals(101000, summary.stats.getN());
+        assertTrue("sample allocated " + perSample + " bytes", perSample < 2 * steps * 8);
+        block.close();
+    }
+
+    public void testBlockTooLarge() {
+        try {
+            new HeapPathBlock(1, 1 << 16, 1 << 16, 1.0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            new HeapPathBlock(4, 2, steps, 1.0, 2 * steps - 1);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    private static boolean isForeignModuleResolved() {
+        try {
+            Class.forName("jdk.incubator.foreign.MemorySegment");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Bytes allocated by the current thread, counted by the JVM without a GC
+     */
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private void checkBlock(final PathBlock block) throws MathException {
+        final FlatPathGenerator generator = new FlatPathGenerator(basket(), steps, 1.0,
+                new GaussianRandomGenerator(new MersenneTwister(23)), false, false);
+        final FlatPathGenerator reference = new FlatPathGenerator(basket(), steps, 1.0,
+                new GaussianRandomGenerator(new MersenneTwister(23)), false, false);
+        final FlatPath path = new FlatPath(2, steps, 1.0 / steps);
+
+        for (int p = 0; p < block.getPathCount(); ++p)
+            generator.nextInto(block, p);
+        for (int p = 0; p < block.getPathCount(); ++p) {
+            reference.nextInto(path);
+            final PathView view = block.getPath(p);
+            assertEquals(steps, view.getLength());
+            for (int i = 0; i < steps; ++i)
+                for (int f = 0; f < 2; ++f) {
+                    assertEquals(path.getValue(i, f), block.getValue(p, i, f), 0.0);
+                    assertEquals(path.getValue(i, f), view.getValue(i, f), 0.0);
+                }
+        }
+
+        final SimpleAccumulator summary = new SimpleAccumulator();
+        final BlockMonteCarloModel<Double> model = new BlockMonteCarloModel<Double>(
+                new GaussianRandomGenerator(new MersenneTwister(29)), basket(), 1.0, steps,
+                block, new LogArrivedPointValuation(1), summary, true);
+        model.addSamples(10000);
+        assertEquals(20000, summary.stats.getN());
+
+        final double t = (steps - 1.0) / steps;
+        assertEquals((mu - 0.5 * vol * vol) * t, summary.stats.getMean(), 1e-12 + 4.0 * vol * Math.sqrt(t / 20000));
+        assertEquals(vol * vol * t, summary.stats.getVariance(), 0.01);
+
+        // revaluation of the last block
+        final SimpleAccumulator first = new SimpleAccumulator();
+        model.revalue(new LogArrivedPointValuation(0), first);
+        assertEquals(20000 % block.getPathCount() == 0 ? block.getPathCount() : 20000 % block.getPathCount(),
+                first.stats.getN());
+
+        block.close();
+    }
+}
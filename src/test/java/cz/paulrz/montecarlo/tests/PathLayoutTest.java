@@ -0,0 +1,66 @@
+package cz.paulrz.montecarlo.tests;
+
+import cern.colt.matrix.DoubleFactory1D;
+import cz.paulrz.montecarlo.multi.MaxMinCloseValuation;
+import cz.paulrz.montecarlo.multi.Path;
+import cz.paulrz.montecarlo.single.MaxMinClose;
+import junit.framework.TestCase;
+
+public class PathLayoutTest extends TestCase {
+    private static final int dim = 3;
+    private static final int length = 7;
+
+    private static Path fill(boolean columnMajor) {
+        final Path path = new Path(dim, length, 0.1, columnMajor);
+        for (int i = 0; i < length; ++i)
+            path.addValue(DoubleFactory1D.dense.make(new double[] {i, 10.0 + Math.sin(i), 100.0 - i}));
+        return path;
+    }
+
+    public void testLayoutsHoldSameValues() {
+        final Path rows = fill(false);
+        final Path columns = fill(true);
+        assertFalse(rows.isColumnMajor());
+        assertTrue(columns.isColumnMajor());
+        assertEquals(1, rows.getTimeStride());
+        assertEquals(dim, columns.getTimeStride());
+
+        for (final Path path : new Path[] {rows, columns}) {
+            final double[] elements = path.getElements();
+            for (int f = 0; f < dim; ++f) {
+                final double[] row = path.getRow(f);
+                for (int i = 0; i < length; ++i) {
+                    final double expected = rows.getValue(i, f);
+                    assertEquals(expected, columns.getValue(i, f), 0.0);
+                    assertEquals(expected, path.getValues(i).getQuick(f), 0.0);
+                    assertEquals(expected, path.getSeries(f).getQuick(i), 0.0);
+                    assertEquals(expected, row[i], 0.0);
+                    assertEquals(expected, elements[path.index(0, f) + i * path.getTimeStride()], 0.0);
+                    assertEquals(expected, elements[path.index(i, 0) + f * path.getFactorStride()], 0.0);
+                }
+            }
+        }
+    }
+
+    public void testViewsShareElements() {
+        final Path path = fill(true);
+        path.getSeries(1).setQuick(2, -1.0);
+        assertEquals(-1.0, path.getElements()[path.index(2, 1)], 0.0);
+        assertEquals(-1.0, path.getValues(2).getQuick(1), 0.0);
+    }
+
+    public void testMaxMinCloseReadsFirstFactor() {
+        final MaxMinCloseValuation valuation = new MaxMinCloseValuation();
+        for (final boolean columnMajor : new boolean[] {false, true}) {
+            final Path path = new Path(2, 4, 0.25, columnMajor);
+            final double[] first = {1.0, 3.0, -2.0, 0.5};
+            for (int i = 0; i < 4; ++i)
+                path.addValue(DoubleFactory1D.dense.make(new double[] {first[i], 50.0}));
+
+            final MaxMinClose value = valuation.value(path);
+            assertEquals(3.0, value.max, 0.0);
+            assertEquals(-2.0, value.min, 0.0);
+            assertEquals(0.5, value.close, 0.0);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package cz.paulrz.montecarlo.tests;
+
+import cz.paulrz.montecarlo.accumulator.SimpleAccumulator;
+import cz.paulrz.montecarlo.random.FastGaussianRandomGenerator;
+import cz.paulrz.montecarlo.single.ArrivedPointValuation;
+import cz.paulrz.montecarlo.single.GeometricBrownianMotionProcess;
+import cz.paulrz.montecarlo.single.RichardsonMonteCarloModel;
+import junit.framework.TestCase;
+import org.apache.commons.math.MathException;
+import org.apache.commons.math.util.FastMath;
+
+public class RichardsonTest extends TestCase {
+
+    public void testEulerBiasCancels() throws MathException {
+        // Euler mean of GBM is x0 * (1 + mu*dt)^n
+        final GeometricBrownianMotionProcess process = new GeometricBrownianMotionProcess(1.0, 1.0, 0.2);
+        final SimpleAccumulator summary = new SimpleAccumulator();
+        final RichardsonMonteCarloModel mcm = new RichardsonMonteCarloModel(
+                new FastGaussianRandomGenerator(), process, 1.0, 4, new ArrivedPointValuation(), summary);
+        mcm.addSamples(100000);
+
+        final double coarse = FastMath.pow(1.25, 3);
+        final double fine = FastMath.pow(1.125, 6);
+        final double exact = FastMath.exp(0.75);
+        assertEquals(2.0 * fine - coarse, mcm.getEstimate(), 4 * mcm.getStandardError());
+        assertEquals(summary.stats.getMean(), mcm.getEstimate(), 1e-12);
+        assertTrue(FastMath.abs(mcm.getEstimate() - exact) < 0.2 * FastMath.abs(coarse - exact));
+    }
+}
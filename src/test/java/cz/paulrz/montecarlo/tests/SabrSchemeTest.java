@@ -0,0 +1,72 @@
+package cz.paulrz.montecarlo.tests;
+
+import cern.colt.matrix.DoubleFactory1D;
+import cz.paulrz.montecarlo.accumulator.SimpleAccumulator;
+import cz.paulrz.montecarlo.multi.*;
+import junit.framework.TestCase;
+import org.apache.commons.math.random.GaussianRandomGenerator;
+import org.apache.commons.math.random.MersenneTwister;
+
+public class SabrSchemeTest extends TestCase {
+    private static final double[] strikes = {0.03, 0.04, 0.05};
+
+    public void testVolatilityCorrelatedWithItself() {
+        final SabrProcess sabr = new SabrProcess(0.04, 0.05, 0.4, 0.5, -0.3);
+        final double vol = 0.05 * 0.4;
+        final double rho = sabr.diffusion(0.0, DoubleFactory1D.dense.make(new double[] {0.04, 0.05}))
+                .getQuick(1, 0);
+        assertEquals(-0.3 * vol, rho, 1e-15);
+    }
+
+    public void testExactAbsorptionProbability() throws Exception {
+        // vanishing vol of vol, one step of CEV with beta = 1/2 over tau = 0.09
+        final SabProcess sab = new SabProcess(0.01, 0.3, 1e-8, 0.5, new SabrDiscretization());
+        final PathGenerator generator = new SimplePathGenerator(sab, 2, 2.0,
+                new GaussianRandomGenerator(new MersenneTwister(41)));
+
+        int absorbed = 0;
+        final int n = 20000;
+        for (int i = 0; i < n; ++i)
+            if (generator.next().getValues(1).getQuick(0) == 0.0)
+                absorbed++;
+
+        // X = F/(1/2)^2 is squared Bessel of index 1, absorbed with probability exp(-x/(2 tau))
+        final double expected = Math.exp(-0.04 / 0.18);
+        assertEquals(expected, (double) absorbed / n, 4.0 * Math.sqrt(expected * (1 - expected) / n));
+    }
+
+    private static SimpleAccumulator[] simulate(int steps, int seed) throws Exception {
+        final SabrProcess sabr = new SabrProcess(0.04, 0.05, 0.4, 0.5, -0.3, new SabrDiscretization());
+        final PathGenerator generator = new AntitheticPathGenerator(sabr, steps + 1, 2.0 * (steps + 1) / steps,
+                new GaussianRandomGenerator(new MersenneTwister(seed)));
+        final SimpleAccumulator[] result = new SimpleAccumulator[strikes.length + 1];
+        for (int k = 0; k < result.length; ++k)
+            result[k] = new SimpleAccumulator();
+
+        for (int i = 0; i < 20000; ++i) {
+            final double f = generator.next().getValues(steps).getQuick(0);
+            assertTrue(f >= 0.0);
+            for (int k = 0; k < strikes.length; ++k)
+                result[k].addValue(Math.max(f - strikes[k], 0.0));
+            result[strikes.length].addValue(f);
+        }
+        return result;
+    }
+
+    public void testCoarseGridSmile() throws Exception {
+        // two yearly steps against fifty steps to the same horizon
+        final SimpleAccumulator[] coarse = simulate(2, 43);
+        final SimpleAccumulator[] fine = simulate(50, 47);
+
+        for (int k = 0; k <= strikes.length; ++k) {
+            final double error = Math.sqrt(
+                    coarse[k].stats.getVariance() / coarse[k].stats.getN()
+                    + fine[k].stats.getVariance() / fine[k].stats.getN());
+            assertEquals(fine[k].stats.getMean(), coarse[k].stats.getMean(), 4.0 * error);
+        }
+
+        // forward stays a martingale
+        assertEquals(0.04, coarse[strikes.length].stats.getMean(),
+                4.0 * coarse[strikes.length].stats.getStandardDeviation() / Math.sqrt(20000));
+    }
+}
@@ -0,0 +1,57 @@
+package cz.paulrz.montecarlo.tests;
+
+import cern.colt.matrix.DoubleFactory1D;
+import cern.colt.matrix.DoubleFactory2D;
+import cern.colt.matrix.DoubleMatrix1D;
+import cern.colt.matrix.DoubleMatrix2D;
+import cern.colt.matrix.linalg.SeqBlas;
+import cz.paulrz.montecarlo.multi.SizeAwareBlas;
+import cz.paulrz.montecarlo.parallel.CpuPool;
+import junit.framework.TestCase;
+
+import java.util.concurrent.Callable;
+
+public class SizeAwareBlasTest extends TestCase {
+    private final SizeAwareBlas blas = new SizeAwareBlas(4);
+
+    public void testDgemvMatchesSeqBlas() {
+        for (int n = 1; n <= 12; ++n) {
+            for (int t = 0; t < 2; ++t) {
+                final boolean transpose = t == 1;
+                final DoubleMatrix2D a = DoubleFactory2D.dense.random(n, n + (n > 8 ? 3 : 0));
+                final int rows = transpose ? a.columns() : a.rows();
+                final int columns = transpose ? a.rows() : a.columns();
+                final DoubleMatrix1D x = DoubleFactory1D.dense.random(columns);
+                final DoubleMatrix1D y = DoubleFactory1D.dense.random(rows);
+                final DoubleMatrix1D expected = y.copy();
+
+                SeqBlas.seqBlas.dgemv(transpose, 0.7, a, x, 0.3, expected);
+                blas.dgemv(transpose, 0.7, a, x, 0.3, y);
+                for (int i = 0; i < rows; ++i)
+                    assertEquals(expected.getQuick(i), y.getQuick(i), 1e-12);
+            }
+        }
+    }
+
+    public void testDgemmMatchesSeqBlas() {
+        final DoubleMatrix2D a = DoubleFactory2D.dense.random(70, 90);
+        final DoubleMatrix2D b = DoubleFactory2D.dense.random(70, 5);
+        final DoubleMatrix2D c = DoubleFactory2D.dense.random(90, 5);
+        final DoubleMatrix2D expected = c.copy();
+
+        SeqBlas.seqBlas.dgemm(true, false, 1.5, a, b, -0.5, expected);
+        blas.dgemm(true, false, 1.5, a, b, -0.5, c);
+        for (int i = 0; i < c.rows(); ++i)
+            for (int j = 0; j < c.columns(); ++j)
+                assertEquals(expected.getQuick(i, j), c.getQuick(i, j), 1e-10);
+    }
+
+    public void testWorkersAreRecognized() throws Exception {
+        assertFalse(CpuPool.isWorkerThread());
+        assertTrue(CpuPool.executorService.submit(new Callable<Boolean>() {
+            public Boolean call() {
+                return CpuPool.isWorkerThread();
+            }
+        }).get());
+    }
+}
@@ -0,0 +1,94 @@
+package cz.paulrz.montecarlo.tests;
+
+import cz.paulrz.montecarlo.accumulator.SimpleAccumulator;
+import cz.paulrz.montecarlo.single.*;
+import junit.framework.TestCase;
+import org.apache.commons.math.MathException;
+import org.apache.commons.math.random.GaussianRandomGenerator;
+import org.apache.commons.math.random.MersenneTwister;
+
+public class StreamingValuationTest extends TestCase {
+
+    public void testStreamingMatchesStoredPath() throws MathException {
+        final GeometricBrownianMotionProcess process = new GeometricBrownianMotionProcess(1.0, 0.05, 0.3);
+        final PathGenerator1D stored = new AntitheticPathGenerator1D(process, 50, 1.0,
+                new GaussianRandomGenerator(new MersenneTwister(42)));
+        final PathGenerator1D streamed = new AntitheticPathGenerator1D(process, 50, 1.0,
+                new GaussianRandomGenerator(new MersenneTwister(42)));
+
+        final MaxMinCloseValuation valuation = new MaxMinCloseValuation();
+        final PathObserver<MaxMinClose> observer = valuation.newObserver();
+        final Path path = new Path(50, 1.0 / 50);
+
+        for (int i = 0; i < 10; ++i) {
+            stored.nextInto(path);
+            streamed.stream(observer);
+
+            final MaxMinClose expected = valuation.value(path);
+            final MaxMinClose actual = observer.value();
+            assertEquals(expected.max, actual.max, 0.0);
+            assertEquals(expected.min, actual.min, 0.0);
+            assertEquals(expected.close, actual.close, 0.0);
+        }
+    }
+
+    public void testDefaultStreamPassesPointsOfNext() throws MathException {
+        final Path generated = new Path(4, 0.25);
+        generated.addValue(1.0);
+        generated.addValue(3.0);
+        generated.addValue(0.5);
+        generated.addValue(2.0);
+        // generator written against the original interface
+        final PathGenerator1D generator = new PathGenerator1D() {
+            public Path next() {
+                return generated;
+            }
+        };
+
+        final PathObserver<MaxMinClose> observer = new MaxMinCloseValuation().newObserver();
+        generator.stream(observer);
+        assertEquals(3.0, observer.value().max, 0.0);
+        assertEquals(0.5, observer.value().min, 0.0);
+        assertEquals(2.0, observer.value().close, 0.0);
+
+        // done at the second point, the rest is not observed
+        final StoppablePathObserver<Integer> stopped = new StoppablePathObserver<Integer>() {
+            private int count;
+
+            public boolean isDone() {
+                return count == 2;
+            }
+
+            public void start(final double x0) {
+                count = 1;
+            }
+
+            public void observe(final double x) {
+                ++count;
+            }
+
+            public Integer value() {
+                return count;
+            }
+        };
+        generator.stream(stopped);
+        assertEquals(2, stopped.value().intValue());
+    }
+
+    public void testSubclassOverridingValueIsNotStreamed() throws MathException {
+        assertTrue(StreamingPathValuation.streams(new ArrivedPointValuation()));
+        final ArrivedPointValuation first = new ArrivedPointValuation() {
+            @Override
+            public Double value(final Path path) {
+                return path.getValues()[0];
+            }
+        };
+        assertFalse(StreamingPathValuation.streams(first));
+
+        final SimpleAccumulator summary = new SimpleAccumulator();
+        new MonteCarloModel<Double>(new AntitheticPathGenerator1D(new GeometricBrownianMotionProcess(1.0, 0.05, 0.3),
+                50, 1.0, new GaussianRandomGenerator(new MersenneTwister(42))), 1.0, 50, first, summary)
+                .addSamples(100);
+        assertEquals(1.0, summary.stats.getMean(), 0.0);
+    }
+}
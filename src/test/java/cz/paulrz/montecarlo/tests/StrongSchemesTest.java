@@ -0,0 +1,130 @@
+package cz.paulrz.montecarlo.tests;
+
+import cern.colt.matrix.DoubleFactory1D;
+import cern.colt.matrix.DoubleFactory2D;
+import cern.colt.matrix.DoubleMatrix1D;
+import cz.paulrz.montecarlo.multi.GeometricBrownianMotion;
+import cz.paulrz.montecarlo.random.BrownianBridge;
+import cz.paulrz.montecarlo.random.FastGaussianRandomGenerator;
+import cz.paulrz.montecarlo.single.*;
+import junit.framework.TestCase;
+import org.apache.commons.math.FunctionEvaluationException;
+import org.apache.commons.math.MathException;
+import org.apache.commons.math.random.GaussianRandomGenerator;
+import org.apache.commons.math.random.MersenneTwister;
+import org.apache.commons.math.random.NormalizedRandomGenerator;
+import org.apache.commons.math.util.FastMath;
+
+/**
+ * Strong errors against the exact GBM solution on the same Brownian path
+ */
+public class StrongSchemesTest extends TestCase {
+    private static final double mu = 0.1;
+    private static final double sigma = 0.8;
+    private static final int steps = 16;
+    private static final int samples = 20000;
+
+    private double strongError(Discretization d) throws MathException {
+        final GeometricBrownianMotionProcess process = new GeometricBrownianMotionProcess(1.0, mu, sigma, d);
+        final NormalizedRandomGenerator random = new FastGaussianRandomGenerator();
+        final double dt = 1.0 / steps;
+        double error = 0.0;
+
+        for (int s = 0; s < samples; ++s) {
+            double x = 1.0;
+            double w = 0.0;
+            for (int i = 0; i < steps; ++i) {
+                final double dw = random.nextNormalizedDouble();
+                x = process.evolve(i * dt, x, dt, dw, random.nextNormalizedDouble());
+                w += FastMath.sqrt(dt) * dw;
+            }
+            error += FastMath.abs(x - FastMath.exp((mu - 0.5 * sigma * sigma) + sigma * w));
+        }
+        return error / samples;
+    }
+
+    public void testSingleSchemesOrder() throws MathException {
+        final double euler = strongError(new EulerDiscretization());
+        final double milstein = strongError(new MilsteinDiscretization());
+        final double taylor = strongError(new StrongOrder15Discretization());
+
+        assertTrue(milstein < 0.5 * euler);
+        assertTrue(taylor < 0.5 * milstein);
+        assertEquals(0.0, strongError(new ExactDiscretization()), 1e-12);
+    }
+
+    public void testMultiMilsteinCommutativeNoise() {
+        final DoubleMatrix1D x0 = DoubleFactory1D.dense.make(new double[] {1.0, 1.0});
+        final DoubleMatrix1D drift = DoubleFactory1D.dense.make(new double[] {mu, mu});
+        final double[][] s = new double[][] { {sigma, 0.0}, {0.0, sigma} };
+        final GeometricBrownianMotion euler = new GeometricBrownianMotion(x0, drift,
+                DoubleFactory2D.dense.make(s));
+        final GeometricBrownianMotion milstein = new GeometricBrownianMotion(x0, drift,
+                DoubleFactory2D.dense.make(s), new cz.paulrz.montecarlo.multi.MilsteinDiscretization());
+        final NormalizedRandomGenerator random = new FastGaussianRandomGenerator();
+        final double dt = 1.0 / steps;
+        double eulerError = 0.0;
+        double milsteinError = 0.0;
+
+        for (int n = 0; n < samples / 4; ++n) {
+            DoubleMatrix1D xe = x0;
+            DoubleMatrix1D xm = x0;
+            double w = 0.0;
+            for (int i = 0; i < steps; ++i) {
+                final DoubleMatrix1D dw = DoubleFactory1D.dense.make(new double[] {
+                        random.nextNormalizedDouble(), random.nextNormalizedDouble() });
+                xe = euler.evolveMatrix(i * dt, xe, dt, dw);
+                xm = milstein.evolveMatrix(i * dt, xm, dt, dw);
+                w += FastMath.sqrt(dt) * dw.getQuick(1);
+            }
+            final double exact = FastMath.exp((mu - 0.5 * sigma * sigma) + sigma * w);
+            eulerError += FastMath.abs(xe.getQuick(1) - exact);
+            milsteinError += FastMath.abs(xm.getQuick(1) - exact);
+        }
+
+        assertTrue(milsteinError < 0.5 * eulerError);
+    }
+
+    public void testBridgedPathsSupplySecondVariate() throws Exception {
+        final GeometricBrownianMotionProcess process = new GeometricBrownianMotionProcess(1.0, mu, sigma,
+                new StrongOrder15Discretization());
+        final double dt = 1.0 / steps;
+        final Path path = new BridgedPathGenerator1D(process, steps, 1.0,
+                new GaussianRandomGenerator(new MersenneTwister(5))).next();
+
+        // bridged increments first, then one independent second variate per step
+        final NormalizedRandomGenerator random = new GaussianRandomGenerator(new MersenneTwister(5));
+        final double[] variates = new double[steps];
+        for (int i = 1; i < steps; ++i)
+            variates[i] = random.nextNormalizedDouble();
+        final double[] dw = BrownianBridge.getInstance(steps, dt).transform(variates);
+        double x = 1.0;
+        for (int i = 1; i < steps; ++i) {
+            x = process.evolve((i - 1) * dt, x, dt, dw[i], random.nextNormalizedDouble());
+            assertEquals(x, path.getValues()[i], 1e-12);
+        }
+
+        try {
+            new SobolPathGenerator1D(process, steps, 1.0, true);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // Sobol paths have no second variate
+        }
+    }
+
+    public void testDefaultEvolveIsEuler() throws MathException {
+        final Discretization d = new Discretization() {
+            public double drift(StochasticProcess1D process, double t, double x, double dt)
+                    throws FunctionEvaluationException {
+                return process.drift(t, x) * dt;
+            }
+
+            public double diffusion(StochasticProcess1D process, double t, double x, double dt)
+                    throws FunctionEvaluationException {
+                return process.diffusion(t, x) * FastMath.sqrt(dt);
+            }
+        };
+        final GeometricBrownianMotionProcess process = new GeometricBrownianMotionProcess(1.0, mu, sigma, d);
+        assertEquals(1.0 + mu * 0.25 + sigma * 0.5 * 0.3, process.evolve(0.0, 1.0, 0.25, 0.3), 1e-12);
+    }
+}
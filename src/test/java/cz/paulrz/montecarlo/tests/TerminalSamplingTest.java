@@ -0,0 +1,98 @@
+package cz.paulrz.montecarlo.tests;
+
+import cz.paulrz.montecarlo.accumulator.SimpleAccumulator;
+import cz.paulrz.montecarlo.random.FastGaussianRandomGenerator;
+import cz.paulrz.montecarlo.single.*;
+import junit.framework.TestCase;
+import org.apache.commons.math.MathException;
+import org.apache.commons.math.util.FastMath;
+
+public class TerminalSamplingTest extends TestCase {
+
+    public void testOuTerminalDistribution() throws MathException {
+        final double theta = 2.0, mu = 1.0, sigma = 0.5;
+        final OrnsteinUhlenbeckProcess process = new OrnsteinUhlenbeckProcess(0.0, theta, mu, sigma,
+                new ExactDiscretization());
+        assertTrue(TerminalSampler1D.supports(process, new ArrivedPointValuation()));
+
+        final SimpleAccumulator summary = new SimpleAccumulator();
+        new MonteCarloModel<Double>(new FastGaussianRandomGenerator(), process, 1.0, 10,
+                new ArrivedPointValuation(), summary, true, false).addSamples(100000);
+
+        // horizon is 9/10, far too coarse for Euler
+        final double t = 0.9;
+        final double mean = mu * (1.0 - FastMath.exp(-theta * t));
+        final double var = sigma * sigma * (1.0 - FastMath.exp(-2.0 * theta * t)) / (2.0 * theta);
+        assertEquals(mean, summary.stats.getMean(), 0.005);
+        assertEquals(FastMath.sqrt(var), summary.stats.getStandardDeviation(), 0.005);
+    }
+
+    public void testTerminalSamplingNeedsExactDiscretization() throws MathException {
+        final double theta = 2.0, mu = 1.0, sigma = 0.5;
+        final ArrivedPointValuation valuation = new ArrivedPointValuation();
+        assertFalse(TerminalSampler1D.supports(new GeometricBrownianMotionProcess(1.0, 0.1, 0.4), valuation));
+        assertFalse(TerminalSampler1D.supports(new GeometricBrownianMotionProcess(1.0, 0.1, 0.4,
+                new MilsteinDiscretization()), valuation));
+        assertTrue(TerminalSampler1D.supports(new GeometricBrownianMotionProcess(1.0, 0.1, 0.4,
+                new ExactDiscretization()), valuation));
+
+        // a subclass with other dynamics keeps stepping its paths
+        final OrnsteinUhlenbeckProcess shifted = new OrnsteinUhlenbeckProcess(0.0, theta, mu, sigma,
+                new ExactDiscretization()) {
+            @Override
+            public double drift(double t, double x) {
+                return super.drift(t, x) + 1.0;
+            }
+        };
+        assertFalse(TerminalSampler1D.supports(shifted, valuation));
+        assertFalse(TerminalSampler1D.supports(new GeometricBrownianMotionProcess(1.0, 0.1, 0.4,
+                new ExactDiscretization()), new ArrivedPointValuation() {
+            @Override
+            public Double value(final Path path) {
+                return path.getValues()[0];
+            }
+        }));
+
+        // Euler keeps its bias on the coarse grid, E[X] = mu*(1 - (1 - theta*dt)^9)
+        final SimpleAccumulator summary = new SimpleAccumulator();
+        new MonteCarloModel<Double>(new FastGaussianRandomGenerator(),
+                new OrnsteinUhlenbeckProcess(0.0, theta, mu, sigma), 1.0, 10,
+                valuation, summary, true, false).addSamples(100000);
+        assertEquals(mu * (1.0 - FastMath.pow(1.0 - theta * 0.1, 9)), summary.stats.getMean(), 0.005);
+    }
+
+    public void testTerminalMatchesFullPaths() throws Exception {
+        final GeometricBrownianMotionProcess process = new GeometricBrownianMotionProcess(1.0, 0.1, 0.4,
+                new ExactDiscretization());
+        final SimpleAccumulator terminal = new SimpleAccumulator();
+        SingleMcFactory.createSobolMc(process, 1.0, 50, new LogArrivedPointValuation(), terminal)
+                .addSamples(4095);
+
+        // not a terminal valuation, the model steps whole paths
+        final SimpleAccumulator paths = new SimpleAccumulator();
+        final LogArrivedPointValuation log = new LogArrivedPointValuation();
+        SingleMcFactory.createSobolMc(process, 1.0, 50, new PathValuation<Double>() {
+            public Double value(Path path) {
+                return log.value(path);
+            }
+        }, paths).addSamples(4095);
+
+        final double t = 49.0 / 50.0;
+        assertEquals((0.1 - 0.08) * t, terminal.stats.getMean(), 0.002);
+        assertEquals(0.4 * FastMath.sqrt(t), terminal.stats.getStandardDeviation(), 0.002);
+        assertEquals(paths.stats.getMean(), terminal.stats.getMean(), 0.005);
+        assertEquals(paths.stats.getStandardDeviation(), terminal.stats.getStandardDeviation(), 0.005);
+    }
+
+    public void testQuasiSamplersSkipToOffset() throws Exception {
+        final OrnsteinUhlenbeckProcess process = new OrnsteinUhlenbeckProcess(0.0, 2.0, 1.0, 0.5);
+        final TerminalSampler1D first = new TerminalSampler1D(process, 10, 1.0);
+        for (int i = 0; i < 100; ++i)
+            first.next();
+
+        // a parallel worker starting at point 100 continues the sequence
+        final TerminalSampler1D second = new TerminalSampler1D(process, 10, 1.0, 100);
+        for (int i = 0; i < 1000; ++i)
+            assertEquals(first.next(), second.next(), 0.0);
+    }
+}
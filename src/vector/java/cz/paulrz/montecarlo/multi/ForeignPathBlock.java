@@ -0,0 +1,113 @@
+package cz.paulrz.montecarlo.multi;
+
+import jdk.incubator.foreign.MemoryAccess;
+import jdk.incubator.foreign.MemorySegment;
+import jdk.incubator.foreign.ResourceScope;
+
+/**
+ * Path block in native memory of the incubating Foreign Memory API. The
+ * memory belongs to a shared resource scope, so paths can be written and
+ * read by several threads, and is freed when the block is closed. The
+ * heap holds only this object regardless of the number of paths.
+ *
+ * Compiled with the <code>vector</code> Maven profile, selected through
+ * {@link PathBlocks}.
+ *
+ */
+public final class ForeignPathBlock implements PathBlock {
+    private final int paths;
+    private final int dim;
+    private final int length;
+    private final long pathSize;
+    private final double dt;
+    private final ResourceScope scope;
+    private final MemorySegment segment;
+
+    /**
+     * Constructor of off-heap block
+     *
+     * @param paths Number of paths
+     * @param dim Dimension of the process
+     * @param length Number of points of each path
+     * @param dt Time step
+     */
+    public ForeignPathBlock(int paths, int dim, int length, double dt) {
+        this.paths = paths;
+        this.dim = dim;
+        this.length = length;
+        this.dt = dt;
+        pathSize = (long) dim * length;
+        scope = ResourceScope.newSharedScope();
+        segment = MemorySegment.allocateNative(paths * pathSize * Double.BYTES, Double.BYTES, scope);
+    }
+
+    public int getPathCount() {
+        return paths;
+    }
+
+    public int getDimension() {
+        return dim;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public double getTimeStep() {
+        return dt;
+    }
+
+    public double getValue(int p, int i, int f) {
+        return MemoryAccess.getDoubleAtIndex(segment, p * pathSize + (long) i * dim + f);
+    }
+
+    public void setPoint(int p, int i, double[] x) {
+        final long offset = (p * pathSize + (long) i * dim) * Double.BYTES;
+        segment.asSlice(offset, (long) dim * Double.BYTES)
+                .copyFrom(MemorySegment.ofArray(x).asSlice(0, (long) dim * Double.BYTES));
+    }
+
+    public SegmentPath getPath(int p) {
+        return new SegmentPath(segment.asSlice(p * pathSize * Double.BYTES, pathSize * Double.BYTES));
+    }
+
+    public void close() {
+        scope.close();
+    }
+
+    /**
+     * Path as a slice of the block
+     */
+    public final class SegmentPath implements PathView {
+        private final MemorySegment path;
+
+        SegmentPath(MemorySegment path) {
+            this.path = path;
+        }
+
+        public int getDimension() {
+            return dim;
+        }
+
+        public int getLength() {
+            return length;
+        }
+
+        public double getTimeStep() {
+            return dt;
+        }
+
+        public double getValue(int i, int f) {
+            return MemoryAccess.getDoubleAtIndex(path, (long) i * dim + f);
+        }
+
+        /**
+         * Gets the slice, element i*dim + f is factor f at point i
+         *
+         * @return Segment of the path, no copy
+         */
+        public MemorySegment getSegment() {
+            return path;
+        }
+    }
+}
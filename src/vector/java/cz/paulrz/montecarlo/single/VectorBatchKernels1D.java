@@ -0,0 +1,117 @@
+package cz.paulrz.montecarlo.single;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import org.apache.commons.math.util.FastMath;
+
+/**
+ * Kernels using the incubating Vector API, one SIMD lane per path. The tail
+ * of the block that does not fill a whole vector is done by scalar code.
+ *
+ * Compiled with the <code>vector</code> Maven profile, selected through
+ * {@link BatchKernels}.
+ *
+ */
+public final class VectorBatchKernels1D implements BatchKernels1D {
+    private static final VectorSpecies<Double> species = DoubleVector.SPECIES_PREFERRED;
+
+    /** {@inheritDoc} */
+    public void gbm(double mudt, double sigmasdt, double[] x, double[] dw, double[] out, int count) {
+        final int bound = species.loopBound(count);
+        int p = 0;
+        for (; p < bound; p += species.length()) {
+            final DoubleVector xv = DoubleVector.fromArray(species, x, p);
+            final DoubleVector wv = DoubleVector.fromArray(species, dw, p);
+            // x * (1 + mudt + sigmasdt*dw)
+            wv.fma(sigmasdt, 1.0 + mudt).mul(xv).intoArray(out, p);
+        }
+        for (; p < count; ++p) {
+            final double xp = x[p];
+            out[p] = xp + mudt * xp + sigmasdt * xp * dw[p];
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void ou(double thetadt, double mu, double sigmasdt, double[] x, double[] dw, double[] out, int count) {
+        final int bound = species.loopBound(count);
+        final double a = 1.0 - thetadt;
+        final double b = thetadt * mu;
+        int p = 0;
+        for (; p < bound; p += species.length()) {
+            final DoubleVector xv = DoubleVector.fromArray(species, x, p);
+            final DoubleVector wv = DoubleVector.fromArray(species, dw, p);
+            // (1 - thetadt)*x + thetadt*mu + sigmasdt*dw
+            xv.fma(a, b).add(wv.mul(sigmasdt)).intoArray(out, p);
+        }
+        for (; p < count; ++p) {
+            final double xp = x[p];
+            out[p] = xp + thetadt * (mu - xp) + sigmasdt * dw[p];
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void logOu(double thetadt, double mu, double sigmasdt, double[] x, double[] dw, double[] out, int count) {
+        final int bound = species.loopBound(count);
+        final double a = 1.0 - thetadt;
+        final double b = thetadt * mu;
+        int p = 0;
+        for (; p < bound; p += species.length()) {
+            final DoubleVector xv = DoubleVector.fromArray(species, x, p);
+            final DoubleVector wv = DoubleVector.fromArray(species, dw, p);
+            // x*(1 - thetadt + sigmasdt*dw) + thetadt*mu
+            wv.fma(sigmasdt, a).fma(xv, DoubleVector.broadcast(species, b)).intoArray(out, p);
+        }
+        for (; p < count; ++p) {
+            final double xp = x[p];
+            out[p] = xp + thetadt * (mu - xp) + sigmasdt * xp * dw[p];
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void expOu(double thetadt, double driftdt, double sigmasdt, double[] x, double[] dw, double[] out, int count) {
+        final int bound = species.loopBound(count);
+        int p = 0;
+        for (; p < bound; p += species.length()) {
+            final DoubleVector xv = DoubleVector.fromArray(species, x, p);
+            final DoubleVector wv = DoubleVector.fromArray(species, dw, p);
+            // x * (1 + driftdt - thetadt*log(x) + sigmasdt*dw)
+            final DoubleVector logx = xv.lanewise(VectorOperators.LOG);
+            logx.fma(-thetadt, 1.0 + driftdt).add(wv.mul(sigmasdt)).mul(xv).intoArray(out, p);
+        }
+        for (; p < count; ++p) {
+            final double xp = x[p];
+            out[p] = xp + (driftdt - thetadt * FastMath.log(xp)) * xp + sigmasdt * xp * dw[p];
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void gbmExact(double driftdt, double sigmasdt, double[] x, double[] dw, double[] out, int count) {
+        final int bound = species.loopBound(count);
+        int p = 0;
+        for (; p < bound; p += species.length()) {
+            final DoubleVector xv = DoubleVector.fromArray(species, x, p);
+            final DoubleVector wv = DoubleVector.fromArray(species, dw, p);
+            // x * exp(driftdt + sigmasdt*dw)
+            wv.fma(sigmasdt, driftdt).lanewise(VectorOperators.EXP).mul(xv).intoArray(out, p);
+        }
+        for (; p < count; ++p)
+            out[p] = x[p] * FastMath.exp(driftdt + sigmasdt * dw[p]);
+    }
+
+    /** {@inheritDoc} */
+    public void expOuExact(double decay, double mu, double sd, double[] x, double[] dw, double[] out, int count) {
+        final int bound = species.loopBound(count);
+        final double b = mu * (1.0 - decay);
+        int p = 0;
+        for (; p < bound; p += species.length()) {
+            final DoubleVector xv = DoubleVector.fromArray(species, x, p);
+            final DoubleVector wv = DoubleVector.fromArray(species, dw, p);
+            // exp(decay*log(x) + mu*(1 - decay) + sd*dw)
+            final DoubleVector logx = xv.lanewise(VectorOperators.LOG);
+            logx.fma(decay, b).add(wv.mul(sd)).lanewise(VectorOperators.EXP).intoArray(out, p);
+        }
+        for (; p < count; ++p)
+            out[p] = FastMath.exp(mu + (FastMath.log(x[p]) - mu) * decay + sd * dw[p]);
+    }
+}